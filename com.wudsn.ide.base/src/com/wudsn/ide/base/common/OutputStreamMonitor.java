@@ -19,10 +19,23 @@
 
 package com.wudsn.ide.base.common;
 
-import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.wudsn.ide.base.BasePlugin;
 
@@ -31,11 +44,31 @@ import com.wudsn.ide.base.BasePlugin;
  * additions to the stream.
  * 
  * The output stream monitor reads system out (or err) via and input stream.
+ * The bytes are decoded with a {@link CharsetDecoder}, so multi-byte characters
+ * split across read buffers are decoded correctly. The contents are kept in
+ * chunks. If the contents exceed {@link #MAX_MEMORY_CHUNKS} chunks, the oldest
+ * chunks are moved to a temporary file, so the memory used is bounded even for
+ * very long logs.
  * 
  * @author Peter Dell
  */
 final class OutputStreamMonitor {
 
+	/**
+	 * The size of the read buffer
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * The number of characters per chunk.
+	 */
+	private static final int CHUNK_SIZE = 65536;
+
+	/**
+	 * The maximum number of chunks kept in memory.
+	 */
+	private static final int MAX_MEMORY_CHUNKS = 64;
+
 	/**
 	 * The stream being monitored (connected system out or err).
 	 */
@@ -50,20 +83,42 @@ final class OutputStreamMonitor {
 	 * The encoding of the stream to which the output is sent.
 	 */
 	private String outputStreamEncoding;
+
 	/**
-	 * The local copy of the stream contents
+	 * Guards the contents and "finished".
 	 */
-	private StringBuilder bufferedContent;
+	private final Object contentsLock;
 
 	/**
-	 * The thread which reads from the stream
+	 * The chunks of the contents which are in memory. Chunk
+	 * <code>firstMemoryChunk + i</code> of the contents is at index
+	 * <code>i</code>. All chunks are full except for the last one.
 	 */
-	private Thread thread;
+	private List<char[]> memoryChunks;
+	private int firstMemoryChunk;
 
 	/**
-	 * The size of the read buffer
+	 * The total number of characters of the contents.
 	 */
-	private static final int BUFFER_SIZE = 8192;
+	private long length;
+
+	/**
+	 * The temporary file which contains the chunks before the first chunk in
+	 * memory as UTF-16 characters, or <code>null</code>.
+	 */
+	private File spillFile;
+	private RandomAccessFile spillFileAccess;
+	private boolean spillFileFailed;
+
+	/**
+	 * Whether or not the end of the stream has been reached, guarded by "contentsLock".
+	 */
+	private boolean finished;
+
+	/**
+	 * The task which reads from the stream
+	 */
+	private Future<?> future;
 
 	/**
 	 * Whether or not this monitor has been killed. When the monitor is killed, it
@@ -88,23 +143,53 @@ final class OutputStreamMonitor {
 		if (outputStream == null) {
 			throw new IllegalArgumentException("Parameter 'outputStream' must not be null.");
 		}
-		this.inputStream = new BufferedInputStream(inputStream, BUFFER_SIZE);
+		this.inputStream = inputStream;
 		this.outputStreamEncoding = outputStreamEncoding;
 		this.outputStream = outputStream;
-		bufferedContent = new StringBuilder();
+		contentsLock = new Object();
+		memoryChunks = new ArrayList<char[]>();
 	}
 
 	/**
 	 * Causes the monitor to close all communications between it and the underlying
-	 * stream by waiting for the thread to terminate.
+	 * stream by waiting for the task to terminate.
 	 */
 	protected void close() {
-		if (this.thread != null) {
-			Thread thread = this.thread;
-			this.thread = null;
+		if (this.future != null) {
+			Future<?> future = this.future;
+			this.future = null;
 			try {
-				thread.join();
+				future.get();
 			} catch (InterruptedException ie) {
+			} catch (ExecutionException ex) {
+				BasePlugin.getInstance().logError("Cannot read from stream", null, ex.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Releases the contents and deletes the temporary file, if there is one.
+	 * Readers created before must not be used afterwards.
+	 * 
+	 * @since 1.7.2
+	 */
+	void dispose() {
+		synchronized (contentsLock) {
+			memoryChunks.clear();
+			firstMemoryChunk = 0;
+			length = 0;
+			if (spillFileAccess != null) {
+				try {
+					spillFileAccess.close();
+				} catch (IOException ex) {
+					BasePlugin.getInstance().logError("Cannot close temporary file '{0}'.",
+							new Object[] { spillFile.getPath() }, ex);
+				}
+				spillFileAccess = null;
+			}
+			if (spillFile != null) {
+				spillFile.delete();
+				spillFile = null;
 			}
 		}
 	}
@@ -115,9 +200,147 @@ final class OutputStreamMonitor {
 	 * @see org.eclipse.debug.core.model.IStreamMonitor#getContents()
 	 */
 	public String getContents() {
-		synchronized (bufferedContent) {
-			return bufferedContent.toString();
+		synchronized (contentsLock) {
+			StringBuilder builder = new StringBuilder((int) Math.min(length, Integer.MAX_VALUE));
+			char[] buffer = new char[CHUNK_SIZE];
+			long position = 0;
+			while (position < length) {
+				int count = read(position, buffer, 0, buffer.length);
+				builder.append(buffer, 0, count);
+				position += count;
+			}
+			return builder.toString();
+		}
+	}
+
+	/**
+	 * Creates a reader for the stream contents. The reader starts at the
+	 * beginning of the contents and blocks until further contents are available
+	 * or the end of the stream is reached. This allows to process the output
+	 * while the process is still running.
+	 * 
+	 * @return The reader, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public Reader createReader() {
+		return new Reader() {
+
+			private long position;
+
+			@Override
+			public int read(char[] buffer, int offset, int length) throws IOException {
+				if (length == 0) {
+					return 0;
+				}
+				synchronized (contentsLock) {
+					while (position == OutputStreamMonitor.this.length && !finished) {
+						try {
+							contentsLock.wait();
+						} catch (InterruptedException ex) {
+							throw new IOException("Interrupted while waiting for stream contents.");
+						}
+					}
+					if (position == OutputStreamMonitor.this.length) {
+						return -1;
+					}
+					int count = OutputStreamMonitor.this.read(position, buffer, offset, length);
+					position += count;
+					return count;
+				}
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	/**
+	 * Reads characters of the contents from a single chunk. Must be called while
+	 * holding "contentsLock".
+	 * 
+	 * @param position The position in the contents, less than the length of the
+	 *                 contents.
+	 * @param buffer   The buffer to read into, not <code>null</code>.
+	 * @param offset   The offset in the buffer.
+	 * @param count    The maximum number of characters to read, a positive
+	 *                 integer.
+	 * @return The number of characters read, a positive integer.
+	 */
+	private int read(long position, char[] buffer, int offset, int count) {
+		int chunk = (int) (position / CHUNK_SIZE);
+		int chunkOffset = (int) (position % CHUNK_SIZE);
+		count = (int) Math.min(count, Math.min(length - position, CHUNK_SIZE - chunkOffset));
+		if (chunk >= firstMemoryChunk) {
+			System.arraycopy(memoryChunks.get(chunk - firstMemoryChunk), chunkOffset, buffer, offset, count);
+			return count;
+		}
+
+		byte[] bytes = new byte[count * 2];
+		try {
+			spillFileAccess.seek(position * 2);
+			spillFileAccess.readFully(bytes);
+		} catch (IOException ex) {
+			throw new RuntimeException("Cannot read temporary file '" + spillFile.getPath() + "'.", ex);
+		}
+		ByteBuffer.wrap(bytes).asCharBuffer().get(buffer, offset, count);
+		return count;
+	}
+
+	/**
+	 * Appends characters to the contents and notifies the readers.
+	 * 
+	 * @param chars  The characters, not <code>null</code>.
+	 * @param offset The offset of the first character.
+	 * @param count  The number of characters.
+	 */
+	private void append(char[] chars, int offset, int count) {
+		synchronized (contentsLock) {
+			while (count > 0) {
+				int chunkOffset = (int) (length % CHUNK_SIZE);
+				if (length == (long) (firstMemoryChunk + memoryChunks.size()) * CHUNK_SIZE) {
+					if (memoryChunks.size() == MAX_MEMORY_CHUNKS) {
+						spillFirstMemoryChunk();
+					}
+					memoryChunks.add(new char[CHUNK_SIZE]);
+				}
+				char[] chunk = memoryChunks.get(memoryChunks.size() - 1);
+				int chunkCount = Math.min(count, CHUNK_SIZE - chunkOffset);
+				System.arraycopy(chars, offset, chunk, chunkOffset, chunkCount);
+				offset += chunkCount;
+				count -= chunkCount;
+				length += chunkCount;
+			}
+			contentsLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Moves the first chunk in memory to the temporary file. If the temporary
+	 * file cannot be written, all chunks remain in memory.
+	 */
+	private void spillFirstMemoryChunk() {
+		if (spillFileFailed) {
+			return;
+		}
+		try {
+			if (spillFile == null) {
+				spillFile = File.createTempFile("OutputStreamMonitor", ".tmp");
+				spillFile.deleteOnExit();
+				spillFileAccess = new RandomAccessFile(spillFile, "rw");
+			}
+			ByteBuffer byteBuffer = ByteBuffer.allocate(CHUNK_SIZE * 2);
+			byteBuffer.asCharBuffer().put(memoryChunks.get(0));
+			spillFileAccess.seek((long) firstMemoryChunk * CHUNK_SIZE * 2);
+			spillFileAccess.write(byteBuffer.array());
+		} catch (IOException ex) {
+			BasePlugin.getInstance().logError("Cannot write temporary file for stream contents.", null, ex);
+			spillFileFailed = true;
+			return;
 		}
+		memoryChunks.remove(0);
+		firstMemoryChunk++;
 	}
 
 	/**
@@ -128,27 +351,39 @@ final class OutputStreamMonitor {
 	 * publicly exposing a <code>run</code> method.
 	 */
 	void read() {
-		long lastSleep = System.currentTimeMillis();
-		byte[] bytes = new byte[8192];
+		try {
+			readStream();
+		} finally {
+			synchronized (contentsLock) {
+				finished = true;
+				contentsLock.notifyAll();
+			}
+		}
+	}
+
+	private void readStream() {
+		Charset charset;
+		if (outputStreamEncoding != null) {
+			charset = Charset.forName(outputStreamEncoding);
+		} else {
+			charset = Charset.defaultCharset();
+		}
+		CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+		CharBuffer charBuffer = CharBuffer.allocate(BUFFER_SIZE);
 		int read = 0;
 		while (read >= 0) {
 			try {
 				if (killed) {
 					break;
 				}
-				read = inputStream.read(bytes);
+				read = inputStream.read(byteBuffer.array(), byteBuffer.position(), byteBuffer.remaining());
 				if (read > 0) {
-					String text;
-					if (outputStreamEncoding != null) {
-						text = new String(bytes, 0, read, outputStreamEncoding);
-					} else {
-						text = new String(bytes, 0, read);
-					}
-					synchronized (bufferedContent) {
-						bufferedContent.append(text);
-						outputStream.print(text);
-						outputStream.flush();
-					}
+					byteBuffer.position(byteBuffer.position() + read);
+					byteBuffer.flip();
+					decode(decoder, byteBuffer, charBuffer, false);
+					byteBuffer.compact();
 				}
 			} catch (IOException ioe) {
 				if (!killed) {
@@ -158,22 +393,21 @@ final class OutputStreamMonitor {
 			} catch (NullPointerException ex) {
 				// killing the stream monitor while reading can cause an NPE
 				// when reading from the stream
-				if (!killed && this.thread != null) {
+				if (!killed && this.future != null) {
 					BasePlugin.getInstance().logError("Cannot read from stream", null, ex);
 				}
 				return;
 			}
+		}
 
-			long currentTime = System.currentTimeMillis();
-			if (currentTime - lastSleep > 1000) {
-				lastSleep = currentTime;
-				try {
-					Thread.sleep(100); // just give up CPU to maintain UI
-					// responsiveness.
-				} catch (InterruptedException e) {
-				}
-			}
+		// Decode the remaining bytes, incomplete characters are replaced.
+		byteBuffer.flip();
+		decode(decoder, byteBuffer, charBuffer, true);
+		while (decoder.flush(charBuffer) == CoderResult.OVERFLOW) {
+			appendDecoded(charBuffer);
 		}
+		appendDecoded(charBuffer);
+
 		try {
 			inputStream.close();
 		} catch (IOException ex) {
@@ -182,24 +416,55 @@ final class OutputStreamMonitor {
 
 	}
 
+	/**
+	 * Decodes the bytes from the byte buffer and appends the characters.
+	 * Incomplete characters at the end of the byte buffer remain in the byte
+	 * buffer unless it is the end of the input.
+	 */
+	private void decode(CharsetDecoder decoder, ByteBuffer byteBuffer, CharBuffer charBuffer, boolean endOfInput) {
+		while (decoder.decode(byteBuffer, charBuffer, endOfInput) == CoderResult.OVERFLOW) {
+			appendDecoded(charBuffer);
+		}
+		appendDecoded(charBuffer);
+	}
+
+	/**
+	 * Appends the decoded characters to the contents and sends them to the output
+	 * stream. Clears the character buffer.
+	 */
+	private void appendDecoded(CharBuffer charBuffer) {
+		charBuffer.flip();
+		if (charBuffer.hasRemaining()) {
+			char[] chars = charBuffer.array();
+			int count = charBuffer.remaining();
+			append(chars, 0, count);
+			outputStream.print(new String(chars, 0, count));
+			outputStream.flush();
+		}
+		charBuffer.clear();
+	}
+
 	protected void kill() {
 		killed = true;
 	}
 
 	/**
-	 * Starts a thread which reads from the stream
+	 * Starts a task which reads from the stream
+	 * 
+	 * @param executorService The executor service which runs the task, not
+	 *                        <code>null</code>.
 	 */
-	protected void startMonitoring() {
-		if (this.thread == null) {
-			this.thread = new Thread(new RunnableWithLogging() {
+	protected void startMonitoring(ExecutorService executorService) {
+		if (executorService == null) {
+			throw new IllegalArgumentException("Parameter 'executorService' must not be null.");
+		}
+		if (this.future == null) {
+			this.future = executorService.submit(new RunnableWithLogging() {
 				@Override
 				public void runWithLogging() {
 					read();
 				}
-			}, "OutputStreamMonitor");
+			});
 		}
-		this.thread.setDaemon(true);
-		this.thread.setPriority(Thread.MIN_PRIORITY);
-		this.thread.start();
 	}
 }
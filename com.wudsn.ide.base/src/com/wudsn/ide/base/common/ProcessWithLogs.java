@@ -22,7 +22,13 @@ package com.wudsn.ide.base.common;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 
 import com.wudsn.ide.base.BasePlugin;
@@ -30,17 +36,67 @@ import com.wudsn.ide.base.BasePlugin;
 /**
  * The process with logs is the inter-process interface to the executables. The
  * {@link System#out} and the {@link System#err} streams are captured into
- * strings.
+ * strings. When the process is started via
+ * {@link #start(PrintStream, PrintStream)}, the streams can also be read while
+ * the process is still running. Large logs are kept in temporary files until
+ * {@link #dispose()} is called or another process is started.
  * 
  * @author Peter Dell
  */
 public final class ProcessWithLogs {
 
+	/**
+	 * The shared executor for the watchdogs which destroy processes exceeding
+	 * their timeout. The thread terminates when no watchdog is scheduled.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static final ScheduledThreadPoolExecutor watchdogExecutor = createWatchdogExecutor();
+
 	private final String[] commandArray;
 	private final File workingDirectory;
 	private int exitValue;
 	private String outputLog;
 	private String errorLog;
+	private long timeoutMillis;
+	private volatile boolean timedOut;
+	private ScheduledFuture<?> watchdog;
+
+	/**
+	 * The monitors of the terminated process, from which the logs are created
+	 * when they are requested first.
+	 */
+	private OutputStreamMonitor outputStreamMonitor;
+	private OutputStreamMonitor errorStreamMonitor;
+
+	/**
+	 * The running process and the proxy for its streams, if the streams are
+	 * monitored.
+	 */
+	private volatile Process process;
+	private StreamsProxy streamsProxy;
+
+	/**
+	 * Measures the time from the creation to the termination of the started
+	 * process. Processes which are not monitored are not measured.
+	 */
+	private Profiler processProfiler;
+
+	private static ScheduledThreadPoolExecutor createWatchdogExecutor() {
+		ScheduledThreadPoolExecutor result = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "ProcessWithLogs-Watchdog");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		result.setKeepAliveTime(60, TimeUnit.SECONDS);
+		result.allowCoreThreadTimeOut(true);
+		result.setRemoveOnCancelPolicy(true);
+		return result;
+	}
 
 	public static final String[] getExecutableExtensions() {
 
@@ -92,6 +148,38 @@ public final class ProcessWithLogs {
 		errorLog = "";
 	}
 
+	/**
+	 * Sets the maximum duration of the process started via
+	 * {@link #start(PrintStream, PrintStream)}. If the process does not terminate
+	 * in time, it is destroyed by a watchdog, also while its output is still being
+	 * read.
+	 * 
+	 * @param timeoutMillis The timeout in milliseconds, a positive integer or
+	 *                      <code>0</code> to wait without timeout.
+	 * 
+	 * @since 1.7.2
+	 */
+	public void setTimeout(long timeoutMillis) {
+		if (timeoutMillis < 0) {
+			throw new IllegalArgumentException(
+					"Parameter 'timeoutMillis' must not be negative. Specified value is " + timeoutMillis + ".");
+		}
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	/**
+	 * Determines if the process was destroyed because it did not terminate within
+	 * the timeout.
+	 * 
+	 * @return <code>true</code> if the process timed out, <code>false</code>
+	 *         otherwise.
+	 * 
+	 * @since 1.7.2
+	 */
+	public boolean isTimedOut() {
+		return timedOut;
+	}
+
 	/**
 	 * Executes the compiler.
 	 * 
@@ -110,8 +198,182 @@ public final class ProcessWithLogs {
 		if (err == null) {
 			throw new IllegalArgumentException("Parameter 'err' must not be null.");
 		}
-		Process process = null;
+		if (wait) {
+			start(out, err);
+			waitFor(null);
+		} else {
+			createProcess();
+		}
+
+	}
+
+	/**
+	 * Starts the process and monitors its streams without waiting for the process
+	 * to terminate. Use {@link #getOutputLogReader()} and
+	 * {@link #getErrorLogReader()} to process the output while the process is
+	 * running and {@link #waitFor(IProgressMonitor)} to wait for its termination.
+	 * 
+	 * @param out The print stream for the output output, see {@link System#out} .
+	 * @param err The print stream for the error output, see {@link System#err}.
+	 * 
+	 * @throws IOException The the creation of the process fails.
+	 * 
+	 * @since 1.7.2
+	 */
+	public void start(PrintStream out, PrintStream err) throws IOException {
+
+		if (out == null) {
+			throw new IllegalArgumentException("Parameter 'out' must not be null.");
+		}
+		if (err == null) {
+			throw new IllegalArgumentException("Parameter 'err' must not be null.");
+		}
+		processProfiler = new Profiler(this);
+		processProfiler.begin("process", getCommandArrayString());
+		try {
+			createProcess();
+		} catch (IOException ex) {
+			processProfiler.end("process");
+			processProfiler = null;
+			throw ex;
+		}
+		String encoding = null;
+		streamsProxy = new StreamsProxy(process, encoding, out, err);
+		if (timeoutMillis > 0) {
+			final Process startedProcess = process;
+			watchdog = watchdogExecutor.schedule(new Runnable() {
+
+				@Override
+				public void run() {
+					if (startedProcess.isAlive()) {
+						timedOut = true;
+						startedProcess.destroy();
+					}
+				}
+			}, timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Gets a reader for the output log of the started process. The reader blocks
+	 * until further output is available and reaches its end when the process has
+	 * closed the stream.
+	 * 
+	 * @return The reader, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public Reader getOutputLogReader() {
+		if (streamsProxy == null) {
+			throw new IllegalStateException("Process was not started.");
+		}
+		return streamsProxy.getOutputStreamMonitor().createReader();
+	}
+
+	/**
+	 * Gets a reader for the error log of the started process. The reader blocks
+	 * until further output is available and reaches its end when the process has
+	 * closed the stream.
+	 * 
+	 * @return The reader, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public Reader getErrorLogReader() {
+		if (streamsProxy == null) {
+			throw new IllegalStateException("Process was not started.");
+		}
+		return streamsProxy.getErrorStreamMonitor().createReader();
+	}
+
+	/**
+	 * Waits for the started process to terminate and collects the output. If the
+	 * progress monitor is canceled, the process is destroyed. The timeout is
+	 * enforced by the watchdog started by {@link #start(PrintStream, PrintStream)}.
+	 * 
+	 * @param monitor The progress monitor or <code>null</code>.
+	 * 
+	 * @throws IOException If waiting is interrupted.
+	 * 
+	 * @since 1.7.2
+	 */
+	public void waitFor(IProgressMonitor monitor) throws IOException {
+		if (streamsProxy == null) {
+			throw new IllegalStateException("Process was not started.");
+		}
+		Profiler profiler = new Profiler(this);
+		try {
+			profiler.begin("waitFor");
+			if (monitor == null) {
+				process.waitFor();
+			} else {
+				while (!process.waitFor(100, TimeUnit.MILLISECONDS)) {
+					if (monitor.isCanceled()) {
+						process.destroy();
+					}
+				}
+			}
+		} catch (InterruptedException ex) {
+			BasePlugin.getInstance().logError("Process interrupted", null, ex);
+			throw new IOException(ex.getMessage());
+		} finally {
+			profiler.end("waitFor");
+			if (watchdog != null) {
+				watchdog.cancel(false);
+				watchdog = null;
+			}
+			process.destroy();
+			processProfiler.end("process");
+			processProfiler = null;
+		}
+
+		streamsProxy.close();
+		exitValue = process.exitValue();
+		outputLog = null;
+		errorLog = null;
+		outputStreamMonitor = streamsProxy.getOutputStreamMonitor();
+		errorStreamMonitor = streamsProxy.getErrorStreamMonitor();
+		streamsProxy = null;
+	}
+
+	/**
+	 * Destroys the running process, if there is one. Can be called from any
+	 * thread.
+	 * 
+	 * @since 1.7.2
+	 */
+	public void destroy() {
+		Process process = this.process;
+		if (process != null) {
+			process.destroy();
+		}
+	}
+
+	/**
+	 * Releases the captured logs of the terminated process. Afterwards the logs
+	 * are empty.
+	 * 
+	 * @since 1.7.2
+	 */
+	public void dispose() {
+		outputLog = "";
+		errorLog = "";
+		if (outputStreamMonitor != null) {
+			outputStreamMonitor.dispose();
+			outputStreamMonitor = null;
+		}
+		if (errorStreamMonitor != null) {
+			errorStreamMonitor.dispose();
+			errorStreamMonitor = null;
+		}
+	}
+
+	private void createProcess() throws IOException {
+		dispose();
+		process = null;
+		streamsProxy = null;
 		exitValue = 0;
+		timedOut = false;
 		outputLog = "";
 		errorLog = "";
 		Profiler profiler = new Profiler(this);
@@ -128,26 +390,6 @@ public final class ProcessWithLogs {
 		} finally {
 			profiler.end("exec");
 		}
-		if (wait) {
-			String encoding = null;
-			StreamsProxy streamsProxy = new StreamsProxy(process, encoding, out, err);
-			try {
-				profiler.begin("waitFor");
-				process.waitFor();
-			} catch (InterruptedException ex) {
-				BasePlugin.getInstance().logError("Process interrupted", null, ex);
-				throw new IOException(ex.getMessage());
-			} finally {
-				profiler.end("waitFor");
-				process.destroy();
-			}
-
-			streamsProxy.close();
-			exitValue = process.exitValue();
-			outputLog = streamsProxy.getOutputStreamMonitor().getContents();
-			errorLog = streamsProxy.getErrorStreamMonitor().getContents();
-		}
-
 	}
 
 	/**
@@ -191,6 +433,9 @@ public final class ProcessWithLogs {
 	 * @return The output log, maybe empty, not <code>null</code>.
 	 */
 	public String getOutputLog() {
+		if (outputLog == null) {
+			outputLog = outputStreamMonitor.getContents();
+		}
 		return outputLog;
 	}
 
@@ -200,6 +445,9 @@ public final class ProcessWithLogs {
 	 * @return The output log, maybe empty, not <code>null</code>.
 	 */
 	public String getErrorLog() {
+		if (errorLog == null) {
+			errorLog = errorStreamMonitor.getContents();
+		}
 		return errorLog;
 	}
 
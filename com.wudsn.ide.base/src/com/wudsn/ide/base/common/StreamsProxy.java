@@ -16,25 +16,61 @@
  * You should have received a copy of the GNU General Public License
  * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
  */
+
 package com.wudsn.ide.base.common;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.wudsn.ide.base.BasePlugin;
 
 /**
- * Wrapper around the input and output stream of a process. The stream a
- * redirected to the corresponding {@link InputStreamMonitor} and
- * {@link OutputStreamMonitor}
+ * Wrapper around the output streams of a process. The streams are redirected to
+ * the corresponding {@link OutputStreamMonitor}. The monitors of all processes
+ * run on a shared pool of daemon threads, so threads are reused instead of
+ * being created for every process. The input stream of the process is closed
+ * immediately, because no input is written to the processes.
  * 
  * @author Peter Dell
  */
 final class StreamsProxy {
 
+	/**
+	 * The shared pool for the monitors. Idle threads are reused and terminate
+	 * after 60 seconds.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static final ExecutorService executorService = Executors.newCachedThreadPool(new ThreadFactory() {
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "StreamsProxy-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
 	private OutputStreamMonitor outputMonitor;
 	private OutputStreamMonitor errorMonitor;
-	private InputStreamMonitor inputMonitor;
 	private boolean closed;
 
+	/**
+	 * Creates a new instance and starts monitoring the streams of the process.
+	 * 
+	 * @param process       The process, not <code>null</code>.
+	 * @param encoding      The stream encoding or <code>null</code> for system
+	 *                      default.
+	 * @param out           The print stream for the output output, not
+	 *                      <code>null</code>.
+	 * @param err           The print stream for the error output, not
+	 *                      <code>null</code>.
+	 */
 	public StreamsProxy(Process process, String encoding, PrintStream out, PrintStream err) {
 		if (process == null) {
 			throw new IllegalArgumentException("Parameter 'process' must not be null");
@@ -47,11 +83,13 @@ final class StreamsProxy {
 		}
 		outputMonitor = new OutputStreamMonitor(process.getInputStream(), encoding, out);
 		errorMonitor = new OutputStreamMonitor(process.getErrorStream(), encoding, err);
-		inputMonitor = new InputStreamMonitor(process.getOutputStream());
-		outputMonitor.startMonitoring();
-		errorMonitor.startMonitoring();
-		inputMonitor.startMonitoring();
-
+		outputMonitor.startMonitoring(executorService);
+		errorMonitor.startMonitoring(executorService);
+		try {
+			process.getOutputStream().close();
+		} catch (IOException ex) {
+			BasePlugin.getInstance().logError("Cannot close input stream of process.", null, ex);
+		}
 	}
 
 	public void close() {
@@ -59,7 +97,6 @@ final class StreamsProxy {
 			closed = true;
 			outputMonitor.close();
 			errorMonitor.close();
-			inputMonitor.close();
 		}
 	}
 
@@ -67,7 +104,6 @@ final class StreamsProxy {
 		closed = true;
 		outputMonitor.kill();
 		errorMonitor.kill();
-		inputMonitor.close();
 	}
 
 	public OutputStreamMonitor getErrorStreamMonitor() {
@@ -78,20 +114,4 @@ final class StreamsProxy {
 		return outputMonitor;
 	}
 
-	public void write(String input) throws IOException {
-		if (!closed) {
-			inputMonitor.write(input);
-		} else {
-			throw new IOException("StreamsProxy alsready closed");
-		}
-	}
-
-	public void closeInputStream() throws IOException {
-		if (!closed) {
-			inputMonitor.closeInputStream();
-		} else {
-			throw new IOException("StreamsProxy alsready closed");
-		}
-	}
-
 }
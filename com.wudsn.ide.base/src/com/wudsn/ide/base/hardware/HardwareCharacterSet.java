@@ -278,4 +278,58 @@ public enum HardwareCharacterSet {
 		return CharacterMapping.getInstance(this).characterMapping;
 	}
 
+	/**
+	 * Gets the byte value which represents an ASCII character in this character
+	 * set. Letters are mapped to the letters of the character set, independent of
+	 * their case, if the character set contains only one case.
+	 * 
+	 * @param character The ASCII character.
+	 * @return The byte value, an integer between 0 and 255 or <code>-1</code> if
+	 *         the character cannot be represented.
+	 * 
+	 * @since 1.7.2
+	 */
+	public int getByteValue(char character) {
+		if (character >= 0x80) {
+			return -1;
+		}
+		switch (this) {
+		case ASCII:
+		case ATARI_ATASCII:
+		case ATARI_INTERNATIONAL:
+			return character;
+
+		case ATARI_ATASCII_SCREEN_CODE:
+		case ATARI_INTERNATIONAL_SCREEN_CODE:
+			// Inverse of the screen code mapping.
+			if (character < 0x20) {
+				return character + 0x40;
+			} else if (character < 0x60) {
+				return character - 0x20;
+			}
+			return character;
+
+		case CBM_PETSCII_UPPER_CASE:
+			if (character >= 'a' && character <= 'z') {
+				return character - 0x20;
+			} else if (character >= 0x60) {
+				return -1;
+			}
+			return character;
+
+		case CBM_PETSCII_LOWER_CASE:
+			if (character >= 'a' && character <= 'z') {
+				return character - 0x20;
+			} else if (character >= 'A' && character <= 'Z') {
+				return character + 0x80;
+			} else if (character >= 0x60) {
+				return -1;
+			}
+			return character;
+
+		default:
+			throw new IllegalStateException("Unsupported character set " + this + ".");
+		}
+	}
+
 }
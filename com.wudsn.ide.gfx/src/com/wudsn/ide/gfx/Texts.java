@@ -21,6 +21,7 @@ package com.wudsn.ide.gfx;
 
 import org.eclipse.osgi.util.NLS;
 
+import com.wudsn.ide.gfx.converter.ConverterBatchJob;
 import com.wudsn.ide.gfx.editor.GraphicsConversionEditor;
 
 /**
@@ -78,6 +79,19 @@ public final class Texts extends NLS {
 
 	public static String CONVERTER_CONSOLE_TITLE;
 
+	/**
+	 * Texts for {@link ConverterBatchJob}.
+	 * 
+	 * @since 1.7.2
+	 */
+	public static String CONVERTER_BATCH_JOB_NAME;
+	public static String CONVERTER_BATCH_SOURCES_NOT_LOADED;
+	public static String CONVERTER_BATCH_CONSOLE_STARTED;
+	public static String CONVERTER_BATCH_CONSOLE_CONVERTED;
+	public static String CONVERTER_BATCH_CONSOLE_SKIPPED;
+	public static String CONVERTER_BATCH_CONSOLE_FAILED;
+	public static String CONVERTER_BATCH_CONSOLE_FINISHED;
+
 	public static String IMAGE_VIEW_ASPECT_LABEL;
 
 	public static String IMAGE_PALETTE_VIEW_EDIT_COLOR_ACTION_LABEL;
@@ -160,4 +160,25 @@ public abstract class Converter {
 	 *         pixels set), <code>false</code> if not.
 	 */
 	public abstract boolean convertToImageData(FilesConverterData data);
+
+	/**
+	 * Converts the image to files in the same way as the default script of the
+	 * converter, but without executing the script. The default script accesses
+	 * every pixel via the script engine, which is slow for large images. Called
+	 * by {@link ConverterDataLogic} instead of {@link ConverterScript} if the
+	 * script is the unchanged default script.
+	 * 
+	 * @param data The data, not <code>null</code>.
+	 * @return <code>true</code> if the files were converted, <code>false</code> if
+	 *         the converter has no Java implementation of its default script and
+	 *         the script must be executed.
+	 * 
+	 * @since 1.7.2
+	 */
+	public boolean convertToFileDataDefault(ImageConverterData data) {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+		return false;
+	}
 }
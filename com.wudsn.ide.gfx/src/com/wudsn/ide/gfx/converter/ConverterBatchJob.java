@@ -0,0 +1,285 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.gfx.converter;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.wudsn.ide.base.common.FileUtility;
+import com.wudsn.ide.base.common.MessageQueue;
+import com.wudsn.ide.base.common.NumberUtility;
+import com.wudsn.ide.base.common.TextUtility;
+import com.wudsn.ide.gfx.GraphicsPlugin;
+import com.wudsn.ide.gfx.Texts;
+import com.wudsn.ide.gfx.model.ConverterMode;
+
+/**
+ * Background job which converts a list of conversion files without opening
+ * them in an editor. The conversions run in parallel on a bounded number of
+ * worker threads. Each worker uses its own {@link ConverterDataLogic} and
+ * {@link ConverterData}. A conversion is skipped if its
+ * {@link ConverterInputFingerprint} is unchanged since the last successful
+ * conversion. The result and the duration of every conversion are printed to
+ * the {@link ConverterConsole}.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+public final class ConverterBatchJob extends Job {
+
+	/**
+	 * Persistent property of the conversion file which stores the fingerprint
+	 * taken after the last successful conversion.
+	 */
+	private static final QualifiedName INPUT_FINGERPRINT = new QualifiedName(GraphicsPlugin.ID, "InputFingerprint");
+
+	/**
+	 * Interval in milliseconds in which the progress monitor is checked for
+	 * cancellation while waiting for the workers.
+	 */
+	private static final long POLL_MILLIS = 100;
+
+	/**
+	 * The result state of a single conversion.
+	 */
+	private enum State {
+		CONVERTED, SKIPPED, FAILED, CANCELED
+	}
+
+	/**
+	 * The result of a single conversion.
+	 */
+	private static final class Result {
+		final IFile file;
+		final State state;
+		final long durationMillis;
+		final String message;
+
+		Result(IFile file, State state, long durationMillis, String message) {
+			this.file = file;
+			this.state = state;
+			this.durationMillis = durationMillis;
+			this.message = message;
+		}
+	}
+
+	private final List<IFile> files;
+
+	/**
+	 * Creates a new instance.
+	 * 
+	 * @param files The conversion files, may be empty, not <code>null</code>.
+	 */
+	public ConverterBatchJob(List<IFile> files) {
+		super(Texts.CONVERTER_BATCH_JOB_NAME);
+		if (files == null) {
+			throw new IllegalArgumentException("Parameter 'files' must not be null.");
+		}
+		this.files = new ArrayList<IFile>(files);
+		setUser(true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected IStatus run(final IProgressMonitor monitor) {
+		ConverterConsole converterConsole = GraphicsPlugin.getInstance().getConverterConsole();
+		int threadCount = Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+		converterConsole.println("");
+		converterConsole.println(TextUtility.format(Texts.CONVERTER_BATCH_CONSOLE_STARTED,
+				NumberUtility.getLongValueDecimalString(files.size()),
+				NumberUtility.getLongValueDecimalString(threadCount), new SimpleDateFormat().format(new Date())));
+
+		monitor.beginTask(getName(), files.size());
+		long startTimeMillis = System.currentTimeMillis();
+		int[] stateCounts = new int[State.values().length];
+		ExecutorService executorService = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+			private final AtomicInteger threadNumber = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, getName() + " " + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			CompletionService<Result> completionService = new ExecutorCompletionService<Result>(executorService);
+			for (final IFile file : files) {
+				completionService.submit(new Callable<Result>() {
+
+					@Override
+					public Result call() {
+						if (monitor.isCanceled()) {
+							return new Result(file, State.CANCELED, 0, null);
+						}
+						return convert(file);
+					}
+				});
+			}
+
+			// Conversions which are still running when the job is canceled are
+			// not waited for.
+			int pendingCount = files.size();
+			while (pendingCount > 0) {
+				Future<Result> future = completionService.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (future == null) {
+					if (monitor.isCanceled()) {
+						break;
+					}
+					continue;
+				}
+				pendingCount--;
+				Result result = getResult(future);
+				stateCounts[result.state.ordinal()]++;
+				print(converterConsole, result);
+				monitor.worked(1);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executorService.shutdownNow();
+			monitor.done();
+		}
+
+		long duration = System.currentTimeMillis() - startTimeMillis;
+		converterConsole.println(TextUtility.format(Texts.CONVERTER_BATCH_CONSOLE_FINISHED,
+				NumberUtility.getLongValueDecimalString(duration),
+				NumberUtility.getLongValueDecimalString(stateCounts[State.CONVERTED.ordinal()]),
+				NumberUtility.getLongValueDecimalString(stateCounts[State.SKIPPED.ordinal()]),
+				NumberUtility.getLongValueDecimalString(stateCounts[State.FAILED.ordinal()])));
+
+		if (monitor.isCanceled()) {
+			return Status.CANCEL_STATUS;
+		}
+		return Status.OK_STATUS;
+	}
+
+	private static Result getResult(Future<Result> future) throws InterruptedException {
+		try {
+			return future.get();
+		} catch (ExecutionException ex) {
+			throw new RuntimeException(ex.getCause());
+		}
+	}
+
+	/**
+	 * Converts a single conversion file and saves its targets, unless the
+	 * fingerprint of the conversion is unchanged. Called by the worker threads.
+	 * 
+	 * @param file The conversion file, not <code>null</code>.
+	 * @return The result, not <code>null</code>.
+	 */
+	private static Result convert(IFile file) {
+		long startTimeMillis = System.currentTimeMillis();
+		MessageQueue messageQueue = new MessageQueue();
+		ConverterDataLogic converterDataLogic = new ConverterDataLogic(messageQueue);
+		ConverterData data = converterDataLogic.createData();
+		data.setFile(file);
+		data.setConverterMode(ConverterMode.CNV);
+		try {
+			// The sources are only loaded if the conversion is not skipped.
+			byte[] content = FileUtility.readBytes(file, FileUtility.MAX_SIZE_UNLIMITED, false);
+			data.getParameters().read(file, content);
+			String inputFingerprint = ConverterInputFingerprint.createFromFiles(data, content).getValue(data);
+			if (inputFingerprint.equals(file.getPersistentProperty(INPUT_FINGERPRINT))) {
+				return new Result(file, State.SKIPPED, System.currentTimeMillis() - startTimeMillis, null);
+			}
+			file.setPersistentProperty(INPUT_FINGERPRINT, null);
+
+			if (converterDataLogic.loadSources(data, true)) {
+				// The inputs are taken from the loaded sources before
+				// converting. The modification stamps of the new target files
+				// are added after saving.
+				ConverterInputFingerprint fingerprint = ConverterInputFingerprint.createFromLoadedSources(data,
+						content);
+				converterDataLogic.saveTargets(data);
+				if (!messageQueue.containsError()) {
+					file.setPersistentProperty(INPUT_FINGERPRINT, fingerprint.getValue(data));
+				}
+			} else if (!messageQueue.containsError()) {
+				messageQueue.sendMessage(0, IStatus.ERROR, Texts.CONVERTER_BATCH_SOURCES_NOT_LOADED);
+			}
+		} catch (CoreException ex) {
+			messageQueue.sendMessage(0, ex);
+		} catch (RuntimeException ex) {
+			// Unexpected exceptions are logged, the other conversions continue.
+			GraphicsPlugin.getInstance().logError("Conversion of {0} failed",
+					new Object[] { file.getFullPath().toString() }, ex);
+			String message = ex.getMessage();
+			if (message == null) {
+				message = ex.getClass().getName();
+			}
+			messageQueue.sendMessage(0, IStatus.ERROR, message);
+		}
+
+		long duration = System.currentTimeMillis() - startTimeMillis;
+		for (MessageQueue.Entry entry : messageQueue.getEntries()) {
+			if (entry.getSeverity() == IStatus.ERROR) {
+				return new Result(file, State.FAILED, duration,
+						TextUtility.format(entry.getMessage(), entry.getParameters()));
+			}
+		}
+		return new Result(file, State.CONVERTED, duration, null);
+	}
+
+	private static void print(ConverterConsole converterConsole, Result result) {
+		String filePath = result.file.getFullPath().toString();
+		String duration = NumberUtility.getLongValueDecimalString(result.durationMillis);
+		switch (result.state) {
+		case CONVERTED:
+			converterConsole.println(TextUtility.format(Texts.CONVERTER_BATCH_CONSOLE_CONVERTED, filePath, duration));
+			break;
+		case SKIPPED:
+			converterConsole.println(TextUtility.format(Texts.CONVERTER_BATCH_CONSOLE_SKIPPED, filePath, duration));
+			break;
+		case FAILED:
+			converterConsole.println(
+					TextUtility.format(Texts.CONVERTER_BATCH_CONSOLE_FAILED, filePath, duration, result.message));
+			break;
+		case CANCELED:
+			break;
+		default:
+			throw new RuntimeException("Unknown state '" + result.state + "'.");
+		}
+	}
+}
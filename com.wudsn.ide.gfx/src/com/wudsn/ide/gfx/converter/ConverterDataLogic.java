@@ -219,7 +219,11 @@ public final class ConverterDataLogic {
 			filePathPrefix = imageConverterData.getFilePathPrefix();
 			IPath filePath = Path.fromPortableString(imageConverterData.getParameters().getImageFilePath());
 			filePath = IPathUtility.makeAbsolute(filePath, filePathPrefix, false);
-			ImageData imageData = loadSourceImage(ImageConverterParameters.MessageIds.IMAGE_FILE_PATH, filePath);
+			byte[] imageFileBytes = loadSourceImageFile(ImageConverterParameters.MessageIds.IMAGE_FILE_PATH,
+					filePath);
+			ImageData imageData = loadSourceImage(ImageConverterParameters.MessageIds.IMAGE_FILE_PATH,
+					imageFileBytes);
+			imageConverterData.setImageFileBytes(imageData != null ? imageFileBytes : null);
 			imageConverterData.setImageData(imageData);
 			if (imageData != null) {
 				// Remember last loaded state.
@@ -477,11 +481,23 @@ public final class ConverterDataLogic {
 		}
 	}
 
-	private ImageData loadSourceImage(int messageId, IPath filePath) {
+	/**
+	 * Loads the content of an image file. The content is kept, so the
+	 * {@link ConverterInputFingerprint} can be created from the same bytes as
+	 * the image data.
+	 * 
+	 * @param messageId The message id, see {@link ImageConverterParameters}.
+	 * @param filePath  The file path, may be empty, not <code>null</code>.
+	 * @return The content of the file or <code>null</code> if the file cannot
+	 *         be read.
+	 * 
+	 * @since 1.7.2
+	 */
+	private byte[] loadSourceImageFile(int messageId, IPath filePath) {
 		if (filePath == null) {
-			throw new IllegalArgumentException("Parameter 'fileSection' must not be null.");
+			throw new IllegalArgumentException("Parameter 'filePath' must not be null.");
 		}
-		ImageData imageData = null;
+		byte[] result = null;
 		if (!filePath.isEmpty()) {
 			IFile file = ResourcesPlugin.getWorkspace().getRoot().getFile(filePath);
 
@@ -496,12 +512,10 @@ public final class ConverterDataLogic {
 			if (is != null) {
 				try {
 					try {
-						imageData = new ImageData(is);
-
-					} catch (SWTException ex) {
+						result = is.readAllBytes();
+					} catch (IOException ex) {
 						messageQueue.sendMessage(messageId, IStatus.ERROR,
 								"Cannot open image file. " + ex.getMessage());
-
 					}
 				} finally {
 					try {
@@ -514,6 +528,20 @@ public final class ConverterDataLogic {
 			}
 
 		}
+		return result;
+	}
+
+	private ImageData loadSourceImage(int messageId, byte[] imageFileBytes) {
+		ImageData imageData = null;
+		if (imageFileBytes != null) {
+			try {
+				imageData = new ImageData(new ByteArrayInputStream(imageFileBytes));
+
+			} catch (SWTException ex) {
+				messageQueue.sendMessage(messageId, IStatus.ERROR, "Cannot open image file. " + ex.getMessage());
+
+			}
+		}
 		return imageData;
 	}
 
@@ -628,13 +656,17 @@ public final class ConverterDataLogic {
 
 		try {
 			// Apply default to conversion parameters.
+			String defaultScript = ConverterScript.getScript(converter.getClass());
 			if (imageConverterParameters.isUseDefaultScript()
 					|| StringUtility.isEmpty(imageConverterParameters.getScript())) {
-				String script = ConverterScript.getScript(converter.getClass());
-				imageConverterParameters.setScript(script);
+				imageConverterParameters.setScript(defaultScript);
 			}
 
-			ConverterScript.convertToFileData(converter, imageConverterData);
+			// Only scripts changed by the user are executed by the script engine.
+			if (!imageConverterParameters.getScript().equals(defaultScript)
+					|| !converter.convertToFileDataDefault(imageConverterData)) {
+				ConverterScript.convertToFileData(converter, imageConverterData);
+			}
 		} catch (CoreException ex) {
 			messageQueue.sendMessage(ConverterCommonParameters.MessageIds.CONVERTER_ID, ex);
 			return false;
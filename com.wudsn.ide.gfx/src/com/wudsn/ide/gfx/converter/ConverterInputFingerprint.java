@@ -0,0 +1,282 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.gfx.converter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+
+import com.wudsn.ide.base.common.FileUtility;
+import com.wudsn.ide.base.common.HexUtility;
+import com.wudsn.ide.base.common.IPathUtility;
+import com.wudsn.ide.gfx.GraphicsPlugin;
+
+/**
+ * Fingerprint of all inputs and outputs of a conversion. The fingerprint covers
+ * the version of the plugin, which contains the default converter scripts, the
+ * content of the conversion file, the content of all source files and the
+ * modification stamps of all target files. If the fingerprint is equal to the
+ * one taken after the last successful conversion, converting again yields the
+ * same target files.
+ * 
+ * The inputs are added when the instance is created. To record a conversion,
+ * the instance must be created from the loaded sources before converting, so
+ * sources which are changed during the conversion are not recorded as
+ * converted. The modification stamps of the target files are added by
+ * {@link #getValue(ConverterData)}.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class ConverterInputFingerprint {
+
+	/**
+	 * The digest algorithm.
+	 */
+	private static final String ALGORITHM = "SHA-256";
+
+	private final MessageDigest messageDigest;
+
+	/**
+	 * Creation is private.
+	 * 
+	 * @param conversionFileContent The content of the conversion file, not
+	 *                              <code>null</code>.
+	 */
+	private ConverterInputFingerprint(byte[] conversionFileContent) {
+		try {
+			messageDigest = MessageDigest.getInstance(ALGORITHM);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new RuntimeException("Message digest '" + ALGORITHM + "' is not available.", ex);
+		}
+		update(GraphicsPlugin.getInstance().getBundle().getVersion().toString());
+		update(Integer.toString(conversionFileContent.length));
+		messageDigest.update(conversionFileContent);
+	}
+
+	/**
+	 * Creates the fingerprint for the current content of the source files.
+	 * 
+	 * @param data                  The converter data with the parameters read
+	 *                              from its file, not <code>null</code>.
+	 * @param conversionFileContent The content from which the parameters were
+	 *                              read, not <code>null</code>.
+	 * @return The fingerprint, not <code>null</code>.
+	 * 
+	 * @throws CoreException If one of the existing source files cannot be read.
+	 */
+	static ConverterInputFingerprint createFromFiles(ConverterData data, byte[] conversionFileContent)
+			throws CoreException {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+		if (conversionFileContent == null) {
+			throw new IllegalArgumentException("Parameter 'conversionFileContent' must not be null.");
+		}
+
+		ConverterInputFingerprint result = new ConverterInputFingerprint(conversionFileContent);
+		for (IFile file : getSourceFiles(data)) {
+			byte[] content = null;
+			if (file != null && file.exists()) {
+				content = FileUtility.readBytes(file, FileUtility.MAX_SIZE_UNLIMITED, false);
+			}
+			result.update(file, content);
+		}
+		return result;
+	}
+
+	/**
+	 * Creates the fingerprint for the content of the source files which has been
+	 * loaded via {@link ConverterDataLogic#loadSources(ConverterData, boolean)}.
+	 * 
+	 * @param data                  The converter data with the loaded sources,
+	 *                              not <code>null</code>.
+	 * @param conversionFileContent The content from which the parameters were
+	 *                              read, not <code>null</code>.
+	 * @return The fingerprint, not <code>null</code>.
+	 */
+	static ConverterInputFingerprint createFromLoadedSources(ConverterData data, byte[] conversionFileContent) {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+		if (conversionFileContent == null) {
+			throw new IllegalArgumentException("Parameter 'conversionFileContent' must not be null.");
+		}
+
+		ConverterInputFingerprint result = new ConverterInputFingerprint(conversionFileContent);
+		IFile[] files = getSourceFiles(data);
+		switch (data.getParameters().getConverterDirection()) {
+		case FILES_TO_IMAGE:
+			FilesConverterData filesConverterData = data.getFilesConverterData();
+			FilesConverterParameters filesConverterParameters = filesConverterData.getParameters();
+			for (int i = 0; i < files.length; i++) {
+				int sourceFileId = filesConverterParameters.getSourceFile(i).getId();
+				result.update(files[i], filesConverterData.getSourceFileBytes(sourceFileId));
+			}
+			break;
+		case IMAGE_TO_FILES:
+			result.update(files[0], data.getImageConverterData().getImageFileBytes());
+			break;
+		default:
+			throw new RuntimeException(
+					"Unknown converter direction '" + data.getParameters().getConverterDirection() + "'.");
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the value of the fingerprint including the current modification
+	 * stamps of the target files. The instance is not modified, so the method
+	 * can be called more than once.
+	 * 
+	 * @param data The converter data, not <code>null</code>.
+	 * @return The fingerprint as hex string, not empty and not <code>null</code>.
+	 */
+	String getValue(ConverterData data) {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+
+		MessageDigest targetMessageDigest;
+		try {
+			targetMessageDigest = (MessageDigest) messageDigest.clone();
+		} catch (CloneNotSupportedException ex) {
+			throw new RuntimeException("Message digest '" + ALGORITHM + "' cannot be cloned.", ex);
+		}
+
+		ConverterParameters parameters = data.getParameters();
+		IPath filePathPrefix = data.getFilePathPrefix();
+		switch (parameters.getConverterDirection()) {
+		case FILES_TO_IMAGE:
+			updateTarget(targetMessageDigest,
+					getFile(parameters.getFilesConverterParameters().getImageFilePath(), filePathPrefix));
+			break;
+		case IMAGE_TO_FILES:
+			ImageConverterParameters imageConverterParameters = parameters.getImageConverterParameters();
+			for (int i = 0; i < imageConverterParameters.getTargetFilesSize(); i++) {
+				String filePath = imageConverterParameters.getTargetFile(i).getPath();
+				updateTarget(targetMessageDigest, getFile(filePath, filePathPrefix));
+			}
+			break;
+		default:
+			throw new RuntimeException("Unknown converter direction '" + parameters.getConverterDirection() + "'.");
+		}
+
+		byte[] digest = targetMessageDigest.digest();
+		StringBuilder builder = new StringBuilder(digest.length * 2);
+		for (byte b : digest) {
+			builder.append(HexUtility.getByteValueHexString(b & 0xff));
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Gets the source files of a conversion.
+	 * 
+	 * @param data The converter data, not <code>null</code>.
+	 * @return The source files, may contain <code>null</code>, not
+	 *         <code>null</code>.
+	 */
+	private static IFile[] getSourceFiles(ConverterData data) {
+		ConverterParameters parameters = data.getParameters();
+		IPath filePathPrefix = data.getFilePathPrefix();
+		switch (parameters.getConverterDirection()) {
+		case FILES_TO_IMAGE:
+			FilesConverterParameters filesConverterParameters = parameters.getFilesConverterParameters();
+			IFile[] result = new IFile[filesConverterParameters.getSourceFilesSize()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = getFile(filesConverterParameters.getSourceFile(i).getPath(), filePathPrefix);
+			}
+			return result;
+		case IMAGE_TO_FILES:
+			return new IFile[] {
+					getFile(parameters.getImageConverterParameters().getImageFilePath(), filePathPrefix) };
+		default:
+			throw new RuntimeException("Unknown converter direction '" + parameters.getConverterDirection() + "'.");
+		}
+	}
+
+	/**
+	 * Gets the workspace file for a file path in the same way as
+	 * {@link ConverterDataLogic} resolves it.
+	 * 
+	 * @param filePath       The portable file path, may be empty, not
+	 *                       <code>null</code>.
+	 * @param filePathPrefix The file path prefix, not <code>null</code>.
+	 * @return The file or <code>null</code> if the path does not denote a file.
+	 */
+	private static IFile getFile(String filePath, IPath filePathPrefix) {
+		IPath path = IPathUtility.makeAbsolute(Path.fromPortableString(filePath), filePathPrefix, false);
+		if (path.segmentCount() < 2) {
+			return null;
+		}
+		IWorkspaceRoot workspaceRoot = ResourcesPlugin.getWorkspace().getRoot();
+		return workspaceRoot.getFile(path);
+	}
+
+	private void update(String value) {
+		update(messageDigest, value);
+	}
+
+	private static void update(MessageDigest messageDigest, String value) {
+		messageDigest.update(value.getBytes(StandardCharsets.UTF_8));
+		messageDigest.update((byte) 0);
+	}
+
+	/**
+	 * Adds the path and the content of a source file to the digest.
+	 * 
+	 * @param file    The file or <code>null</code>.
+	 * @param content The content of the file or <code>null</code> if it does not
+	 *                exist.
+	 */
+	private void update(IFile file, byte[] content) {
+		if (file == null || content == null) {
+			update("-");
+			return;
+		}
+		update(file.getFullPath().toPortableString());
+		update(Integer.toString(content.length));
+		messageDigest.update(content);
+	}
+
+	/**
+	 * Adds the path and the modification stamp of a target file to a digest.
+	 * 
+	 * @param messageDigest The message digest, not <code>null</code>.
+	 * @param file          The file or <code>null</code>.
+	 */
+	private static void updateTarget(MessageDigest messageDigest, IFile file) {
+		if (file == null || !file.exists()) {
+			update(messageDigest, "-");
+			return;
+		}
+		update(messageDigest, file.getFullPath().toPortableString());
+		update(messageDigest, Long.toString(file.getModificationStamp()));
+	}
+}
@@ -214,8 +214,27 @@ public final class ConverterParameters {
 			throw new IllegalArgumentException("Parameter 'file' must not be null.");
 		}
 
-		byte[] content;
-		content = FileUtility.readBytes(file, FileUtility.MAX_SIZE_UNLIMITED, false);
+		read(file, FileUtility.readBytes(file, FileUtility.MAX_SIZE_UNLIMITED, false));
+	}
+
+	/**
+	 * Reads the parameters from the content of a file.
+	 * 
+	 * @param file    The file, not <code>null</code>.
+	 * @param content The content of the file, not <code>null</code>.
+	 * 
+	 * @throws CoreException If the content cannot be read.
+	 * 
+	 * @since 1.7.2
+	 */
+	public void read(IFile file, byte[] content) throws CoreException {
+		if (file == null) {
+			throw new IllegalArgumentException("Parameter 'file' must not be null.");
+		}
+		if (content == null) {
+			throw new IllegalArgumentException("Parameter 'content' must not be null.");
+		}
+
 		SequencedProperties properties = new SequencedProperties();
 
 		try {
@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ *
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.gfx.converter;
+
+import static com.wudsn.ide.base.common.Assertions.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+import com.wudsn.ide.base.common.Test;
+import com.wudsn.ide.base.common.TestMethod;
+import com.wudsn.ide.gfx.GraphicsPlugin;
+import com.wudsn.ide.gfx.model.ConverterDirection;
+
+/**
+ * Compares the Java implementations of the default scripts in
+ * {@link Converter#convertToFileDataDefault(ImageConverterData)} with the
+ * execution of the default scripts via {@link ConverterScript}. Every image to
+ * files converter is run on random images of different sizes and color depths.
+ * The target files bytes and the error outcome must be identical. Afterwards
+ * the duration of both variants is measured on a large image.
+ *
+ * @author Peter Dell
+ *
+ * @since 1.7.2
+ */
+public final class ConverterScriptTest {
+
+	/**
+	 * Image sizes for the equivalence test, including odd sizes.
+	 */
+	private static final int[][] SIZES = { { 1, 1 }, { 3, 5 }, { 8, 8 }, { 9, 7 }, { 40, 24 }, { 41, 25 },
+			{ 160, 96 }, { 320, 256 } };
+
+	/**
+	 * Color depths for the equivalence test.
+	 */
+	private static final int[] DEPTHS = { 1, 2, 4, 8, 24 };
+
+	/**
+	 * Image size for the benchmark.
+	 */
+	private static final int BENCHMARK_WIDTH = 2560;
+	private static final int BENCHMARK_HEIGHT = 2048;
+	private static final int BENCHMARK_RUNS = 5;
+
+	/**
+	 * The outcome of a single conversion.
+	 */
+	private static final class Result {
+		final byte[][] targetFilesBytes;
+		final String errorMessage;
+
+		Result(ImageConverterData data, String errorMessage) {
+			targetFilesBytes = new byte[ConverterRegistry.MAX_TARGET_FILES][];
+			for (int i = 0; i < targetFilesBytes.length; i++) {
+				targetFilesBytes[i] = data.getTargetFileBytes(i);
+			}
+			this.errorMessage = errorMessage;
+		}
+
+		boolean isEquivalent(Result other) {
+			if ((errorMessage == null) != (other.errorMessage == null)) {
+				return false;
+			}
+			// The target files are undefined after an error.
+			if (errorMessage != null) {
+				return true;
+			}
+			return Arrays.deepEquals(targetFilesBytes, other.targetFilesBytes);
+		}
+	}
+
+	/**
+	 * Creation is private.
+	 */
+	private ConverterScriptTest() {
+	}
+
+	@TestMethod
+	public static void main(String[] args) {
+		ConverterRegistry converterRegistry = GraphicsPlugin.getInstance().getConverterRegistry();
+		Random random = new Random(0);
+		int comparisonCount = 0;
+		StringBuilder failures = new StringBuilder();
+
+		for (ConverterDefinition converterDefinition : converterRegistry
+				.getDefinitions(ConverterDirection.IMAGE_TO_FILES)) {
+			String converterId = converterDefinition.getId();
+			Converter converter = converterRegistry.getConverter(converterId);
+			String script = getScript(converter);
+			ImageConverterData data = createData(converterId, script);
+
+			// Converters without Java implementation are not compared.
+			data.setImageData(createImageData(random, 8, 8, 1));
+			if (!isConvertedJava(converter, data)) {
+				Test.log("Converter " + converterId + ": No Java implementation of the default script");
+				continue;
+			}
+
+			for (int[] size : SIZES) {
+				for (int depth : DEPTHS) {
+					ImageData imageData = createImageData(random, size[0], size[1], depth);
+					data.setImageData(imageData);
+					Result javaResult = convertJava(converter, data);
+					Result scriptResult = convertScript(converter, data);
+					comparisonCount++;
+					if (!javaResult.isEquivalent(scriptResult)) {
+						failures.append("Converter " + converterId + ", image " + size[0] + "x" + size[1]
+								+ ", depth " + depth + ": Java error '" + javaResult.errorMessage
+								+ "', script error '" + scriptResult.errorMessage + "'\n");
+					}
+				}
+			}
+
+			// Best of several runs, the first script run includes the
+			// compilation of the script.
+			data.setImageData(createImageData(random, BENCHMARK_WIDTH, BENCHMARK_HEIGHT, 8));
+			long javaNanos = Long.MAX_VALUE;
+			long scriptNanos = Long.MAX_VALUE;
+			for (int i = 0; i < BENCHMARK_RUNS; i++) {
+				long startNanos = System.nanoTime();
+				convertJava(converter, data);
+				javaNanos = Math.min(javaNanos, System.nanoTime() - startNanos);
+				startNanos = System.nanoTime();
+				convertScript(converter, data);
+				scriptNanos = Math.min(scriptNanos, System.nanoTime() - startNanos);
+			}
+			Test.log("Converter " + converterId + ": " + BENCHMARK_WIDTH + "x" + BENCHMARK_HEIGHT + " pixels in "
+					+ javaNanos / 1000 + " us in Java and " + scriptNanos / 1000 + " us with the script");
+		}
+
+		Test.log(comparisonCount + " conversions compared");
+		if (failures.length() > 0) {
+			fail(failures.toString());
+		}
+	}
+
+	private static String getScript(Converter converter) {
+		try {
+			return ConverterScript.getScript(converter.getClass());
+		} catch (CoreException ex) {
+			fail(ex);
+			return null;
+		}
+	}
+
+	private static ImageConverterData createData(String converterId, String script) {
+		ConverterData converterData = new ConverterData();
+		ImageConverterData data = converterData.getImageConverterData();
+		ImageConverterParameters parameters = data.getParameters();
+		parameters.setConverterId(converterId);
+		parameters.setUseDefaultScript(true);
+		parameters.setScript(script);
+		return data;
+	}
+
+	private static ImageData createImageData(Random random, int width, int height, int depth) {
+		PaletteData palette;
+		if (depth > 8) {
+			palette = new PaletteData(0xff0000, 0x00ff00, 0x0000ff);
+		} else {
+			RGB[] rgbs = new RGB[1 << depth];
+			for (int i = 0; i < rgbs.length; i++) {
+				rgbs[i] = new RGB(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+			}
+			palette = new PaletteData(rgbs);
+		}
+		ImageData imageData = new ImageData(width, height, depth, palette);
+		int colorMask = depth > 8 ? 0xffffff : (1 << depth) - 1;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				imageData.setPixel(x, y, random.nextInt() & colorMask);
+			}
+		}
+		return imageData;
+	}
+
+	private static boolean isConvertedJava(Converter converter, ImageConverterData data) {
+		prepare(data);
+		try {
+			return converter.convertToFileDataDefault(data);
+		} catch (RuntimeException ex) {
+			// The Java implementation exists, but the image is not suitable.
+			return true;
+		}
+	}
+
+	private static Result convertJava(Converter converter, ImageConverterData data) {
+		prepare(data);
+		try {
+			converter.convertToFileDataDefault(data);
+		} catch (RuntimeException ex) {
+			return new Result(data, String.valueOf(ex.getMessage()));
+		}
+		return new Result(data, null);
+	}
+
+	private static Result convertScript(Converter converter, ImageConverterData data) {
+		prepare(data);
+		try {
+			ConverterScript.convertToFileData(converter, data);
+		} catch (CoreException ex) {
+			return new Result(data, String.valueOf(ex.getMessage()));
+		}
+		return new Result(data, null);
+	}
+
+	private static void prepare(ImageConverterData data) {
+		ImageData imageData = data.getImageData();
+		data.setImageDataWidth(imageData.width);
+		data.setImageDataHeight(imageData.height);
+		data.clearTargetFileBytes();
+	}
+}
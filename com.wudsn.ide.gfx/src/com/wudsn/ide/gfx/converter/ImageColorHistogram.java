@@ -21,7 +21,6 @@ package com.wudsn.ide.gfx.converter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.TreeMap;
 
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.PaletteData;
@@ -42,7 +41,7 @@ public final class ImageColorHistogram {
 	private int pixelCount;
 	private List<Integer> pixelColors;
 	private List<Integer> usedPixelColors;
-	private TreeMap<Integer, Integer> pixelColorCounts;
+	private PixelColorCounts pixelColorCounts;
 
 	/**
 	 * Created by {@link ImageConverterData}.
@@ -50,7 +49,7 @@ public final class ImageColorHistogram {
 	ImageColorHistogram() {
 		pixelColors = Collections.emptyList();
 		usedPixelColors = Collections.emptyList();
-		pixelColorCounts = new TreeMap<Integer, Integer>();
+		pixelColorCounts = new PixelColorCounts();
 	}
 
 	/**
@@ -87,22 +86,23 @@ public final class ImageColorHistogram {
 				}
 				pixelColors = Collections.unmodifiableList(pixelColors);
 			}
+			// Read the pixels line by line instead of pixel by pixel.
+			int[] linePixels = new int[imageData.width];
 			for (int y = 0; y < imageData.height; y++) {
-				for (int x = 0; x < imageData.width; x++) {
-					Integer pixelColor = NumberFactory.getInteger(imageData.getPixel(x, y));
-					Integer pixelColorCount = pixelColorCounts.get(pixelColor);
-					if (pixelColorCount == null) {
-						pixelColorCount = NumberFactory.getInteger(1);
-					} else {
-						pixelColorCount = NumberFactory.getInteger(pixelColorCount.intValue() + 1);
-					}
-					pixelColorCounts.put(pixelColor, pixelColorCount);
+				imageData.getPixels(0, y, linePixels.length, linePixels, 0);
+				for (int x = 0; x < linePixels.length; x++) {
+					pixelColorCounts.increment(linePixels[x]);
 				}
 			}
 		} else {
 			pixelColors = Collections.emptyList();
 		}
-		usedPixelColors = Collections.unmodifiableList(new ArrayList<Integer>(pixelColorCounts.keySet()));
+		int[] usedPixelColorArray = pixelColorCounts.getPixelColors();
+		List<Integer> usedPixelColorList = new ArrayList<Integer>(usedPixelColorArray.length);
+		for (int pixelColor : usedPixelColorArray) {
+			usedPixelColorList.add(NumberFactory.getInteger(pixelColor));
+		}
+		usedPixelColors = Collections.unmodifiableList(usedPixelColorList);
 	}
 
 	public boolean isDirectPalette() {
@@ -178,11 +178,7 @@ public final class ImageColorHistogram {
 		if (pixelColor == null) {
 			throw new IllegalArgumentException("Parameter 'pixelColor' must not be null.");
 		}
-		Integer count = pixelColorCounts.get(pixelColor);
-		if (count == null) {
-			return 0;
-		}
-		return count.intValue();
+		return pixelColorCounts.get(pixelColor.intValue());
 
 	}
 
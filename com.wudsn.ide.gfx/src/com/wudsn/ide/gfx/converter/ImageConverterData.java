@@ -37,6 +37,7 @@ public final class ImageConverterData extends ConverterCommonData {
 	private transient ConverterScriptData converterScriptData;
 	private transient ImageData targetImageData;
 	private transient List<byte[]> targetFilesBytes;
+	private transient byte[] imageFileBytes;
 
 	ImageConverterData(ConverterData converterData) {
 		super(converterData);
@@ -94,9 +95,32 @@ public final class ImageConverterData extends ConverterCommonData {
 	@Override
 	public void clear() {
 		super.clear();
+		imageFileBytes = null;
 		clearTargetFileBytes();
 	}
 
+	/**
+	 * Sets the content of the image file from which the image data was loaded.
+	 * 
+	 * @param imageFileBytes The content of the image file or <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void setImageFileBytes(byte[] imageFileBytes) {
+		this.imageFileBytes = imageFileBytes;
+	}
+
+	/**
+	 * Gets the content of the image file from which the image data was loaded.
+	 * 
+	 * @return The content of the image file or <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final byte[] getImageFileBytes() {
+		return imageFileBytes;
+	}
+
 	/**
 	 * Gets the pixel color value for a given position. There must be an instance of
 	 * image data set.
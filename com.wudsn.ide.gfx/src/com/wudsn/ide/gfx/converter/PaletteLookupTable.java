@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.gfx.converter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lookup table for finding the palette index with the smallest RGB distance to
+ * an RGB value. The RGB cube is divided into cells. For each cell, the table
+ * contains all palette indices which can be the nearest one for any RGB value
+ * in the cell. A lookup therefore only compares a few candidates instead of the
+ * complete palette and still returns the same index as a linear search.
+ * 
+ * Instances are immutable and shared for all palettes with the same content.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class PaletteLookupTable {
+
+	/**
+	 * Number of bits per channel used for the cell index.
+	 */
+	private static final int CELL_BITS = 5;
+	private static final int CELL_SHIFT = 8 - CELL_BITS;
+	private static final int CELL_SIZE = 1 << CELL_SHIFT;
+	private static final int CELLS_PER_CHANNEL = 1 << CELL_BITS;
+
+	private static final Map<Key, PaletteLookupTable> instances = new HashMap<Key, PaletteLookupTable>();
+
+	private final int[] palette_r;
+	private final int[] palette_g;
+	private final int[] palette_b;
+
+	// The candidates of cell i are in cellPaletteIndices from cellStarts[i] to
+	// cellStarts[i+1]-1, in ascending order.
+	private final int[] cellStarts;
+	private final int[] cellPaletteIndices;
+
+	/**
+	 * Key for palettes with the same content.
+	 */
+	private static final class Key {
+		private final int[] palette_r;
+		private final int[] palette_g;
+		private final int[] palette_b;
+
+		Key(int[] palette_r, int[] palette_g, int[] palette_b) {
+			this.palette_r = palette_r;
+			this.palette_g = palette_g;
+			this.palette_b = palette_b;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) object;
+			return Arrays.equals(palette_r, other.palette_r) && Arrays.equals(palette_g, other.palette_g)
+					&& Arrays.equals(palette_b, other.palette_b);
+		}
+
+		@Override
+		public int hashCode() {
+			return (Arrays.hashCode(palette_r) * 31 + Arrays.hashCode(palette_g)) * 31
+					+ Arrays.hashCode(palette_b);
+		}
+	}
+
+	/**
+	 * Gets the lookup table for a palette. The lookup table is created only once
+	 * for each distinct palette content.
+	 * 
+	 * @param palette_r The red values of the palette, not <code>null</code>.
+	 * @param palette_g The green values of the palette, same length, not
+	 *                  <code>null</code>.
+	 * @param palette_b The blue values of the palette, same length, not
+	 *                  <code>null</code>.
+	 * @return The lookup table, not <code>null</code>.
+	 */
+	static PaletteLookupTable getInstance(int[] palette_r, int[] palette_g, int[] palette_b) {
+		if (palette_r == null) {
+			throw new IllegalArgumentException("Parameter 'palette_r' must not be null.");
+		}
+		if (palette_g == null) {
+			throw new IllegalArgumentException("Parameter 'palette_g' must not be null.");
+		}
+		if (palette_b == null) {
+			throw new IllegalArgumentException("Parameter 'palette_b' must not be null.");
+		}
+		Key key = new Key(palette_r.clone(), palette_g.clone(), palette_b.clone());
+		synchronized (instances) {
+			PaletteLookupTable result = instances.get(key);
+			if (result == null) {
+				result = new PaletteLookupTable(key.palette_r, key.palette_g, key.palette_b);
+				instances.put(key, result);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Creation is private.
+	 */
+	private PaletteLookupTable(int[] palette_r, int[] palette_g, int[] palette_b) {
+		this.palette_r = palette_r;
+		this.palette_g = palette_g;
+		this.palette_b = palette_b;
+
+		int paletteSize = palette_r.length;
+		int cellCount = CELLS_PER_CHANNEL * CELLS_PER_CHANNEL * CELLS_PER_CHANNEL;
+		cellStarts = new int[cellCount + 1];
+		int[] indices = new int[cellCount * 4];
+		int[] minDistances = new int[paletteSize];
+		int count = 0;
+		int cell = 0;
+		for (int r = 0; r < 256; r += CELL_SIZE) {
+			for (int g = 0; g < 256; g += CELL_SIZE) {
+				for (int b = 0; b < 256; b += CELL_SIZE) {
+
+					// Every RGB value in the cell has at most the distance
+					// "bound" to the palette index with the smallest maximum
+					// distance. So only indices with a smaller minimum
+					// distance can be the nearest one.
+					int bound = Integer.MAX_VALUE;
+					for (int m = 0; m < paletteSize; m++) {
+						minDistances[m] = getMinDistance(palette_r[m], r) + getMinDistance(palette_g[m], g)
+								+ getMinDistance(palette_b[m], b);
+						int maxDistance = getMaxDistance(palette_r[m], r) + getMaxDistance(palette_g[m], g)
+								+ getMaxDistance(palette_b[m], b);
+						bound = Math.min(bound, maxDistance);
+					}
+
+					cellStarts[cell++] = count;
+					for (int m = 0; m < paletteSize; m++) {
+						if (minDistances[m] <= bound) {
+							if (count == indices.length) {
+								indices = Arrays.copyOf(indices, count * 2);
+							}
+							indices[count++] = m;
+						}
+					}
+				}
+			}
+		}
+		cellStarts[cell] = count;
+		cellPaletteIndices = Arrays.copyOf(indices, count);
+	}
+
+	/**
+	 * Gets the squared minimum distance of a value to a cell range in one channel.
+	 */
+	private static int getMinDistance(int value, int cellStart) {
+		int e;
+		if (value < cellStart) {
+			e = cellStart - value;
+		} else if (value > cellStart + CELL_SIZE - 1) {
+			e = value - (cellStart + CELL_SIZE - 1);
+		} else {
+			e = 0;
+		}
+		return e * e;
+	}
+
+	/**
+	 * Gets the squared maximum distance of a value to a cell range in one channel.
+	 */
+	private static int getMaxDistance(int value, int cellStart) {
+		int e = Math.max(Math.abs(value - cellStart), Math.abs(value - (cellStart + CELL_SIZE - 1)));
+		return e * e;
+	}
+
+	/**
+	 * Gets the index of the palette entry with the smallest RGB distance. If
+	 * several entries have the same distance, the smallest index is returned.
+	 * 
+	 * @param r The 8-bit red value
+	 * @param g The 8-bit green value
+	 * @param b The 8-bit blue value
+	 * @return The palette index, a non-negative integer.
+	 */
+	int getPaletteIndex(int r, int g, int b) {
+		int cell = ((r >>> CELL_SHIFT) * CELLS_PER_CHANNEL + (g >>> CELL_SHIFT)) * CELLS_PER_CHANNEL
+				+ (b >>> CELL_SHIFT);
+		int diff = Integer.MAX_VALUE;
+		int n = 0;
+		for (int i = cellStarts[cell], end = cellStarts[cell + 1]; i < end; i++) {
+			int m = cellPaletteIndices[i];
+			int e = (palette_r[m] - r);
+			int d = e * e;
+			e = (palette_g[m] - g);
+			d += e * e;
+			e = (palette_b[m] - b);
+			d += e * e;
+			if (d < diff) {
+				diff = d;
+				n = m;
+			}
+		}
+		return n;
+	}
+}
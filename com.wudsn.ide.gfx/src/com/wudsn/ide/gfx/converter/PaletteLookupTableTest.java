@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ *
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.gfx.converter;
+
+import static com.wudsn.ide.base.common.Assertions.fail;
+
+import java.util.Random;
+
+import com.wudsn.ide.base.common.Test;
+import com.wudsn.ide.base.common.TestMethod;
+
+/**
+ * Compares {@link PaletteLookupTable#getPaletteIndex(int, int, int)} with a
+ * linear search over the complete palette for every RGB value. The palettes
+ * cover a single entry, random entries of different sizes, duplicate entries
+ * with equal distances and entries at the corners and cell boundaries of the
+ * RGB cube.
+ *
+ * @author Peter Dell
+ *
+ * @since 1.7.2
+ */
+public final class PaletteLookupTableTest {
+
+	/**
+	 * Creation is private.
+	 */
+	private PaletteLookupTableTest() {
+	}
+
+	@TestMethod
+	public static void main(String[] args) {
+		Random random = new Random(0);
+		StringBuilder failures = new StringBuilder();
+
+		test("Single entry", new int[][] { { 128, 64, 32 } }, failures);
+		test("Black and white", new int[][] { { 0, 0, 0 }, { 255, 255, 255 } }, failures);
+		test("Duplicate entries", new int[][] { { 10, 20, 30 }, { 200, 100, 50 }, { 10, 20, 30 },
+				{ 200, 100, 50 } }, failures);
+		test("Corners", createCornersPalette(), failures);
+		test("Cell boundaries", createCellBoundariesPalette(), failures);
+		test("Gray scale", createGrayScalePalette(), failures);
+		for (int size : new int[] { 2, 4, 16, 128, 256 }) {
+			test("Random with " + size + " entries", createRandomPalette(random, size), failures);
+		}
+
+		if (failures.length() > 0) {
+			fail(failures.toString());
+		}
+	}
+
+	private static void test(String description, int[][] palette, StringBuilder failures) {
+		int[] palette_r = new int[palette.length];
+		int[] palette_g = new int[palette.length];
+		int[] palette_b = new int[palette.length];
+		for (int i = 0; i < palette.length; i++) {
+			palette_r[i] = palette[i][0];
+			palette_g[i] = palette[i][1];
+			palette_b[i] = palette[i][2];
+		}
+
+		long startMillis = System.currentTimeMillis();
+		PaletteLookupTable lookupTable = PaletteLookupTable.getInstance(palette_r, palette_g, palette_b);
+		int differences = 0;
+		for (int r = 0; r < 256; r++) {
+			for (int g = 0; g < 256; g++) {
+				for (int b = 0; b < 256; b++) {
+					int expected = getPaletteIndexLinear(palette_r, palette_g, palette_b, r, g, b);
+					int actual = lookupTable.getPaletteIndex(r, g, b);
+					if (actual != expected) {
+						if (differences == 0) {
+							failures.append("Palette '" + description + "': RGB (" + r + "," + g + "," + b
+									+ ") is mapped to index " + actual + " instead of index " + expected + "\n");
+						}
+						differences++;
+					}
+				}
+			}
+		}
+		if (differences > 0) {
+			failures.append("Palette '" + description + "': " + differences + " RGB values mapped differently\n");
+		}
+		Test.log("Palette '" + description + "': All RGB values compared in "
+				+ (System.currentTimeMillis() - startMillis) + " ms");
+	}
+
+	/**
+	 * Linear search as used by {@link PaletteMapper} before the lookup table was
+	 * introduced. If several entries have the same distance, the smallest index
+	 * is returned.
+	 */
+	private static int getPaletteIndexLinear(int[] palette_r, int[] palette_g, int[] palette_b, int r, int g,
+			int b) {
+		int diff = Integer.MAX_VALUE;
+		int n = 0;
+		for (int m = 0; m < palette_r.length; m++) {
+			int e = (palette_r[m] - r);
+			int d = e * e;
+			e = (palette_g[m] - g);
+			d += e * e;
+			e = (palette_b[m] - b);
+			d += e * e;
+			if (d < diff) {
+				diff = d;
+				n = m;
+			}
+		}
+		return n;
+	}
+
+	private static int[][] createCornersPalette() {
+		int[][] palette = new int[8][];
+		for (int i = 0; i < palette.length; i++) {
+			palette[i] = new int[] { (i & 4) == 0 ? 0 : 255, (i & 2) == 0 ? 0 : 255, (i & 1) == 0 ? 0 : 255 };
+		}
+		return palette;
+	}
+
+	private static int[][] createCellBoundariesPalette() {
+		// The cells are 8 values wide, so these values are at the first and
+		// the last value of cells.
+		int[] values = { 7, 8, 127, 128 };
+		int[][] palette = new int[values.length * values.length * values.length][];
+		int i = 0;
+		for (int r : values) {
+			for (int g : values) {
+				for (int b : values) {
+					palette[i++] = new int[] { r, g, b };
+				}
+			}
+		}
+		return palette;
+	}
+
+	private static int[][] createGrayScalePalette() {
+		int[][] palette = new int[16][];
+		for (int i = 0; i < palette.length; i++) {
+			int value = i * 17;
+			palette[i] = new int[] { value, value, value };
+		}
+		return palette;
+	}
+
+	private static int[][] createRandomPalette(Random random, int size) {
+		int[][] palette = new int[size][];
+		for (int i = 0; i < palette.length; i++) {
+			palette[i] = new int[] { random.nextInt(256), random.nextInt(256), random.nextInt(256) };
+		}
+		return palette;
+	}
+}
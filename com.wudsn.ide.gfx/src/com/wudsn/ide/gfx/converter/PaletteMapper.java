@@ -4,13 +4,9 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.eclipse.swt.graphics.RGB;
 
-import com.wudsn.ide.base.common.NumberFactory;
-
 /**
  * Copyright (C) 2009 - 2014 <a href="http://www.wudsn.com" target="_top">Peter
  * Dell</a>
@@ -34,7 +30,9 @@ import com.wudsn.ide.base.common.NumberFactory;
  * Palette mapper for mapping palette indices to RGB and back. The palette data
  * is stored in files in the folder for the sub-package "/palettes", relative to
  * the location if the palette mapper implementation class. The file content is
- * loaded from the class path using the class loader.
+ * loaded from the class path using the class loader. The mapping from RGB to
+ * palette indices uses a {@link PaletteLookupTable}, which is shared by all
+ * instances with the same palette content.
  * 
  * 
  * @since 1.6.4
@@ -44,7 +42,7 @@ public abstract class PaletteMapper {
 	private int[] palette_r;
 	private int[] palette_g;
 	private int[] palette_b;
-	private Map<Integer, Integer> map;
+	private PaletteLookupTable lookupTable;
 
 	protected PaletteMapper(int palette_size) {
 		if (palette_size < 1) {
@@ -52,7 +50,6 @@ public abstract class PaletteMapper {
 					"Parameter 'palette_size' must be positive. Specified value is " + palette_size + ".");
 		}
 		this.palette_size = palette_size;
-		map = new HashMap<Integer, Integer>();
 		palette_r = new int[palette_size];
 		palette_g = new int[palette_size];
 		palette_b = new int[palette_size];
@@ -93,7 +90,7 @@ public abstract class PaletteMapper {
 			}
 		} while (count > -1);
 
-		map.clear();
+		lookupTable = PaletteLookupTable.getInstance(palette_r, palette_g, palette_b);
 	}
 
 	/**
@@ -118,31 +115,30 @@ public abstract class PaletteMapper {
 	 *         palette index.
 	 */
 	public final int getPaletteIndex(int r, int g, int b) {
-		int color = r << 16 | g << 8 | b;
-		Integer colorKey = NumberFactory.getInteger(color);
-
-		Integer colorValue = map.get(colorKey);
-
-		if (colorValue == null) {
+		if (lookupTable == null) {
+			throw new IllegalStateException("No palette loaded.");
+		}
+		if (((r | g | b) & ~0xff) == 0) {
+			return lookupTable.getPaletteIndex(r, g, b);
+		}
 
-			int diff = 0x7fffffff;
-			int n = 0;
-			for (int m = 0; m < 256; m++) {
-				int e = (palette_r[m] - r);
-				int d = e * e;
-				e = (palette_g[m] - g);
-				d += e * e;
-				e = (palette_b[m] - b);
-				d += e * e;
-				if (d < diff) {
-					diff = d;
-					n = m;
-				}
+		// Values outside of the 8-bit range are not covered by the lookup
+		// table.
+		int diff = 0x7fffffff;
+		int n = 0;
+		for (int m = 0; m < palette_size; m++) {
+			int e = (palette_r[m] - r);
+			int d = e * e;
+			e = (palette_g[m] - g);
+			d += e * e;
+			e = (palette_b[m] - b);
+			d += e * e;
+			if (d < diff) {
+				diff = d;
+				n = m;
 			}
-			colorValue = Integer.valueOf(n);
-			map.put(colorKey, colorValue);
 		}
-		return colorValue.intValue();
+		return n;
 
 	}
 
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.gfx.converter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.wudsn.ide.base.common.NumberFactory;
+
+/**
+ * Counts the number of occurrences of pixel colors without boxing. Pixel colors
+ * of indexed palettes are counted in an array. Larger pixel colors of direct
+ * palettes are counted in an open addressing hash table, where a count of
+ * <code>0</code> marks a free slot.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class PixelColorCounts {
+
+	private static final int INDEXED_SIZE = 256;
+
+	private final int[] indexedCounts;
+	private int[] keys;
+	private int[] counts;
+	private int hashedSize;
+	private int size;
+
+	/**
+	 * Creates a new empty instance.
+	 */
+	PixelColorCounts() {
+		indexedCounts = new int[INDEXED_SIZE];
+		keys = new int[16];
+		counts = new int[keys.length];
+	}
+
+	/**
+	 * Removes all counts.
+	 */
+	void clear() {
+		Arrays.fill(indexedCounts, 0);
+		if (hashedSize > 0) {
+			Arrays.fill(counts, 0);
+			hashedSize = 0;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Increments the count of a pixel color by one.
+	 * 
+	 * @param pixelColor The pixel color.
+	 */
+	void increment(int pixelColor) {
+		if (pixelColor >= 0 && pixelColor < INDEXED_SIZE) {
+			if (indexedCounts[pixelColor]++ == 0) {
+				size++;
+			}
+			return;
+		}
+		int index = getIndex(keys, counts, pixelColor);
+		if (counts[index] == 0) {
+			keys[index] = pixelColor;
+			hashedSize++;
+			size++;
+			counts[index] = 1;
+			// Keep the load factor below 1/2.
+			if (hashedSize * 2 > keys.length) {
+				rehash();
+			}
+		} else {
+			counts[index]++;
+		}
+	}
+
+	/**
+	 * Gets the count of a pixel color.
+	 * 
+	 * @param pixelColor The pixel color.
+	 * @return The count or <code>0</code> if the pixel color was not counted.
+	 */
+	int get(int pixelColor) {
+		if (pixelColor >= 0 && pixelColor < INDEXED_SIZE) {
+			return indexedCounts[pixelColor];
+		}
+		if (hashedSize == 0) {
+			return 0;
+		}
+		return counts[getIndex(keys, counts, pixelColor)];
+	}
+
+	/**
+	 * Gets the number of distinct pixel colors counted.
+	 * 
+	 * @return The number of distinct pixel colors, a non-negative integer.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the distinct pixel colors counted.
+	 * 
+	 * @return The array of pixel colors in ascending order, may be empty, not
+	 *         <code>null</code>.
+	 */
+	int[] getPixelColors() {
+		int[] result = new int[size];
+		int count = 0;
+		for (int i = 0; i < INDEXED_SIZE; i++) {
+			if (indexedCounts[i] > 0) {
+				result[count++] = i;
+			}
+		}
+		if (hashedSize > 0) {
+			for (int i = 0; i < keys.length; i++) {
+				if (counts[i] > 0) {
+					result[count++] = keys[i];
+				}
+			}
+			Arrays.sort(result);
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a map of the pixel colors to their counts.
+	 * 
+	 * @return The modifiable map sorted by pixel color, may be empty, not
+	 *         <code>null</code>.
+	 */
+	Map<Integer, Integer> toMap() {
+		Map<Integer, Integer> result = new TreeMap<Integer, Integer>();
+		for (int pixelColor : getPixelColors()) {
+			result.put(NumberFactory.getInteger(pixelColor), NumberFactory.getInteger(get(pixelColor)));
+		}
+		return result;
+	}
+
+	private static int getIndex(int[] keys, int[] counts, int pixelColor) {
+		int mask = keys.length - 1;
+		int hash = pixelColor * 0x9e3779b9;
+		int index = (hash ^ hash >>> 16) & mask;
+		while (counts[index] != 0 && keys[index] != pixelColor) {
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	private void rehash() {
+		int[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new int[oldKeys.length * 2];
+		counts = new int[keys.length];
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldCounts[i] != 0) {
+				int index = getIndex(keys, counts, oldKeys[i]);
+				keys[index] = oldKeys[i];
+				counts[index] = oldCounts[i];
+			}
+		}
+	}
+}
@@ -19,10 +19,10 @@
 
 package com.wudsn.ide.gfx.converter;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+
+import org.eclipse.swt.graphics.ImageData;
 
 import com.wudsn.ide.base.common.NumberFactory;
 
@@ -34,8 +34,9 @@ public final class Tile {
 	private int xOffset;
 	private int yOffset;
 
-	private Map<Integer, Integer> pixelColorCounts;
-	private List<Map<Integer, Integer>> linePixelColorCounts;
+	// Pixel colors of the tile, line by line.
+	private int[] pixels;
+	private PixelColorCounts pixelColorCounts;
 
 	private boolean inverseConflict;
 
@@ -57,33 +58,23 @@ public final class Tile {
 		xOffset = column * tileSet.getPixelsPerColumn();
 		yOffset = row * tileSet.getPixelsPerRow();
 
-		pixelColorCounts = new TreeMap<Integer, Integer>();
-		linePixelColorCounts = new ArrayList<Map<Integer, Integer>>(tileSet.getPixelsPerRow());
-
-		for (int y = 0; y < tileSet.getPixelsPerRow(); y++) {
-			linePixelColorCounts.add(new TreeMap<Integer, Integer>());
-			for (int x = 0; x < tileSet.getPixelsPerColumn(); x++) {
-				Integer pixelColor = getPixelColor(x, y);
-				increment(pixelColorCounts, pixelColor);
-				increment(linePixelColorCounts.get(y), pixelColor);
+		// Pixels outside of the image data have the pixel color 0.
+		int pixelsPerColumn = tileSet.getPixelsPerColumn();
+		int pixelsPerRow = tileSet.getPixelsPerRow();
+		ImageData imageData = tileSet.getImageData();
+		int width = Math.max(0, Math.min(pixelsPerColumn, imageData.width - xOffset));
+		int height = Math.max(0, Math.min(pixelsPerRow, imageData.height - yOffset));
+		pixels = new int[pixelsPerColumn * pixelsPerRow];
+		if (width > 0) {
+			for (int y = 0; y < height; y++) {
+				imageData.getPixels(xOffset, yOffset + y, width, pixels, y * pixelsPerColumn);
 			}
 		}
-	}
 
-	private void increment(Map<Integer, Integer> pixelColorCounts, Integer pixelColorKey) {
-		if (pixelColorCounts == null) {
-			throw new IllegalArgumentException("Parameter 'pixelColorCounts' must not be null.");
+		pixelColorCounts = new PixelColorCounts();
+		for (int i = 0; i < pixels.length; i++) {
+			pixelColorCounts.increment(pixels[i]);
 		}
-		if (pixelColorKey == null) {
-			throw new IllegalArgumentException("Parameter 'pixelColorKey' must not be null.");
-		}
-		Integer pixelColorCount = pixelColorCounts.get(pixelColorKey);
-		if (pixelColorCount == null) {
-			pixelColorCount = NumberFactory.getInteger(1);
-		} else {
-			pixelColorCount = NumberFactory.getInteger(pixelColorCount.intValue() + 1);
-		}
-		pixelColorCounts.put(pixelColorKey, pixelColorCount);
 	}
 
 	public int getColumn() {
@@ -102,13 +93,7 @@ public final class Tile {
 	 * @return The pixel color, not <code>null</code>.
 	 */
 	public Integer getPixelColor(int x, int y) {
-		try {
-			return NumberFactory.getInteger(tileSet.getImageData().getPixel(xOffset + x, yOffset + y));
-		} catch (IllegalArgumentException ex) {
-			// throw new IllegalArgumentException("Cannot access pixel at "
-			// + xOffset + "+" + x + ", " + yOffset + "+" + y + ".", ex);
-			return NumberFactory.getInteger(0);
-		}
+		return NumberFactory.getInteger(pixels[y * tileSet.getPixelsPerColumn() + x]);
 	}
 
 	public boolean hasPixelColor(Integer pixelColor) {
@@ -122,11 +107,7 @@ public final class Tile {
 		if (pixelColor == null) {
 			throw new IllegalArgumentException("Parameter 'pixelColor' must not be null.");
 		}
-		Integer pixelColorCount = pixelColorCounts.get(pixelColor);
-		if (pixelColorCount == null) {
-			return 0;
-		}
-		return pixelColorCount.intValue();
+		return pixelColorCounts.get(pixelColor.intValue());
 
 	}
 
@@ -143,21 +124,9 @@ public final class Tile {
 		if (ignoredPixelColors == null) {
 			throw new IllegalArgumentException("Parameter 'ignoredPixelColors' must not be null.");
 		}
-		Map<Integer, Integer> pixelColorCounts;
-		pixelColorCounts = new TreeMap<Integer, Integer>();
-		for (int y = 0; y < tileSet.getPixelsPerRow(); y++) {
-			for (int x = 0; x < tileSet.getPixelsPerColumn(); x++) {
-				Integer pixelColor = getPixelColor(x, y);
-				boolean ignore = false;
-				if (ignoredPixelColors != null && ignoredPixelColors.contains(pixelColor)) {
-					ignore = true;
-				}
-				if (!ignore) {
-					increment(pixelColorCounts, pixelColor);
-				}
-			}
-		}
-		return pixelColorCounts;
+		Map<Integer, Integer> result = pixelColorCounts.toMap();
+		result.keySet().removeAll(ignoredPixelColors);
+		return result;
 	}
 
 	public static Integer getMajorColor(Map<Integer, Integer> pixelColorCounts, List<Integer> ignoredPixelColors) {
@@ -182,12 +151,14 @@ public final class Tile {
 	}
 
 	public int getLinePixelColorCount(int y, int pixelColor) {
-		Map<Integer, Integer> pixelColorCounts = linePixelColorCounts.get(y);
-		Integer pixelColorCount = pixelColorCounts.get(NumberFactory.getInteger(pixelColor));
-		if (pixelColorCount == null) {
-			return 0;
+		int pixelsPerColumn = tileSet.getPixelsPerColumn();
+		int result = 0;
+		for (int i = y * pixelsPerColumn, end = i + pixelsPerColumn; i < end; i++) {
+			if (pixels[i] == pixelColor) {
+				result++;
+			}
 		}
-		return pixelColorCount.intValue();
+		return result;
 
 	}
 
@@ -205,20 +176,16 @@ public final class Tile {
 		if (y < 0) {
 			throw new IllegalArgumentException("Parameter 'y' must not be negative, specified value is " + y + ".");
 		}
-		Map<Integer, Integer> pixelColorCounts;
-		pixelColorCounts = new TreeMap<Integer, Integer>();
-		for (int x = 0; x < tileSet.getPixelsPerColumn(); x++) {
-			Integer pixelColor = getPixelColor(x, y);
-			boolean ignore = false;
-			if (ignoredPixelColors != null && ignoredPixelColors.contains(pixelColor)) {
-				ignore = true;
-
-			}
-			if (!ignore) {
-				increment(pixelColorCounts, pixelColor);
-			}
+		int pixelsPerColumn = tileSet.getPixelsPerColumn();
+		PixelColorCounts linePixelColorCounts = new PixelColorCounts();
+		for (int i = y * pixelsPerColumn, end = i + pixelsPerColumn; i < end; i++) {
+			linePixelColorCounts.increment(pixels[i]);
+		}
+		Map<Integer, Integer> result = linePixelColorCounts.toMap();
+		if (ignoredPixelColors != null) {
+			result.keySet().removeAll(ignoredPixelColors);
 		}
-		return pixelColorCounts;
+		return result;
 	}
 
 	public boolean isInverseConflict() {
@@ -19,10 +19,13 @@
 
 package com.wudsn.ide.gfx.converter.apple2;
 
+import java.util.Arrays;
+
 import org.eclipse.swt.graphics.RGB;
 
 import com.wudsn.ide.gfx.converter.FilesConverterData;
 import com.wudsn.ide.gfx.converter.FilesConverterParameters.SourceFile;
+import com.wudsn.ide.gfx.converter.ImageConverterData;
 import com.wudsn.ide.gfx.converter.generic.LinearBitMapConverter;
 import com.wudsn.ide.gfx.model.Palette;
 import com.wudsn.ide.gfx.model.PaletteType;
@@ -107,4 +110,39 @@ public class HiresGraphicsConverter extends LinearBitMapConverter {
 		return true;
 
 	}
+
+	@Override
+	public boolean convertToFileDataDefault(ImageConverterData data) {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+		int width = data.getImageDataWidth();
+		int height = data.getImageDataHeight();
+		if (width != 280 || height != 192) {
+			return true;
+		}
+
+		byte[] bytes = new byte[0x2000];
+		int length = 0;
+		for (int y = 0; y < height; y++) {
+			int page = y & 0x7;
+			int block = ((y >> 3) & 0x7);
+			int leaf = y >> 6;
+			int offset = (page * 1024) + (block * 128) + (leaf * 40);
+
+			for (int x = 0; x < width; x = x + 7) {
+				int b = 0;
+				for (int i = 0; i < 7; i++) {
+					if (data.getPixel(x + i, y) != 0) {
+						b = b | 1 << i;
+					}
+				}
+				bytes[offset++] = (byte) b;
+			}
+			length = Math.max(length, offset);
+		}
+		// The unused gaps between the lines remain part of the data.
+		data.setTargetFileBytes(0, Arrays.copyOf(bytes, length));
+		return true;
+	}
 }
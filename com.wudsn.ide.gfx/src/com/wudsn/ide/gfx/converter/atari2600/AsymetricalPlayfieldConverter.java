@@ -20,11 +20,20 @@
 package com.wudsn.ide.gfx.converter.atari2600;
 
 import com.wudsn.ide.gfx.converter.FilesConverterData;
+import com.wudsn.ide.gfx.converter.ImageConverterData;
 import com.wudsn.ide.gfx.converter.generic.BitMapConverter;
 import com.wudsn.ide.gfx.model.Palette;
 
 public class AsymetricalPlayfieldConverter extends BitMapConverter {
 
+	// Byte index and bit mask in the PF0, PF1, PF2 registers of the left and
+	// the right half of the playfield for each pixel column.
+	private static final int[] COLUMN_OFFSETS = { 0, 0, 0, 0, 1, 1, 1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 2, 2, 2, 2, 3, 3,
+			3, 3, 4, 4, 4, 4, 4, 4, 4, 4, 5, 5, 5, 5, 5, 5, 5, 5 };
+	private static final int[] COLUMN_BITS = { 0x10, 0x20, 0x40, 0x80, 0x80, 0x40, 0x20, 0x10, 0x08, 0x04, 0x02,
+			0x01, 0x01, 0x02, 0x04, 0x08, 0x10, 0x20, 0x40, 0x80, 0x10, 0x20, 0x40, 0x80, 0x80, 0x40, 0x20, 0x10, 0x08,
+			0x04, 0x02, 0x01, 0x01, 0x02, 0x04, 0x08, 0x10, 0x20, 0x40, 0x80 };
+
 	public AsymetricalPlayfieldConverter() {
 
 	}
@@ -65,4 +74,45 @@ public class AsymetricalPlayfieldConverter extends BitMapConverter {
 
 		return false;
 	}
+
+	@Override
+	public boolean convertToFileDataDefault(ImageConverterData data) {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+		int lineHeight = 5; // Height of a single text line
+		int lineSpacing = 1; // Space between two text lines
+		int lineFullHeight = lineHeight + lineSpacing; // Full height of a text line
+		int width = data.getImageDataWidth();
+		int height = data.getImageDataHeight();
+		int lines = (height + lineHeight) / lineFullHeight; // Number of text lines
+		int scanLines = lines * lineHeight;
+		byte[] bytes = new byte[scanLines * 6];
+		int offset = 0;
+
+		for (int l = 0; l < lines; l++) {
+			int y = l * lineFullHeight;
+			for (int m = 0; m < lineHeight; m++) {
+				int[] b = new int[6];
+				for (int x = 0; x < width && x < 40; x++) {
+					int color;
+					if (y + m < height) {
+						color = data.getPixel(x, y + m);
+					} else {
+						color = 0;
+					}
+					if (color != 0) {
+						int o = COLUMN_OFFSETS[x];
+						b[o] = b[o] | COLUMN_BITS[x];
+					}
+				}
+				for (int i = 0; i < b.length; i++) {
+					bytes[offset + scanLines * i] = (byte) b[i];
+				}
+				offset = offset + 1;
+			}
+		}
+		data.setTargetFileBytes(0, bytes);
+		return true;
+	}
 }
@@ -288,4 +288,13 @@ public class CharMapGraphics12Converter extends CharMapMultiColorConverter {
 		// Yellow Explosion
 		inverseBlockList.add(4, 11, 20, 24, C64Utility.BROWN, true);
 	}
+
+	@Override
+	public boolean convertToFileDataDefault(ImageConverterData data) {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+		// The default script does not create file data yet.
+		return true;
+	}
 }
@@ -20,6 +20,7 @@
 package com.wudsn.ide.gfx.converter.atari8bit;
 
 import com.wudsn.ide.gfx.converter.FilesConverterData;
+import com.wudsn.ide.gfx.converter.ImageConverterData;
 import com.wudsn.ide.gfx.converter.PaletteMapper;
 import com.wudsn.ide.gfx.converter.generic.LinearBitMapConverter;
 import com.wudsn.ide.gfx.model.Palette;
@@ -95,4 +96,24 @@ public class LinearBitMapAPACConverter extends LinearBitMapConverter {
 		}
 		return true;
 	}
+
+	@Override
+	public boolean convertToFileDataDefault(ImageConverterData data) {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+		int width = data.getImageDataWidth();
+		int height = data.getImageDataHeight();
+		byte[] bytes = new byte[height * ((width + 1) / 2)];
+		int offset = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x = x + 2) {
+				int c1 = data.getPixelRGB(x, y);
+				int c2 = data.getPixelRGB(x + 1, y);
+				bytes[offset++] = (byte) (c1 << 4 | c2);
+			}
+		}
+		data.setTargetFileBytes(0, bytes);
+		return true;
+	}
 }
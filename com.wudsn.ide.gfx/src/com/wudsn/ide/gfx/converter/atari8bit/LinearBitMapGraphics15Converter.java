@@ -22,6 +22,7 @@ package com.wudsn.ide.gfx.converter.atari8bit;
 import org.eclipse.swt.graphics.RGB;
 
 import com.wudsn.ide.gfx.converter.FilesConverterData;
+import com.wudsn.ide.gfx.converter.ImageConverterData;
 import com.wudsn.ide.gfx.converter.generic.LinearBitMapConverter;
 import com.wudsn.ide.gfx.model.Palette;
 import com.wudsn.ide.gfx.model.PaletteType;
@@ -89,4 +90,26 @@ public class LinearBitMapGraphics15Converter extends LinearBitMapConverter {
 		}
 		return true;
 	}
+
+	@Override
+	public boolean convertToFileDataDefault(ImageConverterData data) {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+		int width = data.getImageDataWidth();
+		int height = data.getImageDataHeight();
+		byte[] bytes = new byte[height * ((width + 3) / 4)];
+		int offset = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x = x + 4) {
+				int c1 = data.getPixel(x, y) & 0x3;
+				int c2 = data.getPixel(x + 1, y) & 0x3;
+				int c3 = data.getPixel(x + 2, y) & 0x3;
+				int c4 = data.getPixel(x + 3, y) & 0x3;
+				bytes[offset++] = (byte) (c1 << 6 | c2 << 4 | c3 << 2 | c4);
+			}
+		}
+		data.setTargetFileBytes(0, bytes);
+		return true;
+	}
 }
@@ -22,6 +22,7 @@ package com.wudsn.ide.gfx.converter.atari8bit;
 import org.eclipse.swt.graphics.RGB;
 
 import com.wudsn.ide.gfx.converter.FilesConverterData;
+import com.wudsn.ide.gfx.converter.ImageConverterData;
 import com.wudsn.ide.gfx.converter.generic.LinearBitMapConverter;
 import com.wudsn.ide.gfx.model.Palette;
 import com.wudsn.ide.gfx.model.PaletteType;
@@ -84,4 +85,28 @@ public class LinearBitMapGraphics8Converter extends LinearBitMapConverter {
 		}
 		return true;
 	}
+
+	@Override
+	public boolean convertToFileDataDefault(ImageConverterData data) {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+		int width = data.getImageDataWidth();
+		int height = data.getImageDataHeight();
+		byte[] bytes = new byte[height * ((width + 7) / 8)];
+		int offset = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x = x + 8) {
+				int b = 0;
+				for (int p = 0; p < 8; p++) {
+					if (data.getPixel(x + p, y) != 0) {
+						b = b | 1 << 7 - p;
+					}
+				}
+				bytes[offset++] = (byte) b;
+			}
+		}
+		data.setTargetFileBytes(0, bytes);
+		return true;
+	}
 }
@@ -22,6 +22,7 @@ package com.wudsn.ide.gfx.converter.atari8bit;
 import org.eclipse.swt.graphics.RGB;
 
 import com.wudsn.ide.gfx.converter.FilesConverterData;
+import com.wudsn.ide.gfx.converter.ImageConverterData;
 import com.wudsn.ide.gfx.converter.generic.LinearBitMapConverter;
 import com.wudsn.ide.gfx.model.Palette;
 import com.wudsn.ide.gfx.model.PaletteType;
@@ -86,4 +87,24 @@ public class LinearBitMapGraphics9Converter extends LinearBitMapConverter {
 		}
 		return true;
 	}
+
+	@Override
+	public boolean convertToFileDataDefault(ImageConverterData data) {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+		int width = data.getImageDataWidth();
+		int height = data.getImageDataHeight();
+		byte[] bytes = new byte[height * ((width + 1) / 2)];
+		int offset = 0;
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x = x + 2) {
+				int c1 = data.getPixel(x, y);
+				int c2 = data.getPixel(x + 1, y);
+				bytes[offset++] = (byte) (c1 << 4 | c2);
+			}
+		}
+		data.setTargetFileBytes(0, bytes);
+		return true;
+	}
 }
@@ -22,6 +22,7 @@ package com.wudsn.ide.gfx.converter.generic;
 import org.eclipse.swt.graphics.RGB;
 
 import com.wudsn.ide.gfx.converter.FilesConverterData;
+import com.wudsn.ide.gfx.converter.ImageConverterData;
 import com.wudsn.ide.gfx.converter.atari8bit.Atari8BitUtility;
 import com.wudsn.ide.gfx.converter.c64.C64Utility;
 import com.wudsn.ide.gfx.model.Palette;
@@ -107,4 +108,31 @@ public class CharSet1x1HiresConverter extends CharSetConverter {
 		}
 		return true;
 	}
+
+	@Override
+	public boolean convertToFileDataDefault(ImageConverterData data) {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+		int columns = (data.getImageDataWidth() + 7) / 8;
+		int rows = (data.getImageDataHeight() + 7) / 8;
+		int chars = Math.min(256, columns * rows);
+		byte[] bytes = new byte[chars * 8];
+		int offset = 0;
+		for (int r = 0; r < rows && offset < bytes.length; r++) {
+			for (int c = 0; c < columns && offset < bytes.length; c++) {
+				for (int l = 0; l < 8; l++) {
+					int b = 0;
+					for (int p = 0; p < 8; p++) {
+						if (data.getPixel(c * 8 + p, r * 8 + l) != 0) {
+							b = b | 1 << 7 - p;
+						}
+					}
+					bytes[offset++] = (byte) b;
+				}
+			}
+		}
+		data.setTargetFileBytes(0, bytes);
+		return true;
+	}
 }
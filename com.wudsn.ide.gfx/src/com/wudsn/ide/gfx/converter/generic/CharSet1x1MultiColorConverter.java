@@ -20,6 +20,7 @@
 package com.wudsn.ide.gfx.converter.generic;
 
 import com.wudsn.ide.gfx.converter.FilesConverterData;
+import com.wudsn.ide.gfx.converter.ImageConverterData;
 
 public class CharSet1x1MultiColorConverter extends CharSetConverter {
 
@@ -62,4 +63,30 @@ public class CharSet1x1MultiColorConverter extends CharSetConverter {
 		return true;
 	}
 
+	@Override
+	public boolean convertToFileDataDefault(ImageConverterData data) {
+		if (data == null) {
+			throw new IllegalArgumentException("Parameter 'data' must not be null.");
+		}
+		int columns = (data.getImageDataWidth() + 7) / 8;
+		int rows = (data.getImageDataHeight() + 7) / 8;
+		int chars = Math.min(256, columns * rows);
+		byte[] bytes = new byte[chars * 8];
+		int offset = 0;
+		for (int r = 0; r < rows && offset < bytes.length; r++) {
+			for (int c = 0; c < columns && offset < bytes.length; c++) {
+				for (int l = 0; l < 8; l++) {
+					int x = c * 4;
+					int y = r * 8 + l;
+					int c1 = data.getPixel(x, y) & 0x3;
+					int c2 = data.getPixel(x + 1, y) & 0x3;
+					int c3 = data.getPixel(x + 2, y) & 0x3;
+					int c4 = data.getPixel(x + 3, y) & 0x3;
+					bytes[offset++] = (byte) (c1 << 6 | c2 << 4 | c3 << 2 | c4);
+				}
+			}
+		}
+		data.setTargetFileBytes(0, bytes);
+		return true;
+	}
 }
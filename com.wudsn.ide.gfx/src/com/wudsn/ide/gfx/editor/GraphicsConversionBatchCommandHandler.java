@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.gfx.editor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.runtime.Adapters;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.ui.handlers.HandlerUtil;
+
+import com.wudsn.ide.gfx.GraphicsPlugin;
+import com.wudsn.ide.gfx.converter.ConverterBatchJob;
+
+/**
+ * The action to convert all conversion files in the selected files, folders
+ * and projects from the context menu, without opening them in the
+ * {@link GraphicsConversionEditor}.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+public final class GraphicsConversionBatchCommandHandler extends AbstractHandler {
+
+	/**
+	 * The file extension of conversion files.
+	 */
+	private static final String CNV = "cnv";
+
+	/**
+	 * Creation is public. Called by extension "org.eclipse.ui.handlers".
+	 */
+	public GraphicsConversionBatchCommandHandler() {
+	}
+
+	@Override
+	public Object execute(ExecutionEvent event) throws ExecutionException {
+		final List<IFile> files = new ArrayList<IFile>();
+		ISelection menuSelection;
+		menuSelection = HandlerUtil.getActiveMenuSelection(event);
+
+		if (menuSelection instanceof IStructuredSelection) {
+			IResourceVisitor visitor = new IResourceVisitor() {
+
+				@Override
+				public boolean visit(IResource resource) throws CoreException {
+					if (resource.getType() == IResource.FILE && CNV.equalsIgnoreCase(resource.getFileExtension())
+							&& !files.contains(resource)) {
+						files.add((IFile) resource);
+					}
+					return !resource.isDerived() && !resource.isTeamPrivateMember();
+				}
+			};
+			Iterator<?> i = ((IStructuredSelection) menuSelection).iterator();
+			while (i.hasNext()) {
+				IResource resource = Adapters.adapt(i.next(), IResource.class);
+				if (resource != null && resource.isAccessible()) {
+					try {
+						resource.accept(visitor);
+					} catch (CoreException ex) {
+						GraphicsPlugin.getInstance().logError("Cannot collect conversion files in {0}",
+								new Object[] { resource.getFullPath() }, ex);
+					}
+				}
+			}
+		}
+
+		new ConverterBatchJob(files).schedule();
+		return null;
+	}
+}
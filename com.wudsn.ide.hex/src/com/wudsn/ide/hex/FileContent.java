@@ -33,6 +33,16 @@ public interface FileContent {
 	 */
 	public int getWordBigEndian(long offset);
 
+	/**
+	 * Gets a double word (32 bit) in little endian format from the file content.
+	 * 
+	 * @param offset The offset, a non-negative integer.
+	 * @return The double word from the file content.
+	 * 
+	 * @since 1.7.2
+	 */
+	public long getDoubleWord(long offset);
+
 	/**
 	 * Gets a double word (32 bit) in big endian format from the file content.
 	 * 
@@ -40,4 +50,15 @@ public interface FileContent {
 	 * @return The word from the file content.
 	 */
 	public long getDoubleWordBigEndian(long offset);
+
+	/**
+	 * Copies bytes from the file content.
+	 * 
+	 * @param offset The offset, a non-negative integer.
+	 * @param bytes  The target array which is filled completely, may be empty,
+	 *               not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public void getBytes(long offset, byte[] bytes);
 }
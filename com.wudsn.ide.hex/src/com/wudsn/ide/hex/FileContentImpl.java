@@ -1,14 +1,26 @@
 package com.wudsn.ide.hex;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * File content backed by a byte array. Only absolute accessors of the wrapping
+ * byte buffers are used, so the instance can be shared. Large files are
+ * represented by {@link PagedFileContent}.
+ */
 public class FileContentImpl implements FileContent {
 
-	private byte[] fileContent;
+	private final ByteBuffer bigEndianBuffer;
+	private final ByteBuffer littleEndianBuffer;
+	private final int length;
 
 	public FileContentImpl(byte[] fileContent) {
 		if (fileContent == null) {
 			throw new IllegalArgumentException("Parameter 'fileContent' must not be null.");
 		}
-		this.fileContent = fileContent;
+		this.bigEndianBuffer = ByteBuffer.wrap(fileContent);
+		this.littleEndianBuffer = bigEndianBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		this.length = fileContent.length;
 	}
 
 	/**
@@ -18,25 +30,36 @@ public class FileContentImpl implements FileContent {
 	 */
 	@Override
 	public int getLength() {
-		return fileContent.length;
+		return length;
 	}
 
 	/**
-	 * Gets a byte (8 bit) from the file content.
+	 * Checks that a range is within the file content.
 	 * 
 	 * @param offset The offset, a non-negative integer.
-	 * @return The byte from the file content.
+	 * @param count  The number of bytes, a non-negative integer.
+	 * @return The offset as index.
 	 */
-	@Override
-	public int getByte(long offset) {
+	private int checkRange(long offset, int count) {
 		if (offset < 0) {
 			throw new IllegalArgumentException("Parameter offset=" + offset + " must not be negative");
 		}
-		if (offset >= fileContent.length) {
+		if (offset + count > length) {
 			throw new IllegalArgumentException(
-					"Parameter offset=" + offset + " must be less than the file content size " + fileContent.length);
+					"Parameter offset=" + (offset + count - 1) + " must be less than the file content size " + length);
 		}
-		return fileContent[(int) offset] & 0xff;
+		return (int) offset;
+	}
+
+	/**
+	 * Gets a byte (8 bit) from the file content.
+	 * 
+	 * @param offset The offset, a non-negative integer.
+	 * @return The byte from the file content.
+	 */
+	@Override
+	public int getByte(long offset) {
+		return bigEndianBuffer.get(checkRange(offset, 1)) & 0xff;
 	}
 
 	/**
@@ -47,7 +70,7 @@ public class FileContentImpl implements FileContent {
 	 */
 	@Override
 	public int getWord(long offset) {
-		return getByte(offset) + 0x100 * getByte(offset + 1);
+		return littleEndianBuffer.getShort(checkRange(offset, 2)) & 0xffff;
 	}
 
 	/**
@@ -58,7 +81,18 @@ public class FileContentImpl implements FileContent {
 	 */
 	@Override
 	public int getWordBigEndian(long offset) {
-		return getByte(offset + 1) + 0x100 * getByte(offset);
+		return bigEndianBuffer.getShort(checkRange(offset, 2)) & 0xffff;
+	}
+
+	/**
+	 * Gets a double word (32 bit) in little endian format from the file content.
+	 * 
+	 * @param offset The offset, a non-negative integer.
+	 * @return The double word from the file content.
+	 */
+	@Override
+	public long getDoubleWord(long offset) {
+		return littleEndianBuffer.getInt(checkRange(offset, 4)) & 0xffffffffL;
 	}
 
 	/**
@@ -69,6 +103,24 @@ public class FileContentImpl implements FileContent {
 	 */
 	@Override
 	public long getDoubleWordBigEndian(long offset) {
-		return getWordBigEndian(offset + 2) + 0x10000 * getWordBigEndian(offset);
+		return bigEndianBuffer.getInt(checkRange(offset, 4)) & 0xffffffffL;
+	}
+
+	/**
+	 * Copies bytes from the file content.
+	 * 
+	 * @param offset The offset, a non-negative integer.
+	 * @param bytes  The target array which is filled completely, may be empty,
+	 *               not <code>null</code>.
+	 */
+	@Override
+	public void getBytes(long offset, byte[] bytes) {
+		if (bytes == null) {
+			throw new IllegalArgumentException("Parameter 'bytes' must not be null.");
+		}
+		int index = checkRange(offset, bytes.length);
+		ByteBuffer buffer = bigEndianBuffer.duplicate();
+		buffer.position(index);
+		buffer.get(bytes);
 	}
 }
@@ -20,12 +20,15 @@
 package com.wudsn.ide.hex;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.ISelectionChangedListener;
@@ -33,16 +36,24 @@ import org.eclipse.jface.viewers.ISelectionProvider;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.StyledString;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.LineStyleEvent;
+import org.eclipse.swt.custom.LineStyleListener;
+import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.custom.StyledTextContent;
 import org.eclipse.swt.events.FocusEvent;
 import org.eclipse.swt.events.FocusListener;
 import org.eclipse.swt.events.KeyEvent;
 import org.eclipse.swt.events.KeyListener;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorSite;
@@ -53,7 +64,7 @@ import org.eclipse.ui.part.EditorPart;
 import org.eclipse.ui.views.contentoutline.IContentOutlinePage;
 
 import com.wudsn.ide.base.BasePlugin;
-import com.wudsn.ide.base.common.ByteArrayUtility;
+import com.wudsn.ide.base.common.EnumUtility;
 import com.wudsn.ide.base.common.FileUtility;
 import com.wudsn.ide.base.common.HexUtility;
 import com.wudsn.ide.base.common.MessageQueue;
@@ -93,6 +104,8 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 		public static final int FILE_CONTENT_MODE = 1;
 		public static final int CHARACTER_SET = 2;
 		public static final int BYTES_PER_LINE = 3;
+		public static final int SEARCH = 4;
+		public static final int COMPARE = 5;
 	}
 
 	public final class Actions {
@@ -106,12 +119,17 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 		public static final int FILE_CONTENT_MODE_CHANGED = 1000;
 		public static final int CHARACTER_SET_TYPE_CHANGED = 1001;
 		public static final int BYTES_PER_ROW_CHANGED = 1002;
+		public static final int SEARCH_NEXT = 1003;
+		public static final int SEARCH_PREVIOUS = 1004;
+		public static final int COMPARE = 1005;
+		public static final int COMPARE_CLOSE = 1006;
+		public static final int COMPARE_NEXT = 1007;
+		public static final int COMPARE_PREVIOUS = 1008;
 	}
 
 	public static final String ID = "com.wudsn.ide.hex.HexEditor";
 
 	private static final String CONTEXT_MENU_ID = "#HexEditorContext";
-	private static final long MAX_FILE_SIZE = 8 * ByteArrayUtility.MB;
 
 	private MessageQueue messageQueue;
 	private MessageManager messageManager;
@@ -126,7 +144,24 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 	private EnumField<HardwareCharacterSet> characterSetField;
 	private IntegerField bytesPerRowField;
 
+	// Editor search area.
+	private EnumField<HexEditorSearchMode> searchModeField;
+	private TextField searchField;
+	private HexEditorSearchPattern searchPattern;
+	private long[] searchMatches;
+	private FileContent searchFileContent;
+	private long searchFileModificationStamp;
+	private HexEditorSearchJob searchJob;
+
+	// Editor compare area.
+	private TextField compareFileField;
+	private HexEditorCompareComponent compareComponent;
+	private HexEditorCompareJob compareJob;
+	private boolean renderingRequired;
+
 	private StyledText textField;
+	private StyledTextContent textFieldContent;
+	private StyleRange[] textFieldStyleRanges;
 	private HexEditorSelection lastEditorSelection;
 
 	// File source.
@@ -257,6 +292,52 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 			}
 		});
 
+		Composite searchHeader = SWTFactory.createComposite(parent, 4, 1, GridData.FILL_HORIZONTAL);
+		fillLayout = new FillLayout(SWT.HORIZONTAL);
+		fillLayout.marginWidth = 10;
+		searchHeader.setLayout(fillLayout);
+
+		searchModeField = new EnumField<HexEditorSearchMode>(searchHeader,
+				Texts.HEX_EDITOR_SEARCH_MODE_FIELD_LABEL + LABEL_SUFFIX, HexEditorSearchMode.class, null);
+		searchModeField.getLabel().setAlignment(SWT.RIGHT);
+		searchModeField.setValue(HexEditorSearchMode.HEX);
+
+		searchField = new TextField(searchHeader, Texts.HEX_EDITOR_SEARCH_FIELD_LABEL + LABEL_SUFFIX, SWT.NONE);
+		searchField.getLabel().setAlignment(SWT.RIGHT);
+		messageManager.registerField(searchField, MessageIds.SEARCH);
+		searchField.getControl().addKeyListener(new KeyListener() {
+
+			@Override
+			public void keyReleased(KeyEvent e) {
+				if (e.keyCode == '\r') {
+					int actionId = (e.stateMask & SWT.SHIFT) != 0 ? Actions.SEARCH_PREVIOUS : Actions.SEARCH_NEXT;
+					performAction(new Action(actionId, HexEditor.this));
+				}
+			}
+
+			@Override
+			public void keyPressed(KeyEvent e) {
+			}
+		});
+
+		createButton(searchHeader, Texts.HEX_EDITOR_SEARCH_PREVIOUS_BUTTON_LABEL, Actions.SEARCH_PREVIOUS);
+		createButton(searchHeader, Texts.HEX_EDITOR_SEARCH_NEXT_BUTTON_LABEL, Actions.SEARCH_NEXT);
+
+		Composite compareHeader = SWTFactory.createComposite(parent, 5, 1, GridData.FILL_HORIZONTAL);
+		fillLayout = new FillLayout(SWT.HORIZONTAL);
+		fillLayout.marginWidth = 10;
+		compareHeader.setLayout(fillLayout);
+
+		compareFileField = new TextField(compareHeader, Texts.HEX_EDITOR_COMPARE_FILE_FIELD_LABEL + LABEL_SUFFIX,
+				SWT.READ_ONLY);
+		compareFileField.getLabel().setAlignment(SWT.RIGHT);
+		messageManager.registerField(compareFileField, MessageIds.COMPARE);
+
+		createButton(compareHeader, Texts.HEX_EDITOR_COMPARE_BUTTON_LABEL, Actions.COMPARE);
+		createButton(compareHeader, Texts.HEX_EDITOR_COMPARE_PREVIOUS_BUTTON_LABEL, Actions.COMPARE_PREVIOUS);
+		createButton(compareHeader, Texts.HEX_EDITOR_COMPARE_NEXT_BUTTON_LABEL, Actions.COMPARE_NEXT);
+		createButton(compareHeader, Texts.HEX_EDITOR_COMPARE_CLOSE_BUTTON_LABEL, Actions.COMPARE_CLOSE);
+
 		// SWT.WRAP is very slow, so it's not used.
 		textField = new StyledText(parent, SWT.SCROLL_LINE | SWT.V_SCROLL | SWT.H_SCROLL | SWT.READ_ONLY);
 		gd = new GridData(GridData.FILL_VERTICAL | GridData.FILL_HORIZONTAL);
@@ -265,6 +346,18 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 		textField.setIndent(10);
 		textField.setLineSpacing(0);
 
+		// Keep the default content for rendered content and provide the styles
+		// for rendered and virtual content, including the search matches.
+		textFieldContent = textField.getContent();
+		textFieldStyleRanges = new StyleRange[0];
+		textField.addLineStyleListener(new LineStyleListener() {
+
+			@Override
+			public void lineGetStyle(LineStyleEvent event) {
+				event.styles = getLineStyleRanges(event.lineOffset, event.lineText.length());
+			}
+		});
+
 		// Create a menu manager for the context menu.
 		MenuManager manager = new MenuManager(CONTEXT_MENU_ID, CONTEXT_MENU_ID);
 		manager.setRemoveAllWhenShown(true);
@@ -278,6 +371,45 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 		dataToUi();
 	}
 
+	/**
+	 * Creates a push button which performs an action.
+	 * 
+	 * @param parent   The parent composite, not <code>null</code>.
+	 * @param text     The text of the button, not empty and not
+	 *                 <code>null</code>.
+	 * @param actionId The id of the action.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void createButton(Composite parent, String text, final int actionId) {
+		Button button = new Button(parent, SWT.PUSH);
+		button.setText(text);
+		button.addSelectionListener(new SelectionAdapter() {
+
+			@Override
+			public void widgetSelected(SelectionEvent e) {
+				performAction(new Action(actionId, HexEditor.this));
+			}
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispose() {
+		if (searchJob != null) {
+			searchJob.cancel();
+			searchJob = null;
+		}
+		cancelCompareJob();
+		if (compareComponent != null) {
+			compareComponent.dispose();
+			compareComponent = null;
+		}
+		super.dispose();
+	}
+
 	@SuppressWarnings("unchecked")
 	@Override
 	public <T> T getAdapter(Class<T> adapter) {
@@ -285,7 +417,7 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 			if (contentOutlinePage == null) {
 
 				contentOutlinePage = new HexEditorContentOutlinePage(this);
-				contentOutlinePage.setInput(parserComponent.getOutlineBlocks());
+				contentOutlinePage.setInput(getOutlineBlocks());
 			}
 
 			return (T) contentOutlinePage;
@@ -325,15 +457,16 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 			// Not supported.
 		}
 
-		byte[] fileContent;
+		FileContent fileContent;
 		Profiler profiler = new Profiler(this);
 		profiler.begin("readBytes", fileName);
 		if (ioFile != null) {
-			fileContent = FileUtility.readBytes(ioFile, MAX_FILE_SIZE, false);
+			fileContent = loadFileContent(ioFile);
 		} else if (iFile != null) {
-			fileContent = FileUtility.readBytes(iFile, MAX_FILE_SIZE, false);
+			fileContent = new FileContentImpl(
+					FileUtility.readBytes(iFile, HexEditorParserComponent.MAX_PARSED_FILE_SIZE, false));
 		} else {
-			fileContent = new byte[0];
+			fileContent = new FileContentImpl(new byte[0]);
 		}
 		profiler.end("readBytes");
 
@@ -349,6 +482,27 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 
 	}
 
+	/**
+	 * Loads the content of a file. Large files are read page by page on demand
+	 * instead of being read completely.
+	 * 
+	 * @param ioFile The file, not <code>null</code>.
+	 * @return The file content, not <code>null</code>.
+	 * @throws CoreException If the file cannot be read.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static FileContent loadFileContent(File ioFile) throws CoreException {
+		if (ioFile == null) {
+			throw new IllegalArgumentException("Parameter 'ioFile' must not be null.");
+		}
+		if (ioFile.length() > HexEditorParserComponent.MAX_PARSED_FILE_SIZE) {
+			return PagedFileContent.create(ioFile);
+		}
+		return new FileContentImpl(
+				FileUtility.readBytes(ioFile, HexEditorParserComponent.MAX_PARSED_FILE_SIZE, false));
+	}
+
 	public int getBytesPerRow() {
 		return parserComponent.getBytesPerRow();
 	}
@@ -366,19 +520,16 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 	@Override
 	public HexEditorSelection getSelection() {
 
-		if (textField == null) {
+		// The differences of a comparison do not represent a single range.
+		if (textField == null || isCompareDisplayed()) {
 			return null;
 		}
 		Point textFieldSelection = textField.getSelection();
-		String selectedText = textField.getText().substring(textFieldSelection.x, textFieldSelection.y);
 
 		if (textFieldSelection.x == textFieldSelection.y) {
 			return null;
 		}
 
-		BasePlugin.getInstance().log("HexEditor selectedText=\"{0}\", selection.x={1}, selection.y={2}", new Object[] {
-				selectedText, String.valueOf(textFieldSelection.x), String.valueOf(textFieldSelection.y) });
-
 		lastEditorSelection = parserComponent.getSelection(textFieldSelection.x, textFieldSelection.y);
 
 		return lastEditorSelection;
@@ -525,17 +676,115 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 		// Bytes per Row
 		bytesPerRowField.setValue(parserComponent.getBytesPerRow());
 
-		if (parserComponent.isParsingFileContentRequired()) {
-			StyledString styledString = parserComponent.parseFileContent();
-			textField.setText(styledString.getString());
-			lastEditorSelection = null;
-			textField.setStyleRanges(styledString.getStyleRanges());
+		boolean parsingRequired = parserComponent.isParsingFileContentRequired() || renderingRequired;
+		boolean displayRequired = parsingRequired;
+		StyledString styledString = null;
+		if (parsingRequired) {
+			styledString = parserComponent.parseFileContent();
+			renderingRequired = false;
+		}
+
+		// The comparison replaces the parsed content when it is completed.
+		if (compareComponent != null && (parsingRequired || compareComponent.isComparingRequired(parserComponent))) {
+			cancelCompareJob();
+			compareJob = compareComponent.createCompareJob(this, parserComponent);
+			compareJob.schedule();
+		}
+
+		if (displayRequired) {
+			displayContent(parserComponent.getVirtualContent(), styledString);
+		}
+
+		messageManager.displayMessages();
+	}
 
-			if (contentOutlinePage != null) {
-				contentOutlinePage.setInput(parserComponent.getOutlineBlocks());
+	/**
+	 * Displays the content in the text field and the outline.
+	 * 
+	 * @param virtualContent The virtual content or <code>null</code> if the
+	 *                       styled string shall be displayed.
+	 * @param styledString   The styled string, not <code>null</code> if the
+	 *                       virtual content is <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void displayContent(HexEditorVirtualContent virtualContent, StyledString styledString) {
+		if (virtualContent != null) {
+			textFieldStyleRanges = new StyleRange[0];
+			textField.setContent(virtualContent);
+		} else {
+			if (textField.getContent() != textFieldContent) {
+				textField.setContent(textFieldContent);
 			}
+			textFieldStyleRanges = styledString.getStyleRanges();
+			textField.setText(styledString.getString());
+		}
+		lastEditorSelection = null;
+
+		if (contentOutlinePage != null) {
+			contentOutlinePage.setInput(getOutlineBlocks());
+		}
+	}
+
+	/**
+	 * Determines if the result of the comparison is displayed instead of the
+	 * parsed content. While the comparison is running, the parsed content is
+	 * displayed.
+	 * 
+	 * @return <code>true</code> if the result of the comparison is displayed.
+	 * 
+	 * @since 1.7.2
+	 */
+	private boolean isCompareDisplayed() {
+		return compareComponent != null && compareJob == null;
+	}
+
+	/**
+	 * Cancels the running compare job, if there is one.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void cancelCompareJob() {
+		if (compareJob != null) {
+			compareJob.cancel();
+			compareJob = null;
+		}
+	}
+
+	/**
+	 * Called by {@link HexEditorCompareJob} in the UI thread when the comparison
+	 * is completed.
+	 * 
+	 * @param job          The compare job, not <code>null</code>.
+	 * @param styledString The styled string representing the differences, not
+	 *                     <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void compareCompleted(HexEditorCompareJob job, StyledString styledString) {
+		if (job == null) {
+			throw new IllegalArgumentException("Parameter 'job' must not be null.");
 		}
+		if (styledString == null) {
+			throw new IllegalArgumentException("Parameter 'styledString' must not be null.");
+		}
+
+		// Skip results which are already outdated.
+		if (job != compareJob || textField == null || textField.isDisposed()) {
+			return;
+		}
+		compareJob = null;
+		displayContent(null, styledString);
 
+		messageManager.clearMessages();
+		if (compareComponent.isTruncated()) {
+			// WARNING: Comparison stopped after {0} differences.
+			messageManager.sendMessage(MessageIds.COMPARE, IStatus.WARNING, Texts.MESSAGE_W311,
+					NumberUtility.getLongValueDecimalString(HexEditorCompareComponent.MAX_DIFFERENCES));
+		} else if (compareComponent.getDifferenceBlocks().isEmpty()) {
+			// INFO: The files are identical.
+			messageManager.sendMessage(MessageIds.COMPARE, IStatus.INFO, Texts.MESSAGE_I309);
+		}
 		messageManager.displayMessages();
 	}
 
@@ -555,6 +804,24 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 			case Actions.BYTES_PER_ROW_CHANGED:
 				oldSelection = getSelection();
 				break;
+			case Actions.SEARCH_NEXT:
+				search(true);
+				break;
+			case Actions.SEARCH_PREVIOUS:
+				search(false);
+				break;
+			case Actions.COMPARE:
+				compare();
+				break;
+			case Actions.COMPARE_CLOSE:
+				closeCompare();
+				break;
+			case Actions.COMPARE_NEXT:
+				showDifference(true);
+				break;
+			case Actions.COMPARE_PREVIOUS:
+				showDifference(false);
+				break;
 			}
 
 			dataToUi();
@@ -567,6 +834,470 @@ public final class HexEditor extends EditorPart implements ISelectionProvider, A
 
 	}
 
+	/**
+	 * Searches the file content for the text of the search field and navigates to
+	 * the next or previous match. The matches of the last search are reused if the
+	 * search pattern, the file content and its modification time stamp are
+	 * unchanged. Otherwise the file content is searched in a
+	 * {@link HexEditorSearchJob}. All matches are highlighted.
+	 * 
+	 * @param forward <code>true</code> to navigate to the next match,
+	 *                <code>false</code> to navigate to the previous match.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void search(boolean forward) {
+		HexEditorSearchMode searchMode = searchModeField.getValue();
+		String searchText = searchField.getValue();
+		if (searchText.trim().isEmpty()) {
+			return;
+		}
+		HexEditorSearchPattern pattern = HexEditorSearchPattern.create(searchMode, searchText,
+				parserComponent.getCharacterSet());
+		if (pattern == null) {
+			// ERROR: Search pattern '{0}' is not valid for search mode '{1}'.
+			messageManager.sendMessage(MessageIds.SEARCH, IStatus.ERROR, Texts.MESSAGE_E305, searchText,
+					EnumUtility.getText(searchMode));
+			return;
+		}
+
+		FileContent fileContent = parserComponent.getFileContent();
+		long fileModificationStamp = getFileModificationStamp();
+		if (pattern.equals(searchPattern) && searchMatches != null && fileContent == searchFileContent
+				&& fileModificationStamp == searchFileModificationStamp) {
+			showSearchMatch(forward);
+			return;
+		}
+
+		if (searchJob != null) {
+			searchJob.cancel();
+		}
+		searchPattern = pattern;
+		searchMatches = null;
+		searchFileContent = fileContent;
+		searchFileModificationStamp = fileModificationStamp;
+		textField.redraw();
+		searchJob = new HexEditorSearchJob(this, fileContent, pattern, forward);
+		searchJob.schedule();
+	}
+
+	/**
+	 * Gets the modification time stamp of the file.
+	 * 
+	 * @return The modification time stamp or <code>0</code> if there is no file.
+	 * 
+	 * @since 1.7.2
+	 */
+	private long getFileModificationStamp() {
+		return ioFile != null ? ioFile.lastModified() : 0;
+	}
+
+	/**
+	 * Called by {@link HexEditorSearchJob} in the UI thread when the search is
+	 * completed.
+	 * 
+	 * @param job     The search job, not <code>null</code>.
+	 * @param matches The offsets of the matches in ascending order, may be empty,
+	 *                not <code>null</code>.
+	 * @param forward <code>true</code> to navigate to the next match,
+	 *                <code>false</code> to navigate to the previous match.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void searchCompleted(HexEditorSearchJob job, long[] matches, boolean forward) {
+		if (job == null) {
+			throw new IllegalArgumentException("Parameter 'job' must not be null.");
+		}
+		if (matches == null) {
+			throw new IllegalArgumentException("Parameter 'matches' must not be null.");
+		}
+
+		// Skip results which are already outdated.
+		if (job != searchJob || textField == null || textField.isDisposed()) {
+			return;
+		}
+		searchJob = null;
+		searchMatches = matches;
+		textField.redraw();
+
+		messageManager.clearMessages();
+		showSearchMatch(forward);
+		messageManager.displayMessages();
+	}
+
+	/**
+	 * Selects the next or previous match relative to the current selection. The
+	 * navigation wraps around at the start and the end of the file content.
+	 * 
+	 * @param forward <code>true</code> to navigate to the next match,
+	 *                <code>false</code> to navigate to the previous match.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void showSearchMatch(boolean forward) {
+		String searchText = searchField.getValue();
+		int count = searchMatches.length;
+		if (count == 0) {
+			// INFO: No match found for '{0}'.
+			messageManager.sendMessage(0, IStatus.OK, Texts.MESSAGE_I306, searchText);
+			return;
+		}
+
+		// Determine the byte offset of the current selection.
+		Point textFieldSelection = textField.getSelection();
+		long referenceOffset = parserComponent.getByteOffset(textFieldSelection.x);
+		if (referenceOffset == HexEditorParserComponent.UNDEFINED_OFFSET) {
+			referenceOffset = Long.MAX_VALUE;
+		}
+		boolean selected = textFieldSelection.x != textFieldSelection.y;
+
+		// Find the first match after the current selection.
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			long offset = searchMatches[middle];
+			if (offset < referenceOffset || (selected && offset == referenceOffset)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		int index;
+		if (forward) {
+			index = (low == count ? 0 : low);
+		} else {
+			// The match at the current selection is skipped.
+			index = low - 1;
+			if (index >= 0 && selected && searchMatches[index] == referenceOffset) {
+				index--;
+			}
+			if (index < 0) {
+				index = count - 1;
+			}
+		}
+
+		long startOffset = searchMatches[index];
+		long endOffset = startOffset + searchPattern.getLength() - 1;
+		long textStartOffset = parserComponent.getByteTextOffset(startOffset);
+		if (textStartOffset != HexEditorParserComponent.UNDEFINED_OFFSET && !isCompareDisplayed()) {
+			long textEndOffset = parserComponent.getByteTextOffset(endOffset + 1);
+			if (textEndOffset == HexEditorParserComponent.UNDEFINED_OFFSET || textEndOffset < textStartOffset) {
+				long lastTextOffset = parserComponent.getByteTextOffset(endOffset);
+				if (lastTextOffset == HexEditorParserComponent.UNDEFINED_OFFSET) {
+					lastTextOffset = textStartOffset;
+				}
+				StyledTextContent content = textField.getContent();
+				int lineIndex = content.getLineAtOffset((int) lastTextOffset);
+				textEndOffset = content.getOffsetAtLine(lineIndex) + content.getLine(lineIndex).length();
+			}
+			setSelectionOffsets(textStartOffset, textEndOffset);
+		}
+
+		// INFO: Match {0} of {1} at ${2} ({3}).
+		messageManager.sendMessage(0, IStatus.OK, Texts.MESSAGE_I307,
+				NumberUtility.getLongValueDecimalString(index + 1), NumberUtility.getLongValueDecimalString(count),
+				HexUtility.getLongValueHexString(startOffset), NumberUtility.getLongValueDecimalString(startOffset));
+		if (count == HexEditorSearchJob.MAX_MATCHES) {
+			// WARNING: Search stopped after {0} matches.
+			messageManager.sendMessage(MessageIds.SEARCH, IStatus.WARNING, Texts.MESSAGE_W308,
+					NumberUtility.getLongValueDecimalString(count));
+		}
+	}
+
+	/**
+	 * Gets the style ranges of a line of the text field. The style ranges of the
+	 * content are combined with the highlighting of the search matches.
+	 * 
+	 * @param lineOffset The text offset of the line, a non-negative integer.
+	 * @param lineLength The length of the line, a non-negative integer.
+	 * @return The style ranges in ascending order, may be empty, not
+	 *         <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private StyleRange[] getLineStyleRanges(int lineOffset, int lineLength) {
+		StyleRange[] styleRanges;
+		StyledTextContent content = textField.getContent();
+		if (content instanceof HexEditorVirtualContent) {
+			styleRanges = ((HexEditorVirtualContent) content).getLineStyleRanges(lineOffset);
+		} else {
+			styleRanges = getLineStyleRanges(textFieldStyleRanges, lineOffset, lineLength);
+		}
+		if (searchMatches == null || searchMatches.length == 0 || isCompareDisplayed()) {
+			return styleRanges;
+		}
+
+		// Find the first match which can cover a byte of the line.
+		long firstByteOffset = parserComponent.getByteOffset(lineOffset);
+		if (firstByteOffset == HexEditorParserComponent.UNDEFINED_OFFSET) {
+			return styleRanges;
+		}
+		int patternLength = searchPattern.getLength();
+		int low = 0;
+		int high = searchMatches.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (searchMatches[middle] + patternLength <= firstByteOffset) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		// Highlight the hex values of the bytes of the matches in the line.
+		int lineEndOffset = lineOffset + lineLength;
+		long highlightEndOffset = lineOffset;
+		List<StyleRange> matchStyleRanges = new ArrayList<StyleRange>();
+		for (int i = low; i < searchMatches.length; i++) {
+			long matchOffset = searchMatches[i];
+			if (parserComponent.getByteTextOffset(matchOffset) >= lineEndOffset) {
+				break;
+			}
+			for (long byteOffset = Math.max(matchOffset, firstByteOffset); byteOffset < matchOffset
+					+ patternLength; byteOffset++) {
+				long textOffset = getByteHexTextOffset(byteOffset, lineOffset);
+				if (textOffset >= lineEndOffset) {
+					break;
+				}
+				// Overlapping matches are highlighted once.
+				if (textOffset >= highlightEndOffset) {
+					highlightEndOffset = textOffset + 2;
+					StyleRange styleRange = new StyleRange((int) textOffset, 2,
+							textField.getDisplay().getSystemColor(SWT.COLOR_BLACK),
+							textField.getDisplay().getSystemColor(SWT.COLOR_YELLOW));
+					matchStyleRanges.add(styleRange);
+				}
+			}
+		}
+		return mergeStyleRanges(styleRanges, matchStyleRanges);
+	}
+
+	/**
+	 * Gets the text offset of the hex value of a byte. The first byte of a row is
+	 * represented by the start of the row, so its hex value is located via the
+	 * hex value of the next byte.
+	 * 
+	 * @param byteOffset The byte offset, a non-negative integer.
+	 * @param lineOffset The text offset of the line, a non-negative integer.
+	 * @return The text offset or
+	 *         {@link HexEditorParserComponent#UNDEFINED_OFFSET}.
+	 * 
+	 * @since 1.7.2
+	 */
+	private long getByteHexTextOffset(long byteOffset, int lineOffset) {
+		long textOffset = parserComponent.getByteTextOffset(byteOffset);
+		if (textOffset == HexEditorParserComponent.UNDEFINED_OFFSET || textOffset > lineOffset) {
+			return textOffset;
+		}
+		long nextTextOffset = parserComponent.getByteTextOffset(byteOffset + 1);
+		if (nextTextOffset == HexEditorParserComponent.UNDEFINED_OFFSET || nextTextOffset - 3 <= textOffset) {
+			return HexEditorParserComponent.UNDEFINED_OFFSET;
+		}
+		return nextTextOffset - 3;
+	}
+
+	/**
+	 * Gets the style ranges which intersect a line, clipped to the line.
+	 * 
+	 * @param styleRanges The style ranges in ascending order, not
+	 *                    <code>null</code>.
+	 * @param lineOffset  The text offset of the line, a non-negative integer.
+	 * @param lineLength  The length of the line, a non-negative integer.
+	 * @return The style ranges in ascending order, may be empty, not
+	 *         <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static StyleRange[] getLineStyleRanges(StyleRange[] styleRanges, int lineOffset, int lineLength) {
+		int low = 0;
+		int high = styleRanges.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (styleRanges[middle].start + styleRanges[middle].length <= lineOffset) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		int lineEndOffset = lineOffset + lineLength;
+		List<StyleRange> result = new ArrayList<StyleRange>();
+		for (int i = low; i < styleRanges.length && styleRanges[i].start < lineEndOffset; i++) {
+			StyleRange styleRange = (StyleRange) styleRanges[i].clone();
+			int start = Math.max(styleRange.start, lineOffset);
+			int end = Math.min(styleRange.start + styleRange.length, lineEndOffset);
+			styleRange.start = start;
+			styleRange.length = end - start;
+			result.add(styleRange);
+		}
+		return result.toArray(new StyleRange[result.size()]);
+	}
+
+	/**
+	 * Merges the highlighting style ranges into the style ranges of a line. The
+	 * highlighting style ranges take precedence.
+	 * 
+	 * @param styleRanges          The style ranges in ascending order, not
+	 *                             <code>null</code>.
+	 * @param highlightStyleRanges The highlighting style ranges in ascending
+	 *                             order, not <code>null</code>.
+	 * @return The merged style ranges in ascending order, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static StyleRange[] mergeStyleRanges(StyleRange[] styleRanges, List<StyleRange> highlightStyleRanges) {
+		if (highlightStyleRanges.isEmpty()) {
+			return styleRanges;
+		}
+		List<StyleRange> result = new ArrayList<StyleRange>();
+		int h = 0;
+		int highlightEndOffset = 0;
+		for (StyleRange styleRange : styleRanges) {
+			int start = Math.max(styleRange.start, highlightEndOffset);
+			int end = styleRange.start + styleRange.length;
+
+			// Add the highlights before or inside the style range and split the
+			// style range around them.
+			while (h < highlightStyleRanges.size() && highlightStyleRanges.get(h).start < end) {
+				StyleRange highlight = highlightStyleRanges.get(h);
+				if (highlight.start > start) {
+					result.add(createStyleRange(styleRange, start, highlight.start));
+				}
+				result.add(highlight);
+				highlightEndOffset = highlight.start + highlight.length;
+				start = Math.max(start, highlightEndOffset);
+				h++;
+			}
+			if (start < end) {
+				result.add(createStyleRange(styleRange, start, end));
+			}
+		}
+		while (h < highlightStyleRanges.size()) {
+			result.add(highlightStyleRanges.get(h++));
+		}
+		return result.toArray(new StyleRange[result.size()]);
+	}
+
+	private static StyleRange createStyleRange(StyleRange styleRange, int start, int end) {
+		StyleRange result = (StyleRange) styleRange.clone();
+		result.start = start;
+		result.length = end - start;
+		return result;
+	}
+
+	/**
+	 * Gets the outline blocks of the comparison or of the parsed file content.
+	 * 
+	 * @return The list of outline blocks, may be empty, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private List<HexEditorContentOutlineTreeObject> getOutlineBlocks() {
+		if (isCompareDisplayed()) {
+			return compareComponent.getOutlineBlocks();
+		}
+		return parserComponent.getOutlineBlocks();
+	}
+
+	/**
+	 * Lets the user select a file and compares the file content with the content
+	 * of the selected file. The comparison is started by {@link #dataToUi()}.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void compare() {
+		FileDialog dialog = new FileDialog(getSite().getShell(), SWT.OPEN);
+		dialog.setText(Texts.HEX_EDITOR_COMPARE_DIALOG_TITLE);
+		if (compareComponent != null) {
+			dialog.setFileName(compareComponent.getCompareFile().getAbsolutePath());
+		} else if (ioFile != null) {
+			dialog.setFileName(ioFile.getAbsolutePath());
+		}
+		String filePath = dialog.open();
+		if (filePath == null) {
+			return;
+		}
+
+		File compareFile = new File(filePath);
+		FileContent compareFileContent;
+		try {
+			compareFileContent = loadFileContent(compareFile);
+		} catch (CoreException ex) {
+			messageManager.sendMessage(MessageIds.COMPARE, ex);
+			return;
+		}
+		cancelCompareJob();
+		if (compareComponent != null) {
+			compareComponent.dispose();
+		}
+		compareComponent = new HexEditorCompareComponent(this, compareFile, compareFileContent);
+		compareFileField.setValue(compareFile.getAbsolutePath());
+		renderingRequired = true;
+	}
+
+	/**
+	 * Ends the comparison and displays the parsed file content again.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void closeCompare() {
+		if (compareComponent == null) {
+			return;
+		}
+		cancelCompareJob();
+		compareComponent.dispose();
+		compareComponent = null;
+		compareFileField.setValue("");
+		renderingRequired = true;
+	}
+
+	/**
+	 * Selects the next or previous difference relative to the current selection.
+	 * The navigation wraps around at the start and the end of the comparison.
+	 * 
+	 * @param forward <code>true</code> to navigate to the next difference,
+	 *                <code>false</code> to navigate to the previous difference.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void showDifference(boolean forward) {
+		if (!isCompareDisplayed()) {
+			return;
+		}
+		List<HexEditorContentOutlineTreeObject> differenceBlocks = compareComponent.getDifferenceBlocks();
+		int count = differenceBlocks.size();
+		if (count == 0) {
+			return;
+		}
+
+		int referenceOffset = textField.getSelection().x;
+		int index;
+		if (forward) {
+			index = 0;
+			while (index < count && differenceBlocks.get(index).getTextStartOffset() <= referenceOffset) {
+				index++;
+			}
+			if (index == count) {
+				index = 0;
+			}
+		} else {
+			index = count - 1;
+			while (index >= 0 && differenceBlocks.get(index).getTextStartOffset() >= referenceOffset) {
+				index--;
+			}
+			if (index < 0) {
+				index = count - 1;
+			}
+		}
+
+		HexEditorContentOutlineTreeObject differenceBlock = differenceBlocks.get(index);
+		setSelectionOffsets(differenceBlock.getTextStartOffset(), differenceBlock.getTextEndOffset());
+
+		// INFO: Difference {0} of {1}.
+		messageManager.sendMessage(0, IStatus.OK, Texts.MESSAGE_I310,
+				NumberUtility.getLongValueDecimalString(index + 1), NumberUtility.getLongValueDecimalString(count));
+	}
+
 	/**
 	 * Called by {@link HexEditorClipboardCommandHandler}.
 	 * 
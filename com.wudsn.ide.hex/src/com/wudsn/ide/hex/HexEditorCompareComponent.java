@@ -0,0 +1,764 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.hex;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.preference.JFacePreferences;
+import org.eclipse.jface.viewers.StyledString;
+import org.eclipse.jface.viewers.StyledString.Styler;
+
+import com.wudsn.ide.base.common.HexUtility;
+import com.wudsn.ide.base.common.MessageQueue;
+import com.wudsn.ide.base.common.NumberUtility;
+import com.wudsn.ide.base.common.Profiler;
+import com.wudsn.ide.base.common.TextUtility;
+import com.wudsn.ide.base.gui.MessageManager;
+import com.wudsn.ide.base.hardware.HardwareCharacterSet;
+
+/**
+ * Compares the file content of the {@link HexEditor} with the content of a
+ * second file. Both files are split into the blocks determined by the parser of
+ * the current file content mode, for example COM segments, disk sectors or IFF
+ * chunks. The blocks are aligned via the longest common subsequence of their
+ * hashes, so inserted and deleted blocks do not shift the comparison of the
+ * following blocks. Aligned blocks are compared chunk by chunk, so the memory
+ * required does not depend on the file size. Only the differences are
+ * rendered, with the bytes of both files side by side. The comparison is
+ * performed by a {@link HexEditorCompareJob}.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class HexEditorCompareComponent {
+
+	/**
+	 * Number of bytes compared at once.
+	 */
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	/**
+	 * Differences which are separated by at most this number of equal bytes are
+	 * merged into one difference.
+	 */
+	private static final int MERGE_GAP = 8;
+
+	/**
+	 * The maximum number of differences which are collected.
+	 */
+	static final int MAX_DIFFERENCES = 1024;
+
+	/**
+	 * The maximum number of rows rendered per difference.
+	 */
+	private static final int MAX_DIFFERENCE_ROWS = 16;
+
+	/**
+	 * The maximum number of inserted and deleted blocks for which the blocks are
+	 * aligned. Beyond that, the blocks are aligned by their index.
+	 */
+	static final int MAX_EDIT_DISTANCE = 1024;
+
+	/**
+	 * A range of different bytes.
+	 */
+	private static final class Difference {
+		public final long leftOffset;
+		public final long leftLength;
+		public final long rightOffset;
+		public final long rightLength;
+
+		public Difference(long leftOffset, long leftLength, long rightOffset, long rightLength) {
+			this.leftOffset = leftOffset;
+			this.leftLength = leftLength;
+			this.rightOffset = rightOffset;
+			this.rightLength = rightLength;
+		}
+	}
+
+	private final File compareFile;
+	private final MessageManager compareMessageManager;
+	private final HexEditorParserComponent compareParserComponent;
+
+	// Style components.
+	private Styler offsetStyler;
+	private Styler differenceStyler;
+
+	// Comparison state, only accessed by the compare job.
+	private List<Difference> differences;
+	private IProgressMonitor monitor;
+
+	// Comparison result, replaced when a comparison is completed.
+	private boolean truncated;
+	private List<HexEditorContentOutlineTreeObject> outlineBlocks;
+	private List<HexEditorContentOutlineTreeObject> differenceBlocks;
+
+	// Previous state with regards to comparing.
+	private FileContent oldFileContent;
+	private HexEditorFileContentMode oldFileContentMode;
+	private HardwareCharacterSet oldCharacterSet;
+	private int oldBytesPerRow;
+
+	// Buffers for comparing.
+	private byte[] leftBuffer;
+	private byte[] rightBuffer;
+
+	/**
+	 * Creates a new instance. Called by {@link HexEditor}.
+	 * 
+	 * @param editor             The hex editor, not <code>null</code>.
+	 * @param compareFile        The file to compare with, not <code>null</code>.
+	 * @param compareFileContent The content of the file to compare with, not
+	 *                           <code>null</code>.
+	 */
+	HexEditorCompareComponent(HexEditor editor, File compareFile, FileContent compareFileContent) {
+		if (editor == null) {
+			throw new IllegalArgumentException("Parameter 'editor' must not be null.");
+		}
+		if (compareFile == null) {
+			throw new IllegalArgumentException("Parameter 'compareFile' must not be null.");
+		}
+		if (compareFileContent == null) {
+			throw new IllegalArgumentException("Parameter 'compareFileContent' must not be null.");
+		}
+		this.compareFile = compareFile;
+
+		// Messages about the structure of the file to compare with are not
+		// displayed.
+		compareMessageManager = new MessageManager(new MessageQueue(), editor);
+		compareParserComponent = new HexEditorParserComponent(compareMessageManager);
+		compareParserComponent.setFileContent(compareFileContent);
+		compareParserComponent.determinePossibleFileContentModes();
+
+		offsetStyler = StyledString.createColorRegistryStyler(JFacePreferences.COUNTER_COLOR, null);
+		differenceStyler = StyledString.createColorRegistryStyler(JFacePreferences.ERROR_COLOR, null);
+
+		differences = new ArrayList<Difference>();
+		outlineBlocks = new ArrayList<HexEditorContentOutlineTreeObject>();
+		differenceBlocks = new ArrayList<HexEditorContentOutlineTreeObject>();
+	}
+
+	/**
+	 * Releases the resources of the instance.
+	 */
+	public void dispose() {
+		compareMessageManager.dispose();
+	}
+
+	/**
+	 * Gets the file to compare with.
+	 * 
+	 * @return The file to compare with, not <code>null</code>.
+	 */
+	public File getCompareFile() {
+		return compareFile;
+	}
+
+	/**
+	 * Determines if the file content has to be compared again, because the
+	 * parameters of the parser component have changed.
+	 * 
+	 * @param parserComponent The parser component of the editor, not
+	 *                        <code>null</code>.
+	 * @return <code>true</code> if
+	 *         {@link #createCompareJob(HexEditor, HexEditorParserComponent)}
+	 *         has to be called.
+	 */
+	public boolean isComparingRequired(HexEditorParserComponent parserComponent) {
+		if (parserComponent == null) {
+			throw new IllegalArgumentException("Parameter 'parserComponent' must not be null.");
+		}
+		return parserComponent.getFileContent() != oldFileContent
+				|| !parserComponent.getFileContentMode().equals(oldFileContentMode)
+				|| !parserComponent.getCharacterSet().equals(oldCharacterSet)
+				|| parserComponent.getBytesPerRow() != oldBytesPerRow;
+	}
+
+	/**
+	 * Creates the job which compares the file content of the parser component
+	 * with the file content of the file to compare with. The file content of the
+	 * parser component must already be parsed, so the blocks are known. The
+	 * parameters of the parser component are taken over when the job is
+	 * created, so the parser component can be changed while the job is running.
+	 * 
+	 * @param editor          The hex editor, not <code>null</code>.
+	 * @param parserComponent The parser component of the editor, not
+	 *                        <code>null</code>.
+	 * @return The job, not yet scheduled, not <code>null</code>.
+	 */
+	public HexEditorCompareJob createCompareJob(HexEditor editor, HexEditorParserComponent parserComponent) {
+		if (editor == null) {
+			throw new IllegalArgumentException("Parameter 'editor' must not be null.");
+		}
+		if (parserComponent == null) {
+			throw new IllegalArgumentException("Parameter 'parserComponent' must not be null.");
+		}
+		HexEditorCompareJob job = new HexEditorCompareJob(editor, this, parserComponent.getFileContent(),
+				parserComponent.getBlocks(), parserComponent.getFileContentMode(),
+				parserComponent.getCharacterSet(), parserComponent.getBytesPerRow());
+
+		// Copy current state to state backup for change detection in {@link
+		// #isComparingRequired}.
+		oldFileContent = parserComponent.getFileContent();
+		oldFileContentMode = parserComponent.getFileContentMode();
+		oldCharacterSet = parserComponent.getCharacterSet();
+		oldBytesPerRow = parserComponent.getBytesPerRow();
+		return job;
+	}
+
+	/**
+	 * Compares a file content with the file content of the file to compare with.
+	 * Called by {@link HexEditorCompareJob} in a background thread. Concurrent
+	 * calls are serialized.
+	 * 
+	 * @param leftFileContent The file content, not <code>null</code>.
+	 * @param leftBlocks      The modifiable list of blocks of the file content,
+	 *                        each consisting of offset and length, may be
+	 *                        empty, not <code>null</code>.
+	 * @param fileContentMode The file content mode, not <code>null</code>.
+	 * @param characterSet    The character set, not <code>null</code>.
+	 * @param bytesPerRow     The number of bytes per row, a positive integer.
+	 * @param monitor         The progress monitor, not <code>null</code>.
+	 * @return The styled string representing the differences or
+	 *         <code>null</code> if the comparison was canceled.
+	 */
+	synchronized StyledString compare(FileContent leftFileContent, List<long[]> leftBlocks,
+			HexEditorFileContentMode fileContentMode, HardwareCharacterSet characterSet, int bytesPerRow,
+			IProgressMonitor monitor) {
+		if (leftFileContent == null) {
+			throw new IllegalArgumentException("Parameter 'leftFileContent' must not be null.");
+		}
+		if (leftBlocks == null) {
+			throw new IllegalArgumentException("Parameter 'leftBlocks' must not be null.");
+		}
+		if (fileContentMode == null) {
+			throw new IllegalArgumentException("Parameter 'fileContentMode' must not be null.");
+		}
+		if (characterSet == null) {
+			throw new IllegalArgumentException("Parameter 'characterSet' must not be null.");
+		}
+		if (monitor == null) {
+			throw new IllegalArgumentException("Parameter 'monitor' must not be null.");
+		}
+
+		FileContent rightFileContent = compareParserComponent.getFileContent();
+
+		Profiler profiler = new Profiler(this);
+		profiler.begin("compare",
+				leftFileContent.getLength() + " bytes with " + rightFileContent.getLength() + " bytes");
+
+		// Parse the file to compare with in the same way to get its blocks.
+		compareParserComponent.setFileContentMode(fileContentMode);
+		compareParserComponent.setCharacterSet(characterSet);
+		compareParserComponent.setBytesPerRow(bytesPerRow);
+		if (compareParserComponent.isParsingFileContentRequired()) {
+			compareParserComponent.parseFileContent();
+		}
+		List<long[]> rightBlocks = compareParserComponent.getBlocks();
+
+		// Without a common block structure, the files are compared as a whole.
+		if (leftBlocks.isEmpty() || rightBlocks.isEmpty()) {
+			leftBlocks.clear();
+			leftBlocks.add(new long[] { 0, leftFileContent.getLength() });
+			rightBlocks.clear();
+			rightBlocks.add(new long[] { 0, rightFileContent.getLength() });
+		}
+
+		this.monitor = monitor;
+		differences.clear();
+		truncated = false;
+		leftBuffer = new byte[CHUNK_SIZE];
+		rightBuffer = new byte[CHUNK_SIZE];
+		try {
+			long[] leftHashes = getBlockHashes(leftFileContent, leftBlocks);
+			long[] rightHashes = getBlockHashes(rightFileContent, rightBlocks);
+			if (leftHashes == null || rightHashes == null) {
+				return null;
+			}
+			int[] matches = alignBlocks(leftHashes, rightHashes, MAX_EDIT_DISTANCE);
+			if (!compareAlignedBlocks(leftFileContent, leftBlocks, rightFileContent, rightBlocks, matches)) {
+				return null;
+			}
+		} finally {
+			this.monitor = null;
+			leftBuffer = null;
+			rightBuffer = null;
+		}
+
+		StyledString contentBuilder = render(leftFileContent, rightFileContent, characterSet, bytesPerRow);
+		profiler.end("compare");
+		return contentBuilder;
+	}
+
+	/**
+	 * Computes the hashes of the blocks of a file content. The hash consists of
+	 * the length and the CRC-32 of the block.
+	 * 
+	 * @param fileContent The file content, not <code>null</code>.
+	 * @param blocks      The list of blocks, not <code>null</code>.
+	 * @return The hashes of the blocks or <code>null</code> if the comparison was
+	 *         canceled.
+	 */
+	private long[] getBlockHashes(FileContent fileContent, List<long[]> blocks) {
+		long[] result = new long[blocks.size()];
+		CRC32 crc = new CRC32();
+		for (int i = 0; i < result.length; i++) {
+			if (monitor.isCanceled()) {
+				return null;
+			}
+			long[] block = blocks.get(i);
+			crc.reset();
+			for (long position = 0; position < block[1]; position += CHUNK_SIZE) {
+				int count = (int) Math.min(CHUNK_SIZE, block[1] - position);
+				byte[] buffer = (count < CHUNK_SIZE ? new byte[count] : leftBuffer);
+				fileContent.getBytes(block[0] + position, buffer);
+				crc.update(buffer, 0, count);
+			}
+			result[i] = block[1] << 32 | crc.getValue();
+		}
+		return result;
+	}
+
+	/**
+	 * Aligns two sequences of block hashes via their longest common subsequence.
+	 * The greedy algorithm of Eugene W. Myers takes O((N+M)D) time and O(D^2)
+	 * space, where D is the number of inserted and deleted blocks. If D exceeds
+	 * the maximum edit distance, the blocks are aligned by their index.
+	 * 
+	 * @param leftHashes      The hashes of the left blocks, not
+	 *                        <code>null</code>.
+	 * @param rightHashes     The hashes of the right blocks, not
+	 *                        <code>null</code>.
+	 * @param maxEditDistance The maximum edit distance, a non-negative integer.
+	 * @return The index of the matching right block for each left block or
+	 *         <code>-1</code> if there is no matching right block, not
+	 *         <code>null</code>. The indices of the matching right blocks are in
+	 *         ascending order.
+	 */
+	static int[] alignBlocks(long[] leftHashes, long[] rightHashes, int maxEditDistance) {
+		if (leftHashes == null) {
+			throw new IllegalArgumentException("Parameter 'leftHashes' must not be null.");
+		}
+		if (rightHashes == null) {
+			throw new IllegalArgumentException("Parameter 'rightHashes' must not be null.");
+		}
+		int n = leftHashes.length;
+		int m = rightHashes.length;
+		int[] result = new int[n];
+		Arrays.fill(result, -1);
+
+		// V[k] is the furthest x on diagonal k=x-y. The values of each round d are
+		// kept for the backtracking, for k from -d to d.
+		int maxD = (int) Math.min((long) n + m, maxEditDistance);
+		int offset = maxD + 1;
+		int[] v = new int[2 * maxD + 3];
+		int[][] trace = new int[maxD + 1][];
+		int lastD = -1;
+		for (int d = 0; d <= maxD && lastD < 0; d++) {
+			for (int k = -d; k <= d; k += 2) {
+				int x;
+				if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+					x = v[offset + k + 1];
+				} else {
+					x = v[offset + k - 1] + 1;
+				}
+				int y = x - k;
+				while (x < n && y < m && leftHashes[x] == rightHashes[y]) {
+					x++;
+					y++;
+				}
+				v[offset + k] = x;
+				if (x >= n && y >= m) {
+					lastD = d;
+					break;
+				}
+			}
+			trace[d] = Arrays.copyOfRange(v, offset - d, offset + d + 1);
+		}
+
+		// Without an alignment, the blocks are aligned by their index.
+		if (lastD < 0) {
+			int count = Math.min(n, m);
+			for (int i = 0; i < count; i++) {
+				result[i] = i;
+			}
+			return result;
+		}
+
+		// Follow the path backwards and record the diagonals, which are the
+		// matches.
+		int x = n;
+		int y = m;
+		for (int d = lastD; d > 0; d--) {
+			int[] previous = trace[d - 1];
+			int k = x - y;
+			int previousK;
+			if (k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1])) {
+				previousK = k + 1;
+			} else {
+				previousK = k - 1;
+			}
+			int previousX = previous[previousK + d - 1];
+			int previousY = previousX - previousK;
+			while (x > previousX && y > previousY) {
+				x--;
+				y--;
+				result[x] = y;
+			}
+			x = previousX;
+			y = previousY;
+		}
+		while (x > 0 && y > 0) {
+			x--;
+			y--;
+			result[x] = y;
+		}
+		return result;
+	}
+
+	/**
+	 * Compares the aligned blocks. Between two matching blocks, the unmatched
+	 * blocks are compared pairwise and the remaining blocks are compared as
+	 * deleted or inserted blocks.
+	 * 
+	 * @return <code>true</code> if the comparison was completed,
+	 *         <code>false</code> if it was canceled.
+	 */
+	private boolean compareAlignedBlocks(FileContent leftFileContent, List<long[]> leftBlocks,
+			FileContent rightFileContent, List<long[]> rightBlocks, int[] matches) {
+		int leftCount = leftBlocks.size();
+		int rightCount = rightBlocks.size();
+		long leftEndOffset = 0;
+		long rightEndOffset = 0;
+		int i = 0;
+		int j = 0;
+		while ((i < leftCount || j < rightCount) && !truncated) {
+			if (monitor.isCanceled()) {
+				return false;
+			}
+
+			// Find the next matching block.
+			int leftMatch = i;
+			while (leftMatch < leftCount && matches[leftMatch] < 0) {
+				leftMatch++;
+			}
+			int rightMatch = (leftMatch < leftCount ? matches[leftMatch] : rightCount);
+
+			// Compare the unmatched blocks before.
+			for (; i < leftMatch && j < rightMatch && !truncated; i++, j++) {
+				long[] leftBlock = leftBlocks.get(i);
+				long[] rightBlock = rightBlocks.get(j);
+				compareBlocks(leftFileContent, leftBlock[0], leftBlock[1], rightFileContent, rightBlock[0],
+						rightBlock[1]);
+				leftEndOffset = leftBlock[0] + leftBlock[1];
+				rightEndOffset = rightBlock[0] + rightBlock[1];
+			}
+			for (; i < leftMatch && !truncated; i++) {
+				long[] leftBlock = leftBlocks.get(i);
+				compareBlocks(leftFileContent, leftBlock[0], leftBlock[1], rightFileContent, rightEndOffset, 0);
+				leftEndOffset = leftBlock[0] + leftBlock[1];
+			}
+			for (; j < rightMatch && !truncated; j++) {
+				long[] rightBlock = rightBlocks.get(j);
+				compareBlocks(leftFileContent, leftEndOffset, 0, rightFileContent, rightBlock[0], rightBlock[1]);
+				rightEndOffset = rightBlock[0] + rightBlock[1];
+			}
+
+			// Matching blocks have equal hashes, but are still compared.
+			if (leftMatch < leftCount && !truncated) {
+				long[] leftBlock = leftBlocks.get(leftMatch);
+				long[] rightBlock = rightBlocks.get(rightMatch);
+				compareBlocks(leftFileContent, leftBlock[0], leftBlock[1], rightFileContent, rightBlock[0],
+						rightBlock[1]);
+				leftEndOffset = leftBlock[0] + leftBlock[1];
+				rightEndOffset = rightBlock[0] + rightBlock[1];
+				i = leftMatch + 1;
+				j = rightMatch + 1;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compares two aligned blocks and adds the differences.
+	 * 
+	 * @param leftFileContent  The left file content, not <code>null</code>.
+	 * @param leftOffset       The offset of the left block, a non-negative
+	 *                         integer.
+	 * @param leftLength       The length of the left block, a non-negative
+	 *                         integer.
+	 * @param rightFileContent The right file content, not <code>null</code>.
+	 * @param rightOffset      The offset of the right block, a non-negative
+	 *                         integer.
+	 * @param rightLength      The length of the right block, a non-negative
+	 *                         integer.
+	 */
+	private void compareBlocks(FileContent leftFileContent, long leftOffset, long leftLength,
+			FileContent rightFileContent, long rightOffset, long rightLength) {
+
+		long commonLength = Math.min(leftLength, rightLength);
+		long maxLength = Math.max(leftLength, rightLength);
+
+		// Start and end of the current difference relative to the block start.
+		long differenceStart = -1;
+		long differenceEnd = -1;
+
+		for (long position = 0; position < commonLength; position += CHUNK_SIZE) {
+			int count = (int) Math.min(CHUNK_SIZE, commonLength - position);
+			if (count < CHUNK_SIZE) {
+				leftBuffer = new byte[count];
+				rightBuffer = new byte[count];
+			}
+			leftFileContent.getBytes(leftOffset + position, leftBuffer);
+			rightFileContent.getBytes(rightOffset + position, rightBuffer);
+
+			int index = 0;
+			int mismatch;
+			while ((mismatch = Arrays.mismatch(leftBuffer, index, count, rightBuffer, index, count)) >= 0) {
+				long differencePosition = position + index + mismatch;
+				if (differenceStart >= 0 && differencePosition - differenceEnd <= MERGE_GAP) {
+					differenceEnd = differencePosition + 1;
+				} else {
+					if (differenceStart >= 0 && !addDifference(leftOffset, leftLength, rightOffset, rightLength,
+							differenceStart, differenceEnd)) {
+						return;
+					}
+					differenceStart = differencePosition;
+					differenceEnd = differencePosition + 1;
+				}
+				index += mismatch + 1;
+			}
+		}
+		if (leftBuffer.length < CHUNK_SIZE) {
+			leftBuffer = new byte[CHUNK_SIZE];
+			rightBuffer = new byte[CHUNK_SIZE];
+		}
+
+		// The bytes after the end of the shorter block are different.
+		if (commonLength < maxLength) {
+			if (differenceStart >= 0 && commonLength - differenceEnd <= MERGE_GAP) {
+				differenceEnd = maxLength;
+			} else {
+				if (differenceStart >= 0 && !addDifference(leftOffset, leftLength, rightOffset, rightLength,
+						differenceStart, differenceEnd)) {
+					return;
+				}
+				differenceStart = commonLength;
+				differenceEnd = maxLength;
+			}
+		}
+		if (differenceStart >= 0) {
+			addDifference(leftOffset, leftLength, rightOffset, rightLength, differenceStart, differenceEnd);
+		}
+	}
+
+	/**
+	 * Adds a difference, clipped to the length of the blocks. A difference which
+	 * directly follows the previous difference in both files, for example in
+	 * consecutive inserted blocks, is merged with it.
+	 * 
+	 * @return <code>true</code> if more differences can be added,
+	 *         <code>false</code> if the maximum number of differences is reached.
+	 */
+	private boolean addDifference(long leftOffset, long leftLength, long rightOffset, long rightLength,
+			long differenceStart, long differenceEnd) {
+		Difference difference = new Difference(leftOffset + Math.min(differenceStart, leftLength),
+				Math.max(0, Math.min(differenceEnd, leftLength) - differenceStart),
+				rightOffset + Math.min(differenceStart, rightLength),
+				Math.max(0, Math.min(differenceEnd, rightLength) - differenceStart));
+		if (!differences.isEmpty()) {
+			int index = differences.size() - 1;
+			Difference previous = differences.get(index);
+			if (previous.leftOffset + previous.leftLength == difference.leftOffset
+					&& previous.rightOffset + previous.rightLength == difference.rightOffset) {
+				differences.set(index,
+						new Difference(previous.leftOffset, previous.leftLength + difference.leftLength,
+								previous.rightOffset, previous.rightLength + difference.rightLength));
+				return true;
+			}
+		}
+		if (differences.size() == MAX_DIFFERENCES) {
+			truncated = true;
+			return false;
+		}
+		differences.add(difference);
+		return true;
+	}
+
+	/**
+	 * Renders the differences side by side and creates the outline blocks.
+	 */
+	private StyledString render(FileContent leftFileContent, FileContent rightFileContent,
+			HardwareCharacterSet characterSet, int bytesPerRow) {
+
+		List<HexEditorContentOutlineTreeObject> outlineBlocks = new ArrayList<HexEditorContentOutlineTreeObject>();
+		List<HexEditorContentOutlineTreeObject> differenceBlocks = new ArrayList<HexEditorContentOutlineTreeObject>();
+
+		StyledString contentBuilder = new StyledString();
+		contentBuilder.append(TextUtility.format(Texts.HEX_EDITOR_COMPARE_HEADER,
+				HexUtility.getLongValueHexString(leftFileContent.getLength()),
+				NumberUtility.getLongValueDecimalString(leftFileContent.getLength()),
+				HexUtility.getLongValueHexString(rightFileContent.getLength()),
+				NumberUtility.getLongValueDecimalString(rightFileContent.getLength()),
+				compareFile.getAbsolutePath()));
+		HexEditorContentOutlineTreeObject treeObject = new HexEditorContentOutlineTreeObject(contentBuilder);
+		treeObject.setFileStartOffset(0);
+		treeObject.setTextStartOffset(0);
+		treeObject.setTextEndOffset(contentBuilder.length());
+		outlineBlocks.add(treeObject);
+		contentBuilder.append("\n");
+
+		int length = Math.max(4,
+				HexUtility.getLongValueHexLength(Math.max(leftFileContent.getLength(), rightFileContent.getLength())));
+		char[] characterMapping = characterSet.getCharacterMapping();
+		byte[] leftBytes = new byte[bytesPerRow];
+		byte[] rightBytes = new byte[bytesPerRow];
+		boolean[] different = new boolean[bytesPerRow];
+		for (int d = 0; d < differences.size(); d++) {
+			Difference difference = differences.get(d);
+
+			StyledString headerStyledString = new StyledString();
+			headerStyledString.append(TextUtility.format(Texts.HEX_EDITOR_COMPARE_DIFFERENCE_HEADER,
+					NumberUtility.getLongValueDecimalString(d + 1)), offsetStyler);
+			headerStyledString.append(" : ");
+			headerStyledString.append(TextUtility.format(Texts.HEX_EDITOR_COMPARE_DIFFERENCE_HEADER_PARAMETERS,
+					HexUtility.getLongValueHexString(difference.leftOffset, length),
+					HexUtility.getLongValueHexString(difference.leftLength, length),
+					HexUtility.getLongValueHexString(difference.rightOffset, length),
+					HexUtility.getLongValueHexString(difference.rightLength, length)));
+			treeObject = new HexEditorContentOutlineTreeObject(headerStyledString);
+			treeObject.setFileStartOffset(difference.leftOffset);
+			treeObject.setFileEndOffset(difference.leftOffset + difference.leftLength);
+			treeObject.setTextStartOffset(contentBuilder.length());
+			contentBuilder.append("\n");
+			contentBuilder.append(headerStyledString);
+			contentBuilder.append("\n");
+
+			long maxLength = Math.max(difference.leftLength, difference.rightLength);
+			long rowCount = (maxLength + bytesPerRow - 1) / bytesPerRow;
+			for (long row = 0; row < Math.min(rowCount, MAX_DIFFERENCE_ROWS); row++) {
+				long position = row * bytesPerRow;
+				int leftCount = (int) Math.max(0, Math.min(bytesPerRow, difference.leftLength - position));
+				int rightCount = (int) Math.max(0, Math.min(bytesPerRow, difference.rightLength - position));
+				for (int b = 0; b < bytesPerRow; b++) {
+					if (b < leftCount) {
+						leftBytes[b] = (byte) leftFileContent.getByte(difference.leftOffset + position + b);
+					}
+					if (b < rightCount) {
+						rightBytes[b] = (byte) rightFileContent.getByte(difference.rightOffset + position + b);
+					}
+					different[b] = b >= leftCount || b >= rightCount || leftBytes[b] != rightBytes[b];
+				}
+				contentBuilder.append(HexUtility.getLongValueHexString(difference.leftOffset + position, length),
+						offsetStyler);
+				appendBytes(contentBuilder, leftBytes, leftCount, different, bytesPerRow, characterMapping);
+				contentBuilder.append("   ");
+				contentBuilder.append(HexUtility.getLongValueHexString(difference.rightOffset + position, length),
+						offsetStyler);
+				appendBytes(contentBuilder, rightBytes, rightCount, different, bytesPerRow, characterMapping);
+				contentBuilder.append("\n");
+			}
+			if (rowCount > MAX_DIFFERENCE_ROWS) {
+				contentBuilder.append(TextUtility.format(Texts.HEX_EDITOR_COMPARE_DIFFERENCE_TRUNCATED,
+						NumberUtility.getLongValueDecimalString(rowCount - MAX_DIFFERENCE_ROWS)));
+				contentBuilder.append("\n");
+			}
+			treeObject.setTextEndOffset(contentBuilder.length());
+			outlineBlocks.add(treeObject);
+			differenceBlocks.add(treeObject);
+		}
+		this.outlineBlocks = outlineBlocks;
+		this.differenceBlocks = differenceBlocks;
+		return contentBuilder;
+	}
+
+	/**
+	 * Appends the hex values and characters of one side of a row. Runs of
+	 * different bytes are highlighted.
+	 */
+	private void appendBytes(StyledString contentBuilder, byte[] bytes, int count, boolean[] different,
+			int bytesPerRow, char[] characterMapping) {
+		StringBuilder hexBuilder = new StringBuilder(bytesPerRow * 3);
+		StringBuilder charBuilder = new StringBuilder(bytesPerRow);
+		contentBuilder.append(" :");
+		for (int pass = 0; pass < 2; pass++) {
+			StringBuilder builder = (pass == 0 ? hexBuilder : charBuilder);
+			boolean runDifferent = false;
+			for (int b = 0; b < bytesPerRow; b++) {
+				if (different[b] != runDifferent) {
+					contentBuilder.append(builder.toString(), runDifferent ? differenceStyler : null);
+					builder.setLength(0);
+					runDifferent = different[b];
+				}
+				int byteValue = bytes[b] & 0xff;
+				if (pass == 0) {
+					builder.append(' ');
+					if (b < count) {
+						builder.append(HexUtility.getByteValueHexString(byteValue));
+					} else {
+						builder.append("  ");
+					}
+				} else {
+					builder.append(b < count ? characterMapping[byteValue] : ' ');
+				}
+			}
+			contentBuilder.append(builder.toString(), runDifferent ? differenceStyler : null);
+			builder.setLength(0);
+			if (pass == 0) {
+				contentBuilder.append(" | ");
+			}
+		}
+	}
+
+	/**
+	 * Determines if the last comparison was stopped after
+	 * {@link #MAX_DIFFERENCES} differences.
+	 * 
+	 * @return <code>true</code> if not all differences were collected.
+	 */
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	/**
+	 * Gets the outline blocks determined by the last comparison.
+	 * 
+	 * @return The list of outline blocks, may be empty, not <code>null</code>.
+	 */
+	public List<HexEditorContentOutlineTreeObject> getOutlineBlocks() {
+		return outlineBlocks;
+	}
+
+	/**
+	 * Gets the outline blocks of the differences determined by the last
+	 * comparison, in ascending order of their text offsets.
+	 * 
+	 * @return The list of outline blocks, may be empty, not <code>null</code>.
+	 */
+	public List<HexEditorContentOutlineTreeObject> getDifferenceBlocks() {
+		return differenceBlocks;
+	}
+}
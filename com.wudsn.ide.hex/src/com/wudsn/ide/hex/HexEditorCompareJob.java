@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.hex;
+
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.viewers.StyledString;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.PlatformUI;
+
+import com.wudsn.ide.base.common.RunnableWithLogging;
+import com.wudsn.ide.base.hardware.HardwareCharacterSet;
+
+/**
+ * Background job which compares the file content of a {@link HexEditor} via
+ * its {@link HexEditorCompareComponent}, so large files do not block the UI
+ * thread. The rendered differences are passed to the editor in the UI thread.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class HexEditorCompareJob extends Job {
+
+	private final HexEditor editor;
+	private final HexEditorCompareComponent compareComponent;
+	private final FileContent fileContent;
+	private final List<long[]> blocks;
+	private final HexEditorFileContentMode fileContentMode;
+	private final HardwareCharacterSet characterSet;
+	private final int bytesPerRow;
+
+	/**
+	 * Creates a new instance. Called by {@link HexEditorCompareComponent}.
+	 * 
+	 * @param editor           The hex editor, not <code>null</code>.
+	 * @param compareComponent The compare component, not <code>null</code>.
+	 * @param fileContent      The file content, not <code>null</code>.
+	 * @param blocks           The modifiable list of blocks of the file content,
+	 *                         not <code>null</code>.
+	 * @param fileContentMode  The file content mode, not <code>null</code>.
+	 * @param characterSet     The character set, not <code>null</code>.
+	 * @param bytesPerRow      The number of bytes per row, a positive integer.
+	 */
+	HexEditorCompareJob(HexEditor editor, HexEditorCompareComponent compareComponent, FileContent fileContent,
+			List<long[]> blocks, HexEditorFileContentMode fileContentMode, HardwareCharacterSet characterSet,
+			int bytesPerRow) {
+		super(Texts.HEX_EDITOR_COMPARE_JOB_NAME);
+		if (editor == null) {
+			throw new IllegalArgumentException("Parameter 'editor' must not be null.");
+		}
+		if (compareComponent == null) {
+			throw new IllegalArgumentException("Parameter 'compareComponent' must not be null.");
+		}
+		if (fileContent == null) {
+			throw new IllegalArgumentException("Parameter 'fileContent' must not be null.");
+		}
+		if (blocks == null) {
+			throw new IllegalArgumentException("Parameter 'blocks' must not be null.");
+		}
+		if (fileContentMode == null) {
+			throw new IllegalArgumentException("Parameter 'fileContentMode' must not be null.");
+		}
+		if (characterSet == null) {
+			throw new IllegalArgumentException("Parameter 'characterSet' must not be null.");
+		}
+		this.editor = editor;
+		this.compareComponent = compareComponent;
+		this.fileContent = fileContent;
+		this.blocks = blocks;
+		this.fileContentMode = fileContentMode;
+		this.characterSet = characterSet;
+		this.bytesPerRow = bytesPerRow;
+		setPriority(SHORT);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
+		final StyledString styledString = compareComponent.compare(fileContent, blocks, fileContentMode,
+				characterSet, bytesPerRow, monitor);
+		monitor.done();
+		if (styledString == null) {
+			return Status.CANCEL_STATUS;
+		}
+
+		Display display = PlatformUI.getWorkbench().getDisplay();
+		if (!display.isDisposed()) {
+			display.asyncExec(new RunnableWithLogging() {
+
+				@Override
+				protected void runWithLogging() {
+					editor.compareCompleted(HexEditorCompareJob.this, styledString);
+				}
+			});
+		}
+		return Status.OK_STATUS;
+	}
+}
@@ -20,7 +20,6 @@
 package com.wudsn.ide.hex;
 
 import org.eclipse.jface.resource.JFaceResources;
-import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.jface.viewers.TreeViewer;
@@ -54,7 +53,8 @@ final class HexEditorContentOutlinePage extends ContentOutlinePage {
 		viewer.setContentProvider(new HexEditorContentOutlineTreeContentProvider());
 		viewer.setLabelProvider(new HexEditorContentOutlineLabelProvider());
 		viewer.addSelectionChangedListener(this);
-		viewer.setAutoExpandLevel(AbstractTreeViewer.ALL_LEVELS);
+		// Children are created lazily, so only the top level is expanded.
+		viewer.setAutoExpandLevel(1);
 
 		updateTreeView();
 	}
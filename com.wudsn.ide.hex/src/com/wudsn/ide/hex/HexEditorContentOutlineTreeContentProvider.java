@@ -39,6 +39,9 @@ final class HexEditorContentOutlineTreeContentProvider implements ITreeContentPr
 	 */
 	@Override
 	public Object[] getChildren(Object parentElement) {
+		if (parentElement instanceof HexEditorContentOutlineTreeObject) {
+			return ((HexEditorContentOutlineTreeObject) parentElement).getChildren().toArray();
+		}
 		return null;
 	}
 
@@ -47,7 +50,9 @@ final class HexEditorContentOutlineTreeContentProvider implements ITreeContentPr
 	 */
 	@Override
 	public Object getParent(Object element) {
-
+		if (element instanceof HexEditorContentOutlineTreeObject) {
+			return ((HexEditorContentOutlineTreeObject) element).getParent();
+		}
 		return null;
 	}
 
@@ -56,6 +61,9 @@ final class HexEditorContentOutlineTreeContentProvider implements ITreeContentPr
 	 */
 	@Override
 	public boolean hasChildren(Object element) {
+		if (element instanceof HexEditorContentOutlineTreeObject) {
+			return ((HexEditorContentOutlineTreeObject) element).hasChildren();
+		}
 		return false;
 	}
 
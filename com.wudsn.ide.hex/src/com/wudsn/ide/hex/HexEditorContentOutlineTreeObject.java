@@ -19,6 +19,9 @@
 
 package com.wudsn.ide.hex;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.eclipse.jface.viewers.StyledString;
 
 /**
@@ -28,11 +31,33 @@ import org.eclipse.jface.viewers.StyledString;
  */
 public final class HexEditorContentOutlineTreeObject {
 
+	/**
+	 * Provider for the children of a tree object. The children are only created
+	 * when they are needed, for example when the tree object is expanded in the
+	 * outline. So the number of tree objects in memory is proportional to the
+	 * part of the outline which is actually displayed.
+	 * 
+	 * @since 1.7.2
+	 */
+	public interface ChildrenProvider {
+
+		/**
+		 * Creates the children of a tree object.
+		 * 
+		 * @param parent The parent tree object, not <code>null</code>.
+		 * @return The list of children, may be empty, not <code>null</code>.
+		 */
+		public List<HexEditorContentOutlineTreeObject> createChildren(HexEditorContentOutlineTreeObject parent);
+	}
+
 	private final StyledString styledString;
 	private long fileStartOffset;
 	private long textStartOffset;
 	private long fileEndOffset;
 	private long textEndOffset;
+	private HexEditorContentOutlineTreeObject parent;
+	private ChildrenProvider childrenProvider;
+	private List<HexEditorContentOutlineTreeObject> children;
 
 	/**
 	 * Create a new instance.
@@ -141,4 +166,63 @@ public final class HexEditorContentOutlineTreeObject {
 		}
 		this.textEndOffset = textOffset;
 	}
+
+	/**
+	 * Gets the parent of the tree object.
+	 * 
+	 * @return The parent or <code>null</code> if the tree object is a top level
+	 *         tree object.
+	 * 
+	 * @since 1.7.2
+	 */
+	public HexEditorContentOutlineTreeObject getParent() {
+		return parent;
+	}
+
+	/**
+	 * Sets the provider for the children of the tree object.
+	 * 
+	 * @param childrenProvider The provider for the children or <code>null</code>
+	 *                         if the tree object has no children.
+	 * 
+	 * @since 1.7.2
+	 */
+	public void setChildrenProvider(ChildrenProvider childrenProvider) {
+		this.childrenProvider = childrenProvider;
+		children = null;
+	}
+
+	/**
+	 * Determines if the tree object has children without creating them.
+	 * 
+	 * @return <code>true</code> if the tree object has children.
+	 * 
+	 * @since 1.7.2
+	 */
+	public boolean hasChildren() {
+		return childrenProvider != null;
+	}
+
+	/**
+	 * Gets the children of the tree object. The children are created on the first
+	 * call.
+	 * 
+	 * @return The unmodifiable list of children, may be empty, not
+	 *         <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public List<HexEditorContentOutlineTreeObject> getChildren() {
+		if (childrenProvider == null) {
+			return Collections.emptyList();
+		}
+		if (children == null) {
+			List<HexEditorContentOutlineTreeObject> newChildren = childrenProvider.createChildren(this);
+			for (HexEditorContentOutlineTreeObject child : newChildren) {
+				child.parent = this;
+			}
+			children = Collections.unmodifiableList(newChildren);
+		}
+		return children;
+	}
 }
@@ -71,6 +71,22 @@ public abstract class HexEditorParser {
 	 */
 	public abstract boolean parse(StyledString contentBuilder);
 
+	/**
+	 * Public API for creating only the outline of a file content which is too
+	 * large to be rendered as styled string. The file content is displayed in
+	 * binary format, so the text offsets of the outline blocks must be determined
+	 * via {@link #getByteTextOffset(long)}. Parsers which support this override
+	 * the method, the default implementation does not create an outline.
+	 * 
+	 * @return <code>true</code> if there was an error, <code>false</code>
+	 *         otherwise.
+	 * 
+	 * @since 1.7.2
+	 */
+	public boolean parseOutline() {
+		return false;
+	}
+
 	/**
 	 * Prints a block header in the context area and adds a block to the outline.
 	 * 
@@ -93,6 +109,32 @@ public abstract class HexEditorParser {
 		if (contentBuilder == null) {
 			throw new IllegalArgumentException("Parameter 'contentBuilder' must not be null.");
 		}
+		StyledString styledString = createBlockHeaderStyledString(blockHeaderText, blockHeaderNumber,
+				blockHeaderParameterText, startAddress, endAddress);
+		printBlockHeaderText(contentBuilder, blockHeaderText, blockHeaderNumber);
+		return owner.printBlockHeader(contentBuilder, styledString, offset);
+	}
+
+	/**
+	 * Creates the styled string of a block header for the outline.
+	 * 
+	 * @param blockHeaderText          The header text for the block, may be empty,
+	 *                                 not <code>null</code>.
+	 * @param blockHeaderNumber        The block count or <code>-1</code> if count
+	 *                                 shall not be displayed.
+	 * @param blockHeaderParameterText The pattern text of the form "{0}-{1} ({2})"
+	 * @param startAddress             The start address, a non-negative integer.
+	 * @param endAddress               The end address, a non-negative integer.
+	 * 
+	 * @return The styled string, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	protected final StyledString createBlockHeaderStyledString(String blockHeaderText, int blockHeaderNumber,
+			String blockHeaderParameterText, long startAddress, long endAddress) {
+		if (blockHeaderText == null) {
+			throw new IllegalArgumentException("Parameter 'blockHeaderText' must not be null.");
+		}
 		long blockLength = endAddress - startAddress + 1;
 		String blockHeaderNumberText;
 		if (blockHeaderNumber >= 0) {
@@ -125,14 +167,44 @@ public abstract class HexEditorParser {
 			styledString.append(" : ");
 			styledString.append(decimalText);
 		}
+		return styledString;
+	}
 
+	/**
+	 * Prints a block header in the context area without adding a block to the
+	 * outline.
+	 * 
+	 * @param contentBuilder    The content builder, not <code>null</code>.
+	 * @param blockHeaderText   The header text for the block, may be empty, not
+	 *                          <code>null</code>.
+	 * @param blockHeaderNumber The block count or <code>-1</code> if count shall
+	 *                          not be displayed.
+	 * 
+	 * @since 1.7.2
+	 */
+	protected final void printBlockHeaderText(StyledString contentBuilder, String blockHeaderText,
+			int blockHeaderNumber) {
+		if (contentBuilder == null) {
+			throw new IllegalArgumentException("Parameter 'contentBuilder' must not be null.");
+		}
 		contentBuilder.append(blockHeaderText, offsetStyler);
 		if (blockHeaderNumber >= 0) {
 			contentBuilder.append(" ");
-			contentBuilder.append(blockHeaderNumberText, offsetStyler);
+			contentBuilder.append(NumberUtility.getLongValueDecimalString(blockHeaderNumber), offsetStyler);
 		}
 		contentBuilder.append("\n");
-		return owner.printBlockHeader(contentBuilder, styledString, offset);
+	}
+
+	/**
+	 * Adds a block to the outline without printing anything.
+	 * 
+	 * @param treeObject The tree object representing the block, not
+	 *                   <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	protected final void addOutlineBlock(HexEditorContentOutlineTreeObject treeObject) {
+		owner.addOutlineBlock(treeObject);
 	}
 
 	/**
@@ -163,6 +235,36 @@ public abstract class HexEditorParser {
 		owner.printBlockWithError(contentBuilder, errorText, length, offset);
 	}
 
+	/**
+	 * Sets the file offsets of the blocks which partition the file content. By
+	 * default, the top level outline blocks are used as blocks, for example when
+	 * comparing files. Parsers which create overlapping or hierarchical outline
+	 * blocks set the blocks explicitly.
+	 * 
+	 * @param blockOffsets The file offsets of the blocks in ascending order,
+	 *                     followed by the end offset of the last block, not
+	 *                     <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	protected final void setBlockOffsets(long[] blockOffsets) {
+		owner.setBlockOffsets(blockOffsets);
+	}
+
+	/**
+	 * Gets the text offset for a byte offset.
+	 * 
+	 * @param byteOffset The byte offset in the file content.
+	 * @return The text offset where the byte is represented or
+	 *         {@link HexEditorParserComponent#UNDEFINED_OFFSET} if there is no
+	 *         such text offset.
+	 * 
+	 * @since 1.7.2
+	 */
+	protected final long getByteTextOffset(long byteOffset) {
+		return owner.getByteTextOffset(byteOffset);
+	}
+
 	protected final void skipByteTextIndex(long offset) {
 		owner.skipByteTextIndex(offset);
 
@@ -170,8 +272,29 @@ public abstract class HexEditorParser {
 
 	protected final long printBytes(HexEditorContentOutlineTreeObject treeObject, StyledString contentBuilder,
 			long offset, long maxOffset, boolean withStartAddress, int startAddress) {
+		if (treeObject == null) {
+			throw new IllegalArgumentException("Parameter 'treeObject' must not be null.");
+		}
 		return owner.printBytes(treeObject, contentBuilder, offset, maxOffset, withStartAddress, startAddress);
 
 	}
 
+	/**
+	 * Prints bytes which are not represented by a block in the outline.
+	 * 
+	 * @param contentBuilder   The content builder, not <code>null</code>.
+	 * @param offset           The start offset, a non-negative integer.
+	 * @param maxOffset        The last offset to be printed, a non-negative
+	 *                         integer.
+	 * @param withStartAddress <code>true</code> to print the address of each row.
+	 * @param startAddress     The address of the first byte.
+	 * @return The offset after the last printed byte.
+	 * 
+	 * @since 1.7.2
+	 */
+	protected final long printBytes(StyledString contentBuilder, long offset, long maxOffset,
+			boolean withStartAddress, int startAddress) {
+		return owner.printBytes(null, contentBuilder, offset, maxOffset, withStartAddress, startAddress);
+	}
+
 }
\ No newline at end of file
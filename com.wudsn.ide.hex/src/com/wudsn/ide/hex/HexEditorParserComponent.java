@@ -18,9 +18,13 @@
  */
 package com.wudsn.ide.hex;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.jface.preference.JFacePreferences;
@@ -28,7 +32,7 @@ import org.eclipse.jface.viewers.StyledString;
 import org.eclipse.jface.viewers.StyledString.Styler;
 import org.eclipse.swt.graphics.TextStyle;
 
-import com.wudsn.ide.base.BasePlugin;
+import com.wudsn.ide.base.common.ByteArrayUtility;
 import com.wudsn.ide.base.common.EnumUtility;
 import com.wudsn.ide.base.common.HexUtility;
 import com.wudsn.ide.base.common.NumberUtility;
@@ -47,6 +51,88 @@ final class HexEditorParserComponent {
 	public static final long UNDEFINED_OFFSET = -1;
 	private final static int BYTES_PER_ROW = 16;
 
+	/**
+	 * Files larger than this are displayed as {@link HexEditorFileContentMode#BINARY}
+	 * only.
+	 * 
+	 * @since 1.7.2
+	 */
+	static final long MAX_PARSED_FILE_SIZE = 8 * ByteArrayUtility.MB;
+
+	/**
+	 * The maximum estimated memory size of the cached parse results.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static final long MAX_PARSE_RESULTS_SIZE = 64 * ByteArrayUtility.MB;
+
+	/**
+	 * The parameters which determine the result of {@link #parseFileContent()}
+	 * for the same file content.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static final class ParseResultKey {
+		private final HexEditorFileContentMode fileContentMode;
+		private final int bytesPerRow;
+		private final HardwareCharacterSet characterSet;
+
+		public ParseResultKey(HexEditorFileContentMode fileContentMode, int bytesPerRow,
+				HardwareCharacterSet characterSet) {
+			this.fileContentMode = fileContentMode;
+			this.bytesPerRow = bytesPerRow;
+			this.characterSet = characterSet;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof ParseResultKey)) {
+				return false;
+			}
+			ParseResultKey other = (ParseResultKey) object;
+			return fileContentMode.equals(other.fileContentMode) && bytesPerRow == other.bytesPerRow
+					&& characterSet.equals(other.characterSet);
+		}
+
+		@Override
+		public int hashCode() {
+			return (fileContentMode.hashCode() * 31 + bytesPerRow) * 31 + characterSet.hashCode();
+		}
+	}
+
+	/**
+	 * The result of {@link #parseFileContent()}.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static final class ParseResult {
+		public final StyledString contentBuilder;
+		public final List<HexEditorContentOutlineTreeObject> outlineBlocks;
+		public final int[] byteTextOffsets;
+		public final int byteTextIndex;
+		public final HexEditorVirtualContent virtualContent;
+		public final long[] blockOffsets;
+		public final boolean error;
+		public final long size;
+
+		public ParseResult(StyledString contentBuilder, List<HexEditorContentOutlineTreeObject> outlineBlocks,
+				int[] byteTextOffsets, int byteTextIndex, HexEditorVirtualContent virtualContent,
+				long[] blockOffsets, boolean error) {
+			this.contentBuilder = contentBuilder;
+			this.outlineBlocks = outlineBlocks;
+			this.byteTextOffsets = byteTextOffsets;
+			this.byteTextIndex = byteTextIndex;
+			this.virtualContent = virtualContent;
+			this.blockOffsets = blockOffsets;
+			this.error = error;
+
+			// Characters and style ranges of the content, lookup table, block
+			// offsets and outline.
+			size = contentBuilder.length() * 6L + byteTextOffsets.length * 4L
+					+ (blockOffsets != null ? blockOffsets.length * 8L : 0) + outlineBlocks.size() * 256L;
+		}
+	}
+
 	// Callback API.
 	private MessageManager messageManager;
 
@@ -59,22 +145,37 @@ final class HexEditorParserComponent {
 	// File content and state.
 	private boolean fileContentParsed;
 	private HexEditorFileContentMode fileContentMode;
-	private byte[] fileContent;
+	private FileContent fileContent;
 	private int bytesPerRow;
 	private HardwareCharacterSet characterSet;
 
 	// Previous state with regards to parsing.
 	private HexEditorFileContentMode oldFileContentMode;
-	private byte[] oldFileContent;
+	private FileContent oldFileContent;
 	private int oldBytesPerRow;
 	private HardwareCharacterSet oldCharacterSet;
 
 	// Parsing state.
 	private List<HexEditorFileContentMode> possibleFileContentModes;
 	private List<HexEditorContentOutlineTreeObject> outlineBlocks;
-	private long[] byteTextOffsets;
+	private int[] byteTextOffsets;
 	private int byteTextIndex;
 
+	// Text offsets and byte offsets of the bytes which are represented in the
+	// text, both in ascending order, created on demand.
+	private int[] sortedTextOffsets;
+	private int[] sortedByteOffsets;
+	private HexEditorVirtualContent virtualContent;
+
+	// File offsets of the blocks which partition the file content or null if
+	// the top level outline blocks are used.
+	private long[] blockOffsets;
+
+	// Parse results for the current file content in the order of their last
+	// usage.
+	private Map<ParseResultKey, ParseResult> parseResults;
+	private long parseResultsSize;
+
 	// Line buffers for binary to hex and char conversion.
 	private char[] hexChars;
 	private char[] hexBuffer;
@@ -129,23 +230,43 @@ final class HexEditorParserComponent {
 	}
 
 	public void setFileContent(byte[] fileContent) {
+		if (fileContent == null) {
+			throw new IllegalArgumentException("Parameter 'fileContent' must not be null.");
+		}
+		setFileContent(new FileContentImpl(fileContent));
+	}
+
+	/**
+	 * Sets the file content for {@link #parseFileContent()}.
+	 * 
+	 * @param fileContent The file content, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public void setFileContent(FileContent fileContent) {
 		if (fileContent == null) {
 			throw new IllegalArgumentException("Parameter 'fileContent' must not be null.");
 		}
 		this.fileContent = fileContent;
-		initByteTextOffsets();
+		initByteTextOffsets(0);
+		virtualContent = null;
+		blockOffsets = null;
+		parseResults = new LinkedHashMap<ParseResultKey, ParseResult>(16, 0.75f, true);
+		parseResultsSize = 0;
 	}
 
 	/**
 	 * Reserve enough space for the lookup table that maps text offsets to file
 	 * offsets.
+	 * 
+	 * @param size The number of entries, a non-negative integer.
 	 */
-	private void initByteTextOffsets() {
-		// Twice the space, because some formats display the content twice, for
-		// example ATARI_DISK_IMAGE_K_FILE.
-		byteTextOffsets = new long[fileContent.length * 2];
+	private void initByteTextOffsets(int size) {
+		byteTextOffsets = new int[size];
 		Arrays.fill(byteTextOffsets, -1);
 		byteTextIndex = 0;
+		sortedTextOffsets = null;
+		sortedByteOffsets = null;
 	}
 
 	/**
@@ -161,6 +282,18 @@ final class HexEditorParserComponent {
 
 		HexEditorFileContentMode defaultMode = result;
 		FileContent fileContent = getFileContent();
+
+		// Large files are only displayed in binary format. Disk images are
+		// still outlined, because their outline is created without rendering
+		// the content, see HexEditorParser.parseOutline().
+		if (fileContent.getLength() > MAX_PARSED_FILE_SIZE) {
+			if (isAtariDiskImage(fileContent)) {
+				result = HexEditorFileContentMode.ATARI_DISK_IMAGE;
+				possibleFileContentModes.add(result);
+			}
+			return result;
+		}
+
 		// COM header present?
 		if (fileContent.getLength() > 6) {
 			// AtariDOS COM file?
@@ -209,7 +342,7 @@ final class HexEditorParserComponent {
 		}
 
 		// ATR header present?
-		if ((fileContent.getLength() > 16 && fileContent.getByte(0) == 0x96 && fileContent.getByte(1) == 0x02)) {
+		if (isAtariDiskImage(fileContent)) {
 			defaultMode = HexEditorFileContentMode.ATARI_DISK_IMAGE;
 			possibleFileContentModes.add(defaultMode);
 
@@ -257,12 +390,9 @@ final class HexEditorParserComponent {
 		// IFF files always have an even number of bytes
 		if (fileContent.getLength() > 8 && (fileContent.getLength() & 0x1) == 0) {
 			possibleFileContentModes.add(HexEditorFileContentMode.IFF_FILE);
-			char[] id = new char[4];
-			id[0] = (char) fileContent.getByte(0);
-			id[1] = (char) fileContent.getByte(1);
-			id[2] = (char) fileContent.getByte(2);
-			id[3] = (char) fileContent.getByte(3);
-			String chunk = String.copyValueOf(id);
+			byte[] id = new byte[4];
+			fileContent.getBytes(0, id);
+			String chunk = new String(id, StandardCharsets.ISO_8859_1);
 			boolean iff = chunk.equals("FORM") || chunk.equals("LIST") || chunk.equals("CAT ");
 			if (result.equals(HexEditorFileContentMode.BINARY) && iff) {
 				result = HexEditorFileContentMode.IFF_FILE;
@@ -271,6 +401,18 @@ final class HexEditorParserComponent {
 		return result;
 	}
 
+	/**
+	 * Determines if the file content starts with an ATR header.
+	 * 
+	 * @param fileContent The file content, not <code>null</code>.
+	 * @return <code>true</code> if the file content starts with an ATR header.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static boolean isAtariDiskImage(FileContent fileContent) {
+		return fileContent.getLength() > 16 && fileContent.getByte(0) == 0x96 && fileContent.getByte(1) == 0x02;
+	}
+
 	/**
 	 * Sets the file content for {@link #parseFileContent()}.
 	 * 
@@ -343,33 +485,112 @@ final class HexEditorParserComponent {
 	 *         otherwise.
 	 */
 	public boolean isParsingFileContentRequired() {
-		return !fileContentParsed || !Arrays.equals(fileContent, oldFileContent)
+		return !fileContentParsed || fileContent != oldFileContent
 				|| !fileContentMode.equals(oldFileContentMode) || !characterSet.equals(oldCharacterSet)
 				|| bytesPerRow != oldBytesPerRow;
 	}
 
 	/**
-	 * Parse the file content set with {@link #setFileContent(byte[])} according to
-	 * the parameters set with
+	 * Parse the file content set with {@link #setFileContent(FileContent)}
+	 * according to the parameters set with
 	 * {@link #setFileContentMode(HexEditorFileContentMode)},
 	 * {@link #setBytesPerRow(int)} and
-	 * {@link #setCharacterSet(HardwareCharacterSet)}.
+	 * {@link #setCharacterSet(HardwareCharacterSet)}. In mode
+	 * {@link HexEditorFileContentMode#BINARY} the content is not rendered.
+	 * Instead, a virtual content is created, see {@link #getVirtualContent()}.
+	 * The results are cached per file content mode, bytes per row and character
+	 * set, so switching back to a previous combination does not parse again.
 	 * 
-	 * @return The styles string representing the content.
+	 * @return The styles string representing the content, empty in case of a
+	 *         virtual content.
 	 */
 	public StyledString parseFileContent() {
 
+		ParseResultKey key = new ParseResultKey(fileContentMode, bytesPerRow, characterSet);
+		ParseResult parseResult = parseResults.get(key);
+		if (parseResult != null) {
+			outlineBlocks = parseResult.outlineBlocks;
+			byteTextOffsets = parseResult.byteTextOffsets;
+			byteTextIndex = parseResult.byteTextIndex;
+			sortedTextOffsets = null;
+			sortedByteOffsets = null;
+			virtualContent = parseResult.virtualContent;
+			blockOffsets = parseResult.blockOffsets;
+		} else {
+			parseResult = parseFileContentInternal();
+			if (parseResult == null) {
+				return new StyledString();
+			}
+			addParseResult(key, parseResult);
+		}
+
+		if (parseResult.error) {
+			messageManager.sendMessage(MessageIds.FILE_CONTENT_MODE, IStatus.ERROR, Texts.MESSAGE_E301,
+					EnumUtility.getText(fileContentMode));
+		}
+		if (virtualContent != null) {
+			long byteCount = virtualContent.getByteCount();
+			if (byteCount < fileContent.getLength()) {
+				messageManager.sendMessage(MessageIds.BYTES_PER_LINE, IStatus.WARNING, Texts.MESSAGE_W304,
+						HexUtility.getLongValueHexString(byteCount), NumberUtility.getLongValueDecimalString(byteCount),
+						NumberUtility.getLongValueDecimalString(bytesPerRow));
+			}
+		}
+
+		// Copy current state to state backup for change detection in {@link
+		// #isParsingFileContentRequired},
+		fileContentParsed = true;
+		oldFileContentMode = fileContentMode;
+		oldFileContent = fileContent;
+		oldCharacterSet = characterSet;
+		oldBytesPerRow = bytesPerRow;
+
+		return parseResult.contentBuilder;
+	}
+
+	/**
+	 * Adds a parse result to the cache and removes the least recently used parse
+	 * results until the estimated memory size of the cache is within its limit.
+	 * The parse result which was added last is always kept.
+	 * 
+	 * @param key         The key, not <code>null</code>.
+	 * @param parseResult The parse result, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void addParseResult(ParseResultKey key, ParseResult parseResult) {
+		parseResults.put(key, parseResult);
+		parseResultsSize += parseResult.size;
+		Iterator<ParseResult> iterator = parseResults.values().iterator();
+		while (parseResultsSize > MAX_PARSE_RESULTS_SIZE && parseResults.size() > 1) {
+			parseResultsSize -= iterator.next().size;
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Parses the file content without using the cached parse results.
+	 * 
+	 * @return The parse result or <code>null</code> if the file content mode is
+	 *         not possible for the file content.
+	 * 
+	 * @since 1.7.2
+	 */
+	private ParseResult parseFileContentInternal() {
+
 		Profiler profiler = new Profiler(this);
-		profiler.begin("parseFileContent", fileContent.length + " bytes");
+		profiler.begin("parseFileContent", fileContent.getLength() + " bytes");
 
-		outlineBlocks.clear();
-		initByteTextOffsets();
+		outlineBlocks = new ArrayList<HexEditorContentOutlineTreeObject>();
+		initByteTextOffsets(0);
+		virtualContent = null;
+		blockOffsets = null;
 
 		StyledString contentBuilder = new StyledString();
 		HexEditorContentOutlineTreeObject treeObject;
 		String text = TextUtility.format(Texts.HEX_EDITOR_FILE_SIZE,
-				HexUtility.getLongValueHexString(fileContent.length),
-				NumberUtility.getLongValueDecimalString(fileContent.length));
+				HexUtility.getLongValueHexString(fileContent.getLength()),
+				NumberUtility.getLongValueDecimalString(fileContent.getLength()));
 		contentBuilder.append(text);
 		treeObject = new HexEditorContentOutlineTreeObject(contentBuilder);
 		treeObject.setFileStartOffset(0);
@@ -380,13 +601,29 @@ final class HexEditorParserComponent {
 		if (!possibleFileContentModes.contains(fileContentMode)) {
 			messageManager.sendMessage(MessageIds.FILE_CONTENT_MODE, IStatus.ERROR, Texts.MESSAGE_E300,
 					EnumUtility.getText(fileContentMode));
-			return contentBuilder;
+			return null;
 		}
 
-		if (fileContent.length > 0) {
-			boolean error;
+		boolean error = false;
+		if (fileContent.getLength() > 0 && fileContentMode.equals(HexEditorFileContentMode.BINARY)) {
+			// Rows are only formatted when they are displayed.
+			virtualContent = new HexEditorVirtualContent(fileContent, bytesPerRow, characterSet, offsetStyler,
+					charStyler);
+		} else if (fileContent.getLength() > MAX_PARSED_FILE_SIZE) {
+			// Large files are displayed in binary format, the parser only
+			// creates the outline.
+			virtualContent = new HexEditorVirtualContent(fileContent, bytesPerRow, characterSet, offsetStyler,
+					charStyler);
+			HexEditorParser parser = fileContentMode.createParser();
+			parser.init(this, offsetStyler, addressStyler);
+			error = parser.parseOutline();
+		} else if (fileContent.getLength() > 0) {
 			HexEditorParser parser = fileContentMode.createParser();
 
+			// Twice the space, because some formats display the content twice,
+			// for example ATARI_DISK_IMAGE_K_FILE.
+			initByteTextOffsets(fileContent.getLength() * 2);
+
 			// Initialize the buffers for the hex and char conversion.
 			hexBuffer = new char[3 + bytesPerRow * 3 + 2];
 			for (int i = 0; i < hexBuffer.length; i++) {
@@ -399,23 +636,12 @@ final class HexEditorParserComponent {
 
 			parser.init(this, offsetStyler, addressStyler);
 			error = parser.parse(contentBuilder);
-			if (error) {
-				messageManager.sendMessage(MessageIds.FILE_CONTENT_MODE, IStatus.ERROR, Texts.MESSAGE_E301,
-						EnumUtility.getText(fileContentMode));
-			}
 		}
 
 		profiler.end("parseFileContent");
 
-		// Copy current state to state backup for change detection in {@link
-		// #isParsingFileContentRequired},
-		fileContentParsed = true;
-		oldFileContentMode = fileContentMode;
-		oldFileContent = fileContent;
-		oldCharacterSet = characterSet;
-		oldBytesPerRow = bytesPerRow;
-
-		return contentBuilder;
+		return new ParseResult(contentBuilder, outlineBlocks, byteTextOffsets, byteTextIndex, virtualContent,
+				blockOffsets, error);
 	}
 
 	/**
@@ -424,7 +650,19 @@ final class HexEditorParserComponent {
 	 * @return The file content, not <code>null</code>.
 	 */
 	final FileContent getFileContent() {
-		return new FileContentImpl(fileContent); // TODO Do not create newly
+		return fileContent;
+	}
+
+	/**
+	 * Gets the virtual content created by {@link #parseFileContent()}.
+	 * 
+	 * @return The virtual content or <code>null</code> if the content was
+	 *         rendered as styled string.
+	 * 
+	 * @since 1.7.2
+	 */
+	final HexEditorVirtualContent getVirtualContent() {
+		return virtualContent;
 	}
 
 	/**
@@ -486,6 +724,37 @@ final class HexEditorParserComponent {
 		offset = printBytes(treeObject, contentBuilder, offset, length - 1, true, 0);
 	}
 
+	/**
+	 * Adds a block to the outline.
+	 * 
+	 * @param treeObject The tree object representing the block, not
+	 *                   <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void addOutlineBlock(HexEditorContentOutlineTreeObject treeObject) {
+		if (treeObject == null) {
+			throw new IllegalArgumentException("Parameter 'treeObject' must not be null.");
+		}
+		outlineBlocks.add(treeObject);
+	}
+
+	/**
+	 * Sets the file offsets of the blocks which partition the file content.
+	 * 
+	 * @param blockOffsets The file offsets of the blocks in ascending order,
+	 *                     followed by the end offset of the last block, not
+	 *                     <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void setBlockOffsets(long[] blockOffsets) {
+		if (blockOffsets == null) {
+			throw new IllegalArgumentException("Parameter 'blockOffsets' must not be null.");
+		}
+		this.blockOffsets = blockOffsets;
+	}
+
 	final void skipByteTextIndex(long offset) {
 		byteTextIndex += offset;
 	}
@@ -501,7 +770,7 @@ final class HexEditorParserComponent {
 			throw new IllegalArgumentException(
 					"Parameter 'offset' must not be negative, specified value is " + maxOffset + ".");
 		}
-		int length = Math.max(4, HexUtility.getLongValueHexLength(fileContent.length));
+		int length = Math.max(4, HexUtility.getLongValueHexLength(fileContent.getLength()));
 		char[] characterMapping = characterSet.getCharacterMapping();
 		while (offset <= maxOffset) {
 			int contentBuilderLineStartOffset = contentBuilder.length();
@@ -526,7 +795,7 @@ final class HexEditorParserComponent {
 					lowChar = ' ';
 					charValue = ' ';
 				} else {
-					int byteValue = getFileContent().getByte(offset);
+					int byteValue = fileContent.getByte(offset);
 					highChar = hexChars[byteValue >> 4];
 					lowChar = hexChars[byteValue & 0xf];
 					charValue = characterMapping[byteValue];
@@ -543,8 +812,10 @@ final class HexEditorParserComponent {
 			contentBuilder.append(hexBuffer);
 			contentBuilder.append(charBuffer, charStyler);
 		}
-		treeObject.setFileEndOffset(offset);
-		treeObject.setTextEndOffset(contentBuilder.length());
+		if (treeObject != null) {
+			treeObject.setFileEndOffset(offset);
+			treeObject.setTextEndOffset(contentBuilder.length());
+		}
 		return offset;
 	}
 
@@ -557,6 +828,34 @@ final class HexEditorParserComponent {
 		return outlineBlocks;
 	}
 
+	/**
+	 * Gets the blocks of the parsed file content, for example COM segments, disk
+	 * sectors or IFF chunks. In contrast to the outline blocks, the blocks do not
+	 * overlap and are in ascending order of their file offsets.
+	 * 
+	 * @return The modifiable list of blocks, each consisting of offset and
+	 *         length, may be empty, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public List<long[]> getBlocks() {
+		List<long[]> result = new ArrayList<long[]>();
+		if (blockOffsets != null) {
+			for (int i = 0; i + 1 < blockOffsets.length; i++) {
+				result.add(new long[] { blockOffsets[i], blockOffsets[i + 1] - blockOffsets[i] });
+			}
+			return result;
+		}
+		for (HexEditorContentOutlineTreeObject treeObject : outlineBlocks) {
+			long startOffset = treeObject.getFileStartOffset();
+			long endOffset = treeObject.getFileEndOffset();
+			if (startOffset >= 0 && endOffset > startOffset) {
+				result.add(new long[] { startOffset, endOffset - startOffset });
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Gets the selection represented by the start and end offset in the text field.
 	 * 
@@ -569,39 +868,12 @@ final class HexEditorParserComponent {
 		if (x > y) {
 			throw new IllegalArgumentException("x is greater than y");
 		}
-		long startOffset = UNDEFINED_OFFSET;
-		for (long i = 0; i < byteTextIndex; i++) {
-			// BasePlugin.getInstance().log(
-			// "HexEditor.getSelection(): i={0} textOffset={1}
-			// nextTextOffset={2} startOffset={3} endOffset={4}",
-			// new Object[] { String.valueOf(i), String.valueOf(textOffset),
-			// String.valueOf(nextTextOffset),
-			// String.valueOf(startOffset), String.valueOf(endOffset) });
-			if (getByteTextOffset(i) >= x) {
-				startOffset = i;
-				break;
-			}
-		}
-
+		long startOffset = getByteOffset(x);
 		if (startOffset == UNDEFINED_OFFSET) {
 			return null;
 		}
 
-		long endOffset = UNDEFINED_OFFSET;
-		for (long i = startOffset; i < byteTextIndex; i++) {
-			// BasePlugin.getInstance().log(
-			// "HexEditor.getSelection(): i={0} textOffset={1}
-			// nextTextOffset={2} startOffset={3} endOffset={4}",
-			// new Object[] { String.valueOf(i), String.valueOf(textOffset),
-			// String.valueOf(nextTextOffset),
-			// String.valueOf(startOffset), String.valueOf(endOffset) });
-
-			if (getByteTextOffset(i) >= y) {
-				endOffset = i;
-				break;
-			}
-		}
-
+		long endOffset = getByteOffset(y);
 		if (endOffset == UNDEFINED_OFFSET) {
 			return null;
 		}
@@ -610,21 +882,18 @@ final class HexEditorParserComponent {
 		byte[] bytes;
 
 		length = endOffset - startOffset + 1;
-		BasePlugin.getInstance().log("HexEditor.getSelection(): startOffset={2} endoffset={3} length={4}",
-				new Object[] { String.valueOf(x), String.valueOf(y), String.valueOf(startOffset),
-						String.valueOf(endOffset), String.valueOf(length) });
 
 		// Length not empty or negative?
-		if (length > 0 && length < fileContent.length) {
+		if (length > 0 && length < fileContent.getLength()) {
 			// Reposition into first occurrence of in the file.
 			// This is relevant for the format that display the content more
 			// than once.
-			startOffset = startOffset % fileContent.length;
-			endOffset = endOffset % fileContent.length;
+			startOffset = startOffset % fileContent.getLength();
+			endOffset = endOffset % fileContent.getLength();
 			// Selection does not cross file end boundary?
 			if (startOffset <= endOffset) {
 				bytes = new byte[(int) length];
-				System.arraycopy(fileContent, (int) startOffset, bytes, 0, bytes.length);
+				fileContent.getBytes(startOffset, bytes);
 
 			} else {
 
@@ -640,6 +909,66 @@ final class HexEditorParserComponent {
 		return hexEditorSelection;
 	}
 
+	/**
+	 * Gets the offset of the first byte which is represented at or after a text
+	 * offset. The bytes are printed in ascending order, so the text offsets of the
+	 * represented bytes are ascending as well and can be searched with a binary
+	 * search.
+	 * 
+	 * @param textOffset The text offset, a non-negative integer.
+	 * @return The byte offset or <code>UNDEFINED_OFFSET</code> if there is no
+	 *         such byte.
+	 */
+	long getByteOffset(int textOffset) {
+		if (virtualContent != null) {
+			return virtualContent.getByteOffset(textOffset);
+		}
+		if (sortedTextOffsets == null) {
+			createSortedOffsets();
+		}
+
+		// Find the first text offset which is greater or equal to the text
+		// offset.
+		int low = 0;
+		int high = sortedTextOffsets.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedTextOffsets[middle] < textOffset) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		if (low == sortedTextOffsets.length) {
+			return UNDEFINED_OFFSET;
+		}
+		return sortedByteOffsets[low];
+	}
+
+	/**
+	 * Creates the sorted offsets from the defined entries of the lookup table
+	 * that maps byte offsets to text offsets.
+	 */
+	private void createSortedOffsets() {
+		int size = Math.min(byteTextIndex, byteTextOffsets.length);
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (byteTextOffsets[i] != UNDEFINED_OFFSET) {
+				count++;
+			}
+		}
+		sortedTextOffsets = new int[count];
+		sortedByteOffsets = new int[count];
+		count = 0;
+		for (int i = 0; i < size; i++) {
+			if (byteTextOffsets[i] != UNDEFINED_OFFSET) {
+				sortedTextOffsets[count] = byteTextOffsets[i];
+				sortedByteOffsets[count] = i;
+				count++;
+			}
+		}
+	}
+
 	/**
 	 * Gets the text offset for a byte offset.
 	 * 
@@ -648,7 +977,10 @@ final class HexEditorParserComponent {
 	 *         <code>UNDEFINED_OFFSET</code> if there is no such text offset.
 	 */
 	public long getByteTextOffset(long byteOffset) {
-		if (byteOffset < byteTextOffsets.length) {
+		if (virtualContent != null) {
+			return virtualContent.getByteTextOffset(byteOffset);
+		}
+		if (byteOffset >= 0 && byteOffset < byteTextOffsets.length) {
 			return byteTextOffsets[(int) byteOffset];
 		}
 		return UNDEFINED_OFFSET;
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.hex;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.PlatformUI;
+
+import com.wudsn.ide.base.common.RunnableWithLogging;
+
+/**
+ * Background job which searches the file content of a {@link HexEditor} for a
+ * {@link HexEditorSearchPattern}, so large files do not block the UI thread.
+ * The matches are passed to the editor in the UI thread.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class HexEditorSearchJob extends Job {
+
+	/**
+	 * The maximum number of matches which are collected.
+	 */
+	public static final int MAX_MATCHES = 65536;
+
+	private final HexEditor editor;
+	private final FileContent fileContent;
+	private final HexEditorSearchPattern searchPattern;
+	private final boolean forward;
+
+	/**
+	 * Creates a new instance. Called by {@link HexEditor}.
+	 * 
+	 * @param editor        The hex editor, not <code>null</code>.
+	 * @param fileContent   The file content, not <code>null</code>.
+	 * @param searchPattern The search pattern, not <code>null</code>.
+	 * @param forward       <code>true</code> to navigate to the next match
+	 *                      after the search, <code>false</code> to navigate to
+	 *                      the previous match.
+	 */
+	HexEditorSearchJob(HexEditor editor, FileContent fileContent, HexEditorSearchPattern searchPattern,
+			boolean forward) {
+		super(Texts.HEX_EDITOR_SEARCH_JOB_NAME);
+		if (editor == null) {
+			throw new IllegalArgumentException("Parameter 'editor' must not be null.");
+		}
+		if (fileContent == null) {
+			throw new IllegalArgumentException("Parameter 'fileContent' must not be null.");
+		}
+		if (searchPattern == null) {
+			throw new IllegalArgumentException("Parameter 'searchPattern' must not be null.");
+		}
+		this.editor = editor;
+		this.fileContent = fileContent;
+		this.searchPattern = searchPattern;
+		this.forward = forward;
+		setPriority(SHORT);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		monitor.beginTask(getName(), searchPattern.getChunkCount(fileContent));
+		final long[] matches = searchPattern.findAll(fileContent, MAX_MATCHES, monitor);
+		monitor.done();
+		if (matches == null) {
+			return Status.CANCEL_STATUS;
+		}
+
+		Display display = PlatformUI.getWorkbench().getDisplay();
+		if (!display.isDisposed()) {
+			display.asyncExec(new RunnableWithLogging() {
+
+				@Override
+				protected void runWithLogging() {
+					editor.searchCompleted(HexEditorSearchJob.this, matches, forward);
+				}
+			});
+		}
+		return Status.OK_STATUS;
+	}
+}
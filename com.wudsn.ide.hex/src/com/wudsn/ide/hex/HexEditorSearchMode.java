@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.hex;
+
+/**
+ * Interpretation of the search text of the {@link HexEditor}.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+enum HexEditorSearchMode {
+
+	/**
+	 * Hex values like "A9 00 8D ?? D4", where "??" matches every byte.
+	 */
+	HEX,
+
+	/**
+	 * Text which is converted to bytes via the current character set.
+	 */
+	TEXT,
+
+	/**
+	 * 16-bit values like "$D40A" or "54282", stored in little endian format.
+	 */
+	WORD;
+
+}
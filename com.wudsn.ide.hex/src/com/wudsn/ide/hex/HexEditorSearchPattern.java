@@ -0,0 +1,298 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.hex;
+
+import java.util.Arrays;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import com.wudsn.ide.base.hardware.HardwareCharacterSet;
+
+/**
+ * Byte pattern with optional wildcards for searching the file content of the
+ * {@link HexEditor}. The search uses the Boyer-Moore-Horspool algorithm, so on
+ * average only a fraction of the bytes is compared. The file content is read in
+ * chunks via {@link FileContent#getBytes(long, byte[])}, so also large files
+ * which are read page by page can be searched efficiently.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class HexEditorSearchPattern {
+
+	/**
+	 * Number of bytes read from the file content at once.
+	 */
+	private static final int CHUNK_SIZE = 1024 * 1024;
+
+	private final byte[] bytes;
+	private final boolean[] wildcards;
+	private final int[] shifts;
+
+	/**
+	 * Creation is private.
+	 * 
+	 * @param bytes     The bytes, not empty and not <code>null</code>.
+	 * @param wildcards The wildcard flags, same length as the bytes, not
+	 *                  <code>null</code>.
+	 */
+	private HexEditorSearchPattern(byte[] bytes, boolean[] wildcards) {
+		this.bytes = bytes;
+		this.wildcards = wildcards;
+
+		// A wildcard matches every byte, so the shift must not skip it.
+		int length = bytes.length;
+		int maxShift = length;
+		for (int i = 0; i < length - 1; i++) {
+			if (wildcards[i]) {
+				maxShift = length - 1 - i;
+			}
+		}
+		shifts = new int[256];
+		Arrays.fill(shifts, maxShift);
+		for (int i = 0; i < length - 1; i++) {
+			if (!wildcards[i]) {
+				shifts[bytes[i] & 0xff] = Math.min(maxShift, length - 1 - i);
+			}
+		}
+	}
+
+	/**
+	 * Creates a search pattern from a search text.
+	 * 
+	 * @param searchMode   The search mode, not <code>null</code>.
+	 * @param searchText   The search text, not <code>null</code>.
+	 * @param characterSet The character set for {@link HexEditorSearchMode#TEXT},
+	 *                     not <code>null</code>.
+	 * @return The search pattern or <code>null</code> if the search text is empty
+	 *         or not valid for the search mode.
+	 */
+	public static HexEditorSearchPattern create(HexEditorSearchMode searchMode, String searchText,
+			HardwareCharacterSet characterSet) {
+		if (searchMode == null) {
+			throw new IllegalArgumentException("Parameter 'searchMode' must not be null.");
+		}
+		if (searchText == null) {
+			throw new IllegalArgumentException("Parameter 'searchText' must not be null.");
+		}
+		if (characterSet == null) {
+			throw new IllegalArgumentException("Parameter 'characterSet' must not be null.");
+		}
+
+		byte[] bytes;
+		boolean[] wildcards;
+		switch (searchMode) {
+		case HEX:
+			String hexText = searchText.replaceAll("\\s", "");
+			if ((hexText.length() & 1) != 0) {
+				return null;
+			}
+			bytes = new byte[hexText.length() / 2];
+			wildcards = new boolean[bytes.length];
+			for (int i = 0; i < bytes.length; i++) {
+				String byteText = hexText.substring(i * 2, i * 2 + 2);
+				if (byteText.equals("??")) {
+					wildcards[i] = true;
+				} else {
+					int high = Character.digit(byteText.charAt(0), 16);
+					int low = Character.digit(byteText.charAt(1), 16);
+					if (high < 0 || low < 0) {
+						return null;
+					}
+					bytes[i] = (byte) (high << 4 | low);
+				}
+			}
+			break;
+
+		case TEXT:
+			bytes = new byte[searchText.length()];
+			wildcards = new boolean[bytes.length];
+			for (int i = 0; i < bytes.length; i++) {
+				int byteValue = characterSet.getByteValue(searchText.charAt(i));
+				if (byteValue < 0) {
+					return null;
+				}
+				bytes[i] = (byte) byteValue;
+			}
+			break;
+
+		case WORD:
+			String[] wordTexts = searchText.trim().split("[\\s,]+");
+			if (wordTexts.length == 1 && wordTexts[0].isEmpty()) {
+				return null;
+			}
+			bytes = new byte[wordTexts.length * 2];
+			wildcards = new boolean[bytes.length];
+			for (int i = 0; i < wordTexts.length; i++) {
+				int word = parseWord(wordTexts[i]);
+				if (word < 0) {
+					return null;
+				}
+				bytes[i * 2] = (byte) word;
+				bytes[i * 2 + 1] = (byte) (word >> 8);
+			}
+			break;
+
+		default:
+			throw new IllegalArgumentException("Unsupported search mode " + searchMode + ".");
+		}
+
+		if (bytes.length == 0) {
+			return null;
+		}
+		return new HexEditorSearchPattern(bytes, wildcards);
+	}
+
+	/**
+	 * Parses a 16-bit value in hex format with prefix "$" or "0x" or in decimal
+	 * format.
+	 * 
+	 * @param wordText The text, not <code>null</code>.
+	 * @return The value or <code>-1</code> if the text is not valid.
+	 */
+	private static int parseWord(String wordText) {
+		int radix = 10;
+		if (wordText.startsWith("$")) {
+			wordText = wordText.substring(1);
+			radix = 16;
+		} else if (wordText.startsWith("0x") || wordText.startsWith("0X")) {
+			wordText = wordText.substring(2);
+			radix = 16;
+		}
+		if (wordText.isEmpty() || wordText.length() > 5) {
+			return -1;
+		}
+		int result = 0;
+		for (int i = 0; i < wordText.length(); i++) {
+			int digit = Character.digit(wordText.charAt(i), radix);
+			if (digit < 0) {
+				return -1;
+			}
+			result = result * radix + digit;
+		}
+		if (result > 0xffff) {
+			return -1;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the number of bytes of the pattern.
+	 * 
+	 * @return The number of bytes of the pattern, a positive integer.
+	 */
+	public int getLength() {
+		return bytes.length;
+	}
+
+	/**
+	 * Finds all occurrences of the pattern in the file content. Occurrences may
+	 * overlap.
+	 * 
+	 * @param fileContent The file content, not <code>null</code>.
+	 * @param maxMatches  The maximum number of matches, a positive integer.
+	 * @param monitor     The progress monitor, not <code>null</code>.
+	 * @return The offsets of the matches in ascending order, may be empty, not
+	 *         <code>null</code>, or <code>null</code> if the monitor was
+	 *         canceled.
+	 */
+	public long[] findAll(FileContent fileContent, int maxMatches, IProgressMonitor monitor) {
+		if (fileContent == null) {
+			throw new IllegalArgumentException("Parameter 'fileContent' must not be null.");
+		}
+		if (maxMatches < 1) {
+			throw new IllegalArgumentException(
+					"Parameter 'maxMatches' must be positive. Specified value was " + maxMatches + ".");
+		}
+		if (monitor == null) {
+			throw new IllegalArgumentException("Parameter 'monitor' must not be null.");
+		}
+
+		int length = bytes.length;
+		long fileContentLength = fileContent.getLength();
+		long[] matches = new long[16];
+		int matchCount = 0;
+
+		// Consecutive chunks overlap by the length of the pattern minus one.
+		byte[] buffer = new byte[CHUNK_SIZE + length - 1];
+		long chunkOffset = 0;
+		while (chunkOffset + length <= fileContentLength && matchCount < maxMatches) {
+			if (monitor.isCanceled()) {
+				return null;
+			}
+			int count = (int) Math.min(buffer.length, fileContentLength - chunkOffset);
+			if (count < buffer.length) {
+				buffer = new byte[count];
+			}
+			fileContent.getBytes(chunkOffset, buffer);
+
+			int i = 0;
+			while (i <= count - length) {
+				int j = length - 1;
+				while (j >= 0 && (wildcards[j] || buffer[i + j] == bytes[j])) {
+					j--;
+				}
+				if (j < 0) {
+					if (matchCount == matches.length) {
+						matches = Arrays.copyOf(matches, matchCount * 2);
+					}
+					matches[matchCount++] = chunkOffset + i;
+					if (matchCount == maxMatches) {
+						break;
+					}
+				}
+				i += shifts[buffer[i + length - 1] & 0xff];
+			}
+			chunkOffset += count - length + 1;
+			monitor.worked(1);
+		}
+		return Arrays.copyOf(matches, matchCount);
+	}
+
+	/**
+	 * Gets the number of chunks processed by
+	 * {@link #findAll(FileContent, int, IProgressMonitor)}, for the progress
+	 * monitor.
+	 * 
+	 * @param fileContent The file content, not <code>null</code>.
+	 * @return The number of chunks, a non-negative integer.
+	 */
+	public int getChunkCount(FileContent fileContent) {
+		if (fileContent == null) {
+			throw new IllegalArgumentException("Parameter 'fileContent' must not be null.");
+		}
+		return (int) ((fileContent.getLength() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (!(object instanceof HexEditorSearchPattern)) {
+			return false;
+		}
+		HexEditorSearchPattern other = (HexEditorSearchPattern) object;
+		return Arrays.equals(bytes, other.bytes) && Arrays.equals(wildcards, other.wildcards);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(bytes) * 31 + Arrays.hashCode(wildcards);
+	}
+}
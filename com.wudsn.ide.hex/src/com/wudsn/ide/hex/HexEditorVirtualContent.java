@@ -0,0 +1,354 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.hex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jface.viewers.StyledString;
+import org.eclipse.jface.viewers.StyledString.Styler;
+import org.eclipse.swt.custom.StyleRange;
+import org.eclipse.swt.custom.StyledTextContent;
+import org.eclipse.swt.custom.TextChangeListener;
+
+import com.wudsn.ide.base.common.HexUtility;
+import com.wudsn.ide.base.hardware.HardwareCharacterSet;
+
+/**
+ * Read-only text content for the binary display of the file content. All rows
+ * have the same width, so the mapping between rows, text offsets and byte
+ * offsets is computed arithmetically and the text of a row is only formatted
+ * when it is requested. The formatted rows around the last requested row are
+ * kept in a small cache, because the text widget requests the visible rows
+ * repeatedly. The layout of a row is identical to the layout created by
+ * {@link HexEditorParserComponent#printBytes}.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class HexEditorVirtualContent implements StyledTextContent {
+
+	private static final String LINE_DELIMITER = "\n";
+
+	/**
+	 * Number of rows formatted in advance before and after the requested row.
+	 */
+	private static final int CACHE_MARGIN_ROWS = 64;
+	private static final int CACHE_ROWS = 4 * CACHE_MARGIN_ROWS;
+
+	private static final char[] HEX_CHARS = new char[] { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B',
+			'C', 'D', 'E', 'F' };
+
+	private final FileContent fileContent;
+	private final int bytesPerRow;
+	private final char[] characterMapping;
+	private final List<TextChangeListener> textChangeListeners;
+
+	// Row layout.
+	private final int offsetLength;
+	private final int hexStartOffset;
+	private final int charStartOffset;
+	private final int rowLength;
+	private final int rowCount;
+	private final long byteCount;
+	private final StyleRange[] rowStyleRanges;
+
+	// Cache of formatted rows.
+	private final byte[] rowBytes;
+	private final char[] rowBuffer;
+	private int cachedFirstRow;
+	private String[] cachedRows;
+
+	/**
+	 * Creates a new instance.
+	 * 
+	 * @param fileContent   The file content, not <code>null</code>.
+	 * @param bytesPerRow   The number of bytes per row, a positive integer.
+	 * @param characterSet  The character set, not <code>null</code>.
+	 * @param offsetStyler  The styler for the offset column, not
+	 *                      <code>null</code>.
+	 * @param charStyler    The styler for the character column, not
+	 *                      <code>null</code>.
+	 */
+	HexEditorVirtualContent(FileContent fileContent, int bytesPerRow, HardwareCharacterSet characterSet,
+			Styler offsetStyler, Styler charStyler) {
+		if (fileContent == null) {
+			throw new IllegalArgumentException("Parameter 'fileContent' must not be null.");
+		}
+		if (bytesPerRow < 1) {
+			throw new IllegalArgumentException(
+					"Parameter 'bytesPerRow' must be positive. Specified value was " + bytesPerRow + ".");
+		}
+		if (characterSet == null) {
+			throw new IllegalArgumentException("Parameter 'characterSet' must not be null.");
+		}
+		if (offsetStyler == null) {
+			throw new IllegalArgumentException("Parameter 'offsetStyler' must not be null.");
+		}
+		if (charStyler == null) {
+			throw new IllegalArgumentException("Parameter 'charStyler' must not be null.");
+		}
+		this.fileContent = fileContent;
+		this.bytesPerRow = bytesPerRow;
+		characterMapping = characterSet.getCharacterMapping();
+		textChangeListeners = new ArrayList<TextChangeListener>();
+
+		// Offset, " : ", hex values, " | ", characters and the line delimiter.
+		int length = fileContent.getLength();
+		offsetLength = Math.max(4, HexUtility.getLongValueHexLength(length));
+		hexStartOffset = offsetLength + 3;
+		charStartOffset = hexStartOffset + bytesPerRow * 3 + 2;
+		rowBytes = new byte[bytesPerRow];
+		rowBuffer = new char[charStartOffset + bytesPerRow];
+		rowLength = rowBuffer.length + LINE_DELIMITER.length();
+
+		// The text offsets of the widget are integers, so the number of rows is
+		// limited.
+		long requiredRowCount = ((long) length + bytesPerRow - 1) / bytesPerRow;
+		rowCount = (int) Math.min(requiredRowCount, (Integer.MAX_VALUE - 1) / rowLength);
+		byteCount = Math.min(length, (long) rowCount * bytesPerRow);
+
+		StyledString styledString = new StyledString();
+		styledString.append(new String(rowBuffer, 0, offsetLength), offsetStyler);
+		styledString.append(new String(rowBuffer, offsetLength, charStartOffset - offsetLength));
+		styledString.append(new String(rowBuffer, charStartOffset, bytesPerRow), charStyler);
+		rowStyleRanges = styledString.getStyleRanges();
+
+		cachedFirstRow = 0;
+		cachedRows = new String[0];
+	}
+
+	/**
+	 * Gets the number of bytes which are displayed.
+	 * 
+	 * @return The number of bytes which are displayed, a non-negative integer. It
+	 *         is less than the length of the file content, if the file content is
+	 *         too large.
+	 */
+	public long getByteCount() {
+		return byteCount;
+	}
+
+	/**
+	 * Gets the text offset for a byte offset.
+	 * 
+	 * @param byteOffset The byte offset in the file content.
+	 * @return The text offset where the byte is represented or
+	 *         {@link HexEditorParserComponent#UNDEFINED_OFFSET} if there is no
+	 *         such text offset.
+	 */
+	public long getByteTextOffset(long byteOffset) {
+		if (byteOffset < 0 || byteOffset >= byteCount) {
+			return HexEditorParserComponent.UNDEFINED_OFFSET;
+		}
+		long row = byteOffset / bytesPerRow;
+		int column = (int) (byteOffset % bytesPerRow);
+		return row * rowLength + (column == 0 ? 0 : hexStartOffset + column * 3);
+	}
+
+	/**
+	 * Gets the offset of the first byte which is represented at or after a text
+	 * offset.
+	 * 
+	 * @param textOffset The text offset, a non-negative integer.
+	 * @return The byte offset or {@link HexEditorParserComponent#UNDEFINED_OFFSET}
+	 *         if there is no such byte.
+	 */
+	public long getByteOffset(int textOffset) {
+		if (textOffset < 0) {
+			throw new IllegalArgumentException(
+					"Parameter 'textOffset' must not be negative, specified value is " + textOffset + ".");
+		}
+		long row = textOffset / rowLength;
+		int position = textOffset % rowLength;
+		long byteOffset;
+		if (position == 0) {
+			byteOffset = row * bytesPerRow;
+		} else {
+			// The first byte of a row is represented by the start of the row.
+			int column = Math.max(1, (position - hexStartOffset + 2) / 3);
+			if (column < bytesPerRow) {
+				byteOffset = row * bytesPerRow + column;
+			} else {
+				byteOffset = (row + 1) * bytesPerRow;
+			}
+		}
+		if (byteOffset >= byteCount) {
+			return HexEditorParserComponent.UNDEFINED_OFFSET;
+		}
+		return byteOffset;
+	}
+
+	/**
+	 * Gets the style ranges for the row starting at a text offset.
+	 * 
+	 * @param lineOffset The text offset of the row, a non-negative integer.
+	 * @return The style ranges, may be empty, not <code>null</code>.
+	 */
+	public StyleRange[] getLineStyleRanges(int lineOffset) {
+		if (lineOffset / rowLength >= rowCount) {
+			return new StyleRange[0];
+		}
+		StyleRange[] result = new StyleRange[rowStyleRanges.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = (StyleRange) rowStyleRanges[i].clone();
+			result[i].start += lineOffset;
+		}
+		return result;
+	}
+
+	@Override
+	public void addTextChangeListener(TextChangeListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Parameter 'listener' must not be null.");
+		}
+		textChangeListeners.add(listener);
+	}
+
+	@Override
+	public void removeTextChangeListener(TextChangeListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Parameter 'listener' must not be null.");
+		}
+		textChangeListeners.remove(listener);
+	}
+
+	@Override
+	public int getCharCount() {
+		return rowCount * rowLength;
+	}
+
+	@Override
+	public String getLine(int lineIndex) {
+		if (lineIndex < 0 || lineIndex > rowCount) {
+			throw new IllegalArgumentException("Parameter 'lineIndex' is out of range, specified value is "
+					+ lineIndex + ".");
+		}
+		// The text ends with a line delimiter, so the last line is empty.
+		if (lineIndex == rowCount) {
+			return "";
+		}
+		int index = lineIndex - cachedFirstRow;
+		if (index < 0 || index >= cachedRows.length) {
+			cacheRows(lineIndex);
+			index = lineIndex - cachedFirstRow;
+		}
+		return cachedRows[index];
+	}
+
+	@Override
+	public int getLineAtOffset(int offset) {
+		return Math.min(offset / rowLength, rowCount);
+	}
+
+	@Override
+	public int getLineCount() {
+		return rowCount + 1;
+	}
+
+	@Override
+	public String getLineDelimiter() {
+		return LINE_DELIMITER;
+	}
+
+	@Override
+	public int getOffsetAtLine(int lineIndex) {
+		return lineIndex * rowLength;
+	}
+
+	@Override
+	public String getTextRange(int start, int length) {
+		StringBuilder builder = new StringBuilder(length);
+		int end = start + length;
+		int offset = start;
+		while (offset < end) {
+			int row = offset / rowLength;
+			int column = offset % rowLength;
+			int count = Math.min(rowLength - column, end - offset);
+			String line = getLine(row);
+			int lineEnd = Math.min(column + count, line.length());
+			if (column < lineEnd) {
+				builder.append(line, column, lineEnd);
+			}
+			if (column + count > line.length()) {
+				builder.append(LINE_DELIMITER);
+			}
+			offset += count;
+		}
+		return builder.toString();
+	}
+
+	@Override
+	public void replaceTextRange(int start, int replaceLength, String text) {
+		// The content is read-only.
+	}
+
+	@Override
+	public void setText(String text) {
+		// The content is read-only.
+	}
+
+	/**
+	 * Formats the rows around a given row into the cache.
+	 * 
+	 * @param row The row, a non-negative integer less than the number of rows.
+	 */
+	private void cacheRows(int row) {
+		int firstRow = Math.max(0, row - CACHE_MARGIN_ROWS);
+		int count = Math.min(CACHE_ROWS, rowCount - firstRow);
+		String[] rows = new String[count];
+		for (int i = 0; i < count; i++) {
+			rows[i] = formatRow(firstRow + i);
+		}
+		cachedFirstRow = firstRow;
+		cachedRows = rows;
+	}
+
+	private String formatRow(int row) {
+		long offset = (long) row * bytesPerRow;
+		String offsetText = HexUtility.getLongValueHexString(offset, offsetLength);
+		offsetText.getChars(0, offsetLength, rowBuffer, 0);
+		rowBuffer[offsetLength] = ' ';
+		rowBuffer[offsetLength + 1] = ':';
+		rowBuffer[offsetLength + 2] = ' ';
+		// Only the last row can be shorter.
+		int count = (int) Math.min(bytesPerRow, byteCount - offset);
+		byte[] bytes = (count == bytesPerRow ? rowBytes : new byte[count]);
+		fileContent.getBytes(offset, bytes);
+		int h = hexStartOffset;
+		for (int b = 0; b < bytesPerRow; b++) {
+			if (b < count) {
+				int byteValue = bytes[b] & 0xff;
+				rowBuffer[h++] = HEX_CHARS[byteValue >> 4];
+				rowBuffer[h++] = HEX_CHARS[byteValue & 0xf];
+				rowBuffer[charStartOffset + b] = characterMapping[byteValue];
+			} else {
+				rowBuffer[h++] = ' ';
+				rowBuffer[h++] = ' ';
+				rowBuffer[charStartOffset + b] = ' ';
+			}
+			rowBuffer[h++] = ' ';
+		}
+		rowBuffer[h++] = '|';
+		rowBuffer[h++] = ' ';
+		return new String(rowBuffer);
+	}
+}
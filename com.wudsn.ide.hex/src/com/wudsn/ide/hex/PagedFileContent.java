@@ -0,0 +1,276 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ *
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.hex;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import com.wudsn.ide.base.common.TextUtility;
+
+/**
+ * File content which reads the pages of a file on demand. Only the recently
+ * accessed pages are kept in memory, so also very large files can be displayed.
+ * The file is only open while a page is read, so it is not locked while it is
+ * displayed. Instances are thread safe, so they can be shared with background
+ * jobs.
+ *
+ * @author Peter Dell
+ *
+ * @since 1.7.2
+ */
+public final class PagedFileContent implements FileContent {
+
+	private static final int PAGE_SIZE = 0x10000;
+	private static final int MAX_CACHED_PAGES = 64;
+
+	private final File ioFile;
+	private final int length;
+	private final Map<Long, byte[]> pages;
+
+	/**
+	 * Creation is private.
+	 *
+	 * @param ioFile The file, not <code>null</code>.
+	 * @param length The length of the file content, a non-negative integer.
+	 */
+	private PagedFileContent(File ioFile, int length) {
+		this.ioFile = ioFile;
+		this.length = length;
+		pages = new LinkedHashMap<Long, byte[]>(MAX_CACHED_PAGES, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+				return size() > MAX_CACHED_PAGES;
+			}
+		};
+	}
+
+	/**
+	 * Creates the file content for a file. Files larger than
+	 * {@link Integer#MAX_VALUE} bytes are truncated.
+	 *
+	 * @param ioFile The file, not <code>null</code>.
+	 * @return The file content, not <code>null</code>.
+	 *
+	 * @throws CoreException If the file does not exist or cannot be read.
+	 */
+	public static PagedFileContent create(File ioFile) throws CoreException {
+		if (ioFile == null) {
+			throw new IllegalArgumentException("Parameter 'ioFile' must not be null.");
+		}
+
+		String filePath = ioFile.getAbsolutePath();
+		FileChannel fileChannel = openFileChannel(ioFile);
+		try {
+			long size = Math.min(fileChannel.size(), Integer.MAX_VALUE);
+			return new PagedFileContent(ioFile, (int) size);
+		} catch (IOException ex) {
+			// ERROR: Cannot read content of file '{0}'.
+			throw new CoreException(new Status(IStatus.ERROR, HexPlugin.ID,
+					TextUtility.format(com.wudsn.ide.base.Texts.MESSAGE_E206, filePath), ex));
+		} finally {
+			closeFileChannel(ioFile, fileChannel);
+		}
+	}
+
+	private static FileChannel openFileChannel(File ioFile) throws CoreException {
+		try {
+			return FileChannel.open(ioFile.toPath(), StandardOpenOption.READ);
+		} catch (IOException ex) {
+			// ERROR: Cannot open file '{0}' for reading. {1}
+			throw new CoreException(new Status(IStatus.ERROR, HexPlugin.ID, TextUtility
+					.format(com.wudsn.ide.base.Texts.MESSAGE_E205, ioFile.getAbsolutePath(), ex.getMessage()), ex));
+		}
+	}
+
+	private static void closeFileChannel(File ioFile, FileChannel fileChannel) throws CoreException {
+		try {
+			fileChannel.close();
+		} catch (IOException ex) {
+			// ERROR: Cannot close input stream of file'{0}'.
+			throw new CoreException(new Status(IStatus.ERROR, HexPlugin.ID,
+					TextUtility.format(com.wudsn.ide.base.Texts.MESSAGE_E209, ioFile.getAbsolutePath()), ex));
+		}
+	}
+
+	/**
+	 * Gets a page of the file content from the cache or reads it from the file.
+	 * Bytes beyond the current end of the file are 0.
+	 *
+	 * @param pageIndex The page index, a non-negative integer.
+	 * @return The page, not <code>null</code>.
+	 *
+	 * @throws RuntimeException If the file cannot be read anymore.
+	 */
+	private synchronized byte[] getPage(long pageIndex) {
+		Long key = Long.valueOf(pageIndex);
+		byte[] page = pages.get(key);
+		if (page != null) {
+			return page;
+		}
+
+		page = new byte[PAGE_SIZE];
+		try {
+			readPage(pageIndex * PAGE_SIZE, page);
+		} catch (CoreException ex) {
+			throw new RuntimeException(ex.getMessage(), ex);
+		}
+		pages.put(key, page);
+		return page;
+	}
+
+	private void readPage(long position, byte[] page) throws CoreException {
+		ByteBuffer buffer = ByteBuffer.wrap(page);
+		FileChannel fileChannel = openFileChannel(ioFile);
+		try {
+			while (buffer.hasRemaining()) {
+				if (fileChannel.read(buffer, position + buffer.position()) < 0) {
+					break;
+				}
+			}
+		} catch (IOException ex) {
+			// ERROR: Cannot read content of file '{0}'.
+			throw new CoreException(new Status(IStatus.ERROR, HexPlugin.ID,
+					TextUtility.format(com.wudsn.ide.base.Texts.MESSAGE_E206, ioFile.getAbsolutePath()), ex));
+		} finally {
+			closeFileChannel(ioFile, fileChannel);
+		}
+	}
+
+	/**
+	 * Gets the length of the file content.
+	 *
+	 * @return The length of the file content, a non-negative integer.
+	 */
+	@Override
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Checks that a range is within the file content.
+	 *
+	 * @param offset The offset, a non-negative integer.
+	 * @param count  The number of bytes, a non-negative integer.
+	 */
+	private void checkRange(long offset, int count) {
+		if (offset < 0) {
+			throw new IllegalArgumentException("Parameter offset=" + offset + " must not be negative");
+		}
+		if (offset + count > length) {
+			throw new IllegalArgumentException(
+					"Parameter offset=" + (offset + count - 1) + " must be less than the file content size " + length);
+		}
+	}
+
+	/**
+	 * Gets a byte (8 bit) from the file content.
+	 *
+	 * @param offset The offset, a non-negative integer.
+	 * @return The byte from the file content.
+	 */
+	@Override
+	public int getByte(long offset) {
+		checkRange(offset, 1);
+		return getPage(offset / PAGE_SIZE)[(int) (offset % PAGE_SIZE)] & 0xff;
+	}
+
+	/**
+	 * Gets a word (16 bit) in little endian format from the file content.
+	 *
+	 * @param offset The offset, a non-negative integer.
+	 * @return The word from the file content.
+	 */
+	@Override
+	public int getWord(long offset) {
+		checkRange(offset, 2);
+		return getByte(offset) | getByte(offset + 1) << 8;
+	}
+
+	/**
+	 * Gets a word (16 bit) in big endian format from the file content.
+	 *
+	 * @param offset The offset, a non-negative integer.
+	 * @return The word from the file content.
+	 */
+	@Override
+	public int getWordBigEndian(long offset) {
+		checkRange(offset, 2);
+		return getByte(offset) << 8 | getByte(offset + 1);
+	}
+
+	/**
+	 * Gets a double word (32 bit) in little endian format from the file content.
+	 *
+	 * @param offset The offset, a non-negative integer.
+	 * @return The double word from the file content.
+	 */
+	@Override
+	public long getDoubleWord(long offset) {
+		checkRange(offset, 4);
+		return (getWord(offset) | (long) getWord(offset + 2) << 16);
+	}
+
+	/**
+	 * Gets a double word (32 bit) in big endian format from the file content.
+	 *
+	 * @param offset The offset, a non-negative integer.
+	 * @return The word from the file content.
+	 */
+	@Override
+	public long getDoubleWordBigEndian(long offset) {
+		checkRange(offset, 4);
+		return ((long) getWordBigEndian(offset) << 16 | getWordBigEndian(offset + 2));
+	}
+
+	/**
+	 * Copies bytes from the file content.
+	 *
+	 * @param offset The offset, a non-negative integer.
+	 * @param bytes  The target array which is filled completely, may be empty,
+	 *               not <code>null</code>.
+	 */
+	@Override
+	public void getBytes(long offset, byte[] bytes) {
+		if (bytes == null) {
+			throw new IllegalArgumentException("Parameter 'bytes' must not be null.");
+		}
+		checkRange(offset, bytes.length);
+		int index = 0;
+		while (index < bytes.length) {
+			long position = offset + index;
+			int pageOffset = (int) (position % PAGE_SIZE);
+			int count = Math.min(PAGE_SIZE - pageOffset, bytes.length - index);
+			System.arraycopy(getPage(position / PAGE_SIZE), pageOffset, bytes, index, count);
+			index += count;
+		}
+	}
+}
@@ -41,6 +41,13 @@ public final class Texts extends NLS {
 	public static String HEX_EDITOR_ATARI_SECTOR_HEADER;
 	public static String HEX_EDITOR_ATARI_SECTOR_HEADER_PARAMETERS;
 	public static String HEX_EDITOR_ATARI_SECTOR_ERROR;
+	public static String HEX_EDITOR_ATARI_SECTOR_GROUP;
+	public static String HEX_EDITOR_ATARI_DISK_IMAGE_VTOC;
+	public static String HEX_EDITOR_ATARI_DISK_IMAGE_DIRECTORY;
+	public static String HEX_EDITOR_ATARI_DISK_IMAGE_SUBDIRECTORY;
+	public static String HEX_EDITOR_ATARI_DISK_IMAGE_DOS2_FILE;
+	public static String HEX_EDITOR_ATARI_DISK_IMAGE_SPARTADOS_VOLUME;
+	public static String HEX_EDITOR_ATARI_DISK_IMAGE_SPARTADOS_FILE;
 
 	public static String HEX_EDITOR_ATARI_MADS_RELOC_BLOCK_HEADER;
 	public static String HEX_EDITOR_ATARI_MADS_UPDATE_RELOC_BLOCK_HEADER;
@@ -72,6 +79,22 @@ public final class Texts extends NLS {
 	public static String HEX_EDITOR_FILE_CONTENT_MODE_FIELD_LABEL;
 	public static String HEX_EDITOR_CHARACTER_SET_TYPE_FIELD_LABEL;
 	public static String HEX_EDITOR_BYTES_PER_ROW_FIELD_LABEL;
+	public static String HEX_EDITOR_SEARCH_MODE_FIELD_LABEL;
+	public static String HEX_EDITOR_SEARCH_FIELD_LABEL;
+	public static String HEX_EDITOR_SEARCH_PREVIOUS_BUTTON_LABEL;
+	public static String HEX_EDITOR_SEARCH_NEXT_BUTTON_LABEL;
+	public static String HEX_EDITOR_SEARCH_JOB_NAME;
+	public static String HEX_EDITOR_COMPARE_JOB_NAME;
+	public static String HEX_EDITOR_COMPARE_FILE_FIELD_LABEL;
+	public static String HEX_EDITOR_COMPARE_BUTTON_LABEL;
+	public static String HEX_EDITOR_COMPARE_PREVIOUS_BUTTON_LABEL;
+	public static String HEX_EDITOR_COMPARE_NEXT_BUTTON_LABEL;
+	public static String HEX_EDITOR_COMPARE_CLOSE_BUTTON_LABEL;
+	public static String HEX_EDITOR_COMPARE_DIALOG_TITLE;
+	public static String HEX_EDITOR_COMPARE_HEADER;
+	public static String HEX_EDITOR_COMPARE_DIFFERENCE_HEADER;
+	public static String HEX_EDITOR_COMPARE_DIFFERENCE_HEADER_PARAMETERS;
+	public static String HEX_EDITOR_COMPARE_DIFFERENCE_TRUNCATED;
 
 	public static String HEX_EDITOR_SAVE_SELECTION_AS_DIALOG_TITLE;
 
@@ -82,6 +105,14 @@ public final class Texts extends NLS {
 	public static String MESSAGE_E301;
 	public static String MESSAGE_I302;
 	public static String MESSAGE_I303;
+	public static String MESSAGE_W304;
+	public static String MESSAGE_E305;
+	public static String MESSAGE_I306;
+	public static String MESSAGE_I307;
+	public static String MESSAGE_W308;
+	public static String MESSAGE_I309;
+	public static String MESSAGE_I310;
+	public static String MESSAGE_W311;
 
 	/**
 	 * Initializes the constants.
@@ -0,0 +1,488 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.hex.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jface.viewers.StyledString;
+import org.eclipse.jface.viewers.StyledString.Styler;
+
+import com.wudsn.ide.base.common.NumberUtility;
+import com.wudsn.ide.base.common.TextUtility;
+import com.wudsn.ide.hex.FileContent;
+import com.wudsn.ide.hex.HexEditorContentOutlineTreeObject;
+import com.wudsn.ide.hex.HexEditorContentOutlineTreeObject.ChildrenProvider;
+import com.wudsn.ide.hex.Texts;
+
+/**
+ * Hierarchical outline of an Atari disk image. Instead of one tree object per
+ * sector, only the text offsets of the sectors are recorded while parsing. For
+ * disk images which are not rendered, only the number of sectors is set and
+ * the text offsets are determined from the text offsets of the bytes. The
+ * sectors are grouped into ranges and the tree objects of a range are created
+ * when it is expanded in the outline. For disks in DOS 2, MyDOS or SpartaDOS
+ * format, the directories are decoded when they are expanded.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class AtariDiskImageOutline {
+
+	/**
+	 * The maximum number of children of a sector range.
+	 */
+	private static final int GROUP_SIZE = 64;
+
+	private static final int HEADER_SIZE = 16;
+	private static final int BOOT_SECTORS = 3;
+
+	// DOS 2 and MyDOS disk layout.
+	private static final int DOS2_VTOC_SECTOR = 360;
+	private static final int DOS2_DIRECTORY_SECTOR = 361;
+	private static final int DOS2_DIRECTORY_SECTORS = 8;
+	private static final int DOS2_DIRECTORY_SECTOR_SIZE = 128;
+	private static final int DOS2_DIRECTORY_ENTRY_SIZE = 16;
+	private static final int DOS2_FLAG_SUBDIRECTORY = 0x10;
+	private static final int DOS2_FLAG_DELETED = 0x80;
+
+	// SpartaDOS disk layout.
+	private static final int SPARTADOS_DIRECTORY_ENTRY_SIZE = 23;
+	private static final int SPARTADOS_FLAG_IN_USE = 0x08;
+	private static final int SPARTADOS_FLAG_DELETED = 0x10;
+	private static final int SPARTADOS_FLAG_SUBDIRECTORY = 0x20;
+	private static final int SPARTADOS_MAX_DIRECTORY_SIZE = 0x10000;
+
+	private final AtariDiskImageParser parser;
+	private final FileContent fileContent;
+	private final Styler headerStyler;
+	private final int bootSectorSize;
+	private final int mainSectorSize;
+
+	// Text offsets of the parsed sectors, sector n is at index n-1, or null if
+	// the disk image is not rendered.
+	private int[] textStartOffsets;
+	private int[] textEndOffsets;
+	private int sectorCount;
+
+	/**
+	 * Creates a new instance. Called by {@link AtariDiskImageParser}.
+	 * 
+	 * @param parser         The parser, not <code>null</code>.
+	 * @param fileContent    The file content, not <code>null</code>.
+	 * @param headerStyler   The styler for the headers, not <code>null</code>.
+	 * @param bootSectorSize The size of the boot sectors, a positive integer.
+	 * @param mainSectorSize The size of the other sectors, a positive integer.
+	 */
+	AtariDiskImageOutline(AtariDiskImageParser parser, FileContent fileContent, Styler headerStyler,
+			int bootSectorSize, int mainSectorSize) {
+		if (parser == null) {
+			throw new IllegalArgumentException("Parameter 'parser' must not be null.");
+		}
+		if (fileContent == null) {
+			throw new IllegalArgumentException("Parameter 'fileContent' must not be null.");
+		}
+		if (headerStyler == null) {
+			throw new IllegalArgumentException("Parameter 'headerStyler' must not be null.");
+		}
+		this.parser = parser;
+		this.fileContent = fileContent;
+		this.headerStyler = headerStyler;
+		this.bootSectorSize = bootSectorSize;
+		this.mainSectorSize = mainSectorSize;
+		textStartOffsets = new int[1024];
+		textEndOffsets = new int[1024];
+	}
+
+	/**
+	 * Records the text offsets of the next sector.
+	 * 
+	 * @param textStartOffset The text offset of the sector header, a non-negative
+	 *                        integer.
+	 * @param textEndOffset   The text offset after the last byte of the sector, a
+	 *                        non-negative integer.
+	 */
+	void addSector(int textStartOffset, int textEndOffset) {
+		if (sectorCount == textStartOffsets.length) {
+			textStartOffsets = Arrays.copyOf(textStartOffsets, sectorCount * 2);
+			textEndOffsets = Arrays.copyOf(textEndOffsets, sectorCount * 2);
+		}
+		textStartOffsets[sectorCount] = textStartOffset;
+		textEndOffsets[sectorCount] = textEndOffset;
+		sectorCount++;
+	}
+
+	/**
+	 * Sets the number of sectors of a disk image which is not rendered. The
+	 * text offsets of the sectors are determined from the text offsets of their
+	 * bytes.
+	 * 
+	 * @param sectorCount The number of sectors, a non-negative integer.
+	 */
+	void setSectorCount(int sectorCount) {
+		if (sectorCount < 0) {
+			throw new IllegalArgumentException(
+					"Parameter 'sectorCount' must not be negative. Specified value is " + sectorCount + ".");
+		}
+		textStartOffsets = null;
+		textEndOffsets = null;
+		this.sectorCount = sectorCount;
+	}
+
+	/**
+	 * Creates the file offsets of the sectors, which are the blocks of the disk
+	 * image.
+	 * 
+	 * @return The file offsets of the sectors, followed by the end offset of the
+	 *         last sector, not <code>null</code>.
+	 */
+	long[] createBlockOffsets() {
+		long[] result = new long[sectorCount + 1];
+		for (int sector = 1; sector <= sectorCount; sector++) {
+			result[sector - 1] = getSectorOffset(sector);
+		}
+		result[sectorCount] = sectorCount > 0 ? getSectorOffset(sectorCount) + getSectorSize(sectorCount)
+				: HEADER_SIZE;
+		return result;
+	}
+
+	/**
+	 * Creates the top level tree objects for the recorded sectors.
+	 * 
+	 * @return The list of tree objects, may be empty, not <code>null</code>.
+	 */
+	List<HexEditorContentOutlineTreeObject> createTreeObjects() {
+		List<HexEditorContentOutlineTreeObject> result = new ArrayList<HexEditorContentOutlineTreeObject>();
+		if (sectorCount == 0) {
+			return result;
+		}
+		if (isSpartaDOS()) {
+			result.add(createSpartaDOSVolumeTreeObject());
+		} else if (isDOS2()) {
+			result.add(createDOS2VTOCTreeObject());
+			result.add(createDOS2DirectoryTreeObject(new StyledString(Texts.HEX_EDITOR_ATARI_DISK_IMAGE_DIRECTORY,
+					headerStyler), DOS2_DIRECTORY_SECTOR));
+		}
+		result.addAll(createSectorTreeObjects(1, sectorCount));
+		return result;
+	}
+
+	private boolean isValidSector(int sector) {
+		return sector >= 1 && sector <= sectorCount;
+	}
+
+	private long getSectorOffset(int sector) {
+		if (sector <= BOOT_SECTORS) {
+			return HEADER_SIZE + (long) (sector - 1) * bootSectorSize;
+		}
+		return HEADER_SIZE + (long) BOOT_SECTORS * bootSectorSize + (long) (sector - BOOT_SECTORS - 1) * mainSectorSize;
+	}
+
+	private int getSectorSize(int sector) {
+		return sector <= BOOT_SECTORS ? bootSectorSize : mainSectorSize;
+	}
+
+	/**
+	 * Sets the file and text offsets of a tree object to a range of valid
+	 * sectors.
+	 */
+	private void setSectorOffsets(HexEditorContentOutlineTreeObject treeObject, int firstSector, int lastSector) {
+		treeObject.setFileStartOffset(getSectorOffset(firstSector));
+		treeObject.setFileEndOffset(getSectorOffset(lastSector) + getSectorSize(lastSector));
+		if (textStartOffsets != null) {
+			treeObject.setTextStartOffset(textStartOffsets[firstSector - 1]);
+			treeObject.setTextEndOffset(textEndOffsets[lastSector - 1]);
+			return;
+		}
+
+		// The text end offset is after the hex value of the last byte.
+		long textStartOffset = parser.getTextOffset(treeObject.getFileStartOffset());
+		long textEndOffset = parser.getTextOffset(treeObject.getFileEndOffset() - 1);
+		if (textStartOffset >= 0 && textEndOffset >= 0) {
+			treeObject.setTextStartOffset(textStartOffset);
+			treeObject.setTextEndOffset((int) textEndOffset + 2);
+		}
+	}
+
+	/**
+	 * Creates the tree objects for a range of sectors. Large ranges are split into
+	 * at most {@link #GROUP_SIZE} sub-ranges, which are expanded lazily.
+	 */
+	private List<HexEditorContentOutlineTreeObject> createSectorTreeObjects(int firstSector, int lastSector) {
+		int count = lastSector - firstSector + 1;
+		int span = 1;
+		while ((long) span * GROUP_SIZE < count) {
+			span *= GROUP_SIZE;
+		}
+		List<HexEditorContentOutlineTreeObject> result = new ArrayList<HexEditorContentOutlineTreeObject>(
+				(count + span - 1) / span);
+		for (long sector = firstSector; sector <= lastSector; sector += span) {
+			if (span == 1) {
+				result.add(createSectorTreeObject((int) sector));
+			} else {
+				result.add(createSectorGroupTreeObject((int) sector, (int) Math.min(lastSector, sector + span - 1)));
+			}
+		}
+		return result;
+	}
+
+	private HexEditorContentOutlineTreeObject createSectorTreeObject(int sector) {
+		HexEditorContentOutlineTreeObject treeObject = new HexEditorContentOutlineTreeObject(
+				parser.createSectorStyledString(sector, getSectorSize(sector)));
+		setSectorOffsets(treeObject, sector, sector);
+		return treeObject;
+	}
+
+	private HexEditorContentOutlineTreeObject createSectorGroupTreeObject(final int firstSector,
+			final int lastSector) {
+		HexEditorContentOutlineTreeObject treeObject = new HexEditorContentOutlineTreeObject(new StyledString(
+				TextUtility.format(Texts.HEX_EDITOR_ATARI_SECTOR_GROUP,
+						NumberUtility.getLongValueDecimalString(firstSector),
+						NumberUtility.getLongValueDecimalString(lastSector)),
+				headerStyler));
+		setSectorOffsets(treeObject, firstSector, lastSector);
+		treeObject.setChildrenProvider(new ChildrenProvider() {
+
+			@Override
+			public List<HexEditorContentOutlineTreeObject> createChildren(HexEditorContentOutlineTreeObject parent) {
+				return createSectorTreeObjects(firstSector, lastSector);
+			}
+		});
+		return treeObject;
+	}
+
+	/**
+	 * Gets a file name from 8 bytes name and 3 bytes extension.
+	 */
+	private String getFileName(long offset) {
+		byte[] bytes = new byte[11];
+		fileContent.getBytes(offset, bytes);
+		return getFileName(bytes, 0);
+	}
+
+	private static String getFileName(byte[] bytes, int index) {
+		StringBuilder builder = new StringBuilder(12);
+		for (int i = 0; i < 11; i++) {
+			if (i == 8) {
+				builder.append('.');
+			}
+			builder.append((char) (bytes[index + i] & 0x7f));
+		}
+		String name = builder.substring(0, 8).trim();
+		String extension = builder.substring(9).trim();
+		return extension.isEmpty() ? name : name + "." + extension;
+	}
+
+	private boolean isDOS2() {
+		if (sectorCount < DOS2_DIRECTORY_SECTOR + DOS2_DIRECTORY_SECTORS - 1) {
+			return false;
+		}
+		long offset = getSectorOffset(DOS2_VTOC_SECTOR);
+		int dosCode = fileContent.getByte(offset);
+		int totalSectors = fileContent.getWord(offset + 1);
+		return dosCode > 0 && dosCode < 0x80 && totalSectors > 0 && totalSectors <= sectorCount;
+	}
+
+	private HexEditorContentOutlineTreeObject createDOS2VTOCTreeObject() {
+		long offset = getSectorOffset(DOS2_VTOC_SECTOR);
+		HexEditorContentOutlineTreeObject treeObject = new HexEditorContentOutlineTreeObject(new StyledString(
+				TextUtility.format(Texts.HEX_EDITOR_ATARI_DISK_IMAGE_VTOC,
+						NumberUtility.getLongValueDecimalString(fileContent.getByte(offset)),
+						NumberUtility.getLongValueDecimalString(fileContent.getWord(offset + 1)),
+						NumberUtility.getLongValueDecimalString(fileContent.getWord(offset + 3))),
+				headerStyler));
+		setSectorOffsets(treeObject, DOS2_VTOC_SECTOR, DOS2_VTOC_SECTOR);
+		return treeObject;
+	}
+
+	private HexEditorContentOutlineTreeObject createDOS2DirectoryTreeObject(StyledString styledString,
+			final int firstSector) {
+		HexEditorContentOutlineTreeObject treeObject = new HexEditorContentOutlineTreeObject(styledString);
+		int lastSector = Math.min(sectorCount, firstSector + DOS2_DIRECTORY_SECTORS - 1);
+		setSectorOffsets(treeObject, firstSector, lastSector);
+		treeObject.setChildrenProvider(new ChildrenProvider() {
+
+			@Override
+			public List<HexEditorContentOutlineTreeObject> createChildren(HexEditorContentOutlineTreeObject parent) {
+				return createDOS2DirectoryEntryTreeObjects(firstSector);
+			}
+		});
+		return treeObject;
+	}
+
+	private List<HexEditorContentOutlineTreeObject> createDOS2DirectoryEntryTreeObjects(int firstSector) {
+		List<HexEditorContentOutlineTreeObject> result = new ArrayList<HexEditorContentOutlineTreeObject>();
+		int lastSector = Math.min(sectorCount, firstSector + DOS2_DIRECTORY_SECTORS - 1);
+		for (int sector = firstSector; sector <= lastSector; sector++) {
+			long offset = getSectorOffset(sector);
+			int size = Math.min(DOS2_DIRECTORY_SECTOR_SIZE, getSectorSize(sector));
+			for (int i = 0; i + DOS2_DIRECTORY_ENTRY_SIZE <= size; i += DOS2_DIRECTORY_ENTRY_SIZE) {
+				long entryOffset = offset + i;
+				int flags = fileContent.getByte(entryOffset);
+				// An unused entry marks the end of the directory.
+				if (flags == 0) {
+					return result;
+				}
+				if ((flags & DOS2_FLAG_DELETED) != 0) {
+					continue;
+				}
+				int sectors = fileContent.getWord(entryOffset + 1);
+				int startSector = fileContent.getWord(entryOffset + 3);
+				String fileName = getFileName(entryOffset + 5);
+				HexEditorContentOutlineTreeObject treeObject;
+				if ((flags & DOS2_FLAG_SUBDIRECTORY) != 0 && isValidSector(startSector)) {
+					treeObject = createDOS2DirectoryTreeObject(new StyledString(
+							TextUtility.format(Texts.HEX_EDITOR_ATARI_DISK_IMAGE_SUBDIRECTORY, fileName,
+									NumberUtility.getLongValueDecimalString(startSector)),
+							headerStyler), startSector);
+				} else {
+					treeObject = new HexEditorContentOutlineTreeObject(
+							new StyledString(TextUtility.format(Texts.HEX_EDITOR_ATARI_DISK_IMAGE_DOS2_FILE, fileName,
+									NumberUtility.getLongValueDecimalString(sectors),
+									NumberUtility.getLongValueDecimalString(startSector))));
+					int selectedSector = isValidSector(startSector) ? startSector : sector;
+					setSectorOffsets(treeObject, selectedSector, selectedSector);
+				}
+				result.add(treeObject);
+			}
+		}
+		return result;
+	}
+
+	private boolean isSpartaDOS() {
+		if (getSectorSize(1) < 0x21) {
+			return false;
+		}
+		long offset = getSectorOffset(1);
+		int directoryMapSector = fileContent.getWord(offset + 0x09);
+		int totalSectors = fileContent.getWord(offset + 0x0b);
+		int version = fileContent.getByte(offset + 0x20);
+		return (version == 0x11 || version == 0x20 || version == 0x21) && isValidSector(directoryMapSector)
+				&& totalSectors > 0 && totalSectors <= sectorCount;
+	}
+
+	private HexEditorContentOutlineTreeObject createSpartaDOSVolumeTreeObject() {
+		long offset = getSectorOffset(1);
+		byte[] volumeName = new byte[8];
+		fileContent.getBytes(offset + 0x16, volumeName);
+		StringBuilder builder = new StringBuilder(volumeName.length);
+		for (byte b : volumeName) {
+			builder.append((char) (b & 0x7f));
+		}
+		HexEditorContentOutlineTreeObject treeObject = new HexEditorContentOutlineTreeObject(new StyledString(
+				TextUtility.format(Texts.HEX_EDITOR_ATARI_DISK_IMAGE_SPARTADOS_VOLUME, builder.toString().trim(),
+						NumberUtility.getLongValueDecimalString(fileContent.getWord(offset + 0x0b)),
+						NumberUtility.getLongValueDecimalString(fileContent.getWord(offset + 0x0d))),
+				headerStyler));
+		setSectorOffsets(treeObject, 1, 1);
+		setSpartaDOSDirectoryChildrenProvider(treeObject, fileContent.getWord(offset + 0x09));
+		return treeObject;
+	}
+
+	private void setSpartaDOSDirectoryChildrenProvider(HexEditorContentOutlineTreeObject treeObject,
+			final int mapSector) {
+		treeObject.setChildrenProvider(new ChildrenProvider() {
+
+			@Override
+			public List<HexEditorContentOutlineTreeObject> createChildren(HexEditorContentOutlineTreeObject parent) {
+				return createSpartaDOSDirectoryEntryTreeObjects(mapSector);
+			}
+		});
+	}
+
+	/**
+	 * Reads the content of a SpartaDOS file via its sector maps. Each sector map
+	 * starts with the numbers of the next and the previous sector map, followed by
+	 * the numbers of the data sectors.
+	 * 
+	 * @param mapSector The first sector map.
+	 * @param maxLength The maximum number of bytes to read.
+	 * @return The content, may be empty, not <code>null</code>.
+	 */
+	private byte[] readSpartaDOSFile(int mapSector, int maxLength) {
+		byte[] result = new byte[maxLength];
+		int length = 0;
+		int mapCount = 0;
+		while (isValidSector(mapSector) && mapCount++ < sectorCount && length < maxLength) {
+			long mapOffset = getSectorOffset(mapSector);
+			int mapSize = getSectorSize(mapSector);
+			for (int i = 4; i + 1 < mapSize && length < maxLength; i += 2) {
+				int dataSector = fileContent.getWord(mapOffset + i);
+				if (!isValidSector(dataSector)) {
+					return Arrays.copyOf(result, length);
+				}
+				byte[] bytes = new byte[Math.min(getSectorSize(dataSector), maxLength - length)];
+				fileContent.getBytes(getSectorOffset(dataSector), bytes);
+				System.arraycopy(bytes, 0, result, length, bytes.length);
+				length += bytes.length;
+			}
+			mapSector = fileContent.getWord(mapOffset);
+		}
+		return Arrays.copyOf(result, length);
+	}
+
+	private List<HexEditorContentOutlineTreeObject> createSpartaDOSDirectoryEntryTreeObjects(int mapSector) {
+		List<HexEditorContentOutlineTreeObject> result = new ArrayList<HexEditorContentOutlineTreeObject>();
+		byte[] directory = readSpartaDOSFile(mapSector, SPARTADOS_MAX_DIRECTORY_SIZE);
+
+		// The first entry is the directory header, which contains the length of
+		// the directory.
+		if (directory.length < SPARTADOS_DIRECTORY_ENTRY_SIZE) {
+			return result;
+		}
+		int length = Math.min(directory.length, getTriple(directory, 3));
+		int entrySize = SPARTADOS_DIRECTORY_ENTRY_SIZE;
+		for (int i = entrySize; i + entrySize <= length; i += entrySize) {
+			int flags = directory[i] & 0xff;
+			if (flags == 0) {
+				break;
+			}
+			if ((flags & SPARTADOS_FLAG_DELETED) != 0 || (flags & SPARTADOS_FLAG_IN_USE) == 0) {
+				continue;
+			}
+			int entryMapSector = (directory[i + 1] & 0xff) | (directory[i + 2] & 0xff) << 8;
+			String fileName = getFileName(directory, i + 6);
+			HexEditorContentOutlineTreeObject treeObject;
+			if ((flags & SPARTADOS_FLAG_SUBDIRECTORY) != 0) {
+				treeObject = new HexEditorContentOutlineTreeObject(
+						new StyledString(TextUtility.format(Texts.HEX_EDITOR_ATARI_DISK_IMAGE_SUBDIRECTORY, fileName,
+								NumberUtility.getLongValueDecimalString(entryMapSector)), headerStyler));
+				if (isValidSector(entryMapSector)) {
+					setSpartaDOSDirectoryChildrenProvider(treeObject, entryMapSector);
+				}
+			} else {
+				treeObject = new HexEditorContentOutlineTreeObject(new StyledString(TextUtility.format(
+						Texts.HEX_EDITOR_ATARI_DISK_IMAGE_SPARTADOS_FILE, fileName,
+						NumberUtility.getLongValueDecimalString(getTriple(directory, i + 3)),
+						NumberUtility.getLongValueDecimalString(entryMapSector))));
+			}
+			int selectedSector = isValidSector(entryMapSector) ? entryMapSector : mapSector;
+			setSectorOffsets(treeObject, selectedSector, selectedSector);
+			result.add(treeObject);
+		}
+		return result;
+	}
+
+	private static int getTriple(byte[] bytes, int index) {
+		return (bytes[index] & 0xff) | (bytes[index + 1] & 0xff) << 8 | (bytes[index + 2] & 0xff) << 16;
+	}
+}
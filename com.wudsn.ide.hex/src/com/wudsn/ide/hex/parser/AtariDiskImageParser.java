@@ -24,6 +24,13 @@ import org.eclipse.jface.viewers.StyledString;
 import com.wudsn.ide.hex.Texts;
 import com.wudsn.ide.hex.HexEditorContentOutlineTreeObject;
 
+/**
+ * Parser for Atari disk images in ATR format. The sectors are not added to the
+ * outline one by one, because disk images can contain ten thousands of sectors.
+ * The outline is created lazily by {@link AtariDiskImageOutline}. Disk images
+ * which are too large to be rendered are outlined via {@link #parseOutline()}.
+ * The sectors are the blocks of the disk image.
+ */
 public class AtariDiskImageParser extends AtariParser {
 
 	@Override
@@ -47,7 +54,7 @@ public class AtariDiskImageParser extends AtariParser {
 
 		blockMode = true;
 
-		int mainSectorSize = fileContent.getByte(4) + 256 * fileContent.getByte(5);
+		int mainSectorSize = fileContent.getWord(4);
 		int bootSectorSize = mainSectorSize;
 
 		if (bootSectorSize == 256 && (length % 256) == 128 + 16) {
@@ -57,15 +64,21 @@ public class AtariDiskImageParser extends AtariParser {
 		int sectorCount;
 		int sectorSize;
 
+		// Without a valid sector size, no sector can be parsed.
+		if (mainSectorSize <= 0) {
+			error = true;
+		}
+
+		AtariDiskImageOutline outline = new AtariDiskImageOutline(this, fileContent, offsetStyler, bootSectorSize,
+				mainSectorSize);
 		sectorCount = 1;
 		sectorSize = bootSectorSize;
 		try {
 			while (blockMode && !error) {
-				treeObject = printBlockHeader(contentBuilder, Texts.HEX_EDITOR_ATARI_SECTOR_HEADER, sectorCount,
-
-						Texts.HEX_EDITOR_ATARI_SECTOR_HEADER_PARAMETERS, offset, startAddress,
-						startAddress + sectorSize - 1);
-				offset = printBytes(treeObject, contentBuilder, offset, offset + sectorSize - 1, true, startAddress);
+				printBlockHeaderText(contentBuilder, Texts.HEX_EDITOR_ATARI_SECTOR_HEADER, sectorCount);
+				int textStartOffset = contentBuilder.length();
+				offset = printBytes(contentBuilder, offset, offset + sectorSize - 1, true, startAddress);
+				outline.addSector(textStartOffset, contentBuilder.length());
 				contentBuilder.append("\n");
 
 				if (offset >= length) {
@@ -81,10 +94,89 @@ public class AtariDiskImageParser extends AtariParser {
 		} catch (RuntimeException ex) {
 			contentBuilder.append(ex.toString());
 		}
+		for (HexEditorContentOutlineTreeObject sectorTreeObject : outline.createTreeObjects()) {
+			addOutlineBlock(sectorTreeObject);
+		}
+		setBlockOffsets(outline.createBlockOffsets());
 		if (error) {
 			printBlockWithError(contentBuilder, Texts.HEX_EDITOR_ATARI_SECTOR_ERROR, length, offset);
 		}
 		return error;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @since 1.7.2
+	 */
+	@Override
+	public boolean parseOutline() {
+		int length = fileContent.getLength();
+		int mainSectorSize = fileContent.getWord(4);
+		int bootSectorSize = mainSectorSize;
+		if (bootSectorSize == 256 && (length % 256) == 128 + 16) {
+			bootSectorSize = 128;
+		}
+
+		// Without a valid sector size, no sector can be outlined.
+		if (mainSectorSize <= 0) {
+			return true;
+		}
+
+		AtariDiskImageOutline outline = new AtariDiskImageOutline(this, fileContent, offsetStyler, bootSectorSize,
+				mainSectorSize);
+		HexEditorContentOutlineTreeObject treeObject = new HexEditorContentOutlineTreeObject(
+				createBlockHeaderStyledString(Texts.HEX_EDITOR_ATARI_DISK_IMAGE_HEADER, -1, "", 0, 15));
+		treeObject.setFileStartOffset(0);
+		treeObject.setFileEndOffset(16);
+		treeObject.setTextStartOffset(getByteTextOffset(0));
+		addOutlineBlock(treeObject);
+
+		long offset = 16;
+		int sectorCount = 0;
+		int sectorSize = bootSectorSize;
+		while (offset + sectorSize <= length) {
+			offset += sectorSize;
+			sectorCount++;
+			if (sectorCount == 3) {
+				sectorSize = mainSectorSize;
+			}
+		}
+		outline.setSectorCount(sectorCount);
+		for (HexEditorContentOutlineTreeObject sectorTreeObject : outline.createTreeObjects()) {
+			addOutlineBlock(sectorTreeObject);
+		}
+		setBlockOffsets(outline.createBlockOffsets());
+		return offset < length;
+	}
+
+	/**
+	 * Gets the text offset for a byte offset. Called by
+	 * {@link AtariDiskImageOutline}.
+	 * 
+	 * @param byteOffset The byte offset in the file content.
+	 * @return The text offset where the byte is represented or a negative value
+	 *         if there is no such text offset.
+	 * 
+	 * @since 1.7.2
+	 */
+	final long getTextOffset(long byteOffset) {
+		return getByteTextOffset(byteOffset);
+	}
+
+	/**
+	 * Creates the styled string of a sector for the outline. Called by
+	 * {@link AtariDiskImageOutline}.
+	 * 
+	 * @param sectorNumber The sector number, a positive integer.
+	 * @param sectorSize   The sector size, a positive integer.
+	 * @return The styled string, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final StyledString createSectorStyledString(int sectorNumber, int sectorSize) {
+		return createBlockHeaderStyledString(Texts.HEX_EDITOR_ATARI_SECTOR_HEADER, sectorNumber,
+				Texts.HEX_EDITOR_ATARI_SECTOR_HEADER_PARAMETERS, 0, sectorSize - 1);
+	}
+
 }
@@ -19,6 +19,8 @@
 
 package com.wudsn.ide.hex.parser;
 
+import java.nio.charset.StandardCharsets;
+
 import org.eclipse.jface.viewers.StyledString;
 
 import com.wudsn.ide.hex.Texts;
@@ -212,11 +214,9 @@ public class AtariMADSParser extends HexEditorParser {
 	}
 
 	private String getLabelName(long offset, int length) {
-		StringBuffer buffer = new StringBuffer(8);
-		for (int i = 0; i < length; i++) {
-			buffer.append((char) fileContent.getByte(offset + i));
-		}
-		return buffer.toString();
+		byte[] bytes = new byte[length];
+		fileContent.getBytes(offset, bytes);
+		return new String(bytes, StandardCharsets.ISO_8859_1);
 	}
 
 }
@@ -83,14 +83,14 @@ public abstract class AtariParser extends HexEditorParser {
 							} else {
 								// Inner COM header found
 								headerLength = 6;
-								startAddress = fileContent.getByte(offset + 2) + 256 * fileContent.getByte(offset + 3);
-								endAddress = fileContent.getByte(offset + 4) + 256 * fileContent.getByte(offset + 5);
+								startAddress = fileContent.getWord(offset + 2);
+								endAddress = fileContent.getWord(offset + 4);
 							}
 						} else {
 							// No inner COM header found
 							headerLength = 4;
-							startAddress = fileContent.getByte(offset + 0) + 256 * fileContent.getByte(offset + 1);
-							endAddress = fileContent.getByte(offset + 2) + 256 * fileContent.getByte(offset + 3);
+							startAddress = fileContent.getWord(offset + 0);
+							endAddress = fileContent.getWord(offset + 2);
 						}
 						error = endAddress < startAddress;
 					}
@@ -19,6 +19,8 @@
 
 package com.wudsn.ide.hex.parser;
 
+import java.nio.charset.StandardCharsets;
+
 import org.eclipse.jface.viewers.StyledString;
 
 import com.wudsn.ide.base.common.HexUtility;
@@ -183,11 +185,9 @@ public class AtariSDXParser extends HexEditorParser {
 	}
 
 	private String getSymbolName(long offset) {
-		StringBuffer buffer = new StringBuffer(8);
-		for (int i = 0; i < 8; i++) {
-			buffer.append((char) fileContent.getByte(offset + i));
-		}
-		return buffer.toString();
+		byte[] bytes = new byte[8];
+		fileContent.getBytes(offset, bytes);
+		return new String(bytes, StandardCharsets.ISO_8859_1);
 	}
 
 }
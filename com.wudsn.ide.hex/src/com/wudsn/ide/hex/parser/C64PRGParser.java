@@ -41,7 +41,7 @@ public class C64PRGParser extends HexEditorParser {
 
 		error = (length < 2);
 		if (!error) {
-			startAddress = fileContent.getByte(offset + 0) + 256 * fileContent.getByte(offset + 1);
+			startAddress = fileContent.getWord(offset + 0);
 			endAddress = startAddress + length - 3;
 
 			HexEditorContentOutlineTreeObject treeObject;
@@ -19,6 +19,8 @@
 
 package com.wudsn.ide.hex.parser;
 
+import java.nio.charset.StandardCharsets;
+
 import org.eclipse.jface.viewers.StyledString;
 
 import com.wudsn.ide.base.common.HexUtility;
@@ -110,12 +112,9 @@ public final class IFFParser extends HexEditorParser {
 	}
 
 	private String getChunkName(long offset) {
-		char[] id = new char[4];
-		id[0] = (char) fileContent.getByte(offset);
-		id[1] = (char) fileContent.getByte(offset + 1);
-		id[2] = (char) fileContent.getByte(offset + 2);
-		id[3] = (char) fileContent.getByte(offset + 3);
-		return String.copyValueOf(id);
+		byte[] id = new byte[4];
+		fileContent.getBytes(offset, id);
+		return new String(id, StandardCharsets.ISO_8859_1);
 	}
 
 }
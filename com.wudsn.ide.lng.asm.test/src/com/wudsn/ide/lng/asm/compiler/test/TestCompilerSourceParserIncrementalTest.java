@@ -0,0 +1,288 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ *
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.lng.asm.compiler.test;
+
+import static com.wudsn.ide.base.common.Assertions.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.Position;
+
+import com.wudsn.ide.base.common.FileUtility;
+import com.wudsn.ide.base.common.Test;
+import com.wudsn.ide.base.common.TestMethod;
+import com.wudsn.ide.lng.LanguagePlugin;
+import com.wudsn.ide.lng.Target;
+import com.wudsn.ide.lng.compiler.Compiler;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceFile;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceFileCache;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceFileCacheListener;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceParser;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceParserTreeObject;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourcePartitionScanner;
+
+/**
+ * Compares the result of
+ * {@link CompilerSourceParser#parseIncremental(CompilerSourceFile)} with the
+ * result of a complete parse process of the same content. The edits are
+ * located at the boundaries of sections, folding blocks and source includes,
+ * where the checkpoints and the take over of the unchanged tail of the
+ * previous parse result are most likely to differ from a complete parse
+ * process. Every edit is applied to the original source and additionally all
+ * edits are applied one after the other to the same file. Finally the source
+ * include files are rewritten and the change is reported to the
+ * {@link CompilerSourceFileCache} like a resource change, so the including
+ * file is parsed completely again.
+ *
+ * @author Peter Dell
+ *
+ * @since 1.7.2
+ */
+public final class TestCompilerSourceParserIncrementalTest {
+
+	private static final String MAIN_FILE_NAME = "main.asm";
+
+	private static final String[][] INCLUDE_FILES = {
+			{ "include1.asm", "inc1 = 2\n.MACRO im\n nop\n.ENDM\n" },
+			{ "include2.asm", "* = $4000\ninc2 rts\n" } };
+
+	private static final String SOURCE = "; Main\n" + ".INCLUDE \"include1.asm\"\n" + "label1 = 1\n"
+			+ "* = $2000\n" + "start lda #1\n" + ".MACRO m1\n" + " nop\n" + ".ENDM\n" + ".IF label1\n"
+			+ " sta $d000\n" + ".ENDIF\n" + "* = $3000\n" + "second rts\n" + ".REPT 2\n" + " nop\n" + ".ENDR\n"
+			+ ".INCLUDE \"include2.asm\"\n" + "end rts\n";
+
+	/**
+	 * An edit of the source. The text at the first occurrence of the anchor is
+	 * replaced.
+	 */
+	private static final class Edit {
+		final String description;
+		final String anchor;
+		final int length;
+		final String text;
+
+		Edit(String description, String anchor, int length, String text) {
+			this.description = description;
+			this.anchor = anchor;
+			this.length = length;
+			this.text = text;
+		}
+	}
+
+	private static final Edit[] EDITS = {
+			new Edit("Insert a line at the start of the file", "; Main", 0, "first = 0\n"),
+			new Edit("Insert a comment before a section", "* = $2000", 0, "; Comment\n"),
+			new Edit("Insert a label before a section", "* = $2000", 0, "before = 3\n"),
+			new Edit("Insert a section in a section", "start lda", 0, "* = $2800\n"),
+			new Edit("Remove a section start", "* = $3000\n", 10, ""),
+			new Edit("Rename the first label of a section", "second", 6, "renamed"),
+			new Edit("Insert a label after a section start", "second", 0, "after = 4\n"),
+			new Edit("Remove a macro end", ".ENDM\n.IF", 6, ""),
+			new Edit("Insert a macro start", "second", 0, ".MACRO m2\n"),
+			new Edit("Remove a folding end", ".ENDIF\n", 7, ""),
+			new Edit("Remove a repeat start", ".REPT 2\n", 8, ""),
+			new Edit("Insert a line before an include", ".INCLUDE \"include1.asm\"", 0, "pre = 5\n"),
+			new Edit("Insert a line after an include", "label1", 0, "post = 6\n"),
+			new Edit("Change the file of an include", "include1.asm", 12, "include2.asm"),
+			new Edit("Remove an include", ".INCLUDE \"include2.asm\"\n", 24, ""),
+			new Edit("Insert an include", "end rts", 0, ".INCLUDE \"include1.asm\"\n"),
+			new Edit("Replace lines across a section start", "sta $d000", 27, "lda #2\n.ENDIF\n"),
+			new Edit("Join the last two lines", "\nend rts", 1, " "),
+			new Edit("Append a line at the end of the file", "end rts\n", 8, "end rts\nlast = 7\n") };
+
+	private static final String[][] INCLUDE_FILE_CHANGES = {
+			{ "Rename a label in an include file", "include1.asm", "incA = 2\n.MACRO im\n nop\n.ENDM\n" },
+			{ "Add a label to an include file", "include1.asm", "incA = 2\ninc3 = 4\n.MACRO im2\n nop\n.ENDM\n" },
+			{ "Add a folding block to an include file", "include2.asm",
+					"* = $5000\ninc2 rts\n.IF 1\n nop\n.ENDIF\n" } };
+
+	/**
+	 * Creation is private.
+	 */
+	private TestCompilerSourceParserIncrementalTest() {
+	}
+
+	@TestMethod
+	public static void main(String[] args) {
+		Compiler compiler = LanguagePlugin.getInstance().getCompilerRegistry()
+				.getCompilerByEditorClassName(TestEditor.class.getName());
+		File folder;
+		try {
+			folder = Files.createTempDirectory(TestCompilerSourceParserIncrementalTest.class.getSimpleName())
+					.toFile();
+			for (String[] includeFile : INCLUDE_FILES) {
+				FileUtility.writeString(new File(folder, includeFile[0]), includeFile[1]);
+			}
+		} catch (IOException | CoreException ex) {
+			fail(ex);
+			return;
+		}
+		File mainFile = new File(folder, MAIN_FILE_NAME);
+		StringBuilder failures = new StringBuilder();
+
+		// Every edit on its own.
+		for (Edit edit : EDITS) {
+			CompilerSourceFile compilerSourceFile = createParsedFile(compiler, mainFile, SOURCE);
+			if (!apply(compilerSourceFile, edit)) {
+				fail("Anchor '" + edit.anchor + "' of edit '" + edit.description + "' not found.");
+			}
+			compare(compiler, mainFile, compilerSourceFile, edit.description, failures);
+		}
+
+		// All edits one after the other. Edits whose anchor was removed by a
+		// previous edit are skipped.
+		int comparisonCount = EDITS.length;
+		CompilerSourceFile compilerSourceFile = createParsedFile(compiler, mainFile, SOURCE);
+		for (Edit edit : EDITS) {
+			if (apply(compilerSourceFile, edit)) {
+				compare(compiler, mainFile, compilerSourceFile, edit.description + " (cumulative)", failures);
+				comparisonCount++;
+			}
+		}
+
+		// Changes of the source include files.
+		for (String[] includeFileChange : INCLUDE_FILE_CHANGES) {
+			compareIncludeFileChange(compiler, mainFile, new File(folder, includeFileChange[1]),
+					includeFileChange[2], includeFileChange[0], failures);
+			comparisonCount++;
+		}
+
+		for (String[] includeFile : INCLUDE_FILES) {
+			new File(folder, includeFile[0]).delete();
+		}
+		folder.delete();
+
+		Test.log(comparisonCount + " incremental parse processes compared");
+		if (failures.length() > 0) {
+			fail(failures.toString());
+		}
+	}
+
+	private static CompilerSourceParser createParser(Compiler compiler) {
+		CompilerSourceParser parser = compiler.createSourceParser();
+		parser.init(compiler, compiler.getDefinition().getSyntax().getInstructionSet(Target.MOS6502));
+		return parser;
+	}
+
+	private static CompilerSourceFile createParsedFile(Compiler compiler, File mainFile, String content) {
+		CompilerSourceParser parser = createParser(compiler);
+		IDocument document = new Document(content);
+		new CompilerSourcePartitionScanner(parser.getCompilerSyntax()).createDocumentPartitioner(document);
+		CompilerSourceFile compilerSourceFile = parser.createCompilerSourceFile(mainFile, document);
+		parser.parse(compilerSourceFile, null);
+		return compilerSourceFile;
+	}
+
+	private static boolean apply(CompilerSourceFile compilerSourceFile, Edit edit) {
+		IDocument document = compilerSourceFile.getDocument();
+		int offset = document.get().indexOf(edit.anchor);
+		if (offset < 0) {
+			return false;
+		}
+		int length = Math.min(edit.length, document.getLength() - offset);
+		try {
+			document.replace(offset, length, edit.text);
+		} catch (BadLocationException ex) {
+			fail(ex);
+		}
+		compilerSourceFile.documentChanged(offset, length, edit.text.length());
+		return true;
+	}
+
+	private static void compare(Compiler compiler, File mainFile, CompilerSourceFile compilerSourceFile,
+			String description, StringBuilder failures) {
+		createParser(compiler).parseIncremental(compilerSourceFile);
+		CompilerSourceFile expectedCompilerSourceFile = createParsedFile(compiler, mainFile,
+				compilerSourceFile.getDocument().get());
+		String actual = dump(compilerSourceFile);
+		String expected = dump(expectedCompilerSourceFile);
+		if (!actual.equals(expected)) {
+			failures.append("Edit '" + description + "': Incremental parse result\n" + actual
+					+ "differs from complete parse result\n" + expected);
+		}
+	}
+
+	private static void compareIncludeFileChange(Compiler compiler, File mainFile, File includeFile,
+			String content, String description, StringBuilder failures) {
+		final CompilerSourceFile compilerSourceFile = createParsedFile(compiler, mainFile, SOURCE);
+		Set<String> filePaths = Collections.singleton(FileUtility.getCanonicalFile(includeFile).getPath());
+		if (!compilerSourceFile.isIncludingFile(filePaths)) {
+			failures.append("Change '" + description + "': Include file '" + includeFile.getName()
+					+ "' is not detected as included\n");
+		}
+
+		// Same as the parse job of the editor.
+		CompilerSourceFileCache cache = LanguagePlugin.getInstance().getCompilerSourceFileCache();
+		CompilerSourceFileCacheListener listener = new CompilerSourceFileCacheListener() {
+
+			@Override
+			public void filesChanged(Set<String> filePaths) {
+				if (compilerSourceFile.isIncludingFile(filePaths)) {
+					compilerSourceFile.invalidateParseResult();
+				}
+			}
+		};
+		cache.addListener(listener);
+		try {
+			FileUtility.writeString(includeFile, content);
+			cache.filesChanged(filePaths);
+		} catch (CoreException ex) {
+			fail(ex);
+		} finally {
+			cache.removeListener(listener);
+		}
+		compare(compiler, mainFile, compilerSourceFile, description, failures);
+	}
+
+	private static String dump(CompilerSourceFile compilerSourceFile) {
+		StringBuilder builder = new StringBuilder();
+		for (CompilerSourceParserTreeObject section : compilerSourceFile.getSections()) {
+			dump(section, "", builder);
+		}
+		for (Position position : compilerSourceFile.getFoldingPositions()) {
+			builder.append("Folding " + position.getOffset() + ":" + position.getLength() + "\n");
+		}
+		return builder.toString();
+	}
+
+	private static void dump(CompilerSourceParserTreeObject treeObject, String indent, StringBuilder builder) {
+		File documentFile = treeObject.getCompilerSourceFile().getDocumentFile();
+		builder.append(indent + treeObject.getTreePath() + " " + treeObject.getCompoundName() + " @"
+				+ (documentFile == null ? "" : documentFile.getName()) + ":" + treeObject.getStartOffset() + " "
+				+ treeObject.getDescription() + "\n");
+		// The end offsets of the top level sections are not compared, since
+		// the section which is active when an incremental parse process
+		// converges is not ended again.
+		if (indent.length() > 0 && treeObject.getEndOffset() >= 0) {
+			builder.append(indent + " End @" + treeObject.getEndOffset() + "\n");
+		}
+		for (CompilerSourceParserTreeObject child : treeObject.getChildren()) {
+			dump(child, indent + " ", builder);
+		}
+	}
+}
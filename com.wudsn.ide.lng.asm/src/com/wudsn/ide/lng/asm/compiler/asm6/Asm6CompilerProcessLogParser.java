@@ -21,7 +21,6 @@ package com.wudsn.ide.lng.asm.compiler.asm6;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.StringReader;
 import java.util.List;
 
 import org.eclipse.core.resources.IMarker;
@@ -45,9 +44,14 @@ final class Asm6CompilerProcessLogParser extends CompilerProcessLogParser {
 
 	private BufferedReader bufferedReader;
 
+	@Override
+	public boolean isStreamingSupported() {
+		return true;
+	}
+
 	@Override
 	protected void initialize() {
-		bufferedReader = new BufferedReader(new StringReader(errorLog));
+		bufferedReader = new BufferedReader(getErrorLogReader());
 	}
 
 	@Override
@@ -21,7 +21,6 @@ package com.wudsn.ide.lng.asm.compiler.kickass;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.StringReader;
 import java.util.List;
 
 import org.eclipse.core.resources.IMarker;
@@ -45,9 +44,14 @@ final class KickAssCompilerProcessLogParser extends CompilerProcessLogParser {
 
 	private BufferedReader bufferedReader;
 
+	@Override
+	public boolean isStreamingSupported() {
+		return true;
+	}
+
 	@Override
 	protected void initialize() {
-		bufferedReader = new BufferedReader(new StringReader(outputLog));
+		bufferedReader = new BufferedReader(getOutputLogReader());
 	}
 
 	@Override
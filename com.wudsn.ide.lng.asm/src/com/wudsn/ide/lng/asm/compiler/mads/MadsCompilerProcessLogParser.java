@@ -22,7 +22,6 @@ package com.wudsn.ide.lng.asm.compiler.mads;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.StringReader;
 import java.util.List;
 
 import org.eclipse.core.resources.IMarker;
@@ -43,9 +42,14 @@ final class MadsCompilerProcessLogParser extends CompilerProcessLogParser {
 
 	private BufferedReader bufferedReader;
 
+	@Override
+	public boolean isStreamingSupported() {
+		return true;
+	}
+
 	@Override
 	protected void initialize() {
-		bufferedReader = new BufferedReader(new StringReader(outputLog));
+		bufferedReader = new BufferedReader(getOutputLogReader());
 	}
 
 	@Override
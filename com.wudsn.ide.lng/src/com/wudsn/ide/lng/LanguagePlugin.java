@@ -31,6 +31,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.QualifiedName;
@@ -46,6 +48,7 @@ import com.wudsn.ide.lng.compiler.CompilerConsole;
 import com.wudsn.ide.lng.compiler.CompilerPaths;
 import com.wudsn.ide.lng.compiler.CompilerPathsTest;
 import com.wudsn.ide.lng.compiler.CompilerRegistry;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceFileCache;
 import com.wudsn.ide.lng.preferences.LanguagePreferences;
 import com.wudsn.ide.lng.preferences.LanguagePreferencesChangeListener;
 import com.wudsn.ide.lng.preferences.LanguagesPreferences;
@@ -104,6 +107,11 @@ public final class LanguagePlugin extends AbstractIDEPlugin {
 	 */
 	private RunnerPaths runnerPaths;
 
+	/**
+	 * The cache for parsed source include files.
+	 */
+	private CompilerSourceFileCache compilerSourceFileCache;
+
 	/**
 	 * The UI properties.
 	 */
@@ -120,6 +128,7 @@ public final class LanguagePlugin extends AbstractIDEPlugin {
 		compilerConsole = null;
 		runnerRegistry = new RunnerRegistry();
 		runnerPaths = new RunnerPaths();
+		compilerSourceFileCache = new CompilerSourceFileCache();
 		properties = new HashMap<QualifiedName, String>(10);
 		languages = new ArrayList<Language>(2);
 		languages.add(Language.ASM);
@@ -157,6 +166,8 @@ public final class LanguagePlugin extends AbstractIDEPlugin {
 			logError("Cannot initialize runner registry", null, ex);
 			throw ex;
 		}
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(compilerSourceFileCache,
+				IResourceChangeEvent.POST_CHANGE);
 
 		// Register for global JFace preferences that also affect the editors.
 		JFacePreferences.getPreferenceStore().addPropertyChangeListener(new IPropertyChangeListener() {
@@ -191,6 +202,8 @@ public final class LanguagePlugin extends AbstractIDEPlugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(compilerSourceFileCache);
+		compilerSourceFileCache.clear();
 		super.stop(context);
 		plugin = null;
 	}
@@ -301,6 +314,20 @@ public final class LanguagePlugin extends AbstractIDEPlugin {
 		}
 		return runnerPaths;
 	}
+
+	/**
+	 * Gets the cache for parsed source include files.
+	 * 
+	 * @return The compiler source file cache, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public CompilerSourceFileCache getCompilerSourceFileCache() {
+		if (compilerSourceFileCache == null) {
+			throw new IllegalStateException("Field 'compilerSourceFileCache' must not be null.");
+		}
+		return compilerSourceFileCache;
+	}
 	
 	/**
 	 * Gets the preferences for this plugin.
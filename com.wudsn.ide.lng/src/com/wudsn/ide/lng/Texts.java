@@ -42,6 +42,16 @@ public final class Texts extends NLS {
 	 */
 	public static String COMPILER_CONSOLE_TITLE;
 
+	/**
+	 * Compiler job.
+	 */
+	public static String COMPILER_JOB_NAME;
+
+	/**
+	 * Compiler source parser.
+	 */
+	public static String COMPILER_SOURCE_PARSER_JOB_NAME;
+
 	/**
 	 * Compiler source parser tree.
 	 */
@@ -153,6 +163,8 @@ public final class Texts extends NLS {
 	public static String PREFERENCES_COMPILE_COMMAND_POSITIONING_MODE_LABEL;
 	public static String PREFERENCES_COMPILE_COMMAND_POSITIONING_MODE_FIRST_ERROR_OR_WARNING_TEXT;
 	public static String PREFERENCES_COMPILE_COMMAND_POSITIONING_MODE_FIRST_ERROR_TEXT;
+	public static String PREFERENCES_COMPILE_COMMAND_SKIP_UNCHANGED_LABEL;
+	public static String PREFERENCES_COMPILE_COMMAND_TIMEOUT_LABEL;
 
 	/**
 	 * Preferences: compiler and runner
@@ -302,6 +314,8 @@ public final class Texts extends NLS {
 	public static String MESSAGE_S143;
 	public static String MESSAGE_W144;
 	public static String MESSAGE_E145;
+	public static String MESSAGE_I146;
+	public static String MESSAGE_E147;
 
 	/**
 	 * Initializes the constants.
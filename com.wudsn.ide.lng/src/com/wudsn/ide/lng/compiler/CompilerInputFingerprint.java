@@ -0,0 +1,204 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.lng.compiler;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+
+import com.wudsn.ide.base.common.FileUtility;
+import com.wudsn.ide.base.common.HexUtility;
+import com.wudsn.ide.base.hardware.Hardware;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceParser;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceParserFileReference;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceParserFileReferenceType;
+
+/**
+ * Fingerprint of all inputs of a compilation. The fingerprint covers the
+ * hardware, the resolved command line, the modification time stamp and the
+ * length of the compiler executable and the content of the main source file
+ * and of all source and binary files it references directly or indirectly. The
+ * file references are detected via
+ * {@link CompilerSourceParser#detectFileReference(String, CompilerSourceParserFileReference)}
+ * . Files written by the compiler are not part of the fingerprint. If the
+ * fingerprint is equal to the one of the last successful compilation and the
+ * output file is unchanged, compiling again yields the same result. The
+ * fingerprint must therefore be created before the compiler is started, so
+ * changes saved while the compiler is running are detected by the next
+ * compilation.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+public final class CompilerInputFingerprint {
+
+	/**
+	 * The digest algorithm.
+	 */
+	private static final String ALGORITHM = "SHA-256";
+
+	/**
+	 * Creation is private.
+	 */
+	private CompilerInputFingerprint() {
+	}
+
+	/**
+	 * Creates the fingerprint for the inputs of a compilation.
+	 * 
+	 * @param compilerSourceParser   The compiler source parser used to detect file
+	 *                               references, not <code>null</code>.
+	 * @param hardware               The hardware, not <code>null</code>.
+	 * @param commandLineArray       The resolved command line, not
+	 *                               <code>null</code>.
+	 * @param compilerExecutableFile The compiler executable file, not
+	 *                               <code>null</code>.
+	 * @param mainSourceFile         The main source file, not <code>null</code>.
+	 * @param charset                The charset of the source files, not
+	 *                               <code>null</code>.
+	 * @param outputFiles            The files written by the compiler, not
+	 *                               <code>null</code>. They are excluded from the
+	 *                               fingerprint.
+	 * @return The fingerprint as hex string, not empty and not <code>null</code>.
+	 * 
+	 * @throws CoreException If one of the existing input files cannot be read.
+	 */
+	public static String create(CompilerSourceParser compilerSourceParser, Hardware hardware,
+			String[] commandLineArray, File compilerExecutableFile, File mainSourceFile, Charset charset,
+			File[] outputFiles) throws CoreException {
+		if (compilerSourceParser == null) {
+			throw new IllegalArgumentException("Parameter 'compilerSourceParser' must not be null.");
+		}
+		if (hardware == null) {
+			throw new IllegalArgumentException("Parameter 'hardware' must not be null.");
+		}
+		if (commandLineArray == null) {
+			throw new IllegalArgumentException("Parameter 'commandLineArray' must not be null.");
+		}
+		if (compilerExecutableFile == null) {
+			throw new IllegalArgumentException("Parameter 'compilerExecutableFile' must not be null.");
+		}
+		if (mainSourceFile == null) {
+			throw new IllegalArgumentException("Parameter 'mainSourceFile' must not be null.");
+		}
+		if (charset == null) {
+			throw new IllegalArgumentException("Parameter 'charset' must not be null.");
+		}
+		if (outputFiles == null) {
+			throw new IllegalArgumentException("Parameter 'outputFiles' must not be null.");
+		}
+
+		MessageDigest messageDigest;
+		try {
+			messageDigest = MessageDigest.getInstance(ALGORITHM);
+		} catch (NoSuchAlgorithmException ex) {
+			throw new RuntimeException("Message digest '" + ALGORITHM + "' is not available.", ex);
+		}
+
+		update(messageDigest, hardware.name());
+		for (String parameter : commandLineArray) {
+			update(messageDigest, parameter);
+		}
+		update(messageDigest, compilerExecutableFile.getPath());
+		update(messageDigest, Long.toString(compilerExecutableFile.lastModified()));
+		update(messageDigest, Long.toString(compilerExecutableFile.length()));
+
+		// Visit the main source file and all referenced files in breadth first
+		// order. Binary files are hashed but not scanned for references.
+		Set<String> visitedFilePaths = new HashSet<String>();
+		for (File outputFile : outputFiles) {
+			visitedFilePaths.add(FileUtility.getCanonicalFile(outputFile).getPath());
+		}
+		Deque<File> sourceFiles = new ArrayDeque<File>();
+		mainSourceFile = FileUtility.getCanonicalFile(mainSourceFile);
+		visitedFilePaths.add(mainSourceFile.getPath());
+		sourceFiles.add(mainSourceFile);
+		while (!sourceFiles.isEmpty()) {
+			File sourceFile = sourceFiles.removeFirst();
+			byte[] content = update(messageDigest, sourceFile);
+			if (content == null) {
+				continue;
+			}
+			String[] lines = new String(content, charset).split("\\r\\n|\\r|\\n");
+			for (String line : lines) {
+				CompilerSourceParserFileReference fileReference = new CompilerSourceParserFileReference();
+				compilerSourceParser.detectFileReference(line, fileReference);
+				String filePath = compilerSourceParser.getFileReferencePath(line, fileReference);
+				if (filePath == null) {
+					continue;
+				}
+				int type = fileReference.getType();
+				filePath = compilerSourceParser.getIncludeAbsoluteFilePath(type, sourceFile.getParentFile(),
+						filePath);
+				if (filePath == null || !visitedFilePaths.add(filePath)) {
+					continue;
+				}
+				File file = new File(filePath);
+				if (type == CompilerSourceParserFileReferenceType.SOURCE) {
+					sourceFiles.add(file);
+				} else {
+					update(messageDigest, file);
+				}
+			}
+		}
+
+		byte[] digest = messageDigest.digest();
+		StringBuilder builder = new StringBuilder(digest.length * 2);
+		for (byte b : digest) {
+			builder.append(HexUtility.getByteValueHexString(b & 0xff));
+		}
+		return builder.toString();
+	}
+
+	private static void update(MessageDigest messageDigest, String value) {
+		messageDigest.update(value.getBytes(StandardCharsets.UTF_8));
+		messageDigest.update((byte) 0);
+	}
+
+	/**
+	 * Adds the path and the content of a file to the digest.
+	 * 
+	 * @param messageDigest The message digest, not <code>null</code>.
+	 * @param file          The file, not <code>null</code>.
+	 * @return The content of the file or <code>null</code> if the file does not
+	 *         exist.
+	 * @throws CoreException If the file exists but cannot be read.
+	 */
+	private static byte[] update(MessageDigest messageDigest, File file) throws CoreException {
+		update(messageDigest, file.getPath());
+		if (!file.isFile()) {
+			update(messageDigest, "-");
+			return null;
+		}
+		byte[] content = FileUtility.readBytes(file, FileUtility.MAX_SIZE_UNLIMITED, false);
+		update(messageDigest, Integer.toString(content.length));
+		messageDigest.update(content);
+		return content;
+	}
+}
@@ -20,6 +20,8 @@
 package com.wudsn.ide.lng.compiler;
 
 import java.io.File;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.List;
 
 import org.eclipse.core.resources.IFile;
@@ -137,6 +139,8 @@ public abstract class CompilerProcessLogParser {
 	}
 
 	private boolean initialized;
+	private Reader outputLogReader;
+	private Reader errorLogReader;
 	protected CompilerFiles files;
 	protected String mainSourceFilePath;
 	protected String outputLog;
@@ -150,6 +154,22 @@ public abstract class CompilerProcessLogParser {
 	protected CompilerProcessLogParser() {
 	}
 
+	/**
+	 * Determines if the parser reads the logs only line by line via
+	 * {@link #getOutputLogReader()} and {@link #getErrorLogReader()}. In this
+	 * case the logs can be parsed via
+	 * {@link #setLogReaders(CompilerFiles, Reader, Reader)} while the compiler is
+	 * still running.
+	 * 
+	 * @return <code>true</code> if the parser supports streaming,
+	 *         <code>false</code> otherwise.
+	 * 
+	 * @since 1.7.2
+	 */
+	public boolean isStreamingSupported() {
+		return false;
+	}
+
 	public final void setLogs(CompilerFiles files, String outputLog, String errorLog) {
 		if (files == null) {
 			throw new IllegalArgumentException("Parameter 'files' must not be null.");
@@ -160,19 +180,78 @@ public abstract class CompilerProcessLogParser {
 		if (errorLog == null) {
 			throw new IllegalArgumentException("Parameter 'errorLog' must not be null.");
 		}
+		init(files, outputLog, errorLog, new StringReader(outputLog), new StringReader(errorLog));
+	}
+
+	/**
+	 * Sets the readers for the logs of a running compiler. Only allowed if
+	 * {@link #isStreamingSupported()} is <code>true</code>. The readers block
+	 * until the next line is available, so {@link #nextMarker()} returns as soon
+	 * as the compiler has written the respective line. The fields
+	 * {@link #outputLog} and {@link #errorLog} are empty in this case.
+	 * 
+	 * @param files           The compiler files, not <code>null</code>.
+	 * @param outputLogReader The reader for the output log, not
+	 *                        <code>null</code>.
+	 * @param errorLogReader  The reader for the error log, not
+	 *                        <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public final void setLogReaders(CompilerFiles files, Reader outputLogReader, Reader errorLogReader) {
+		if (files == null) {
+			throw new IllegalArgumentException("Parameter 'files' must not be null.");
+		}
+		if (outputLogReader == null) {
+			throw new IllegalArgumentException("Parameter 'outputLogReader' must not be null.");
+		}
+		if (errorLogReader == null) {
+			throw new IllegalArgumentException("Parameter 'errorLogReader' must not be null.");
+		}
+		if (!isStreamingSupported()) {
+			throw new IllegalStateException("Log parser " + getClass().getName() + " does not support streaming.");
+		}
+		init(files, "", "", outputLogReader, errorLogReader);
+	}
+
+	private void init(CompilerFiles files, String outputLog, String errorLog, Reader outputLogReader,
+			Reader errorLogReader) {
 		this.files = files;
 		this.mainSourceFilePath = files.mainSourceFile.filePath;
 		this.outputLog = outputLog;
 		this.errorLog = errorLog;
+		this.outputLogReader = outputLogReader;
+		this.errorLogReader = errorLogReader;
 		initialize();
 		initialized = true;
 		markerAvailable = false;
-		return;
 	}
 
 	protected void initialize() {
 	}
 
+	/**
+	 * Gets the reader for the output log.
+	 * 
+	 * @return The reader for the output log, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	protected final Reader getOutputLogReader() {
+		return outputLogReader;
+	}
+
+	/**
+	 * Gets the reader for the error log.
+	 * 
+	 * @return The reader for the error log, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	protected final Reader getErrorLogReader() {
+		return errorLogReader;
+	}
+
 	public final boolean nextMarker() {
 		filePath = "";
 		lineNumber = 0;
@@ -22,15 +22,21 @@ package com.wudsn.ide.lng.compiler.parser;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.Region;
 
 import com.wudsn.ide.base.common.FileUtility;
 import com.wudsn.ide.base.common.StringUtility;
 import com.wudsn.ide.lng.Texts;
 import com.wudsn.ide.lng.compiler.syntax.CompilerSyntax;
+import com.wudsn.ide.lng.compiler.syntax.InstructionSet;
 
 /**
  * Container for recursive parsing of source files using
@@ -56,11 +62,40 @@ public final class CompilerSourceFile {
 		}
 	}
 
+	/**
+	 * The result of the previous parse process while an incremental parse process
+	 * is running. Since incremental parse processes do not modify the previous
+	 * result, it can be restored if the parse process is canceled.
+	 * 
+	 * @since 1.7.2
+	 */
+	private final static class ParseResult {
+		public final CompilerSourceParserTreeObject definitionSection;
+		public final List<CompilerSourceParserTreeObject> implementationSections;
+		public final List<Position> foldingPositions;
+		public final List<CompilerSourceFileCheckpoint> checkpoints;
+		public final Map<String, CompilerSourceFile> parsedFiles;
+
+		public ParseResult(CompilerSourceFile compilerSourceFile) {
+			definitionSection = compilerSourceFile.definitionSection;
+			implementationSections = compilerSourceFile.implementationSections;
+			foldingPositions = compilerSourceFile.foldingPositions;
+			checkpoints = compilerSourceFile.checkpoints;
+			parsedFiles = compilerSourceFile.parsedFiles;
+		}
+	}
+
 	private CompilerSyntax compilerSyntax;
 	private File documentFile;
 	private File documentDirectory;
 	private IDocument document;
 
+	/**
+	 * The file from which this snapshot was created or <code>null</code> if this
+	 * is not a snapshot.
+	 */
+	private CompilerSourceFile snapshotCompilerSourceFile;
+
 	private List<Position> foldingPositions;
 
 	/**
@@ -75,6 +110,29 @@ public final class CompilerSourceFile {
 	private List<CompilerSourceParserTreeObject> implementationSections;
 	private List<CompilerSourceParserTreeObject> sectionStack;
 
+	/**
+	 * The state of the last parse process required for incremental parsing.
+	 */
+	private InstructionSet parsedInstructionSet;
+	private int parsedDocumentLength;
+	private int parsedDocumentLines;
+	private List<CompilerSourceFileCheckpoint> checkpoints;
+	private Map<String, CompilerSourceFile> parsedFiles;
+	private ParseResult previousParseResult;
+
+	/**
+	 * The identifier index of the result of the last parse process, created on
+	 * demand.
+	 */
+	private volatile CompilerSourceFileIdentifierIndex identifierIndex;
+
+	/**
+	 * The region of the document which was changed since the last parse process.
+	 * The offsets refer to the current content of the document.
+	 */
+	private int changeStartOffset;
+	private int changeEndOffset;
+
 	/**
 	 * Creates a new compiler source file. Instances are only created by
 	 * {@link CompilerSourceParser#createCompilerSourceFile(File, IDocument)}.
@@ -102,6 +160,17 @@ public final class CompilerSourceFile {
 
 		this.document = document;
 
+		clear();
+		changeStartOffset = -1;
+		changeEndOffset = -1;
+	}
+
+	/**
+	 * Clears the result of the last parse process.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void clear() {
 		// Folding.
 		foldingPositions = new ArrayList<Position>();
 		foldingStack = new ArrayList<FoldingStackEntry>();
@@ -112,6 +181,89 @@ public final class CompilerSourceFile {
 				Texts.COMPILER_CONTENT_OUTLINE_TREE_TYPE_DEFINITION_SECTION, "");
 		implementationSections = new ArrayList<CompilerSourceParserTreeObject>();
 		sectionStack = new ArrayList<CompilerSourceParserTreeObject>();
+
+		// Incremental parsing.
+		parsedInstructionSet = null;
+		parsedDocumentLength = 0;
+		parsedDocumentLines = 0;
+		checkpoints = new ArrayList<CompilerSourceFileCheckpoint>();
+		parsedFiles = Collections.emptyMap();
+		previousParseResult = null;
+		identifierIndex = null;
+	}
+
+	/**
+	 * Creates a snapshot of the result of the last parse process. The snapshot
+	 * shares the tree objects and folding positions with this file instead of
+	 * copying them. This is possible, because incremental parse processes never
+	 * modify the tree objects, lists and positions of a previous result, but
+	 * replace them. The tree objects of the snapshot still belong to this file,
+	 * see {@link #getCompilerSourceFile(CompilerSourceParserTreeObject)}. The
+	 * snapshot itself cannot be parsed incrementally.
+	 * 
+	 * @param document The document to be used by the snapshot, typically the
+	 *                 document from which the document of this file is copied,
+	 *                 not <code>null</code>. The offsets of the snapshot refer to
+	 *                 the content of that document at the time this file was
+	 *                 parsed.
+	 * @return The snapshot, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public CompilerSourceFile createSnapshot(IDocument document) {
+		if (document == null) {
+			throw new IllegalArgumentException("Parameter 'document' must not be null.");
+		}
+		CompilerSourceFile result = new CompilerSourceFile(compilerSyntax, null, document);
+		result.documentFile = documentFile;
+		result.documentDirectory = documentDirectory;
+		result.snapshotCompilerSourceFile = this;
+
+		result.foldingPositions = Collections.unmodifiableList(foldingPositions);
+		result.definitionSection = definitionSection;
+		result.implementationSections = Collections.unmodifiableList(implementationSections);
+		result.parsedFiles = new LinkedHashMap<String, CompilerSourceFile>();
+		for (Map.Entry<String, CompilerSourceFile> entry : parsedFiles.entrySet()) {
+			result.parsedFiles.put(entry.getKey(), entry.getValue() == this ? result : entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the compiler source file to which a tree object of the result of the
+	 * last parse process belongs. For the tree objects which were parsed from the
+	 * document of this file, this is this file, also if this file is a snapshot.
+	 * For the tree objects of source include files, this is the source include
+	 * file.
+	 * 
+	 * @param treeObject The tree object, not <code>null</code>.
+	 * @return The compiler source file, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public CompilerSourceFile getCompilerSourceFile(CompilerSourceParserTreeObject treeObject) {
+		if (treeObject == null) {
+			throw new IllegalArgumentException("Parameter 'treeObject' must not be null.");
+		}
+		CompilerSourceFile result = treeObject.getCompilerSourceFile();
+		if (result == snapshotCompilerSourceFile) {
+			result = this;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the currently active section.
+	 * 
+	 * @return The active section or <code>null</code> if no section is active.
+	 * 
+	 * @since 1.7.2
+	 */
+	final CompilerSourceParserTreeObject getActiveSection() {
+		if (sectionStack.isEmpty()) {
+			return null;
+		}
+		return sectionStack.get(sectionStack.size() - 1);
 	}
 
 	/**
@@ -180,6 +332,49 @@ public final class CompilerSourceFile {
 		return implementationSections;
 	}
 
+	/**
+	 * Gets the innermost section of the result of the last parse process which
+	 * contains the line starting at the given offset. The line which begins a
+	 * section is not contained in the section, the line which ends a section is.
+	 * Only sections parsed from the document of this file are considered.
+	 * 
+	 * @param lineOffset The start offset of the line in the document at the time
+	 *                   of the last parse process, a non-negative integer.
+	 * @return The section, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public CompilerSourceParserTreeObject getSectionOfLine(int lineOffset) {
+		if (lineOffset < 0) {
+			throw new IllegalArgumentException(
+					"Parameter 'lineOffset' must not be negative. Specified value is " + lineOffset + ".");
+		}
+
+		// The top level sections follow each other.
+		CompilerSourceParserTreeObject result = definitionSection;
+		for (CompilerSourceParserTreeObject implementationSection : implementationSections) {
+			if (implementationSection.getStartOffset() >= lineOffset) {
+				break;
+			}
+			result = implementationSection;
+		}
+
+		// Nested sections are children of their enclosing section.
+		boolean found;
+		do {
+			found = false;
+			for (CompilerSourceParserTreeObject child : result.getChildren()) {
+				if (child.getEndOffset() >= lineOffset && child.getStartOffset() < lineOffset
+						&& getCompilerSourceFile(child) == this) {
+					result = child;
+					found = true;
+					break;
+				}
+			}
+		} while (found);
+		return result;
+	}
+
 	/**
 	 * Gets the list of foldingPositions for folding after parsed has completed.
 	 * 
@@ -317,7 +512,7 @@ public final class CompilerSourceFile {
 
 		// Remove top of stack.
 		if (!sectionStack.isEmpty()) {
-			sectionStack.remove(sectionStack.size() - 1);
+			sectionStack.remove(sectionStack.size() - 1).setEndOffset(endOffset);
 
 			// Make top of stack the new active section, accepting illegal pops.
 			if (!sectionStack.isEmpty()) {
@@ -328,40 +523,375 @@ public final class CompilerSourceFile {
 		return result;
 	}
 
-	public List<CompilerSourceParserTreeObject> getIdentifiers() {
-		List<CompilerSourceParserTreeObject> foundElements;
-		foundElements = new ArrayList<CompilerSourceParserTreeObject>();
-		getIdentifiers(getSections(), foundElements);
-		foundElements = Collections.unmodifiableList(foundElements);
-		return foundElements;
-	}
-
-	private void getIdentifiers(List<CompilerSourceParserTreeObject> allElements,
-			List<CompilerSourceParserTreeObject> foundElements) {
-		if (allElements == null) {
-			throw new IllegalArgumentException("Parameter 'allElements' must not be null.");
-		}
-		if (foundElements == null) {
-			throw new IllegalArgumentException("Parameter 'foundElements' must not be null.");
-		}
-		CompilerSourceParserTreeObject element = null;
-		for (int i = 0; i < allElements.size(); i++) {
-			element = allElements.get(i);
-			switch (element.getType()) {
-			case CompilerSourceParserTreeObjectType.EQUATE_DEFINITION:
-			case CompilerSourceParserTreeObjectType.LABEL_DEFINITION:
-			case CompilerSourceParserTreeObjectType.LOCAL_SECTION:
-			case CompilerSourceParserTreeObjectType.MACRO_DEFINITION_SECTION:
-			case CompilerSourceParserTreeObjectType.PROCEDURE_DEFINITION_SECTION:
-
-				foundElements.add(element);
-				break;
+	/**
+	 * Records a change of the document. Called by the document listener of the
+	 * owner of this compiler source file for every document change, so the next
+	 * call of {@link CompilerSourceParser#parseIncremental(CompilerSourceFile)}
+	 * knows which lines must be parsed again.
+	 * 
+	 * @param offset     The offset of the replaced text, a non-negative integer.
+	 * @param length     The length of the replaced text, a non-negative integer.
+	 * @param textLength The length of the replacing text, a non-negative integer.
+	 * 
+	 * @since 1.7.2
+	 */
+	public synchronized void documentChanged(int offset, int length, int textLength) {
+		if (offset < 0) {
+			throw new IllegalArgumentException(
+					"Parameter 'offset' must not be negative. Specified value is " + offset + ".");
+		}
+		int newEndOffset = offset + textLength;
+		if (changeStartOffset < 0) {
+			changeStartOffset = offset;
+			changeEndOffset = newEndOffset;
+			return;
+		}
+
+		// Map the end of the existing change region to the new content.
+		if (changeEndOffset >= offset + length) {
+			changeEndOffset += textLength - length;
+		} else if (changeEndOffset > offset) {
+			changeEndOffset = newEndOffset;
+		}
+		changeStartOffset = Math.min(changeStartOffset, offset);
+		changeEndOffset = Math.max(changeEndOffset, newEndOffset);
+	}
+
+	/**
+	 * Discards the state of the last parse process which is required for
+	 * incremental parsing, so the next call of
+	 * {@link CompilerSourceParser#parseIncremental(CompilerSourceFile)} parses
+	 * the complete file. Called by the owner of this compiler source file when a
+	 * source include file was changed, because incremental parse processes take
+	 * over the content of source include files from the last parse process.
+	 * 
+	 * @since 1.7.2
+	 */
+	public synchronized void invalidateParseResult() {
+		parsedInstructionSet = null;
+	}
+
+	/**
+	 * Determines if the result of the last parse process contains the content of
+	 * one of the given files as source include file.
+	 * 
+	 * @param filePaths The canonical file paths, may be empty, not
+	 *                  <code>null</code>.
+	 * @return <code>true</code> if one of the files is included directly or
+	 *         indirectly, <code>false</code> otherwise.
+	 * 
+	 * @since 1.7.2
+	 */
+	public boolean isIncludingFile(Set<String> filePaths) {
+		if (filePaths == null) {
+			throw new IllegalArgumentException("Parameter 'filePaths' must not be null.");
+		}
+		for (CompilerSourceFile parsedFile : parsedFiles.values()) {
+			if (parsedFile != this && parsedFile.documentFile != null
+					&& filePaths.contains(parsedFile.documentFile.getPath())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets and resets the region changed since the last parse process.
+	 * 
+	 * @return The changed region or <code>null</code> if the document was not
+	 *         changed.
+	 * 
+	 * @since 1.7.2
+	 */
+	final synchronized IRegion takeChangedRegion() {
+		IRegion result;
+		if (changeStartOffset < 0) {
+			result = null;
+		} else {
+			int length = Math.max(0, Math.min(changeEndOffset, document.getLength()) - changeStartOffset);
+			result = new Region(changeStartOffset, length);
+		}
+		changeStartOffset = -1;
+		changeEndOffset = -1;
+		return result;
+	}
+
+	/**
+	 * Determines if this file was completely parsed with the given instruction set
+	 * before, so it can be parsed incrementally.
+	 * 
+	 * @param instructionSet The instruction set, not <code>null</code>.
+	 * @return <code>true</code> if this file was parsed with the instruction set.
+	 * 
+	 * @since 1.7.2
+	 */
+	final boolean isParsed(InstructionSet instructionSet) {
+		return parsedInstructionSet == instructionSet;
+	}
+
+	/**
+	 * Marks the end of a complete or incremental parse process.
+	 * 
+	 * @param instructionSet The instruction set used for parsing, not
+	 *                       <code>null</code>.
+	 * @param parsedFiles    The ordered map of parsed files, not
+	 *                       <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void setParsed(InstructionSet instructionSet, Map<String, CompilerSourceFile> parsedFiles) {
+		if (instructionSet == null) {
+			throw new IllegalArgumentException("Parameter 'instructionSet' must not be null.");
+		}
+		if (parsedFiles == null) {
+			throw new IllegalArgumentException("Parameter 'parsedFiles' must not be null.");
+		}
+		this.parsedInstructionSet = instructionSet;
+		this.parsedDocumentLength = document.getLength();
+		this.parsedDocumentLines = document.getNumberOfLines();
+		this.parsedFiles = parsedFiles;
+		this.previousParseResult = null;
+		this.identifierIndex = null;
+	}
+
+	final int getParsedDocumentLength() {
+		return parsedDocumentLength;
+	}
+
+	final int getParsedDocumentLines() {
+		return parsedDocumentLines;
+	}
+
+	final Map<String, CompilerSourceFile> getParsedFiles() {
+		return parsedFiles;
+	}
+
+	final List<CompilerSourceFileCheckpoint> getCheckpoints() {
+		return checkpoints;
+	}
+
+	/**
+	 * Records a checkpoint after the given line if only a single top level section
+	 * is active and no other folding is open.
+	 * 
+	 * @param lineNumber      The line number, a non-negative integer.
+	 * @param lineOffset      The start offset of the line, a non-negative integer.
+	 * @param lineHash        The hash code of the line.
+	 * @param parsedFileCount The number of parsed files so far.
+	 * @return The new checkpoint or <code>null</code> if the current state does
+	 *         not allow a checkpoint.
+	 * 
+	 * @since 1.7.2
+	 */
+	final CompilerSourceFileCheckpoint addCheckpoint(int lineNumber, int lineOffset, int lineHash,
+			int parsedFileCount) {
+		if (sectionStack.size() != 1 || foldingStack.size() > 1) {
+			return null;
+		}
+		int foldingStartOffset = -1;
+		if (foldingStack.size() == 1) {
+			FoldingStackEntry entry = foldingStack.get(0);
+			if (!entry.forSection) {
+				return null;
 			}
-			if (element.hasChildren()) {
-				getIdentifiers(element.getChildren(), foundElements);
+			foldingStartOffset = entry.startOffset;
+		}
+		CompilerSourceParserTreeObject section = sectionStack.get(0);
+		int sectionIndex = (section == definitionSection ? -1 : implementationSections.size() - 1);
+		CompilerSourceFileCheckpoint result = new CompilerSourceFileCheckpoint(lineNumber, lineOffset, lineHash,
+				sectionIndex, foldingStartOffset, section.getChildren().size(), foldingPositions.size(),
+				parsedFileCount);
+		checkpoints.add(result);
+		return result;
+	}
+
+	/**
+	 * Adds a checkpoint taken over from a previous parse process.
+	 * 
+	 * @param checkpoint The checkpoint, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void addCheckpoint(CompilerSourceFileCheckpoint checkpoint) {
+		if (checkpoint == null) {
+			throw new IllegalArgumentException("Parameter 'checkpoint' must not be null.");
+		}
+		checkpoints.add(checkpoint);
+	}
+
+	/**
+	 * Gets the last checkpoint recorded before the given line.
+	 * 
+	 * @param lineNumber The line number, a non-negative integer.
+	 * @return The checkpoint or <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final CompilerSourceFileCheckpoint getCheckpointBefore(int lineNumber) {
+		int low = 0;
+		int high = checkpoints.size() - 1;
+		CompilerSourceFileCheckpoint result = null;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			CompilerSourceFileCheckpoint checkpoint = checkpoints.get(middle);
+			if (checkpoint.lineNumber < lineNumber) {
+				result = checkpoint;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
 			}
+		}
+		return result;
+	}
 
+	/**
+	 * Restores the parse state of the given checkpoint. All results after the
+	 * checkpoint are removed. The lists and the active section are replaced by
+	 * copies, so the result of the previous parse process is not modified and can
+	 * still be used by snapshots or be reverted, see
+	 * {@link #revertIncrementalParse(IRegion)}.
+	 * 
+	 * @param checkpoint The checkpoint, not <code>null</code>.
+	 * @return The modifiable ordered map of files parsed up to the checkpoint, not
+	 *         <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final Map<String, CompilerSourceFile> restoreCheckpoint(CompilerSourceFileCheckpoint checkpoint) {
+		if (checkpoint == null) {
+			throw new IllegalArgumentException("Parameter 'checkpoint' must not be null.");
+		}
+		previousParseResult = new ParseResult(this);
+		identifierIndex = null;
+		implementationSections = new ArrayList<CompilerSourceParserTreeObject>(
+				implementationSections.subList(0, checkpoint.sectionIndex + 1));
+		CompilerSourceParserTreeObject section;
+		if (checkpoint.sectionIndex < 0) {
+			section = definitionSection.copySection(checkpoint.childCount);
+			definitionSection = section;
+		} else {
+			section = implementationSections.get(checkpoint.sectionIndex).copySection(checkpoint.childCount);
+			implementationSections.set(checkpoint.sectionIndex, section);
 		}
+		foldingPositions = new ArrayList<Position>(foldingPositions.subList(0, checkpoint.foldingPositionCount));
+		foldingStack.clear();
+		if (checkpoint.foldingStartOffset >= 0) {
+			foldingStack.add(new FoldingStackEntry(checkpoint.foldingStartOffset, true));
+		}
+		sectionStack.clear();
+		sectionStack.add(section);
+		checkpoints = new ArrayList<CompilerSourceFileCheckpoint>(
+				checkpoints.subList(0, checkpoints.indexOf(checkpoint) + 1));
+
+		Map<String, CompilerSourceFile> result = new LinkedHashMap<String, CompilerSourceFile>();
+		for (Map.Entry<String, CompilerSourceFile> entry : parsedFiles.entrySet()) {
+			if (result.size() == checkpoint.parsedFileCount) {
+				break;
+			}
+			result.put(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Reverts the result of an incremental parse process which was canceled to
+	 * the result of the previous parse process. If no incremental parse process
+	 * was running, the result is cleared, so the next parse process parses the
+	 * complete file.
+	 * 
+	 * @param changedRegion The region changed since the previous parse process or
+	 *                      <code>null</code>. It is recorded again, so the next
+	 *                      incremental parse process parses it.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void revertIncrementalParse(IRegion changedRegion) {
+		ParseResult parseResult = previousParseResult;
+		if (parseResult == null) {
+			clear();
+			return;
+		}
+		definitionSection = parseResult.definitionSection;
+		implementationSections = parseResult.implementationSections;
+		foldingPositions = parseResult.foldingPositions;
+		checkpoints = parseResult.checkpoints;
+		parsedFiles = parseResult.parsedFiles;
+		previousParseResult = null;
+		identifierIndex = null;
+		sectionStack.clear();
+		foldingStack.clear();
+		if (changedRegion != null) {
+			documentChanged(changedRegion.getOffset(), changedRegion.getLength(), changedRegion.getLength());
+		}
+	}
+
+	/**
+	 * Adds a completed folding position taken over from a previous parse process.
+	 * 
+	 * @param position The position, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void addFoldingPosition(Position position) {
+		if (position == null) {
+			throw new IllegalArgumentException("Parameter 'position' must not be null.");
+		}
+		foldingPositions.add(position);
+	}
+
+	/**
+	 * Discards the active sections and foldings after the result of a previous
+	 * parse process has been taken over, since that result is already complete.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void discardActiveSections() {
+		sectionStack.clear();
+		foldingStack.clear();
+	}
+
+	/**
+	 * Gets the identifier index of the result of the last parse process. The index
+	 * is created once per parse process on first access.
+	 * 
+	 * @return The identifier index, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private CompilerSourceFileIdentifierIndex getIdentifierIndex() {
+		CompilerSourceFileIdentifierIndex result = identifierIndex;
+		if (result == null) {
+			result = new CompilerSourceFileIdentifierIndex(compilerSyntax, getSections());
+			identifierIndex = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the identifiers defined in this file and in its source include files.
+	 * 
+	 * @return The unmodifiable list of identifiers, may be empty, not
+	 *         <code>null</code>.
+	 */
+	public List<CompilerSourceParserTreeObject> getIdentifiers() {
+		return getIdentifierIndex().getIdentifiers();
+	}
+
+	/**
+	 * Gets the identifiers defined in this file and in its source include files
+	 * with a name starting with a given prefix, ignoring the case.
+	 * 
+	 * @param prefix The prefix, may be empty, not <code>null</code>.
+	 * @return The unmodifiable list of identifiers, may be empty, not
+	 *         <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public List<CompilerSourceParserTreeObject> getIdentifiers(String prefix) {
+		if (prefix == null) {
+			throw new IllegalArgumentException("Parameter 'prefix' must not be null.");
+		}
+		return getIdentifierIndex().getIdentifiers(prefix.toLowerCase());
 	}
 
 	/**
@@ -381,67 +911,7 @@ public final class CompilerSourceFile {
 		if (StringUtility.isEmpty(identifier)) {
 			throw new IllegalArgumentException("Parameter 'identifier' must not be empty.");
 		}
-		List<CompilerSourceParserTreeObject> foundElements;
-		foundElements = new ArrayList<CompilerSourceParserTreeObject>();
-		getIdentifierDefinitionElements(getSections(), identifier, foundElements);
-		foundElements = Collections.unmodifiableList(foundElements);
-		return foundElements;
+		return getIdentifierIndex().getDefinitionElements(identifier);
 
 	}
-
-	private void getIdentifierDefinitionElements(List<CompilerSourceParserTreeObject> allElements, String identifier,
-			List<CompilerSourceParserTreeObject> foundElements) {
-		if (allElements == null) {
-			throw new IllegalArgumentException("Parameter 'allElements' must not be null.");
-		}
-		if (identifier == null) {
-			throw new IllegalArgumentException("Parameter 'identifier' must not be null.");
-		}
-		if (foundElements == null) {
-			throw new IllegalArgumentException("Parameter 'foundElements' must not be null.");
-		}
-		String compoundIdentifierSuffix = null;
-		char c = compilerSyntax.getIdentifierSeparatorCharacter();
-		if (c != CompilerSyntax.NO_CHARACTER) {
-			compoundIdentifierSuffix = c + identifier;
-		}
-
-		boolean identifiersCaseSensitive = compilerSyntax.areIdentifiersCaseSensitive();
-		CompilerSourceParserTreeObject element = null;
-		for (int i = 0; i < allElements.size(); i++) {
-			element = allElements.get(i);
-			switch (element.getType()) {
-			case CompilerSourceParserTreeObjectType.EQUATE_DEFINITION:
-			case CompilerSourceParserTreeObjectType.LABEL_DEFINITION:
-			case CompilerSourceParserTreeObjectType.ENUM_DEFINITION_SECTION:
-			case CompilerSourceParserTreeObjectType.STRUCTURE_DEFINITION_SECTION:
-			case CompilerSourceParserTreeObjectType.LOCAL_SECTION:
-			case CompilerSourceParserTreeObjectType.MACRO_DEFINITION_SECTION:
-			case CompilerSourceParserTreeObjectType.PROCEDURE_DEFINITION_SECTION:
-				// Check if name equals the identifier, compound name equals the
-				// identifier or compound name ends with
-				// compoundIdentifierSuffix.
-				if (identifiersCaseSensitive) {
-					if (element.getName().equals(identifier) || element.getCompoundName().equals(identifier)
-							|| (compoundIdentifierSuffix != null
-									&& element.getCompoundName().endsWith(compoundIdentifierSuffix))) {
-						foundElements.add(element);
-					}
-				} else {
-					if (element.getName().equalsIgnoreCase(identifier) || element.getCompoundName().equals(identifier)
-							|| (compoundIdentifierSuffix != null && element.getCompoundName().regionMatches(true,
-									element.getCompoundName().length() - compoundIdentifierSuffix.length(),
-									compoundIdentifierSuffix, 0, compoundIdentifierSuffix.length()))) {
-						foundElements.add(element);
-					}
-				}
-				break;
-			}
-
-			if (element.hasChildren()) {
-				getIdentifierDefinitionElements(element.getChildren(), identifier, foundElements);
-			}
-
-		}
-	}
 }
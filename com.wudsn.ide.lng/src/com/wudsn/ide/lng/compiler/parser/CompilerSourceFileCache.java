@@ -0,0 +1,302 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.lng.compiler.parser;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.ListenerList;
+
+import com.wudsn.ide.base.common.FileUtility;
+import com.wudsn.ide.lng.LanguagePlugin;
+import com.wudsn.ide.lng.compiler.syntax.InstructionSet;
+
+/**
+ * Workspace wide cache for the parse results of source include files. The
+ * cached files are parsed without their own source includes, so they do not
+ * depend on the including file. Entries are identified by the canonical file
+ * path and the instruction set and are valid as long as the modification time
+ * stamp and the length of the file are unchanged. The least recently used
+ * entries are evicted first. Entries for workspace files are also removed when
+ * the content of the resource is changed. The registered
+ * {@link CompilerSourceFileCacheListener} instances are notified about these
+ * changes, so results which contain the content of the changed files can be
+ * updated.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+public final class CompilerSourceFileCache implements IResourceChangeListener {
+
+	/**
+	 * The maximum number of cached files.
+	 */
+	private static final int MAX_ENTRIES = 256;
+
+	private static final class Key {
+		public final String filePath;
+		public final InstructionSet instructionSet;
+
+		public Key(String filePath, InstructionSet instructionSet) {
+			this.filePath = filePath;
+			this.instructionSet = instructionSet;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) object;
+			return filePath.equals(other.filePath) && instructionSet == other.instructionSet;
+		}
+
+		@Override
+		public int hashCode() {
+			return filePath.hashCode() * 31 + System.identityHashCode(instructionSet);
+		}
+
+		@Override
+		public String toString() {
+			return filePath;
+		}
+	}
+
+	private static final class Entry {
+		public final long lastModified;
+		public final long length;
+		public final CompilerSourceFile compilerSourceFile;
+
+		public Entry(long lastModified, long length, CompilerSourceFile compilerSourceFile) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.compilerSourceFile = compilerSourceFile;
+		}
+	}
+
+	private final Map<Key, Entry> entries;
+	private final ListenerList<CompilerSourceFileCacheListener> listeners;
+
+	/**
+	 * Creation is public. Called by {@link LanguagePlugin}.
+	 */
+	public CompilerSourceFileCache() {
+		entries = new LinkedHashMap<Key, Entry>(MAX_ENTRIES, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				return size() > MAX_ENTRIES;
+			}
+		};
+		listeners = new ListenerList<CompilerSourceFileCacheListener>(ListenerList.IDENTITY);
+	}
+
+	/**
+	 * Adds a listener.
+	 * 
+	 * @param listener The listener, not <code>null</code>.
+	 */
+	public void addListener(CompilerSourceFileCacheListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Parameter 'listener' must not be null.");
+		}
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener.
+	 * 
+	 * @param listener The listener, not <code>null</code>.
+	 */
+	public void removeListener(CompilerSourceFileCacheListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Parameter 'listener' must not be null.");
+		}
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Gets the cached compiler source file for a file.
+	 * 
+	 * @param file           The canonical file, not <code>null</code>.
+	 * @param instructionSet The instruction set used for parsing, not
+	 *                       <code>null</code>.
+	 * @return The compiler source file or <code>null</code> if there is no entry
+	 *         or the file was modified since the entry was created.
+	 */
+	public synchronized CompilerSourceFile get(File file, InstructionSet instructionSet) {
+		if (file == null) {
+			throw new IllegalArgumentException("Parameter 'file' must not be null.");
+		}
+		if (instructionSet == null) {
+			throw new IllegalArgumentException("Parameter 'instructionSet' must not be null.");
+		}
+		Key key = new Key(file.getPath(), instructionSet);
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.lastModified != file.lastModified() || entry.length != file.length()) {
+			entries.remove(key);
+			return null;
+		}
+		return entry.compilerSourceFile;
+	}
+
+	/**
+	 * Puts a compiler source file into the cache.
+	 * 
+	 * @param file               The canonical file, not <code>null</code>.
+	 * @param instructionSet     The instruction set used for parsing, not
+	 *                           <code>null</code>.
+	 * @param lastModified       The modification time stamp of the file before it
+	 *                           was read.
+	 * @param length             The length of the file before it was read.
+	 * @param compilerSourceFile The parsed compiler source file, not
+	 *                           <code>null</code>.
+	 */
+	public synchronized void put(File file, InstructionSet instructionSet, long lastModified, long length,
+			CompilerSourceFile compilerSourceFile) {
+		if (file == null) {
+			throw new IllegalArgumentException("Parameter 'file' must not be null.");
+		}
+		if (instructionSet == null) {
+			throw new IllegalArgumentException("Parameter 'instructionSet' must not be null.");
+		}
+		if (compilerSourceFile == null) {
+			throw new IllegalArgumentException("Parameter 'compilerSourceFile' must not be null.");
+		}
+		entries.put(new Key(file.getPath(), instructionSet), new Entry(lastModified, length, compilerSourceFile));
+	}
+
+	/**
+	 * Removes all entries for a file.
+	 * 
+	 * @param filePath The canonical file path, not <code>null</code>.
+	 */
+	public synchronized void remove(String filePath) {
+		if (filePath == null) {
+			throw new IllegalArgumentException("Parameter 'filePath' must not be null.");
+		}
+		Iterator<Key> i = entries.keySet().iterator();
+		while (i.hasNext()) {
+			if (i.next().filePath.equals(filePath)) {
+				i.remove();
+			}
+		}
+	}
+
+	/**
+	 * Removes all entries for changed files and notifies the listeners.
+	 * 
+	 * @param filePaths The canonical paths of the changed files, may be empty,
+	 *                  not <code>null</code>.
+	 */
+	public void filesChanged(Set<String> filePaths) {
+		if (filePaths == null) {
+			throw new IllegalArgumentException("Parameter 'filePaths' must not be null.");
+		}
+		if (filePaths.isEmpty()) {
+			return;
+		}
+		for (String filePath : filePaths) {
+			remove(filePath);
+		}
+		for (Object listener : listeners.getListeners()) {
+			((CompilerSourceFileCacheListener) listener).filesChanged(filePaths);
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		final List<IPath> locations = new ArrayList<IPath>();
+		try {
+			delta.accept(new IResourceDeltaVisitor() {
+
+				@Override
+				public boolean visit(IResourceDelta delta) throws CoreException {
+					IResource resource = delta.getResource();
+					if (resource.getType() == IResource.FILE && resource.getLocation() != null
+							&& isContentChanged(delta)) {
+						locations.add(resource.getLocation());
+					}
+					return true;
+				}
+			});
+		} catch (CoreException ex) {
+			LanguagePlugin.getInstance().logError("Cannot process resource delta", null, ex);
+			clear();
+			return;
+		}
+		// The entries are identified by the canonical file path, which differs
+		// from the location for symbolic links and in the case of the drive
+		// letter.
+		Set<String> filePaths = new HashSet<String>();
+		for (IPath location : locations) {
+			filePaths.add(FileUtility.getCanonicalFile(location.toFile()).getPath());
+		}
+		filesChanged(filePaths);
+	}
+
+	/**
+	 * Determines if a resource delta can change the content of the file. Marker
+	 * changes, for example, do not.
+	 * 
+	 * @param delta The resource delta, not <code>null</code>.
+	 * @return <code>true</code> if the content of the file can be changed,
+	 *         <code>false</code> otherwise.
+	 */
+	private static boolean isContentChanged(IResourceDelta delta) {
+		if (delta.getKind() != IResourceDelta.CHANGED) {
+			return true;
+		}
+		return (delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED | IResourceDelta.ENCODING)) != 0;
+	}
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.lng.compiler.parser;
+
+import java.util.Set;
+
+/**
+ * Listener interface for changes of files which invalidate the entries of the
+ * {@link CompilerSourceFileCache}.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+public interface CompilerSourceFileCacheListener {
+
+	/**
+	 * Notify of changed files. Called after the entries of the files have been
+	 * removed from the cache, typically in the thread which reports the resource
+	 * changes.
+	 * 
+	 * @param filePaths The canonical paths of the changed files, not empty and
+	 *                  not <code>null</code>.
+	 */
+	public void filesChanged(Set<String> filePaths);
+}
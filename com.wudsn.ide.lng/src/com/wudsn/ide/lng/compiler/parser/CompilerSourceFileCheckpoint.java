@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.lng.compiler.parser;
+
+/**
+ * Parse state of a {@link CompilerSourceFile} after a line for which only a
+ * single top level section is active. Checkpoints are the points where an
+ * incremental parse process can be resumed or where its result can be joined
+ * with the result of the previous parse process.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class CompilerSourceFileCheckpoint {
+
+	/**
+	 * The line number of the line after which the checkpoint was taken, a
+	 * non-negative integer.
+	 */
+	public final int lineNumber;
+
+	/**
+	 * The start offset of the line, a non-negative integer.
+	 */
+	public final int lineOffset;
+
+	/**
+	 * The hash code of the line content and of the partition types at the
+	 * beginning and at the end of the line.
+	 */
+	public final int lineHash;
+
+	/**
+	 * The index of the active top level section in the list of implementation
+	 * sections or <code>-1</code> for the definition section. The section itself
+	 * is not referenced, since it is replaced by a copy when an incremental parse
+	 * process is resumed in it.
+	 */
+	public final int sectionIndex;
+
+	/**
+	 * The start offset of the folding of the active section or <code>-1</code> if
+	 * there is no such folding.
+	 */
+	public final int foldingStartOffset;
+
+	/**
+	 * The number of children of the active section.
+	 */
+	public final int childCount;
+
+	/**
+	 * The number of completed folding positions.
+	 */
+	public final int foldingPositionCount;
+
+	/**
+	 * The number of parsed files including the source file itself.
+	 */
+	public final int parsedFileCount;
+
+	CompilerSourceFileCheckpoint(int lineNumber, int lineOffset, int lineHash, int sectionIndex,
+			int foldingStartOffset, int childCount, int foldingPositionCount, int parsedFileCount) {
+		this.lineNumber = lineNumber;
+		this.lineOffset = lineOffset;
+		this.lineHash = lineHash;
+		this.sectionIndex = sectionIndex;
+		this.foldingStartOffset = foldingStartOffset;
+		this.childCount = childCount;
+		this.foldingPositionCount = foldingPositionCount;
+		this.parsedFileCount = parsedFileCount;
+	}
+
+	@Override
+	public String toString() {
+		return "lineNumber=" + lineNumber + ", sectionIndex=" + sectionIndex + ", childCount=" + childCount
+				+ ", foldingPositionCount=" + foldingPositionCount;
+	}
+}
@@ -0,0 +1,313 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.lng.compiler.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.wudsn.ide.lng.compiler.syntax.CompilerSyntax;
+
+/**
+ * Hash index of the identifiers defined in the result of a parse process of a
+ * {@link CompilerSourceFile}, including the identifiers of source include
+ * files. The index is built with a single pass over the tree and maps the
+ * name, the compound name and every compound name suffix following an
+ * identifier separator character to the defining elements. Lookups return the
+ * elements in the order of the tree, like a complete scan of the tree would.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class CompilerSourceFileIdentifierIndex {
+
+	private final boolean identifiersCaseSensitive;
+	private final char identifierSeparatorCharacter;
+
+	/**
+	 * The unmodifiable list of identifiers as returned by
+	 * {@link CompilerSourceFile#getIdentifiers()}.
+	 */
+	private final List<CompilerSourceParserTreeObject> identifiers;
+
+	/**
+	 * All definition elements in the order of the tree.
+	 */
+	private final List<CompilerSourceParserTreeObject> definitionElements;
+
+	/**
+	 * The indices of the definition elements in {@link #definitionElements} by
+	 * name key, by exact compound name and by compound name suffix key.
+	 */
+	private final Map<String, int[]> nameIndices;
+	private final Map<String, int[]> compoundNameIndices;
+	private final Map<String, int[]> compoundNameSuffixIndices;
+
+	/**
+	 * The lower case names of the identifiers in sorted order and the indices of
+	 * the respective identifiers in {@link #identifiers}, created on demand.
+	 */
+	private String[] sortedLowerCaseNames;
+	private int[] sortedLowerCaseNameIndices;
+
+	/**
+	 * Builds the index for the given sections.
+	 * 
+	 * @param compilerSyntax The compiler syntax, not <code>null</code>.
+	 * @param sections       The top level sections, not <code>null</code>.
+	 */
+	CompilerSourceFileIdentifierIndex(CompilerSyntax compilerSyntax, List<CompilerSourceParserTreeObject> sections) {
+		if (compilerSyntax == null) {
+			throw new IllegalArgumentException("Parameter 'compilerSyntax' must not be null.");
+		}
+		if (sections == null) {
+			throw new IllegalArgumentException("Parameter 'sections' must not be null.");
+		}
+		identifiersCaseSensitive = compilerSyntax.areIdentifiersCaseSensitive();
+		identifierSeparatorCharacter = compilerSyntax.getIdentifierSeparatorCharacter();
+
+		List<CompilerSourceParserTreeObject> identifiers = new ArrayList<CompilerSourceParserTreeObject>();
+		definitionElements = new ArrayList<CompilerSourceParserTreeObject>();
+		collectElements(sections, identifiers);
+		this.identifiers = Collections.unmodifiableList(identifiers);
+
+		Map<String, List<Integer>> nameLists = new HashMap<String, List<Integer>>();
+		Map<String, List<Integer>> compoundNameLists = new HashMap<String, List<Integer>>();
+		Map<String, List<Integer>> compoundNameSuffixLists = new HashMap<String, List<Integer>>();
+		for (int i = 0; i < definitionElements.size(); i++) {
+			CompilerSourceParserTreeObject element = definitionElements.get(i);
+			addIndex(nameLists, getKey(element.getName()), i);
+			String compoundName = element.getCompoundName();
+			addIndex(compoundNameLists, compoundName, i);
+			if (identifierSeparatorCharacter != CompilerSyntax.NO_CHARACTER) {
+				for (int j = compoundName.indexOf(identifierSeparatorCharacter); j >= 0
+						&& j < compoundName.length() - 1; j = compoundName.indexOf(identifierSeparatorCharacter,
+								j + 1)) {
+					addIndex(compoundNameSuffixLists, getKey(compoundName.substring(j + 1)), i);
+				}
+			}
+		}
+		nameIndices = toArrays(nameLists);
+		compoundNameIndices = toArrays(compoundNameLists);
+		compoundNameSuffixIndices = toArrays(compoundNameSuffixLists);
+	}
+
+	private void collectElements(List<CompilerSourceParserTreeObject> allElements,
+			List<CompilerSourceParserTreeObject> identifiers) {
+		for (int i = 0; i < allElements.size(); i++) {
+			CompilerSourceParserTreeObject element = allElements.get(i);
+			switch (element.getType()) {
+			case CompilerSourceParserTreeObjectType.EQUATE_DEFINITION:
+			case CompilerSourceParserTreeObjectType.LABEL_DEFINITION:
+			case CompilerSourceParserTreeObjectType.LOCAL_SECTION:
+			case CompilerSourceParserTreeObjectType.MACRO_DEFINITION_SECTION:
+			case CompilerSourceParserTreeObjectType.PROCEDURE_DEFINITION_SECTION:
+				identifiers.add(element);
+				definitionElements.add(element);
+				break;
+			case CompilerSourceParserTreeObjectType.ENUM_DEFINITION_SECTION:
+			case CompilerSourceParserTreeObjectType.STRUCTURE_DEFINITION_SECTION:
+				definitionElements.add(element);
+				break;
+			}
+			if (element.hasChildren()) {
+				collectElements(element.getChildren(), identifiers);
+			}
+		}
+	}
+
+	/**
+	 * Gets the key for a name or a compound name suffix.
+	 * 
+	 * @param name The name, not <code>null</code>.
+	 * @return The key, not <code>null</code>.
+	 */
+	private String getKey(String name) {
+		if (identifiersCaseSensitive) {
+			return name;
+		}
+		char[] characters = name.toCharArray();
+		for (int i = 0; i < characters.length; i++) {
+			characters[i] = Character.toUpperCase(characters[i]);
+		}
+		return new String(characters);
+	}
+
+	private static void addIndex(Map<String, List<Integer>> lists, String key, int index) {
+		List<Integer> list = lists.get(key);
+		if (list == null) {
+			list = new ArrayList<Integer>(1);
+			lists.put(key, list);
+		}
+		list.add(Integer.valueOf(index));
+	}
+
+	private static Map<String, int[]> toArrays(Map<String, List<Integer>> lists) {
+		Map<String, int[]> result = new HashMap<String, int[]>(lists.size() * 4 / 3 + 1);
+		for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+			List<Integer> list = entry.getValue();
+			int[] indices = new int[list.size()];
+			for (int i = 0; i < indices.length; i++) {
+				indices[i] = list.get(i).intValue();
+			}
+			result.put(entry.getKey(), indices);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the unmodifiable list of identifiers.
+	 * 
+	 * @return The unmodifiable list of identifiers, may be empty, not
+	 *         <code>null</code>.
+	 */
+	List<CompilerSourceParserTreeObject> getIdentifiers() {
+		return identifiers;
+	}
+
+	/**
+	 * Gets the identifiers with a name starting with a given prefix, ignoring the
+	 * case. The prefix is located via binary search in the sorted lower case
+	 * names.
+	 * 
+	 * @param lowerCasePrefix The lower case prefix, may be empty, not
+	 *                        <code>null</code>.
+	 * @return The unmodifiable list of identifiers in the order of
+	 *         {@link #getIdentifiers()}, may be empty, not <code>null</code>.
+	 */
+	synchronized List<CompilerSourceParserTreeObject> getIdentifiers(String lowerCasePrefix) {
+		if (lowerCasePrefix == null) {
+			throw new IllegalArgumentException("Parameter 'lowerCasePrefix' must not be null.");
+		}
+		if (lowerCasePrefix.isEmpty()) {
+			return identifiers;
+		}
+		if (sortedLowerCaseNames == null) {
+			createSortedLowerCaseNames();
+		}
+
+		// Find the first name which is greater or equal to the prefix.
+		int low = 0;
+		int high = sortedLowerCaseNames.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedLowerCaseNames[middle].compareTo(lowerCasePrefix) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		int end = low;
+		while (end < sortedLowerCaseNames.length && sortedLowerCaseNames[end].startsWith(lowerCasePrefix)) {
+			end++;
+		}
+		if (end == low) {
+			return Collections.emptyList();
+		}
+
+		int[] indices = Arrays.copyOfRange(sortedLowerCaseNameIndices, low, end);
+		Arrays.sort(indices);
+		List<CompilerSourceParserTreeObject> result = new ArrayList<CompilerSourceParserTreeObject>(indices.length);
+		for (int index : indices) {
+			result.add(identifiers.get(index));
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	private void createSortedLowerCaseNames() {
+		final String[] lowerCaseNames = new String[identifiers.size()];
+		Integer[] indices = new Integer[lowerCaseNames.length];
+		for (int i = 0; i < lowerCaseNames.length; i++) {
+			lowerCaseNames[i] = identifiers.get(i).getName().toLowerCase();
+			indices[i] = Integer.valueOf(i);
+		}
+		Arrays.sort(indices, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer index1, Integer index2) {
+				return lowerCaseNames[index1.intValue()].compareTo(lowerCaseNames[index2.intValue()]);
+			}
+		});
+
+		sortedLowerCaseNames = new String[indices.length];
+		sortedLowerCaseNameIndices = new int[indices.length];
+		for (int i = 0; i < indices.length; i++) {
+			int index = indices[i].intValue();
+			sortedLowerCaseNames[i] = lowerCaseNames[index];
+			sortedLowerCaseNameIndices[i] = index;
+		}
+	}
+
+	/**
+	 * Gets the definition elements for a given identifier. An element matches if
+	 * its name equals the identifier, if its compound name equals the identifier
+	 * or if its compound name ends with the identifier separator character
+	 * followed by the identifier.
+	 * 
+	 * @param identifier The identifier, not empty and not <code>null</code>.
+	 * @return The unmodifiable list of definition elements in the order of the
+	 *         tree, may be empty, not <code>null</code>.
+	 */
+	List<CompilerSourceParserTreeObject> getDefinitionElements(String identifier) {
+		if (identifier == null) {
+			throw new IllegalArgumentException("Parameter 'identifier' must not be null.");
+		}
+		String key = getKey(identifier);
+		int[] nameMatches = nameIndices.get(key);
+		int[] compoundNameMatches = compoundNameIndices.get(identifier);
+		int[] compoundNameSuffixMatches = compoundNameSuffixIndices.get(key);
+
+		int count = 0;
+		int[] indices = new int[length(nameMatches) + length(compoundNameMatches)
+				+ length(compoundNameSuffixMatches)];
+		count = append(nameMatches, indices, count);
+		count = append(compoundNameMatches, indices, count);
+		count = append(compoundNameSuffixMatches, indices, count);
+		if (count == 0) {
+			return Collections.emptyList();
+		}
+		Arrays.sort(indices);
+
+		List<CompilerSourceParserTreeObject> result = new ArrayList<CompilerSourceParserTreeObject>(count);
+		for (int i = 0; i < count; i++) {
+			if (i == 0 || indices[i] != indices[i - 1]) {
+				result.add(definitionElements.get(indices[i]));
+			}
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	private static int length(int[] indices) {
+		return indices == null ? 0 : indices.length;
+	}
+
+	private static int append(int[] source, int[] target, int count) {
+		if (source == null) {
+			return count;
+		}
+		System.arraycopy(source, 0, target, count, source.length);
+		return count + source.length;
+	}
+}
@@ -20,16 +20,26 @@
 package com.wudsn.ide.lng.compiler.parser;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Position;
 
 import com.wudsn.ide.base.BasePlugin;
 import com.wudsn.ide.base.common.FileUtility;
@@ -45,8 +55,11 @@ import com.wudsn.ide.lng.compiler.syntax.InstructionType;
 
 /**
  * Source parser for creating {@link CompilerSourceParserTreeObject} instances.
- * The performance is so good, that no caching for the results of source include
- * parsing is required.
+ * The results of source include parsing are shared via the
+ * {@link CompilerSourceFileCache} of the {@link LanguagePlugin}. Before a
+ * complete parse process, the source include files are discovered and parsed
+ * concurrently. For large sources, the lines changed in the editor can be
+ * parsed incrementally via {@link #parseIncremental(CompilerSourceFile)}.
  * 
  * @author Peter Dell
  * 
@@ -61,13 +74,312 @@ public abstract class CompilerSourceParser {
 		public static final int OPERAND = 3;
 	}
 
-	// The compiler syntax and instruction set.
+	/**
+	 * The segments of a single line. The buffers are reused for all lines of a
+	 * parse process.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static final class LineSegments {
+		public int lineOffset;
+		public int lineLength;
+		public String line;
+
+		public int symbolOffset;
+		public boolean symbolOffsetFound;
+		public final StringBuilder symbolBuffer = new StringBuilder(100);
+		public int instructionOffset;
+		public boolean instructionOffsetFound;
+		public final StringBuilder instructionBuffer = new StringBuilder(100);
+		public int operandOffset;
+		public boolean operandOffsetFound;
+		public final StringBuilder operandBuffer = new StringBuilder(100);
+		public int commentOffset;
+		public boolean commentOffsetFound;
+		public final StringBuilder commentBuffer = new StringBuilder(100);
+	}
+
+	/**
+	 * Task to parse a source include file with a separate parser instance. The
+	 * source include files of the result are parsed by sub tasks. The results are
+	 * only linked into the tree of the root file by the parser of the root file,
+	 * so the result of the parse process is the same as for serial parsing.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static final class IncludeParseTask extends RecursiveTask<CompilerSourceFile> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Compiler compiler;
+		private final InstructionSet instructionSet;
+		private final ConcurrentMap<String, ForkJoinTask<CompilerSourceFile>> includeTasks;
+		private final String filePath;
+
+		IncludeParseTask(Compiler compiler, InstructionSet instructionSet,
+				ConcurrentMap<String, ForkJoinTask<CompilerSourceFile>> includeTasks, String filePath) {
+			this.compiler = compiler;
+			this.instructionSet = instructionSet;
+			this.includeTasks = includeTasks;
+			this.filePath = filePath;
+		}
+
+		/**
+		 * Forks a task for a source include file, unless there is already a task for
+		 * the file.
+		 */
+		void forkIfAbsent() {
+			if (includeTasks.putIfAbsent(filePath, this) == null) {
+				fork();
+			}
+		}
+
+		@Override
+		protected CompilerSourceFile compute() {
+			CompilerSourceParser parser = compiler.createSourceParser();
+			parser.init(compiler, instructionSet);
+			CompilerSourceFile result = parser.getIncludedCompilerSourceFile(filePath);
+			forkNestedIncludes(result.getSections());
+			return result;
+		}
+
+		private void forkNestedIncludes(List<CompilerSourceParserTreeObject> treeObjects) {
+			for (CompilerSourceParserTreeObject treeObject : treeObjects) {
+				String includedFilePath = treeObject.getIncludedFilePath();
+				if (includedFilePath != null) {
+					new IncludeParseTask(compiler, instructionSet, includeTasks,
+							FileUtility.getCanonicalFile(new File(includedFilePath)).getPath()).forkIfAbsent();
+				} else {
+					forkNestedIncludes(treeObject.getChildren());
+				}
+			}
+		}
+	}
+
+	/**
+	 * State of an incremental parse process. It holds the result of the previous
+	 * parse process after the restored checkpoint, so it can be taken over as soon
+	 * as the new parse state converges with the previous one.
+	 */
+	private static final class IncrementalParse {
+
+		/**
+		 * Instance to record checkpoints during a complete parse process.
+		 */
+		public static final IncrementalParse NONE = new IncrementalParse();
+
+		private final CompilerSourceFile compilerSourceFile;
+		private final int changeStartOffset;
+		private final int lastChangedLineNumber;
+		private final int offsetDelta;
+		private final int lineDelta;
+
+		private final CompilerSourceParserTreeObject definitionSection;
+		private final List<CompilerSourceParserTreeObject> implementationSections;
+		private final List<Position> foldingPositions;
+		private final List<CompilerSourceFileCheckpoint> checkpoints;
+		private final List<Map.Entry<String, CompilerSourceFile>> parsedFiles;
+
+		private int checkpointIndex;
+		private CompilerSourceFileCheckpoint convergedCheckpoint;
+
+		private IncrementalParse() {
+			compilerSourceFile = null;
+			changeStartOffset = 0;
+			lastChangedLineNumber = 0;
+			offsetDelta = 0;
+			lineDelta = 0;
+			definitionSection = null;
+			implementationSections = null;
+			foldingPositions = null;
+			checkpoints = null;
+			parsedFiles = null;
+		}
+
+		/**
+		 * Creates the state for an incremental parse process. Must be called before
+		 * the checkpoint is restored.
+		 * 
+		 * @param compilerSourceFile    The compiler source file, not
+		 *                              <code>null</code>.
+		 * @param checkpoint            The checkpoint to be restored, not
+		 *                              <code>null</code>.
+		 * @param changeStartOffset     The first changed offset in the document, a
+		 *                              non-negative integer.
+		 * @param lastChangedLineNumber The number of the last changed line, a
+		 *                              non-negative integer.
+		 */
+		IncrementalParse(CompilerSourceFile compilerSourceFile, CompilerSourceFileCheckpoint checkpoint,
+				int changeStartOffset, int lastChangedLineNumber) {
+			this.compilerSourceFile = compilerSourceFile;
+			this.changeStartOffset = changeStartOffset;
+			this.lastChangedLineNumber = lastChangedLineNumber;
+			IDocument document = compilerSourceFile.getDocument();
+			offsetDelta = document.getLength() - compilerSourceFile.getParsedDocumentLength();
+			lineDelta = document.getNumberOfLines() - compilerSourceFile.getParsedDocumentLines();
+
+			// Restoring the checkpoint replaces the lists and the active section,
+			// so the previous result can be referenced without copying it.
+			definitionSection = compilerSourceFile.getDefinitionSection();
+			implementationSections = compilerSourceFile.getImplementationSections();
+			foldingPositions = compilerSourceFile.getFoldingPositions();
+			checkpoints = compilerSourceFile.getCheckpoints();
+			parsedFiles = new ArrayList<Map.Entry<String, CompilerSourceFile>>(
+					compilerSourceFile.getParsedFiles().entrySet());
+			checkpointIndex = checkpoints.indexOf(checkpoint) + 1;
+		}
+
+		/**
+		 * Maps an offset of the previous parse process to the current document.
+		 * 
+		 * @param offset The offset or <code>-1</code>.
+		 * @return The mapped offset or <code>-1</code>.
+		 */
+		private int mapOffset(int offset) {
+			if (offset < changeStartOffset) {
+				return offset;
+			}
+			return offset + offsetDelta;
+		}
+
+		/**
+		 * Determines if the parse state after the line of the checkpoint equals the
+		 * parse state of the previous parse process after the same line, and all
+		 * following lines are unchanged.
+		 * 
+		 * @param checkpoint  The new checkpoint, not <code>null</code>.
+		 * @param parsedFiles The files parsed so far, not <code>null</code>.
+		 * @return <code>true</code> if the remaining result of the previous parse
+		 *         process can be taken over.
+		 */
+		boolean isConverged(CompilerSourceFileCheckpoint checkpoint, Map<String, CompilerSourceFile> parsedFiles) {
+			if (compilerSourceFile == null || checkpoint.lineNumber < lastChangedLineNumber) {
+				return false;
+			}
+			int oldLineNumber = checkpoint.lineNumber - lineDelta;
+			while (checkpointIndex < checkpoints.size()
+					&& checkpoints.get(checkpointIndex).lineNumber < oldLineNumber) {
+				checkpointIndex++;
+			}
+			if (checkpointIndex == checkpoints.size()) {
+				return false;
+			}
+			CompilerSourceFileCheckpoint oldCheckpoint = checkpoints.get(checkpointIndex);
+			if (oldCheckpoint.lineNumber != oldLineNumber
+					|| oldCheckpoint.lineOffset + offsetDelta != checkpoint.lineOffset
+					|| oldCheckpoint.lineHash != checkpoint.lineHash
+					|| (oldCheckpoint.sectionIndex < 0) != (checkpoint.sectionIndex < 0)
+					|| mapOffset(oldCheckpoint.foldingStartOffset) != checkpoint.foldingStartOffset
+					|| oldCheckpoint.parsedFileCount != checkpoint.parsedFileCount) {
+				return false;
+			}
+
+			// Includes which are already parsed are not parsed again, so the
+			// parsed files must be the same.
+			int i = 0;
+			for (String filePath : parsedFiles.keySet()) {
+				if (!filePath.equals(this.parsedFiles.get(i++).getKey())) {
+					return false;
+				}
+			}
+			convergedCheckpoint = oldCheckpoint;
+			return true;
+		}
+
+		/**
+		 * Takes over the result of the previous parse process after the converged
+		 * checkpoint. The tree objects of the previous parse process may still be
+		 * used by a snapshot, so they are shared if their offsets are unchanged
+		 * and copied with shifted offsets otherwise.
+		 * 
+		 * @param checkpoint  The new checkpoint, not <code>null</code>.
+		 * @param parsedFiles The modifiable files parsed so far, not
+		 *                    <code>null</code>.
+		 */
+		void takeOver(CompilerSourceFileCheckpoint checkpoint, Map<String, CompilerSourceFile> parsedFiles) {
+			CompilerSourceFileCheckpoint oldCheckpoint = convergedCheckpoint;
+			CompilerSourceParserTreeObject section = compilerSourceFile.getActiveSection();
+			CompilerSourceParserTreeObject oldSection = (oldCheckpoint.sectionIndex < 0 ? definitionSection
+					: implementationSections.get(oldCheckpoint.sectionIndex));
+
+			// Remaining children of the active section. They can only be shared
+			// if the active section is a copy of the previous one.
+			boolean shared = offsetDelta == 0 && section.getTreePath().equals(oldSection.getTreePath());
+			List<CompilerSourceParserTreeObject> oldChildren = oldSection.getChildren();
+			for (int i = oldCheckpoint.childCount; i < oldChildren.size(); i++) {
+				CompilerSourceParserTreeObject oldChild = oldChildren.get(i);
+				if (shared) {
+					section.addSharedChild(oldChild);
+				} else {
+					section.addChild(oldChild.copyTree(compilerSourceFile, offsetDelta));
+				}
+			}
+
+			// Remaining implementation sections.
+			for (int i = oldCheckpoint.sectionIndex + 1; i < implementationSections.size(); i++) {
+				CompilerSourceParserTreeObject oldImplementationSection = implementationSections.get(i);
+				if (offsetDelta != 0) {
+					oldImplementationSection = oldImplementationSection.copyTree(compilerSourceFile, offsetDelta);
+				}
+				compilerSourceFile.getImplementationSections().add(oldImplementationSection);
+			}
+
+			// Remaining folding positions. The positions may already be used
+			// by annotations, so new instances are created.
+			for (int i = oldCheckpoint.foldingPositionCount; i < foldingPositions.size(); i++) {
+				Position oldPosition = foldingPositions.get(i);
+				int offset = mapOffset(oldPosition.getOffset());
+				int endOffset = mapOffset(oldPosition.getOffset() + oldPosition.getLength());
+				compilerSourceFile.addFoldingPosition(new Position(offset, endOffset - offset));
+			}
+
+			// Remaining checkpoints.
+			for (int i = checkpointIndex + 1; i < checkpoints.size(); i++) {
+				CompilerSourceFileCheckpoint oldNextCheckpoint = checkpoints.get(i);
+				boolean sameSection = oldNextCheckpoint.sectionIndex == oldCheckpoint.sectionIndex;
+				compilerSourceFile.addCheckpoint(new CompilerSourceFileCheckpoint(
+						oldNextCheckpoint.lineNumber + lineDelta, oldNextCheckpoint.lineOffset + offsetDelta,
+						oldNextCheckpoint.lineHash,
+						oldNextCheckpoint.sectionIndex < 0 ? -1
+								: oldNextCheckpoint.sectionIndex - oldCheckpoint.sectionIndex
+										+ checkpoint.sectionIndex,
+						mapOffset(oldNextCheckpoint.foldingStartOffset),
+						sameSection ? oldNextCheckpoint.childCount - oldCheckpoint.childCount + checkpoint.childCount
+								: oldNextCheckpoint.childCount,
+						oldNextCheckpoint.foldingPositionCount - oldCheckpoint.foldingPositionCount
+								+ checkpoint.foldingPositionCount,
+						oldNextCheckpoint.parsedFileCount));
+			}
+
+			// Remaining included files.
+			for (int i = oldCheckpoint.parsedFileCount; i < this.parsedFiles.size(); i++) {
+				Map.Entry<String, CompilerSourceFile> entry = this.parsedFiles.get(i);
+				parsedFiles.put(entry.getKey(), entry.getValue());
+			}
+
+			// The previous parse process has already ended all sections.
+			compilerSourceFile.discardActiveSections();
+		}
+	}
+
+	// The compiler, compiler syntax and instruction set.
+	private Compiler compiler;
 	private CompilerSyntax compilerSyntax;
 	private InstructionSet instructionSet;
 
 	// Fields set once for parsing a file.
 	private CompilerSourceFile compilerSourceFile;
 
+	// The progress monitor polled while parsing the lines or null.
+	private IProgressMonitor monitor;
+
+	// The file for which parsing was started.
+	private CompilerSourceFile rootCompilerSourceFile;
+
+	// The tasks parsing the source include files concurrently, by canonical file
+	// path, or null.
+	private ConcurrentMap<String, ForkJoinTask<CompilerSourceFile>> includeTasks;
+
 	// Fields modified during parsing.
 	private CompilerSourceParserTreeObject section;
 
@@ -191,14 +503,23 @@ public abstract class CompilerSourceParser {
 	}
 
 	/**
-	 * Called by {@link Compiler} to link the parser to the compile syntax.
+	 * Called after {@link Compiler#createSourceParser()} to link the parser to the
+	 * compiler and the compile syntax.
 	 * 
+	 * @param compiler       The compiler which created this parser, not
+	 *                       <code>null</code>. It is used to create additional
+	 *                       parsers for the concurrent parsing of source include
+	 *                       files.
 	 * @param instructionSet The instruction set, not <code>null</code>.
 	 */
-	public final void init(InstructionSet instructionSet) {
+	public final void init(Compiler compiler, InstructionSet instructionSet) {
+		if (compiler == null) {
+			throw new IllegalArgumentException("Parameter 'compiler' must not be null.");
+		}
 		if (instructionSet == null) {
 			throw new IllegalArgumentException("Parameter 'instructionSet' must not be null.");
 		}
+		this.compiler = compiler;
 		this.instructionSet = instructionSet;
 		this.compilerSyntax = instructionSet.getCompilerSyntax();
 
@@ -262,6 +583,43 @@ public abstract class CompilerSourceParser {
 		}
 	}
 
+	/**
+	 * Gets the file path of a file reference in the given source line. The file
+	 * path is the content of the first string after the directive.
+	 * 
+	 * @param line          The source line, may be empty, not <code>null</code>.
+	 * @param fileReference The file reference detected via
+	 *                      {@link #detectFileReference(String, CompilerSourceParserFileReference)}
+	 *                      , not <code>null</code>.
+	 * @return The possibly relative file path or <code>null</code> if the line
+	 *         does not contain a file reference.
+	 * 
+	 * @since 1.7.2
+	 */
+	public final String getFileReferencePath(String line, CompilerSourceParserFileReference fileReference) {
+		if (line == null) {
+			throw new IllegalArgumentException("Parameter 'line' must not be null.");
+		}
+		if (fileReference == null) {
+			throw new IllegalArgumentException("Parameter 'fileReference' must not be null.");
+		}
+		if (fileReference.getType() == CompilerSourceParserFileReferenceType.NONE) {
+			return null;
+		}
+		for (String quote : compilerSyntax.getStringDelimiters()) {
+			int startQuoteOffset = line.indexOf(quote, fileReference.getDirectiveEndOffset());
+			if (startQuoteOffset == -1) {
+				continue;
+			}
+			int endQuoteOffset = line.indexOf(quote, startQuoteOffset + quote.length());
+			if (endQuoteOffset == -1) {
+				continue;
+			}
+			return line.substring(startQuoteOffset + quote.length(), endQuoteOffset);
+		}
+		return null;
+	}
+
 	/**
 	 * Enhances the file path of an include, for example adds a default extension
 	 * for source includes.
@@ -404,11 +762,217 @@ public abstract class CompilerSourceParser {
 			throw new IllegalArgumentException("Parameter 'compilerSourceFile' must not be null.");
 		}
 		Map<String, CompilerSourceFile> parsedFiles;
-		parsedFiles = new HashMap<String, CompilerSourceFile>();
-		parseInternal(compilerSourceFile, parsedFiles, compilerSourceParserLineCallback);
+		parsedFiles = new LinkedHashMap<String, CompilerSourceFile>();
+		compilerSourceFile.clear();
+		rootCompilerSourceFile = compilerSourceFile;
+		includeTasks = new ConcurrentHashMap<String, ForkJoinTask<CompilerSourceFile>>();
+		try {
+			forkIncludeTasks(compilerSourceFile);
+			parseInternal(compilerSourceFile, parsedFiles, compilerSourceParserLineCallback, true);
+		} finally {
+			includeTasks = null;
+		}
+		compilerSourceFile.setParsed(instructionSet, parsedFiles);
 		return;
 	}
 
+	/**
+	 * Discovers the source include files of the root file and forks the tasks to
+	 * parse them concurrently, while the root file is parsed. Source include
+	 * statements which are not discovered here, are parsed when they are linked.
+	 * 
+	 * @param compilerSourceFile The root file, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void forkIncludeTasks(CompilerSourceFile compilerSourceFile) {
+		IDocument document = compilerSourceFile.getDocument();
+		for (int lineNumber = 0; lineNumber < document.getNumberOfLines(); lineNumber++) {
+			String line;
+			try {
+				IRegion lineInfo = document.getLineInformation(lineNumber);
+				line = document.get(lineInfo.getOffset(), lineInfo.getLength());
+			} catch (BadLocationException ex) {
+				return;
+			}
+			CompilerSourceParserFileReference fileReference = new CompilerSourceParserFileReference();
+			detectFileReference(line, fileReference);
+			if (fileReference.getType() != CompilerSourceParserFileReferenceType.SOURCE) {
+				continue;
+			}
+			String filePath = getFileReferencePath(line, fileReference);
+			if (filePath != null) {
+				filePath = getIncludeAbsoluteFilePath(CompilerSourceParserFileReferenceType.SOURCE,
+						compilerSourceFile.getDocumentDirectory(), filePath);
+			}
+			if (filePath != null) {
+				new IncludeParseTask(compiler, instructionSet, includeTasks, filePath).forkIfAbsent();
+			}
+		}
+	}
+
+	/**
+	 * Parses the lines of the input which were changed since the last parse
+	 * process and updates the parse tree. Changes must be reported via
+	 * {@link CompilerSourceFile#documentChanged(int, int, int)}. Parsing starts at
+	 * the last checkpoint before the first changed line and stops as soon as the
+	 * parse state after an unchanged line equals the state of the last parse
+	 * process at the same line. The remaining tree objects and folding positions
+	 * of the last parse process are then taken over with shifted offsets. If the
+	 * file was not parsed before or was parsed with another instruction set, the
+	 * complete file is parsed.
+	 * 
+	 * @param compilerSourceFile The file to be parsed, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public final void parseIncremental(CompilerSourceFile compilerSourceFile) {
+		parseIncremental(compilerSourceFile, new NullProgressMonitor());
+	}
+
+	/**
+	 * Parses the lines of the input which were changed since the last parse
+	 * process like {@link #parseIncremental(CompilerSourceFile)}. The monitor is
+	 * polled for every line. If the parse process is canceled, the result of the
+	 * previous parse process is restored and the changes are parsed by the next
+	 * parse process.
+	 * 
+	 * @param compilerSourceFile The file to be parsed, not <code>null</code>.
+	 * @param monitor            The progress monitor, not <code>null</code>.
+	 * 
+	 * @throws OperationCanceledException If the monitor was canceled.
+	 * 
+	 * @since 1.7.2
+	 */
+	public final void parseIncremental(CompilerSourceFile compilerSourceFile, IProgressMonitor monitor) {
+		if (compilerSourceFile == null) {
+			throw new IllegalArgumentException("Parameter 'compilerSourceFile' must not be null.");
+		}
+		if (monitor == null) {
+			throw new IllegalArgumentException("Parameter 'monitor' must not be null.");
+		}
+
+		IRegion changedRegion = compilerSourceFile.takeChangedRegion();
+		this.monitor = monitor;
+		try {
+			parseChangedRegion(compilerSourceFile, changedRegion);
+		} catch (OperationCanceledException ex) {
+			compilerSourceFile.revertIncrementalParse(changedRegion);
+			throw ex;
+		} finally {
+			this.monitor = null;
+		}
+	}
+
+	/**
+	 * Parses the changed region of the input.
+	 * 
+	 * @param compilerSourceFile The file to be parsed, not <code>null</code>.
+	 * @param changedRegion      The region changed since the last parse process
+	 *                           or <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void parseChangedRegion(CompilerSourceFile compilerSourceFile, IRegion changedRegion) {
+		if (!compilerSourceFile.isParsed(instructionSet)) {
+			parse(compilerSourceFile, null);
+			return;
+		}
+		if (changedRegion == null) {
+			return;
+		}
+
+		IDocument document = compilerSourceFile.getDocument();
+		int firstChangedLineNumber;
+		int lastChangedLineNumber;
+		try {
+			firstChangedLineNumber = document.getLineOfOffset(changedRegion.getOffset());
+			lastChangedLineNumber = document.getLineOfOffset(changedRegion.getOffset() + changedRegion.getLength());
+		} catch (BadLocationException ex) {
+			parse(compilerSourceFile, null);
+			return;
+		}
+
+		CompilerSourceFileCheckpoint checkpoint = compilerSourceFile.getCheckpointBefore(firstChangedLineNumber);
+		if (checkpoint == null) {
+			parse(compilerSourceFile, null);
+			return;
+		}
+
+		log("parseIncremental: firstChangedLineNumber={0} lastChangedLineNumber={1} checkpoint={2}",
+				Integer.toString(firstChangedLineNumber), Integer.toString(lastChangedLineNumber), checkpoint);
+
+		IncrementalParse incrementalParse = new IncrementalParse(compilerSourceFile, checkpoint,
+				changedRegion.getOffset(), lastChangedLineNumber);
+		Map<String, CompilerSourceFile> parsedFiles = compilerSourceFile.restoreCheckpoint(checkpoint);
+
+		this.compilerSourceFile = compilerSourceFile;
+		rootCompilerSourceFile = compilerSourceFile;
+		section = compilerSourceFile.getActiveSection();
+		child = section;
+		labelChild = null;
+		blockStarting = false;
+		blockEnding = false;
+		parseLines(checkpoint.lineNumber + 1, parsedFiles, null, incrementalParse);
+		compilerSourceFile.setParsed(instructionSet, parsedFiles);
+	}
+
+	/**
+	 * Parses the segments of the line of the callback and notifies the callback.
+	 * In contrast to
+	 * {@link #parse(CompilerSourceFile, CompilerSourceParserLineCallback)} no other
+	 * lines are parsed and no parse tree is built, so the costs do not depend on
+	 * the size of the file. The enclosing section of the line is taken from the
+	 * result of the last parse process of the file. If there is no such result,
+	 * the line is parsed as if it belongs to the definition section.
+	 * 
+	 * @param compilerSourceFile               The file which contains the line,
+	 *                                         not <code>null</code>. The document
+	 *                                         of the file must be partitioned.
+	 * @param parsedCompilerSourceFile         The result of the last parse process
+	 *                                         of the file or <code>null</code>.
+	 * @param compilerSourceParserLineCallback The callback to be notified for its
+	 *                                         line, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public final void parseSingleLine(CompilerSourceFile compilerSourceFile,
+			CompilerSourceFile parsedCompilerSourceFile,
+			CompilerSourceParserLineCallback compilerSourceParserLineCallback) {
+		if (compilerSourceFile == null) {
+			throw new IllegalArgumentException("Parameter 'compilerSourceFile' must not be null.");
+		}
+		if (compilerSourceParserLineCallback == null) {
+			throw new IllegalArgumentException("Parameter 'compilerSourceParserLineCallback' must not be null.");
+		}
+
+		IDocument document = compilerSourceFile.getDocument();
+		int lineNumber = compilerSourceParserLineCallback.getLineNumber();
+		if (lineNumber >= document.getNumberOfLines()) {
+			return;
+		}
+		LineSegments lineSegments = new LineSegments();
+		CompilerSourceParserTreeObject section;
+		try {
+			if (parsedCompilerSourceFile != null) {
+				section = parsedCompilerSourceFile.getSectionOfLine(document.getLineOffset(lineNumber));
+			} else {
+				section = compilerSourceFile.getDefinitionSection();
+			}
+			parseLineSegments(document, lineNumber,
+					CompilerSourceParserTreeObjectType.areInstructionsAllowed(section.getType()), lineSegments);
+		} catch (BadLocationException ex) {
+			throw new RuntimeException(ex);
+		}
+		String instruction = lineSegments.instructionBuffer.toString();
+		if (!instructionSet.areInstructionsCaseSensitive()) {
+			instruction = instruction.toUpperCase();
+		}
+		compilerSourceParserLineCallback.processLine(this, compilerSourceFile, lineNumber, lineSegments.lineOffset,
+				lineSegments.symbolOffset, isInstruction(instruction), lineSegments.instructionOffset, instruction,
+				lineSegments.operandOffset, section);
+	}
+
 	/**
 	 * Parse the new input and builds up the parse tree recursively with collecting
 	 * already parsed includes.
@@ -421,11 +985,14 @@ public abstract class CompilerSourceParser {
 	 * @param compilerSourceParserLineCallback The callback to be notified when a
 	 *                                         certain line is encountered or
 	 *                                         <code>null</code>.
+	 * @param checkpointsEnabled               <code>true</code> if checkpoints for
+	 *                                         incremental parsing shall be
+	 *                                         recorded.
 	 * @return <code>true</code> if the file was parsed now, <code>false</code> if
 	 *         the file is already in the list of parsed files.
 	 */
 	private boolean parseInternal(CompilerSourceFile compilerSourceFile, Map<String, CompilerSourceFile> parsedFiles,
-			CompilerSourceParserLineCallback compilerSourceParserLineCallback) {
+			CompilerSourceParserLineCallback compilerSourceParserLineCallback, boolean checkpointsEnabled) {
 		if (compilerSourceFile == null) {
 			throw new IllegalArgumentException("Parameter 'compilerSourceFile' must not be null.");
 		}
@@ -452,9 +1019,38 @@ public abstract class CompilerSourceParser {
 		child = compilerSourceFile.getDefinitionSection();
 		beginSection(0, true);
 
+		parseLines(0, parsedFiles, compilerSourceParserLineCallback,
+				checkpointsEnabled ? IncrementalParse.NONE : null);
+		return true;
+	}
+
+	/**
+	 * Parses the lines of the current compiler source file starting at the given
+	 * line.
+	 * 
+	 * @param firstLineNumber                  The number of the first line to be
+	 *                                         parsed, a non-negative integer.
+	 * @param parsedFiles                      The list of already parsed file names
+	 *                                         to prevent recursion, not
+	 *                                         <code>null</code>.
+	 * @param compilerSourceParserLineCallback The callback to be notified when a
+	 *                                         certain line is encountered or
+	 *                                         <code>null</code>.
+	 * @param incrementalParse                 The state of the incremental parse
+	 *                                         process, {@link IncrementalParse#NONE}
+	 *                                         to only record checkpoints or
+	 *                                         <code>null</code> to record no
+	 *                                         checkpoints.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void parseLines(int firstLineNumber, Map<String, CompilerSourceFile> parsedFiles,
+			CompilerSourceParserLineCallback compilerSourceParserLineCallback, IncrementalParse incrementalParse) {
+
 		IDocument document = compilerSourceFile.getDocument();
 		int lines = document.getNumberOfLines();
 		int lineOffset, lineLength, startOffset, endOffset;
+		int lineHash;
 		String stringLine = "";
 
 		// Prepare line and document offsets.
@@ -462,8 +1058,10 @@ public abstract class CompilerSourceParser {
 		lineLength = 0;
 		startOffset = 0;
 		endOffset = 0;
+		lineHash = 0;
 
 		// Prepare line section buffers.
+		LineSegments lineSegments;
 		StringBuilder symbolBuffer;
 		StringBuilder instructionBuffer;
 		StringBuilder operandBuffer;
@@ -471,136 +1069,46 @@ public abstract class CompilerSourceParser {
 		char blockDefinitonStartCharacter;
 		char blockDefinitonEndCharacter;
 
-		symbolBuffer = new StringBuilder(100);
-		instructionBuffer = new StringBuilder(100);
-		operandBuffer = new StringBuilder(100);
-		commentBuffer = new StringBuilder(100);
+		lineSegments = new LineSegments();
+		symbolBuffer = lineSegments.symbolBuffer;
+		instructionBuffer = lineSegments.instructionBuffer;
+		operandBuffer = lineSegments.operandBuffer;
+		commentBuffer = lineSegments.commentBuffer;
 		blockDefinitonStartCharacter = compilerSyntax.getBlockDefinitionStartCharacter();
 		blockDefinitonEndCharacter = compilerSyntax.getBlockDefinitionEndCharacter();
 
-		for (int lineNumber = 0; lineNumber < lines; lineNumber++) {
+		for (int lineNumber = firstLineNumber; lineNumber < lines; lineNumber++) {
+			if (monitor != null && monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
 
 			/**
 			 * Part 1: Parse line segments from line string.
 			 */
-
-			int symbolOffset = 0;
-			boolean symbolOffsetFound = false;
-			symbolBuffer.setLength(0);
-			int instructionOffset = 0;
-			boolean instructionOffsetFound = false;
-			instructionBuffer.setLength(0);
-			int operandOffset = 0;
-			boolean operandOffsetFound = false;
-			operandBuffer.setLength(0);
-			int commentOffset = 0;
-			boolean commentOffsetFound = false;
-			commentBuffer.setLength(0);
-
 			try {
-				IRegion region = document.getLineInformation(lineNumber);
-				lineOffset = region.getOffset();
-				lineLength = region.getLength();
-				stringLine = document.get(lineOffset, lineLength);
-
-				int pos = 0;
-				char lastChar = 0;
-				int lineSection = LineSection.NONE;
-				while (pos < lineLength) {
-					char ch = stringLine.charAt(pos);
-					boolean whiteSpace = Character.isWhitespace(ch);
-					// Find the next word.
-					if (pos == 0 || (!whiteSpace && Character.isWhitespace(lastChar))) {
-
-						// Does the current section allow instructions?
-						if (CompilerSourceParserTreeObjectType.areInstructionsAllowed(section.getType())) {
-							if (lineSection == LineSection.NONE) {
-								lineSection = LineSection.SYMBOL;
-							} else if (lineSection == LineSection.SYMBOL) {
-								lineSection = LineSection.INSTRUCTION;
-								if (symbolBuffer.length() > 0) {
-									String possibleInstruction = symbolBuffer.toString().toUpperCase();
-									if (isInstruction(possibleInstruction)) {
-
-										instructionOffset = symbolOffset;
-										instructionOffsetFound = true;
-										instructionBuffer.append(symbolBuffer);
-										symbolOffset = 0;
-										symbolBuffer.setLength(0);
-										lineSection = LineSection.OPERAND;
-									}
-								}
-							} else if (lineSection == LineSection.INSTRUCTION) {
-								lineSection = LineSection.OPERAND;
-							}
-						} else {
-							// No instructions allowed.
-							if (!symbolOffsetFound) {
-								if (!whiteSpace && lineSection == LineSection.NONE) {
-									lineSection = LineSection.SYMBOL;
-								}
-							} else {
-								lineSection = LineSection.OPERAND;
-							}
-						}
-
-					}
-					String type = document.getPartition(lineOffset + pos).getType();
-					if (type.equals(IDocument.DEFAULT_CONTENT_TYPE)) {
-						if (lineSection == LineSection.SYMBOL) {
-
-							// TODO: Does not work with kernel equates
-							// if (symbolBuffer.length() == 0 &&
-							// compilerSyntax.isIdentifierStartCharacter(ch)
-							// || symbolBuffer.length() > 0 &&
-							// compilerSyntax.isIdentifierPartCharacter(ch))
-							if (compilerSyntax.isIdentifierCharacter(ch)) {
-								if (!symbolOffsetFound) {
-									symbolOffsetFound = true;
-									symbolOffset = pos;
-								}
-								symbolBuffer.append(ch);
-
-							}
-						} else if (lineSection == LineSection.INSTRUCTION) {
-							if (!whiteSpace) {
-								if (!instructionOffsetFound) {
-									instructionOffsetFound = true;
-									instructionOffset = pos;
-								}
-								instructionBuffer.append(ch);
-							}
-						} else {
-							if (!operandOffsetFound) {
-								operandOffsetFound = true;
-								operandOffset = pos;
-							}
-							operandBuffer.append(ch);
-						}
-					} else if (type.equals(CompilerSourcePartitionScanner.PARTITION_COMMENT_SINGLE)) {
-						if (!commentOffsetFound) {
-							commentOffsetFound = true;
-							commentOffset = pos;
-						}
-						// Keep spaces within comments and convert tabs to
-						// spaces.
-						if (ch == 0x9) {
-							ch = ' ';
-						}
-						if (ch != 0xa && ch != 0xd) {
-							commentBuffer.append(ch);
-						}
-					} else if (type.equals(CompilerSourcePartitionScanner.PARTITION_STRING)) {
-						operandBuffer.append(ch);
-					}
-
-					lastChar = ch;
-					pos++;
+				parseLineSegments(document, lineNumber,
+						CompilerSourceParserTreeObjectType.areInstructionsAllowed(section.getType()), lineSegments);
+				lineOffset = lineSegments.lineOffset;
+				lineLength = lineSegments.lineLength;
+				stringLine = lineSegments.line;
+
+				// The partition types at the line boundaries detect changes
+				// of multiple line comments which begin in other lines.
+				if (incrementalParse != null) {
+					lineHash = stringLine.hashCode();
+					lineHash = 31 * lineHash + document.getPartition(lineOffset).getType().hashCode();
+					lineHash = 31 * lineHash + document.getPartition(lineOffset + lineLength).getType().hashCode();
 				}
 
 			} catch (BadLocationException ex) {
 				throw new RuntimeException(ex);
 			}
+			int symbolOffset = lineSegments.symbolOffset;
+			int instructionOffset = lineSegments.instructionOffset;
+			int operandOffset = lineSegments.operandOffset;
+			boolean operandOffsetFound = lineSegments.operandOffsetFound;
+			int commentOffset = lineSegments.commentOffset;
+			boolean commentOffsetFound = lineSegments.commentOffsetFound;
 
 			/**
 			 * Part 2: Post processing of line segments
@@ -612,17 +1120,6 @@ public abstract class CompilerSourceParser {
 				throw new RuntimeException(ex);
 			}
 
-			// Check if the single symbol in the line is actually an
-			// instruction.
-			String possibleInstruction = symbolBuffer.toString().toUpperCase();
-			if (isInstruction(possibleInstruction)) {
-
-				instructionOffset = symbolOffset;
-				instructionBuffer.append(symbolBuffer);
-				symbolOffset = 0;
-				symbolBuffer.setLength(0);
-			}
-
 			String symbol = symbolBuffer.toString();
 			String instruction = instructionBuffer.toString();
 			if (!instructionSet.areInstructionsCaseSensitive()) {
@@ -729,6 +1226,19 @@ public abstract class CompilerSourceParser {
 						symbolOffset, isInstruction(instruction), instructionOffset, instruction, operandOffset,
 						section);
 			}
+
+			/**
+			 * Part 8: Checkpoint for incremental parsing.
+			 */
+			if (incrementalParse != null) {
+				CompilerSourceFileCheckpoint checkpoint = compilerSourceFile.addCheckpoint(lineNumber, lineOffset,
+						lineHash, parsedFiles.size());
+				if (checkpoint != null && incrementalParse.isConverged(checkpoint, parsedFiles)) {
+					log("parseLines: Converged after line {0}", Integer.toString(lineNumber));
+					incrementalParse.takeOver(checkpoint, parsedFiles);
+					return;
+				}
+			}
 		}
 
 		// End last section.
@@ -739,8 +1249,164 @@ public abstract class CompilerSourceParser {
 
 		// End incomplete sections.
 		compilerSourceFile.endAllFoldings();
+	}
 
-		return true;
+	/**
+	 * Parses the segments of a line. If the line consists of a single instruction,
+	 * it is returned as instruction and not as symbol.
+	 * 
+	 * @param document            The partitioned document, not <code>null</code>.
+	 * @param lineNumber          The line number, a non-negative integer.
+	 * @param instructionsAllowed <code>true</code> if the section which contains
+	 *                            the line allows instructions.
+	 * @param lineSegments        The line segments to be filled, not
+	 *                            <code>null</code>.
+	 * @throws BadLocationException If the line does not exist in the document.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void parseLineSegments(IDocument document, int lineNumber, boolean instructionsAllowed,
+			LineSegments lineSegments) throws BadLocationException {
+
+		int symbolOffset = 0;
+		boolean symbolOffsetFound = false;
+		StringBuilder symbolBuffer = lineSegments.symbolBuffer;
+		symbolBuffer.setLength(0);
+		int instructionOffset = 0;
+		boolean instructionOffsetFound = false;
+		StringBuilder instructionBuffer = lineSegments.instructionBuffer;
+		instructionBuffer.setLength(0);
+		int operandOffset = 0;
+		boolean operandOffsetFound = false;
+		StringBuilder operandBuffer = lineSegments.operandBuffer;
+		operandBuffer.setLength(0);
+		int commentOffset = 0;
+		boolean commentOffsetFound = false;
+		StringBuilder commentBuffer = lineSegments.commentBuffer;
+		commentBuffer.setLength(0);
+
+		IRegion region = document.getLineInformation(lineNumber);
+		int lineOffset = region.getOffset();
+		int lineLength = region.getLength();
+		String stringLine = document.get(lineOffset, lineLength);
+
+		int pos = 0;
+		char lastChar = 0;
+		int lineSection = LineSection.NONE;
+		while (pos < lineLength) {
+			char ch = stringLine.charAt(pos);
+			boolean whiteSpace = Character.isWhitespace(ch);
+			// Find the next word.
+			if (pos == 0 || (!whiteSpace && Character.isWhitespace(lastChar))) {
+
+				// Does the current section allow instructions?
+				if (instructionsAllowed) {
+					if (lineSection == LineSection.NONE) {
+						lineSection = LineSection.SYMBOL;
+					} else if (lineSection == LineSection.SYMBOL) {
+						lineSection = LineSection.INSTRUCTION;
+						if (symbolBuffer.length() > 0) {
+							String possibleInstruction = symbolBuffer.toString().toUpperCase();
+							if (isInstruction(possibleInstruction)) {
+
+								instructionOffset = symbolOffset;
+								instructionOffsetFound = true;
+								instructionBuffer.append(symbolBuffer);
+								symbolOffset = 0;
+								symbolBuffer.setLength(0);
+								lineSection = LineSection.OPERAND;
+							}
+						}
+					} else if (lineSection == LineSection.INSTRUCTION) {
+						lineSection = LineSection.OPERAND;
+					}
+				} else {
+					// No instructions allowed.
+					if (!symbolOffsetFound) {
+						if (!whiteSpace && lineSection == LineSection.NONE) {
+							lineSection = LineSection.SYMBOL;
+						}
+					} else {
+						lineSection = LineSection.OPERAND;
+					}
+				}
+
+			}
+			String type = document.getPartition(lineOffset + pos).getType();
+			if (type.equals(IDocument.DEFAULT_CONTENT_TYPE)) {
+				if (lineSection == LineSection.SYMBOL) {
+
+					// TODO: Does not work with kernel equates
+					// if (symbolBuffer.length() == 0 &&
+					// compilerSyntax.isIdentifierStartCharacter(ch)
+					// || symbolBuffer.length() > 0 &&
+					// compilerSyntax.isIdentifierPartCharacter(ch))
+					if (compilerSyntax.isIdentifierCharacter(ch)) {
+						if (!symbolOffsetFound) {
+							symbolOffsetFound = true;
+							symbolOffset = pos;
+						}
+						symbolBuffer.append(ch);
+
+					}
+				} else if (lineSection == LineSection.INSTRUCTION) {
+					if (!whiteSpace) {
+						if (!instructionOffsetFound) {
+							instructionOffsetFound = true;
+							instructionOffset = pos;
+						}
+						instructionBuffer.append(ch);
+					}
+				} else {
+					if (!operandOffsetFound) {
+						operandOffsetFound = true;
+						operandOffset = pos;
+					}
+					operandBuffer.append(ch);
+				}
+			} else if (type.equals(CompilerSourcePartitionScanner.PARTITION_COMMENT_SINGLE)) {
+				if (!commentOffsetFound) {
+					commentOffsetFound = true;
+					commentOffset = pos;
+				}
+				// Keep spaces within comments and convert tabs to
+				// spaces.
+				if (ch == 0x9) {
+					ch = ' ';
+				}
+				if (ch != 0xa && ch != 0xd) {
+					commentBuffer.append(ch);
+				}
+			} else if (type.equals(CompilerSourcePartitionScanner.PARTITION_STRING)) {
+				operandBuffer.append(ch);
+			}
+
+			lastChar = ch;
+			pos++;
+		}
+
+		// Check if the single symbol in the line is actually an
+		// instruction.
+		String possibleInstruction = symbolBuffer.toString().toUpperCase();
+		if (isInstruction(possibleInstruction)) {
+
+			instructionOffset = symbolOffset;
+			instructionBuffer.append(symbolBuffer);
+			symbolOffset = 0;
+			symbolBuffer.setLength(0);
+		}
+
+		lineSegments.lineOffset = lineOffset;
+		lineSegments.lineLength = lineLength;
+		lineSegments.line = stringLine;
+		lineSegments.symbolOffset = symbolOffset;
+		lineSegments.symbolOffsetFound = symbolOffsetFound;
+		lineSegments.instructionOffset = instructionOffset;
+		lineSegments.instructionOffsetFound = instructionOffsetFound;
+		lineSegments.operandOffset = operandOffset;
+		lineSegments.operandOffsetFound = operandOffsetFound;
+		lineSegments.commentOffset = commentOffset;
+		lineSegments.commentOffsetFound = commentOffsetFound;
 	}
 
 	private boolean isInstruction(String instructionName) {
@@ -954,42 +1620,13 @@ public abstract class CompilerSourceParser {
 				// If there is a file, the include is a section.
 				beginSection(startOffset, true);
 
-				// Preserve current line specific state into local variables.
-				CompilerSourceFile oldSourceFile = compilerSourceFile;
-				CompilerSourceParserTreeObject oldSection = section;
-				CompilerSourceParserTreeObject oldChild = child;
-				CompilerSourceParserTreeObject oldLabelChild = labelChild;
-				boolean oldBlockStarting = blockStarting;
-				boolean oldBlockEnding = blockEnding;
-
-				CompilerSourceFile newSourceFile = createCompilerSourceFile(filePath);
-
-				// This might be moved to the createCompilerSourceFile() method.
-				CompilerSourcePartitionScanner partitionScanner = new CompilerSourcePartitionScanner(compilerSyntax);
-				partitionScanner.createDocumentPartitioner(newSourceFile.getDocument());
-				boolean parsed = parseInternal(newSourceFile, parsedFiles, compilerSourceParserLineCallback);
-
-				if (parsed) {
-					// Restore old line specific state from local variables.
-					section = oldSection;
-					compilerSourceFile = oldSourceFile;
-					child = oldChild;
-					labelChild = oldLabelChild;
-					blockStarting = oldBlockStarting;
-					blockEnding = oldBlockEnding;
-
-					section.setIncludedCompilerSourceFile(newSourceFile);
-					List<CompilerSourceParserTreeObject> newSourceFileSections = newSourceFile.getSections();
-					if (newSourceFileSections.size() == 1 && newSourceFileSections.get(0)
-							.getType() == CompilerSourceParserTreeObjectType.SOURCE_INCLUDE) {
-						newSourceFileSections = newSourceFileSections.get(0).getChildren();
-					}
-					for (CompilerSourceParserTreeObject newChild : newSourceFileSections) {
-						section.addChild(newChild);
-					}
+				// Only the includes of the root file are linked directly. The
+				// includes of included files are linked when the cached result is
+				// linked into the tree of the root file.
+				if (compilerSourceFile == rootCompilerSourceFile) {
+					linkSourceInclude(section, filePath, parsedFiles);
 				} else {
-					LanguagePlugin.getInstance().log("Include file '{0}' was already parsed. Stopping recursion.",
-							new Object[] { newSourceFile.getDocumentFile().getPath() });
+					section.setIncludedFilePath(filePath);
 				}
 				endSection(endOffset);
 			}
@@ -1018,6 +1655,125 @@ public abstract class CompilerSourceParser {
 
 	}
 
+	/**
+	 * Links the content of a source include file into the tree of the root file.
+	 * The include file is only linked if it was not linked before, to prevent
+	 * infinite recursions caused by circular includes.
+	 * 
+	 * @param includeSection The SOURCE_INCLUDE section, not <code>null</code>.
+	 * @param filePath       The absolute file path, not empty and not
+	 *                       <code>null</code>.
+	 * @param parsedFiles    The parsed files, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void linkSourceInclude(CompilerSourceParserTreeObject includeSection, String filePath,
+			Map<String, CompilerSourceFile> parsedFiles) {
+		String key = new File(filePath).getPath();
+		if (parsedFiles.containsKey(key)) {
+			LanguagePlugin.getInstance().log("Include file '{0}' was already parsed. Stopping recursion.",
+					new Object[] { key });
+			return;
+		}
+		CompilerSourceFile includedSourceFile = getIncludedCompilerSourceFile(filePath);
+		parsedFiles.put(key, includedSourceFile);
+
+		includeSection.setIncludedCompilerSourceFile(includedSourceFile);
+		List<CompilerSourceParserTreeObject> includedSections = includedSourceFile.getSections();
+		if (includedSections.size() == 1
+				&& includedSections.get(0).getType() == CompilerSourceParserTreeObjectType.SOURCE_INCLUDE) {
+			includedSections = includedSections.get(0).getChildren();
+		}
+		for (CompilerSourceParserTreeObject includedSection : includedSections) {
+			includeSection.addChild(linkCopy(includedSection, parsedFiles));
+		}
+	}
+
+	/**
+	 * Creates a linked copy of a tree object of a cached include file.
+	 * 
+	 * @param treeObject  The tree object, not <code>null</code>.
+	 * @param parsedFiles The parsed files, not <code>null</code>.
+	 * @return The copy including copies of all children and the content of
+	 *         nested include files, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private CompilerSourceParserTreeObject linkCopy(CompilerSourceParserTreeObject treeObject,
+			Map<String, CompilerSourceFile> parsedFiles) {
+		CompilerSourceParserTreeObject result = treeObject.copy();
+		String includedFilePath = treeObject.getIncludedFilePath();
+		if (includedFilePath != null) {
+			linkSourceInclude(result, includedFilePath, parsedFiles);
+		} else {
+			for (CompilerSourceParserTreeObject child : treeObject.getChildren()) {
+				result.addChild(linkCopy(child, parsedFiles));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the parsed compiler source file for a source include file from the
+	 * concurrent include tasks or from the cache or parses it, if it is not in the
+	 * cache or was modified. The result does not contain the content of nested
+	 * include files.
+	 * 
+	 * @param filePath The absolute file path, not empty and not <code>null</code>.
+	 * @return The compiler source file, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private CompilerSourceFile getIncludedCompilerSourceFile(String filePath) {
+		CompilerSourceFileCache cache = LanguagePlugin.getInstance().getCompilerSourceFileCache();
+		File file = FileUtility.getCanonicalFile(new File(filePath));
+		if (includeTasks != null) {
+			ForkJoinTask<CompilerSourceFile> includeTask = includeTasks.get(file.getPath());
+			if (includeTask != null) {
+				log("getIncludedCompilerSourceFile: filePath={0} parsed concurrently", filePath);
+				return includeTask.join();
+			}
+		}
+		CompilerSourceFile result = cache.get(file, instructionSet);
+		if (result != null) {
+			log("getIncludedCompilerSourceFile: filePath={0} found in cache", filePath);
+			return result;
+		}
+
+		// Retrieve the time stamp before reading, so a concurrent modification
+		// invalidates the cache entry.
+		long lastModified = file.lastModified();
+		long length = file.length();
+		result = createCompilerSourceFile(filePath);
+
+		// This might be moved to the createCompilerSourceFile() method.
+		CompilerSourcePartitionScanner partitionScanner = new CompilerSourcePartitionScanner(compilerSyntax);
+		partitionScanner.createDocumentPartitioner(result.getDocument());
+
+		// Preserve current line specific state into local variables.
+		CompilerSourceFile oldSourceFile = compilerSourceFile;
+		CompilerSourceParserTreeObject oldSection = section;
+		CompilerSourceParserTreeObject oldChild = child;
+		CompilerSourceParserTreeObject oldLabelChild = labelChild;
+		boolean oldBlockStarting = blockStarting;
+		boolean oldBlockEnding = blockEnding;
+
+		parseInternal(result, new HashMap<String, CompilerSourceFile>(), null, false);
+
+		// Restore old line specific state from local variables.
+		section = oldSection;
+		compilerSourceFile = oldSourceFile;
+		child = oldChild;
+		labelChild = oldLabelChild;
+		blockStarting = oldBlockStarting;
+		blockEnding = oldBlockEnding;
+
+		if (lastModified != 0) {
+			cache.put(file, instructionSet, lastModified, length, result);
+		}
+		return result;
+	}
+
 	private void ensureDefinitionSection(int startOffset, int positionStartOffset) {
 		// To allow folding for introduction comment at the begin of the source,
 		// the definition section is always open already.
@@ -37,7 +37,9 @@ public final class CompilerSourceParserTreeObject {
 
 	private final CompilerSourceFile compilerSourceFile;
 
-	private final int startOffset;
+	private int startOffset;
+
+	private int endOffset;
 
 	private final int type;
 
@@ -59,6 +61,8 @@ public final class CompilerSourceParserTreeObject {
 
 	private CompilerSourceFile includedCompilerSourceFile;
 
+	private String includedFilePath;
+
 	/**
 	 * Create a new instance.
 	 * 
@@ -87,6 +91,7 @@ public final class CompilerSourceParserTreeObject {
 		}
 		this.compilerSourceFile = compilerSourceFile;
 		this.startOffset = startOffset;
+		this.endOffset = -1;
 
 		switch (type) {
 		case CompilerSourceParserTreeObjectType.DEFAULT:
@@ -136,6 +141,100 @@ public final class CompilerSourceParserTreeObject {
 		this.children = new ArrayList<CompilerSourceParserTreeObject>();
 	}
 
+	/**
+	 * Creates a copy of a tree object without parent and without children.
+	 * 
+	 * @param treeObject         The tree object to be copied, not
+	 *                           <code>null</code>.
+	 * @param compilerSourceFile The source file to which the copy belongs, not
+	 *                           <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private CompilerSourceParserTreeObject(CompilerSourceParserTreeObject treeObject,
+			CompilerSourceFile compilerSourceFile) {
+		this.compilerSourceFile = compilerSourceFile;
+		startOffset = treeObject.startOffset;
+		endOffset = treeObject.endOffset;
+		type = treeObject.type;
+		name = treeObject.name;
+		displayName = treeObject.displayName;
+		description = treeObject.description;
+		styledString = treeObject.styledString;
+		children = new ArrayList<CompilerSourceParserTreeObject>(treeObject.children.size());
+		includedCompilerSourceFile = treeObject.includedCompilerSourceFile;
+		includedFilePath = treeObject.includedFilePath;
+	}
+
+	/**
+	 * Creates a copy of this tree object without parent and without children.
+	 * Used to link cached parse results of source include files into the tree of
+	 * the including file, without modifying the cached tree.
+	 * 
+	 * @return The copy, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final CompilerSourceParserTreeObject copy() {
+		return new CompilerSourceParserTreeObject(this, compilerSourceFile);
+	}
+
+	/**
+	 * Creates a copy of this tree object and all its descendants with the start
+	 * offsets of the tree objects which belong to the given source file shifted.
+	 * Used to take over the tree objects of a previous parse process after an
+	 * incremental parse process, without modifying the tree objects which may
+	 * still be used by a snapshot.
+	 * 
+	 * @param compilerSourceFile The compiler source file whose offsets are shifted,
+	 *                           not <code>null</code>.
+	 * @param delta              The number of characters by which the start offset
+	 *                           is shifted, may be negative.
+	 * @return The copy, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final CompilerSourceParserTreeObject copyTree(CompilerSourceFile compilerSourceFile, int delta) {
+		if (compilerSourceFile == null) {
+			throw new IllegalArgumentException("Parameter 'compilerSourceFile' must not be null.");
+		}
+		CompilerSourceParserTreeObject result = copy();
+		if (this.compilerSourceFile == compilerSourceFile) {
+			result.startOffset += delta;
+			if (result.endOffset >= 0) {
+				result.endOffset += delta;
+			}
+		}
+		for (CompilerSourceParserTreeObject child : children) {
+			result.addChild(child.copyTree(compilerSourceFile, delta));
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a copy of this tree object without parent, which shares the given
+	 * number of leading children with this tree object. Used to resume an
+	 * incremental parse process in a section without modifying the section, which
+	 * may still be used by a snapshot.
+	 * 
+	 * @param childCount The number of leading children to be shared, a
+	 *                   non-negative integer.
+	 * @return The copy, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final CompilerSourceParserTreeObject copySection(int childCount) {
+		if (childCount < 0) {
+			throw new IllegalArgumentException(
+					"Parameter 'childCount' must not be negative. Specified value is " + childCount + ".");
+		}
+		CompilerSourceParserTreeObject result = copy();
+		for (int i = 0; i < childCount && i < children.size(); i++) {
+			result.addSharedChild(children.get(i));
+		}
+		return result;
+	}
+
 	/**
 	 * Gets the compiler source file, this parser tree object belongs to.
 	 * 
@@ -156,6 +255,36 @@ public final class CompilerSourceParserTreeObject {
 		return startOffset;
 	}
 
+	/**
+	 * Gets the end offset of this parser tree object in the compiler source file.
+	 * Only sections have an end offset, which is the offset of the last character
+	 * of the line which ends the section.
+	 * 
+	 * @return The end offset of this parser tree object in the compiler source
+	 *         file, a non-negative integer or <code>-1</code> if this parser tree
+	 *         object is no section or the section has not been ended.
+	 * 
+	 * @since 1.7.2
+	 */
+	public int getEndOffset() {
+		return endOffset;
+	}
+
+	/**
+	 * Sets the end offset of this section.
+	 * 
+	 * @param endOffset The end offset, a non-negative integer.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void setEndOffset(int endOffset) {
+		if (endOffset < 0) {
+			throw new IllegalArgumentException(
+					"Parameter 'endOffset' must not be negative. Specified value is " + endOffset + ".");
+		}
+		this.endOffset = endOffset;
+	}
+
 	/**
 	 * Gets the type of the object.
 	 * 
@@ -346,6 +475,23 @@ public final class CompilerSourceParserTreeObject {
 
 	}
 
+	/**
+	 * Adds a child which is shared with an equal copy of this tree object. The
+	 * parent of the child is not changed, since the child may still be used by a
+	 * snapshot. The tree path and the compound name of the child are the same
+	 * for both parents.
+	 * 
+	 * @param child The shared child, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void addSharedChild(CompilerSourceParserTreeObject child) {
+		if (child == null) {
+			throw new IllegalArgumentException("Parameter 'child' must not be null.");
+		}
+		children.add(child);
+	}
+
 	/**
 	 * Gets the included compiler source file for a SOURCE_INCLUDE tree object.
 	 * 
@@ -369,6 +515,33 @@ public final class CompilerSourceParserTreeObject {
 
 	}
 
+	/**
+	 * Gets the absolute path of the included file for a SOURCE_INCLUDE tree object
+	 * whose content was not linked during parsing.
+	 * 
+	 * @return The absolute file path or <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final String getIncludedFilePath() {
+		return includedFilePath;
+	}
+
+	/**
+	 * Sets the absolute path of the included file for a SOURCE_INCLUDE tree object
+	 * whose content is not linked during parsing.
+	 * 
+	 * @param includedFilePath The absolute file path, may be <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	final void setIncludedFilePath(String includedFilePath) {
+		if (type != CompilerSourceParserTreeObjectType.SOURCE_INCLUDE) {
+			throw new IllegalStateException("The type of this tree object is " + type + " and not SOURCE_INCLUDE");
+		}
+		this.includedFilePath = includedFilePath;
+	}
+
 	@Override
 	public boolean equals(Object object) {
 		if (!(object instanceof CompilerSourceParserTreeObject)) {
@@ -20,7 +20,9 @@
 package com.wudsn.ide.lng.compiler.syntax;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -47,6 +49,16 @@ public final class InstructionSet {
 
 	private List<Instruction> instructionsList;
 
+	/**
+	 * The names of the instructions in sorted order and the indices of the
+	 * respective instructions in {@link #instructionsList}. If instructions are not
+	 * case sensitive, the upper case names are used.
+	 * 
+	 * @since 1.7.2
+	 */
+	private String[] sortedInstructionNames;
+	private int[] sortedInstructionIndices;
+
 	private Map<String, Instruction> instructionsMap;
 
 	/**
@@ -147,10 +159,44 @@ public final class InstructionSet {
 		instructionPartCharactersArray = CompilerSyntax.createBooleanArray(instructionPartCharacters.toString());
 
 		this.instructionsList = Collections.unmodifiableList(this.instructionsList);
+		createSortedInstructionNames();
 		instructionsMap = Collections.unmodifiableMap(instructionsMap);
 		fileReferenceInstructionsList = Collections.unmodifiableList(fileReferenceInstructionsList);
 	}
 
+	/**
+	 * Creates the sorted array of instruction names for the prefix search.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void createSortedInstructionNames() {
+		final boolean caseSensitive = areInstructionsCaseSensitive();
+		Integer[] indices = new Integer[instructionsList.size()];
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = Integer.valueOf(i);
+		}
+		Arrays.sort(indices, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer index1, Integer index2) {
+				return getSortName(instructionsList.get(index1.intValue()), caseSensitive)
+						.compareTo(getSortName(instructionsList.get(index2.intValue()), caseSensitive));
+			}
+		});
+
+		sortedInstructionNames = new String[indices.length];
+		sortedInstructionIndices = new int[indices.length];
+		for (int i = 0; i < indices.length; i++) {
+			int index = indices[i].intValue();
+			sortedInstructionNames[i] = getSortName(instructionsList.get(index), caseSensitive);
+			sortedInstructionIndices[i] = index;
+		}
+	}
+
+	private static String getSortName(Instruction instruction, boolean caseSensitive) {
+		return caseSensitive ? instruction.getName() : instruction.getUpperCaseName();
+	}
+
 	/**
 	 * Gets the compiler syntax.
 	 * 
@@ -210,6 +256,58 @@ public final class InstructionSet {
 		return instructionsList;
 	}
 
+	/**
+	 * Gets the list of all instructions starting with a given prefix. The prefix is
+	 * located via binary search in the sorted instruction names.
+	 * 
+	 * @param prefix The prefix, may be empty, not <code>null</code>. If
+	 *               instructions are not case sensitive, the prefix must be in
+	 *               upper case.
+	 * 
+	 * @return The unmodifiable list of instructions in the order of
+	 *         {@link #getInstructions()}, may be empty, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public List<Instruction> getInstructions(String prefix) {
+		if (prefix == null) {
+			throw new IllegalArgumentException("Parameter 'prefix' must not be null.");
+		}
+		if (sortedInstructionNames == null) {
+			throw new IllegalStateException("Variable 'sortedInstructionNames' not yet initialized.");
+		}
+		if (prefix.isEmpty()) {
+			return instructionsList;
+		}
+
+		// Find the first name which is greater or equal to the prefix.
+		int low = 0;
+		int high = sortedInstructionNames.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedInstructionNames[middle].compareTo(prefix) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		int end = low;
+		while (end < sortedInstructionNames.length && sortedInstructionNames[end].startsWith(prefix)) {
+			end++;
+		}
+		if (end == low) {
+			return Collections.emptyList();
+		}
+
+		int[] indices = Arrays.copyOfRange(sortedInstructionIndices, low, end);
+		Arrays.sort(indices);
+		List<Instruction> result = new ArrayList<Instruction>(indices.length);
+		for (int index : indices) {
+			result.add(instructionsList.get(index));
+		}
+		return Collections.unmodifiableList(result);
+	}
+
 	/**
 	 * Gets list of opcode address modes for the given opcode value. Only instances
 	 * that are support by the Target of the instruction set are returned.
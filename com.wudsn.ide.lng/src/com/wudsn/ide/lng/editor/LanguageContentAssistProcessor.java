@@ -20,7 +20,9 @@
 package com.wudsn.ide.lng.editor;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
@@ -146,8 +148,40 @@ final class LanguageContentAssistProcessor implements IContentAssistProcessor {
 		}
 	}
 
+	/**
+	 * The parts of an instruction proposal which do not depend on the offset in
+	 * the document. They are created once per instruction and case and reused for
+	 * all subsequent proposals.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static final class InstructionProposal {
+		public final String proposal;
+		public final int proposalIndex;
+		public final Image image;
+		public final String displayString;
+		public final StyledString styledDisplayString;
+
+		public InstructionProposal(String proposal, int proposalIndex, Image image, String displayString,
+				StyledString styledDisplayString) {
+			this.proposal = proposal;
+			this.proposalIndex = proposalIndex;
+			this.image = image;
+			this.displayString = displayString;
+			this.styledDisplayString = styledDisplayString;
+		}
+	}
+
 	private LanguageEditor editor;
 
+	/**
+	 * The instruction proposals for the last used instruction set in upper and
+	 * lower case.
+	 */
+	private InstructionSet proposalsInstructionSet;
+	private Map<Instruction, InstructionProposal> upperCaseProposals;
+	private Map<Instruction, InstructionProposal> lowerCaseProposals;
+
 	private Image directiveImage;
 	private Image legalOpcodeImage;
 	private Image illegalOpcodeImage;
@@ -210,8 +244,10 @@ final class LanguageContentAssistProcessor implements IContentAssistProcessor {
 			lineOffset = -1;
 		}
 
-		// Parse the current compiler file and try to find the line in the
-		// correct source file.
+		// Parse only the current line of the document. The remaining lines
+		// are not required to decide which proposals are applicable. The
+		// enclosing section of the line is taken from the last parse process
+		// of the editor.
 		CompilerFiles files = LanguageEditorFilesLogic.createInstance(editor).createCompilerFiles();
 		if (files == null) {
 			return null;
@@ -220,7 +256,8 @@ final class LanguageContentAssistProcessor implements IContentAssistProcessor {
 		CompilerSourceParser compilerSourceParser = editor.createCompilerSourceParser();
 		CompilerSourceFile compilerSourceFile = compilerSourceParser.createCompilerSourceFile(files.sourceFile.file,
 				viewer.getDocument());
-		compilerSourceParser.parse(compilerSourceFile, compilerSourceCallback);
+		CompilerSourceFile parsedCompilerSourceFile = editor.getCompilerSourceFile();
+		compilerSourceParser.parseSingleLine(compilerSourceFile, parsedCompilerSourceFile, compilerSourceCallback);
 
 		// If there is no instruction in the line yet or the cursor is exactly
 		// at the last character of that instruction, propose one.
@@ -230,10 +267,16 @@ final class LanguageContentAssistProcessor implements IContentAssistProcessor {
 			Region region = new Region(selectionOffset - prefix.length(), prefix.length() + selection.getLength());
 			addInstructionProposals(region, prefix, proposalList);
 		} else {
-			// Otherwise propose to use an identifier as operand.
+			// Otherwise propose to use an identifier as operand. The identifiers
+			// are taken from the last parse process of the editor, so the index
+			// of the identifiers is reused for subsequent requests. If the
+			// editor has not completed a parse process yet, there are no
+			// identifiers to propose.
 			String prefix = getPrefix(viewer, compilerSourceParser.getCompilerSyntax(), selectionOffset, true);
 			Region region = new Region(selectionOffset - prefix.length(), prefix.length() + selection.getLength());
-			addIdentifierProposals(region, prefix, compilerSourceFile, proposalList);
+			if (parsedCompilerSourceFile != null) {
+				addIdentifierProposals(region, prefix, parsedCompilerSourceFile, proposalList);
+			}
 		}
 
 		// If there is no proposal entry, return null instead of an empty array.
@@ -329,76 +372,95 @@ final class LanguageContentAssistProcessor implements IContentAssistProcessor {
 			prefix = prefix.toUpperCase();
 		}
 
-		List<Instruction> instructions = instructionSet.getInstructions();
-		for (int i = 0; i < instructions.size(); i++) {
-			Instruction instruction = instructions.get(i);
-
-			String name = null;
-			if (caseSenstive) {
-				if (instruction.getName().indexOf(prefix) == 0) {
-					name = instruction.getName();
-				}
-			} else {
-				if (instruction.getUpperCaseName().indexOf(prefix) == 0) {
-
-					name = lowerCase ? instruction.getLowerCaseName() : instruction.getUpperCaseName();
-				}
-			}
-
-			if (name != null) {
-				Image image;
-
-				if (instruction instanceof Directive) {
-					image = directiveImage;
-				} else {
-					Opcode opcode = (Opcode) instruction;
-					switch (opcode.getType()) {
-					case InstructionType.LEGAL_OPCODE:
-						image = legalOpcodeImage;
-						break;
-					case InstructionType.ILLEGAL_OPCODE:
-						image = illegalOpcodeImage;
-
-						break;
-					case InstructionType.PSEUDO_OPCODE:
-						image = pseudoOpcodeImage;
-						break;
-					default:
-						throw new IllegalStateException("Unknown opcode type " + opcode.getType() + ".");
-					}
-				}
+		int regionLength = region.getLength();
+		for (Instruction instruction : instructionSet.getInstructions(prefix)) {
+			InstructionProposal instructionProposal = getInstructionProposal(instructionSet, instruction, lowerCase);
+			proposalList.add(new LanguageTextCompletionProposal(instructionProposal.proposal, offset, regionLength,
+					offset + instructionProposal.proposalIndex, instructionProposal.image,
+					instructionProposal.displayString, instructionProposal.styledDisplayString, null));
+		}
+	}
 
-				String separator = " - ";
-				String displayString = name + separator + instruction.getTitle();
-				StyledString styledDisplayString = new StyledString();
-				styledDisplayString.append(name);
-				styledDisplayString.append(separator);
-				int start = styledDisplayString.length();
-				styledDisplayString.append(instruction.getStyledTitle());
-				styledDisplayString.setStyle(0, name.length(), instructionStyler);
-				int[] offsets = instruction.getStyledTitleOffsets();
-
-				for (int j = 0; j < offsets.length; j++) {
-					styledDisplayString.setStyle(start + offsets[j], 1, highlightStyler);
-				}
+	/**
+	 * Gets the offset independent parts of the proposal for an instruction.
+	 * 
+	 * @param instructionSet The instruction set, not <code>null</code>.
+	 * @param instruction    The instruction, not <code>null</code>.
+	 * @param lowerCase      <code>true</code> if the proposal shall be in lower
+	 *                       case.
+	 * @return The instruction proposal, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private InstructionProposal getInstructionProposal(InstructionSet instructionSet, Instruction instruction,
+			boolean lowerCase) {
+		if (instructionSet != proposalsInstructionSet) {
+			proposalsInstructionSet = instructionSet;
+			upperCaseProposals = new HashMap<Instruction, InstructionProposal>();
+			lowerCaseProposals = new HashMap<Instruction, InstructionProposal>();
+		}
+		Map<Instruction, InstructionProposal> proposals = lowerCase ? lowerCaseProposals : upperCaseProposals;
+		InstructionProposal result = proposals.get(instruction);
+		if (result != null) {
+			return result;
+		}
+
+		String name;
+		if (instructionSet.areInstructionsCaseSensitive()) {
+			name = instruction.getName();
+		} else {
+			name = lowerCase ? instruction.getLowerCaseName() : instruction.getUpperCaseName();
+		}
 
-				// Adapt proposal.
-				String proposal = instruction.getProposal();
-				proposal = lowerCase ? proposal.toLowerCase() : proposal;
-				int proposalIndex;
-				int newCursorOffset;
-				// Must be positive.
-				proposalIndex = proposal.indexOf('_');
-				// Remove cursor positioning.
-				proposal = proposal.replace("_", "");
-				// Apply leading tabulator.
-				proposal = proposal.replace("\n", "\n\t");
-				newCursorOffset = offset + proposalIndex;
-
-				proposalList.add(new LanguageTextCompletionProposal(proposal, offset, region.getLength(),
-						newCursorOffset, image, displayString, styledDisplayString, null));
+		Image image;
+		if (instruction instanceof Directive) {
+			image = directiveImage;
+		} else {
+			Opcode opcode = (Opcode) instruction;
+			switch (opcode.getType()) {
+			case InstructionType.LEGAL_OPCODE:
+				image = legalOpcodeImage;
+				break;
+			case InstructionType.ILLEGAL_OPCODE:
+				image = illegalOpcodeImage;
+
+				break;
+			case InstructionType.PSEUDO_OPCODE:
+				image = pseudoOpcodeImage;
+				break;
+			default:
+				throw new IllegalStateException("Unknown opcode type " + opcode.getType() + ".");
 			}
 		}
+
+		String separator = " - ";
+		String displayString = name + separator + instruction.getTitle();
+		StyledString styledDisplayString = new StyledString();
+		styledDisplayString.append(name);
+		styledDisplayString.append(separator);
+		int start = styledDisplayString.length();
+		styledDisplayString.append(instruction.getStyledTitle());
+		styledDisplayString.setStyle(0, name.length(), instructionStyler);
+		int[] offsets = instruction.getStyledTitleOffsets();
+
+		for (int j = 0; j < offsets.length; j++) {
+			styledDisplayString.setStyle(start + offsets[j], 1, highlightStyler);
+		}
+
+		// Adapt proposal.
+		String proposal = instruction.getProposal();
+		proposal = lowerCase ? proposal.toLowerCase() : proposal;
+		int proposalIndex;
+		// Must be positive.
+		proposalIndex = proposal.indexOf('_');
+		// Remove cursor positioning.
+		proposal = proposal.replace("_", "");
+		// Apply leading tabulator.
+		proposal = proposal.replace("\n", "\n\t");
+
+		result = new InstructionProposal(proposal, proposalIndex, image, displayString, styledDisplayString);
+		proposals.put(instruction, result);
+		return result;
 	}
 
 	// TODO Handle prefixes which contain "." or end with it.
@@ -435,32 +497,29 @@ final class LanguageContentAssistProcessor implements IContentAssistProcessor {
 				lowerCasePrefix = lowerCasePrefix.substring(index + 1);
 			}
 		}
-		List<CompilerSourceParserTreeObject> identifiers = compilerSourceFile.getIdentifiers();
+		List<CompilerSourceParserTreeObject> identifiers = compilerSourceFile.getIdentifiers(lowerCasePrefix);
 		String separator = " - ";
 		for (int i = 0; i < identifiers.size(); i++) {
 			CompilerSourceParserTreeObject element = identifiers.get(i);
-			String lowerCaseName = element.getName().toLowerCase();
-			if (lowerCaseName.indexOf(lowerCasePrefix) == 0) {
-				String proposal = element.getName();
-				Image image = imageProvider.getImage(element);
-				String displayName;
-				String description;
-				String displayString;
-				displayName = element.getDisplayName();
-				description = element.getDescription();
-				if (StringUtility.isSpecified(description)) {
-					displayString = displayName + separator + description;
-				} else {
-					displayString = displayName;
+			String proposal = element.getName();
+			Image image = imageProvider.getImage(element);
+			String displayName;
+			String description;
+			String displayString;
+			displayName = element.getDisplayName();
+			description = element.getDescription();
+			if (StringUtility.isSpecified(description)) {
+				displayString = displayName + separator + description;
+			} else {
+				displayString = displayName;
 
-				}
-				StyledString styledDisplayString = styledStringProvider.getStyledText(element);
+			}
+			StyledString styledDisplayString = styledStringProvider.getStyledText(element);
 
-				int newCursorOffset = regionOffset + proposal.length();
+			int newCursorOffset = regionOffset + proposal.length();
 
-				proposalList.add(new LanguageTextCompletionProposal(proposal, regionOffset, regionLength,
-						newCursorOffset, image, displayString, styledDisplayString, null));
-			}
+			proposalList.add(new LanguageTextCompletionProposal(proposal, regionOffset, regionLength,
+					newCursorOffset, image, displayString, styledDisplayString, null));
 		}
 
 	}
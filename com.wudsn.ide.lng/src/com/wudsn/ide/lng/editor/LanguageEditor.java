@@ -84,11 +84,44 @@ public abstract class LanguageEditor extends TextEditor {
 		public static final String RulerDoubleClick = "RulerDoubleClick";
 	}
 
+	/**
+	 * Listener to update the identifiers to be highlighted and the folding
+	 * structure after each parse process.
+	 * 
+	 * @since 1.7.2
+	 */
+	private final class ParseListener implements LanguageEditorParseListener {
+
+		ParseListener() {
+		}
+
+		@Override
+		public void compilerSourceFileParsed(CompilerSourceFile compilerSourceFile) {
+			Profiler profiler = new Profiler(LanguageEditor.this);
+
+			// Check if this call is caused by closing the editor.
+			if (annotationModel == null) {
+				return;
+			}
+
+			// Update the identifiers to be highlighted
+			profiler.begin("updateIdentifiers");
+			updateIdentifiers(compilerSourceFile);
+			profiler.end("updateIdentifiers");
+
+			// Update the folding structure.
+			profiler.begin("updateFoldingStructure");
+			updateFoldingStructure(compilerSourceFile.getFoldingPositions());
+			profiler.end("updateFoldingStructure");
+		}
+	}
+
 	private LanguagePlugin plugin;
 	private LanguageEditorFilesLogic filesLogic;
 
 	private Compiler compiler;
 
+	private LanguageEditorParseJob parseJob;
 	private LanguageOutlinePage contentOutlinePage;
 	private ProjectionAnnotationModel annotationModel;
 
@@ -101,6 +134,8 @@ public abstract class LanguageEditor extends TextEditor {
 	 */
 	protected LanguageEditor() {
 		filesLogic = LanguageEditorFilesLogic.createInstance(this);
+		parseJob = new LanguageEditorParseJob(this);
+		parseJob.addListener(new ParseListener());
 	}
 
 	/**
@@ -222,7 +257,7 @@ public abstract class LanguageEditor extends TextEditor {
 		}
 		target = getLanguageHardwareCompilerPreferences().getTarget();
 		result = compiler.createSourceParser();
-		result.init(compiler.getDefinition().getSyntax().getInstructionSet(target));
+		result.init(compiler, compiler.getDefinition().getSyntax().getInstructionSet(target));
 		return result;
 	}
 
@@ -243,6 +278,7 @@ public abstract class LanguageEditor extends TextEditor {
 			CompilerSourcePartitionScanner partitionScanner = new CompilerSourcePartitionScanner(
 					compiler.getDefinition().getSyntax());
 			partitionScanner.createDocumentPartitioner(document);
+			parseJob.setDocument(getCurrentFile(), document);
 
 			LanguageAnnotationValues properties = CompilerSourceParser.getDocumentProperties(document);
 
@@ -321,6 +357,8 @@ public abstract class LanguageEditor extends TextEditor {
 		LanguageSourceViewerConfiguration asvc;
 		asvc = (LanguageSourceViewerConfiguration) getSourceViewerConfiguration();
 		asvc.dispose();
+		parseJob.dispose();
+		annotationModel = null;
 		super.dispose();
 	}
 
@@ -330,9 +368,6 @@ public abstract class LanguageEditor extends TextEditor {
 		if (IContentOutlinePage.class.equals(adapter)) {
 			if (contentOutlinePage == null) {
 				contentOutlinePage = new LanguageOutlinePage(this);
-				// This causes double parsing upon starting with a new file
-				// currently.
-				updateContentOutlinePage();
 			}
 			return (T) contentOutlinePage;
 		}
@@ -340,33 +375,46 @@ public abstract class LanguageEditor extends TextEditor {
 	}
 
 	/**
-	 * Updates the content in view of the outline page. Called by
+	 * Schedules a new parse process for the current document. Called by
 	 * {@link LanguageReconcilingStategy#parse}.
+	 * 
+	 * @since 1.7.2
 	 */
-	final void updateContentOutlinePage() {
-		if (contentOutlinePage != null) {
-			IEditorInput input = getEditorInput();
+	final void scheduleParse() {
+		parseJob.schedule();
+	}
 
-			if (input != null) {
-				contentOutlinePage.setInput(input);
-			}
-		}
+	/**
+	 * Adds a listener which is notified in the UI thread after each parse process.
+	 * 
+	 * @param listener The listener, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public final void addParseListener(LanguageEditorParseListener listener) {
+		parseJob.addListener(listener);
+	}
+
+	/**
+	 * Removes a listener which was added via
+	 * {@link #addParseListener(LanguageEditorParseListener)}.
+	 * 
+	 * @param listener The listener, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public final void removeParseListener(LanguageEditorParseListener listener) {
+		parseJob.removeListener(listener);
 	}
 
 	/**
 	 * Gets the compiler source file of the last parse process.
 	 * 
-	 * @return The compiler source file of the last parse process or
-	 *         <code>null</code>.
+	 * @return The snapshot of the compiler source file of the last parse process
+	 *         or <code>null</code>.
 	 */
-	final CompilerSourceFile getCompilerSourceFile() {
-		CompilerSourceFile result;
-		if (contentOutlinePage != null) {
-			result = contentOutlinePage.getCompilerSourceFile();
-		} else {
-			result = null;
-		}
-		return result;
+	public final CompilerSourceFile getCompilerSourceFile() {
+		return parseJob.getCompilerSourceFile();
 	}
 
 	@Override
@@ -415,12 +463,8 @@ public abstract class LanguageEditor extends TextEditor {
 	 * Update the identifiers to be highlighted
 	 * 
 	 * @param compilerSourceFile The compiler source file or <code>null</code>.
-	 * 
-	 *                           Note: Only public for {@link LanguageOutlinePage}
-	 *                           TODO: Make this an event handler interface/MVP
-	 *                           registration
 	 */
-	public final void updateIdentifiers(CompilerSourceFile compilerSourceFile) {
+	final void updateIdentifiers(CompilerSourceFile compilerSourceFile) {
 		Profiler profiler = new Profiler(this.getClass());
 
 		List<CompilerSourceParserTreeObject> newIdentifiers;
@@ -442,15 +486,13 @@ public abstract class LanguageEditor extends TextEditor {
 	}
 
 	/**
-	 * Update the folding structure with a given list of foldingPositions. Used by
-	 * the editor updater of {@link LanguageReconcilingStategy}.
+	 * Update the folding structure with a given list of foldingPositions. Used
+	 * after each parse process of the {@link LanguageEditorParseJob}.
 	 * 
 	 * @param foldingPositions The list of foldingPositions, may be empty, not
-	 *                         <code>null</code>. Note: Only public for
-	 *                         {@link LanguageOutlinePage} TODO: Make this an event
-	 *                         handler interface/MVP registration
+	 *                         <code>null</code>.
 	 */
-	public final void updateFoldingStructure(List<Position> foldingPositions) {
+	final void updateFoldingStructure(List<Position> foldingPositions) {
 		if (foldingPositions == null) {
 			throw new IllegalArgumentException("Parameter 'foldingPositions' must not be null.");
 		}
@@ -488,9 +530,12 @@ public abstract class LanguageEditor extends TextEditor {
 		// with their corresponding folding positions.
 		HashMap<ProjectionAnnotation, Position> newAnnotations = new HashMap<ProjectionAnnotation, Position>();
 
+		// The positions are updated by the document, so the positions of the
+		// parse result, which are shared with the parser, are copied.
 		for (int i = 0; i < foldingPositions.size(); i++) {
 			annotation = new ProjectionAnnotation();
-			newAnnotations.put(annotation, foldingPositions.get(i));
+			position = foldingPositions.get(i);
+			newAnnotations.put(annotation, new Position(position.getOffset(), position.getLength()));
 		}
 
 		// Do not update anything if there is actual change to preserve the
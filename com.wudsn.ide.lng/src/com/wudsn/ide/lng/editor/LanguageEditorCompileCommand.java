@@ -23,6 +23,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -35,17 +37,28 @@ import java.util.Set;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceRuleFactory;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IBreakpointManager;
 import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.swt.program.Program;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IPageLayout;
 import org.eclipse.ui.IViewReference;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchPart;
 import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.console.IConsoleConstants;
 import org.eclipse.ui.console.IConsoleView;
 import org.eclipse.ui.ide.IDE;
@@ -55,6 +68,7 @@ import com.wudsn.ide.base.common.HexUtility;
 import com.wudsn.ide.base.common.MarkerUtility;
 import com.wudsn.ide.base.common.NumberUtility;
 import com.wudsn.ide.base.common.ProcessWithLogs;
+import com.wudsn.ide.base.common.RunnableWithLogging;
 import com.wudsn.ide.base.common.StringUtility;
 import com.wudsn.ide.base.common.TextUtility;
 import com.wudsn.ide.base.hardware.Hardware;
@@ -70,6 +84,7 @@ import com.wudsn.ide.lng.compiler.CompilerDefinition;
 import com.wudsn.ide.lng.compiler.CompilerFileWriter;
 import com.wudsn.ide.lng.compiler.CompilerFiles;
 import com.wudsn.ide.lng.compiler.CompilerFiles.SourceFile;
+import com.wudsn.ide.lng.compiler.CompilerInputFingerprint;
 import com.wudsn.ide.lng.compiler.CompilerProcessLogParser;
 import com.wudsn.ide.lng.compiler.CompilerProcessLogParser.Marker;
 import com.wudsn.ide.lng.compiler.CompilerSymbol;
@@ -94,11 +109,296 @@ final class LanguageEditorCompileCommand {
 	public static final String COMPILE_AND_RUN = "com.wudsn.ide.lng.editor.LanguageEditorCompileAndRunCommand";
 	public static final String COMPILE_AND_RUN_WITH = "com.wudsn.ide.lng.editor.LanguageEditorCompileAndRunWithCommand";
 
+	/**
+	 * Persistent property of the main source file which stores the input
+	 * fingerprint of the last successful compilation together with the
+	 * modification time stamp and the length of the output file.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static final QualifiedName INPUT_FINGERPRINT = new QualifiedName(LanguagePlugin.ID, "InputFingerprint");
+
+	/**
+	 * Scheduling rule to compile one file at a time.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static final ISchedulingRule COMPILE_RULE = new ISchedulingRule() {
+
+		@Override
+		public boolean contains(ISchedulingRule rule) {
+			return rule == this;
+		}
+
+		@Override
+		public boolean isConflicting(ISchedulingRule rule) {
+			return rule == this;
+		}
+	};
+
 	/**
 	 * The owning plugin.
 	 */
 	private LanguagePlugin plugin;
 
+	/**
+	 * Background job which runs the compiler and reports its results. If the log
+	 * parser supports streaming, the markers are created while the compiler is
+	 * still running. Canceling the job destroys the compiler process. The steps
+	 * which require the UI thread are performed when the job is done.
+	 * 
+	 * @since 1.7.2
+	 */
+	private final class CompileJob extends Job {
+
+		private final LanguageEditor languageEditor;
+		private final CompilerFiles files;
+		private final String commandId;
+		private final String runnerId;
+		private final Hardware hardware;
+		private final CompilerRunPreferences compilerRunPreferences;
+		private final long outputFileLastModified;
+		private final File compilerExecutableFile;
+		private final String[] fullCommandLineArray;
+		private volatile ProcessWithLogs compilerProcess;
+
+		CompileJob(LanguageEditor languageEditor, CompilerFiles files, String commandId, String runnerId,
+				Hardware hardware, CompilerRunPreferences compilerRunPreferences, long outputFileLastModified,
+				File compilerExecutableFile, String[] fullCommandLineArray) {
+			super(TextUtility.format(Texts.COMPILER_JOB_NAME, files.mainSourceFile.fileName));
+			this.languageEditor = languageEditor;
+			this.files = files;
+			this.commandId = commandId;
+			this.runnerId = runnerId;
+			this.hardware = hardware;
+			this.compilerRunPreferences = compilerRunPreferences;
+			this.outputFileLastModified = outputFileLastModified;
+			this.compilerExecutableFile = compilerExecutableFile;
+			this.fullCommandLineArray = fullCommandLineArray;
+			setRule(COMPILE_RULE);
+		}
+
+		@Override
+		protected void canceling() {
+			ProcessWithLogs compilerProcess = this.compilerProcess;
+			if (compilerProcess != null) {
+				compilerProcess.destroy();
+			}
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
+			try {
+				compile(monitor);
+			} finally {
+				compilerProcess = null;
+				monitor.done();
+			}
+			return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+		}
+
+		private void compile(IProgressMonitor monitor) {
+			CompilerDefinition compilerDefinition = languageEditor.getCompilerDefinition();
+			CompilerConsole compilerConsole = plugin.getCompilerConsole();
+			final boolean run = commandId.equals(COMPILE_AND_RUN) || commandId.equals(COMPILE_AND_RUN_WITH);
+
+			// Skip compiling if the output file is still up to date and the
+			// inputs are unchanged since the last successful compilation.
+			// The fingerprint is created before the compiler is started, so
+			// changes saved while the compiler is running are not covered.
+			boolean skipUnchanged = languageEditor.getLanguagePreferences().isEditorCompileCommandSkipUnchanged();
+			String inputFingerprint = null;
+			if (skipUnchanged) {
+				inputFingerprint = createInputFingerprint(languageEditor, files, hardware,
+						fullCommandLineArray, compilerExecutableFile);
+				if (inputFingerprint != null && inputFingerprint.equals(getInputFingerprint(files))) {
+					compilerConsole.println("");
+					compilerConsole.println("Compiling for hardware " + hardware.name() + " on "
+							+ new SimpleDateFormat().format(new Date()) + " skipped, output file '"
+							+ files.outputFilePath + "' is up to date.");
+
+					// INFO: Output file '{0}' is up to date. Compiling skipped
+					// because sources, includes and parameters are unchanged.
+					createMainSourceFileMessage(files, IMarker.SEVERITY_INFO, Texts.MESSAGE_I146,
+							files.outputFilePath);
+
+					showResults(languageEditor, files, run, runnerId, compilerRunPreferences, null, null);
+					return;
+				}
+			}
+			setInputFingerprint(files, null);
+
+			ProcessWithLogs compilerProcess = new ProcessWithLogs(fullCommandLineArray, files.mainSourceFile.folder);
+			int timeout = languageEditor.getLanguagePreferences().getEditorCompileCommandTimeout();
+			compilerProcess.setTimeout(timeout * 1000L);
+			compilerConsole.println("");
+			compilerConsole.println("Compiling for hardware " + hardware.name() + " on "
+					+ new SimpleDateFormat().format(new Date()) + ": " + compilerProcess.getCommandArrayString());
+			compilerConsole.println("");
+			compilerConsole.println("Compiler '" + compilerDefinition.getName() + "' output:");
+
+			// The output is written to the console while the compiler is
+			// running. Streaming log parsers create the markers as soon as the
+			// respective line has been written.
+			Compiler compiler = languageEditor.getCompiler();
+			CompilerProcessLogParser logParser = compiler.createLogParser();
+			boolean streaming = logParser.isStreamingSupported();
+			Set<Marker> markerProxies = new HashSet<Marker>();
+			List<IMarker> markers = new ArrayList<IMarker>();
+			try {
+				this.compilerProcess = compilerProcess;
+				PrintStream printStream = compilerConsole.getPrintStream();
+				compilerProcess.start(printStream, printStream);
+				if (streaming) {
+					logParser.setLogReaders(files, compilerProcess.getOutputLogReader(),
+							compilerProcess.getErrorLogReader());
+					createMarkers(logParser, markerProxies, markers);
+				}
+				compilerProcess.waitFor(monitor);
+			} catch (IOException ex) {
+				// ERROR: Cannot execute {0} process '{1}' in working directory
+				// '{2}'. System error: {3}
+				createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, Texts.MESSAGE_E105,
+						compilerDefinition.getText(), compilerProcess.getCommandArrayString(),
+						compilerProcess.getWorkingDirectory().getPath(), ex.getMessage());
+
+				// Without a process there are no logs to parse and no output
+				// file to check.
+				compilerProcess.dispose();
+				return;
+			}
+			if (monitor.isCanceled()) {
+				compilerConsole.println("");
+				compilerConsole.println("Compiling canceled.");
+				compilerProcess.dispose();
+				return;
+			}
+			if (compilerProcess.isTimedOut()) {
+				compilerConsole.println("");
+				compilerConsole.println("Compiling timed out.");
+				compilerProcess.dispose();
+
+				// ERROR: {0} process did not terminate within {1} seconds and
+				// was terminated. Increase the maximum duration in the '{2}'
+				// preferences if required.
+				createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, Texts.MESSAGE_E147,
+						compilerDefinition.getText(), NumberUtility.getLongValueDecimalString(timeout),
+						LanguageUtility.getCompilerPreferencesText(compilerDefinition.getLanguage()));
+				return;
+			}
+
+			// Refresh the output and the symbols file resource.
+			if (files.outputFolderPath.equals(files.mainSourceFile.folderPath)
+					|| files.outputFolderPath.equals(files.sourceFile.folderPath)) {
+				refreshSourceFolders();
+			}
+
+			// Compiling is over, check the result.
+			boolean compilerSuccess = compiler.isSuccessExitValue(compilerProcess.getExitValue());
+			boolean outputFileUpdated = false;
+			if (compilerSuccess) {
+				if (files.outputFile.exists()) {
+					if (files.outputFile.length() > 0) {
+						if (files.outputFile.lastModified() != outputFileLastModified) {
+							outputFileUpdated = true;
+
+							// INFO: Output file '{0}' created or updated with
+							// {1} (${2}) bytes.
+							long fileLength = files.outputFile.length();
+							createMainSourceFileMessage(files, IMarker.SEVERITY_INFO, Texts.MESSAGE_I109,
+									files.outputFilePath, Long.toString(fileLength),
+									HexUtility.getLongValueHexString(fileLength));
+
+							// Handle disk images
+							CompilerFileWriter compilerFileWriter = HardwareUtility
+									.getCompilerFileWriter(compilerRunPreferences.getHardware());
+							if (!compilerFileWriter.createOrUpdateDiskImage(files)) {
+								return;
+							}
+
+						} else {
+							// ERROR: Output file not updated. Check the error
+							// messages and the console log.
+							createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, Texts.MESSAGE_E108);
+
+						}
+					} else {
+						// ERROR: Output file created but empty. Check the error
+						// messages and the console log.
+						createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, Texts.MESSAGE_E126);
+					}
+				} else {
+					// ERROR: No output file created. Check the error messages
+					// and the console log.
+					createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, Texts.MESSAGE_E107);
+				}
+			}
+
+			// Parse the complete logs if the log parser does not support
+			// streaming.
+			if (!streaming) {
+				logParser.setLogs(files, compilerProcess.getOutputLog(), compilerProcess.getErrorLog());
+				createMarkers(logParser, markerProxies, markers);
+			}
+			IMarker firstMarker = getFirstErrorOrWarningMarker(languageEditor, markers);
+			boolean errorFound = firstMarker != null
+					&& firstMarker.getAttribute(IMarker.SEVERITY, 0) == IMarker.SEVERITY_ERROR;
+			List<CompilerSymbol> compilerSymbols = parseCompilerSymbols(files, logParser);
+			compilerProcess.dispose();
+
+			// Output an additional message if the reason for the compiler's exit
+			// value is not already contained in the error messages.
+			if (!compilerSuccess && !errorFound) {
+				// ERROR: {0} process ended with return code {1}. Check the error
+				// messages and the console log.
+				createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, Texts.MESSAGE_E127,
+						compilerDefinition.getText(),
+						NumberUtility.getLongValueDecimalString(compilerProcess.getExitValue()));
+			}
+
+			// Remember the inputs of a successful compilation.
+			if (skipUnchanged && outputFileUpdated && !errorFound) {
+				setInputFingerprint(files, inputFingerprint);
+			}
+
+			showResults(languageEditor, files, run && outputFileUpdated, runnerId, compilerRunPreferences,
+					firstMarker, compilerSymbols);
+		}
+
+		/**
+		 * Refreshes the folders of the main source file and the source file in a
+		 * separate job. The refresh rules are only held while refreshing, so other
+		 * workspace operations are not blocked while the compiler is running.
+		 */
+		private void refreshSourceFolders() {
+			final IResource mainSourceFolder = files.mainSourceFile.iFile.getParent();
+			final IResource sourceFolder = files.sourceFile.iFile.getParent();
+			IResourceRuleFactory ruleFactory = ResourcesPlugin.getWorkspace().getRuleFactory();
+			WorkspaceJob refreshJob = new WorkspaceJob(getName()) {
+
+				@Override
+				public IStatus runInWorkspace(IProgressMonitor monitor) {
+					try {
+						if (mainSourceFolder != null) {
+							mainSourceFolder.refreshLocal(IResource.DEPTH_ONE, monitor);
+						}
+						if (sourceFolder != null) {
+							sourceFolder.refreshLocal(IResource.DEPTH_ONE, monitor);
+						}
+					} catch (CoreException ex) {
+						createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, ex.getMessage());
+					}
+					return Status.OK_STATUS;
+				}
+			};
+			refreshJob.setRule(MultiRule.combine(ruleFactory.refreshRule(mainSourceFolder),
+					ruleFactory.refreshRule(sourceFolder)));
+			refreshJob.setSystem(true);
+			refreshJob.schedule();
+		}
+	}
+
 	/**
 	 * Creation is private.
 	 */
@@ -295,9 +595,6 @@ final class LanguageEditorCompileCommand {
 			return false;
 		}
 
-		// From here on, the method is linear, i.e. there is no "return" until
-		// the end.
-
 		// Special handling for direct execution of ".jar" files.
 		String[] fullCommandLineArray;
 		int offset;
@@ -320,102 +617,89 @@ final class LanguageEditorCompileCommand {
 			fullCommandLineArray[i + offset] = parameter;
 		}
 
-		ProcessWithLogs compilerProcess = new ProcessWithLogs(fullCommandLineArray, files.mainSourceFile.folder);
-		CompilerConsole compilerConsole = plugin.getCompilerConsole();
-		compilerConsole.println("");
-		compilerConsole.println("Compiling for hardware " + hardware.name() + " on "
-				+ new SimpleDateFormat().format(new Date()) + ": " + compilerProcess.getCommandArrayString());
+		// Compile in the background. From here on, the results are reported by
+		// the compile job.
+		CompileJob compileJob = new CompileJob(languageEditor, files, commandId, runnerId, hardware,
+				compilerRunPreferences, outputFileLastModified, compilerExecutableFile, fullCommandLineArray);
+		compileJob.schedule();
+		return true;
+	}
 
+	/**
+	 * Creates the fingerprint of the inputs of a compilation.
+	 * 
+	 * @param languageEditor         The language editor, not <code>null</code>.
+	 * @param files                  The compiler files, not <code>null</code>.
+	 * @param hardware               The hardware, not <code>null</code>.
+	 * @param fullCommandLineArray   The resolved command line, not
+	 *                               <code>null</code>.
+	 * @param compilerExecutableFile The compiler executable file, not
+	 *                               <code>null</code>.
+	 * @return The fingerprint or <code>null</code> if the input files cannot be
+	 *         read. The output file and the symbols file are not part of the
+	 *         fingerprint.
+	 * 
+	 * @since 1.7.2
+	 */
+	private String createInputFingerprint(LanguageEditor languageEditor, CompilerFiles files, Hardware hardware,
+			String[] fullCommandLineArray, File compilerExecutableFile) {
 		try {
-			compilerProcess.exec(System.out, System.err, true);
-		} catch (IOException ex) {
-			// ERROR: Cannot execute {0} process '{1}' in working directory '{2}'. System
-			// error: {3}
-			createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, Texts.MESSAGE_E105, compilerDefinition.getText(),
-					compilerProcess.getCommandArrayString(), compilerProcess.getWorkingDirectory().getPath(),
-					ex.getMessage());
-		}
-
-		// Refresh the output and the symbols file resource.
-		if (files.outputFolderPath.equals(files.mainSourceFile.folderPath)
-				|| files.outputFolderPath.equals(files.sourceFile.folderPath)) {
-			try {
-				IResource outputResource = files.mainSourceFile.iFile.getParent();
-				if (outputResource != null) {
-					outputResource.refreshLocal(IResource.DEPTH_ONE, null);
-				}
-				outputResource = files.sourceFile.iFile.getParent();
-				if (outputResource != null) {
-					outputResource.refreshLocal(IResource.DEPTH_ONE, null);
-				}
-
-			} catch (CoreException ex) {
-				createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, ex.getMessage());
-				return false;
-			}
+			return CompilerInputFingerprint.create(languageEditor.createCompilerSourceParser(), hardware,
+					fullCommandLineArray, compilerExecutableFile, files.mainSourceFile.file,
+					Charset.forName(files.mainSourceFile.iFile.getCharset()),
+					new File[] { files.outputFile, files.symbolsFile });
+		} catch (CoreException ex) {
+			plugin.logError("Cannot create input fingerprint for '{0}'", new Object[] { files.mainSourceFile.filePath },
+					ex);
+			return null;
 		}
+	}
 
-		compilerConsole.println("");
-		compilerConsole.println("Compiler '" + compilerDefinition.getName() + "' output:");
-		compilerConsole.println(compilerProcess.getErrorLog());
-		compilerConsole.println(compilerProcess.getOutputLog());
-
-		// Compiling is over, check the result.
-		Compiler compiler = languageEditor.getCompiler();
-		boolean compilerSuccess = compiler.isSuccessExitValue(compilerProcess.getExitValue());
-		if (compilerSuccess) {
-			if (files.outputFile.exists()) {
-				if (files.outputFile.length() > 0) {
-					if (files.outputFile.lastModified() != outputFileLastModified) {
-						// INFO: Output file '{0}' created or updated with {1}
-						// (${2}) bytes.
-						long fileLength = files.outputFile.length();
-						createMainSourceFileMessage(files, IMarker.SEVERITY_INFO, Texts.MESSAGE_I109,
-								files.outputFilePath, Long.toString(fileLength),
-								HexUtility.getLongValueHexString(fileLength));
-
-						// Handle disk images
-						CompilerFileWriter compilerFileWriter = HardwareUtility
-								.getCompilerFileWriter(compilerRunPreferences.getHardware());
-						if (!compilerFileWriter.createOrUpdateDiskImage(files)) {
-							return false;
-						}
-
-						if (commandId.equals(COMPILE_AND_RUN) || commandId.equals(COMPILE_AND_RUN_WITH)) {
-
-							openOutputFile(languageEditor, files, compilerRunPreferences, compilerConsole, runnerId);
-
-						}
-					} else {
-						// ERROR: Output file not updated. Check the error
-						// messages and the console log.
-						createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, Texts.MESSAGE_E108);
-
-					}
-				} else {
-					// ERROR: Output file created but empty. Check the error
-					// messages and the console log.
-					createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, Texts.MESSAGE_E126);
-				}
-			} else {
-				// ERROR: No output file created. Check the error messages and
-				// the
-				// console log.
-				createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, Texts.MESSAGE_E107);
-			}
+	/**
+	 * Gets the input fingerprint of the last successful compilation.
+	 * 
+	 * @param files The compiler files, not <code>null</code>.
+	 * @return The fingerprint or <code>null</code> if there is none or the output
+	 *         file was modified since.
+	 * 
+	 * @since 1.7.2
+	 */
+	private String getInputFingerprint(CompilerFiles files) {
+		String property;
+		try {
+			property = files.mainSourceFile.iFile.getPersistentProperty(INPUT_FINGERPRINT);
+		} catch (CoreException ignore) {
+			return null;
 		}
-
-		// Output an additional message if the reason for the compiler's exit
-		// value is not already contained in the error messages.
-		boolean errorFound = parseLogs(languageEditor, files, compilerProcess);
-		if (!compilerSuccess && !errorFound) {
-			// ERROR: {0} process ended with return code {1}. Check the error messages and
-			// the console log.
-			createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, Texts.MESSAGE_E127, compilerDefinition.getText(),
-					NumberUtility.getLongValueDecimalString(compilerProcess.getExitValue()));
+		if (property == null || !files.outputFile.exists()) {
+			return null;
+		}
+		String outputFileState = ";" + files.outputFile.lastModified() + ";" + files.outputFile.length();
+		if (!property.endsWith(outputFileState)) {
+			return null;
 		}
+		return property.substring(0, property.length() - outputFileState.length());
+	}
 
-		return true;
+	/**
+	 * Sets or removes the input fingerprint of the last successful compilation.
+	 * 
+	 * @param files            The compiler files, not <code>null</code>.
+	 * @param inputFingerprint The fingerprint or <code>null</code> to remove it.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void setInputFingerprint(CompilerFiles files, String inputFingerprint) {
+		String property = null;
+		if (inputFingerprint != null) {
+			property = inputFingerprint + ";" + files.outputFile.lastModified() + ";" + files.outputFile.length();
+		}
+		try {
+			files.mainSourceFile.iFile.setPersistentProperty(INPUT_FINGERPRINT, property);
+		} catch (CoreException ex) {
+			plugin.logError("Cannot store input fingerprint for '{0}'", new Object[] { files.mainSourceFile.filePath },
+					ex);
+		}
 	}
 
 	private void checkAnnotations(SourceFile sourceFile) {
@@ -670,31 +954,35 @@ final class LanguageEditorCompileCommand {
 		return parameter;
 	}
 
-	private boolean parseLogs(LanguageEditor languageEditor, CompilerFiles files, ProcessWithLogs compileProcess) {
-
-		if (languageEditor == null) {
-			throw new IllegalArgumentException("Parameter 'languageEditor' must not be null.");
+	/**
+	 * Creates the markers for all messages of a log parser.
+	 * 
+	 * @param logParser     The log parser with the logs set, not
+	 *                      <code>null</code>.
+	 * @param markerProxies The modifiable set of the marker proxies for which a
+	 *                      marker was already created, not <code>null</code>.
+	 * @param markers       The modifiable list of the created markers, not
+	 *                      <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void createMarkers(CompilerProcessLogParser logParser, Set<Marker> markerProxies,
+			List<IMarker> markers) {
+		if (logParser == null) {
+			throw new IllegalArgumentException("Parameter 'logParser' must not be null.");
 		}
-		if (files == null) {
-			throw new IllegalArgumentException("Parameter 'files' must not be null.");
+		if (markerProxies == null) {
+			throw new IllegalArgumentException("Parameter 'markerProxies' must not be null.");
 		}
-		if (compileProcess == null) {
-			throw new IllegalArgumentException("Parameter 'compileProcess' must not be null.");
+		if (markers == null) {
+			throw new IllegalArgumentException("Parameter 'markers' must not be null.");
 		}
-		Compiler compiler = languageEditor.getCompiler();
-		CompilerProcessLogParser logParser = compiler.createLogParser();
-
-		// Line parser with main source file and logs.
-		logParser.setLogs(files, compileProcess.getOutputLog(), compileProcess.getErrorLog());
-
-		Set<Marker> set = new HashSet<Marker>();
-		List<IMarker> markers = new ArrayList<IMarker>();
 		while (logParser.nextMarker()) {
 			Marker markerProxy = logParser.getMarker();
 			while (markerProxy != null) { // Loop to add main marker and its
 				// detail markers
-				if (!set.contains(markerProxy)) {
-					set.add(markerProxy);
+				if (!markerProxies.contains(markerProxy)) {
+					markerProxies.add(markerProxy);
 					try {
 						IFile iFile = markerProxy.getIFile();
 						IMarker marker = iFile.createMarker(IMarker.PROBLEM);
@@ -713,24 +1001,64 @@ final class LanguageEditorCompileCommand {
 				markerProxy = markerProxy.getDetailMarker();
 			}
 		}
-		boolean errorOccurred = positionToFirstErrorOrWarning(languageEditor, markers);
+	}
 
-		parseCompilerSymbols(languageEditor, files, logParser);
+	/**
+	 * Shows the results of the compile job in the UI thread. Opens the output
+	 * file if requested, positions to the first error or warning and displays the
+	 * compiler symbols.
+	 * 
+	 * @param languageEditor         The language editor, not <code>null</code>.
+	 * @param files                  The compiler files, not <code>null</code>.
+	 * @param run                    <code>true</code> to open the output file.
+	 * @param runnerId               The runner id, may be empty or
+	 *                               <code>null</code>.
+	 * @param compilerRunPreferences The compiler run preferences, not
+	 *                               <code>null</code>.
+	 * @param firstMarker            The marker to position to or
+	 *                               <code>null</code>.
+	 * @param compilerSymbols        The compiler symbols to display or
+	 *                               <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private void showResults(final LanguageEditor languageEditor, final CompilerFiles files, final boolean run,
+			final String runnerId, final CompilerRunPreferences compilerRunPreferences, final IMarker firstMarker,
+			final List<CompilerSymbol> compilerSymbols) {
+		Display display = PlatformUI.getWorkbench().getDisplay();
+		if (display.isDisposed()) {
+			return;
+		}
+		display.asyncExec(new RunnableWithLogging() {
 
-		return errorOccurred;
+			@Override
+			protected void runWithLogging() {
+				if (run) {
+					openOutputFile(languageEditor, files, compilerRunPreferences, plugin.getCompilerConsole(),
+							runnerId);
+				}
+				if (firstMarker != null) {
+					MarkerUtility.gotoMarker(languageEditor, firstMarker);
+				}
+				if (compilerSymbols != null) {
+					showCompilerSymbols(languageEditor, files, compilerSymbols);
+				}
+			}
+		});
 	}
 
 	/**
-	 * Positions to the first error or warning in any file for which markers have
-	 * been created.
+	 * Gets the first error or warning in any file for which markers have been
+	 * created.
 	 * 
-	 * @param languageEditor The language editor, not <code>null</code>. Used as
-	 *                       basis for opening another editor when required.
+	 * @param languageEditor The language editor, not <code>null</code>. Used to
+	 *                       determine the positioning mode.
 	 * @param markers        The modifiable list of marker, may be empty, not
 	 *                       <code>null</code>.
-	 * @return <code>true</code> if an error was found.
+	 * @return The first error marker, the first warning marker if there is no
+	 *         error marker or <code>null</code>.
 	 */
-	private boolean positionToFirstErrorOrWarning(LanguageEditor languageEditor, List<IMarker> markers) {
+	private IMarker getFirstErrorOrWarningMarker(LanguageEditor languageEditor, List<IMarker> markers) {
 
 		if (languageEditor == null) {
 			throw new IllegalArgumentException("Parameter 'languageEditor' must not be null.");
@@ -782,17 +1110,11 @@ final class LanguageEditorCompileCommand {
 			firstMarker = firstWarningMarker;
 		}
 
-		if (firstMarker != null) {
-			MarkerUtility.gotoMarker(languageEditor, firstMarker);
-		}
-		return firstErrorMarker != null;
+		return firstMarker;
 	}
 
-	private void parseCompilerSymbols(LanguageEditor languageEditor, CompilerFiles files,
-			CompilerProcessLogParser logParser) {
+	private List<CompilerSymbol> parseCompilerSymbols(CompilerFiles files, CompilerProcessLogParser logParser) {
 
-		if (languageEditor == null)
-			throw new IllegalArgumentException("Parameter 'languageEditor' must not be null.");
 		if (files == null)
 			throw new IllegalArgumentException("Parameter 'files' must not be null.");
 		if (logParser == null)
@@ -819,6 +1141,18 @@ final class LanguageEditorCompileCommand {
 			createMainSourceFileMessage(files, IMarker.SEVERITY_ERROR, message);
 
 		}
+		return compilerSymbols;
+	}
+
+	private void showCompilerSymbols(LanguageEditor languageEditor, CompilerFiles files,
+			List<CompilerSymbol> compilerSymbols) {
+
+		if (languageEditor == null)
+			throw new IllegalArgumentException("Parameter 'languageEditor' must not be null.");
+		if (files == null)
+			throw new IllegalArgumentException("Parameter 'files' must not be null.");
+		if (compilerSymbols == null)
+			throw new IllegalArgumentException("Parameter 'compilerSymbols' must not be null.");
 
 		// Display symbols.
 		IViewReference[] references = languageEditor.getSite().getPage().getViewReferences();
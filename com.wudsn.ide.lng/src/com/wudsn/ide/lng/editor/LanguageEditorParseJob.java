@@ -0,0 +1,358 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.lng.editor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.PlatformUI;
+
+import com.wudsn.ide.base.common.Profiler;
+import com.wudsn.ide.base.common.RunnableWithLogging;
+import com.wudsn.ide.lng.LanguagePlugin;
+import com.wudsn.ide.lng.Texts;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceFile;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceFileCacheListener;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceParser;
+import com.wudsn.ide.lng.compiler.parser.CompilerSourcePartitionScanner;
+
+/**
+ * Background job which parses the document of a {@link LanguageEditor}. The job
+ * keeps a private copy of the document which is updated with the changes of
+ * the editor document, so the parse process does not interfere with the UI
+ * thread. Only the changed lines are parsed again. If a source include file of
+ * the last parse result is changed, the complete document is parsed again,
+ * because the incremental parse process takes over the content of the source
+ * include files from the previous parse process. After each parse process, a
+ * snapshot of the result is published to the registered
+ * {@link LanguageEditorParseListener} instances in the UI thread. The snapshot
+ * shares the parse tree with the private copy and refers to the editor
+ * document, so publishing it does not copy the document content or the parse
+ * tree.
+ * 
+ * Scheduling the job while it is waiting has no effect, so bursts of changes
+ * are coalesced into a single parse process.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class LanguageEditorParseJob extends Job {
+
+	/**
+	 * A change of the editor document.
+	 */
+	private static final class Change {
+		public final int offset;
+		public final int length;
+		public final String text;
+
+		public Change(int offset, int length, String text) {
+			this.offset = offset;
+			this.length = length;
+			this.text = text;
+		}
+	}
+
+	/**
+	 * Document listener to record the changes of the editor document.
+	 */
+	private final class DocumentListener implements IDocumentListener {
+
+		DocumentListener() {
+		}
+
+		@Override
+		public void documentAboutToBeChanged(DocumentEvent event) {
+		}
+
+		@Override
+		public void documentChanged(DocumentEvent event) {
+			String text = event.getText();
+			addChange(new Change(event.getOffset(), event.getLength(), text == null ? "" : text));
+		}
+	}
+
+	/**
+	 * Cache listener to detect changes of source include files.
+	 */
+	private final class CacheListener implements CompilerSourceFileCacheListener {
+
+		CacheListener() {
+		}
+
+		@Override
+		public void filesChanged(Set<String> filePaths) {
+			CompilerSourceFile compilerSourceFile = LanguageEditorParseJob.this.compilerSourceFile;
+			if (compilerSourceFile == null || compilerSourceFile.isIncludingFile(filePaths)) {
+				setFullParseRequired();
+			}
+		}
+	}
+
+	private final LanguageEditor editor;
+	private final IDocumentListener documentListener;
+	private final CompilerSourceFileCacheListener cacheListener;
+	private final ListenerList<LanguageEditorParseListener> listeners;
+
+	/**
+	 * The editor document and the changes not yet applied to the private copy,
+	 * guarded by "this".
+	 */
+	private IDocument document;
+	private File documentFile;
+	private String documentContent;
+	private List<Change> changes;
+	private boolean fullParseRequired;
+
+	/**
+	 * The private copy of the document and the compiler source file for
+	 * incremental parsing, only accessed by the job.
+	 */
+	private IDocument workingDocument;
+	private CompilerSourceFile workingCompilerSourceFile;
+
+	/**
+	 * The snapshot of the last parse process.
+	 */
+	private volatile CompilerSourceFile compilerSourceFile;
+
+	/**
+	 * Creates a new instance. Called by {@link LanguageEditor}.
+	 * 
+	 * @param editor The language editor, not <code>null</code>.
+	 */
+	LanguageEditorParseJob(LanguageEditor editor) {
+		super(Texts.COMPILER_SOURCE_PARSER_JOB_NAME);
+		if (editor == null) {
+			throw new IllegalArgumentException("Parameter 'editor' must not be null.");
+		}
+		this.editor = editor;
+		documentListener = new DocumentListener();
+		cacheListener = new CacheListener();
+		listeners = new ListenerList<LanguageEditorParseListener>(ListenerList.IDENTITY);
+		changes = new ArrayList<Change>();
+		LanguagePlugin.getInstance().getCompilerSourceFileCache().addListener(cacheListener);
+		setSystem(true);
+		setPriority(DECORATE);
+	}
+
+	/**
+	 * Adds a listener.
+	 * 
+	 * @param listener The listener, not <code>null</code>.
+	 */
+	public void addListener(LanguageEditorParseListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Parameter 'listener' must not be null.");
+		}
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener.
+	 * 
+	 * @param listener The listener, not <code>null</code>.
+	 */
+	public void removeListener(LanguageEditorParseListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("Parameter 'listener' must not be null.");
+		}
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Gets the snapshot of the compiler source file of the last parse process.
+	 * 
+	 * @return The compiler source file or <code>null</code> if no parse process
+	 *         has completed yet.
+	 */
+	public CompilerSourceFile getCompilerSourceFile() {
+		return compilerSourceFile;
+	}
+
+	/**
+	 * Sets the editor document to be parsed. Called in the UI thread when the
+	 * editor input changes.
+	 * 
+	 * @param documentFile The file of the document or <code>null</code> if the
+	 *                     document is not persistent.
+	 * @param document     The editor document or <code>null</code>.
+	 */
+	public synchronized void setDocument(File documentFile, IDocument document) {
+		if (this.document != null) {
+			this.document.removeDocumentListener(documentListener);
+		}
+		this.document = document;
+		this.documentFile = documentFile;
+		changes = new ArrayList<Change>();
+		if (document != null) {
+			documentContent = document.get();
+			document.addDocumentListener(documentListener);
+			schedule();
+		} else {
+			documentContent = null;
+		}
+	}
+
+	/**
+	 * Stops listening to the editor document and cancels the job. Called in the
+	 * UI thread when the editor is disposed.
+	 */
+	public void dispose() {
+		LanguagePlugin.getInstance().getCompilerSourceFileCache().removeListener(cacheListener);
+		setDocument(null, null);
+		listeners.clear();
+		cancel();
+	}
+
+	/**
+	 * Records a change of the editor document.
+	 * 
+	 * @param change The change, not <code>null</code>.
+	 */
+	private synchronized void addChange(Change change) {
+		changes.add(change);
+	}
+
+	/**
+	 * Requests a parse process of the complete document, because a source include
+	 * file was changed.
+	 */
+	private synchronized void setFullParseRequired() {
+		if (document != null) {
+			fullParseRequired = true;
+			schedule();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		IDocument document;
+		File documentFile;
+		String documentContent;
+		List<Change> changes;
+		boolean fullParseRequired;
+		synchronized (this) {
+			if (this.document == null) {
+				return Status.OK_STATUS;
+			}
+			document = this.document;
+			documentFile = this.documentFile;
+			documentContent = this.documentContent;
+			this.documentContent = null;
+			changes = this.changes;
+			this.changes = new ArrayList<Change>();
+			fullParseRequired = this.fullParseRequired;
+			this.fullParseRequired = false;
+		}
+
+		CompilerSourceParser parser = editor.createCompilerSourceParser();
+
+		// Start with a new copy of the document after the document was set.
+		if (documentContent != null) {
+			workingDocument = new Document(documentContent);
+			CompilerSourcePartitionScanner partitionScanner = new CompilerSourcePartitionScanner(
+					parser.getCompilerSyntax());
+			partitionScanner.createDocumentPartitioner(workingDocument);
+			workingCompilerSourceFile = parser.createCompilerSourceFile(documentFile, workingDocument);
+		}
+		if (workingCompilerSourceFile == null) {
+			return Status.OK_STATUS;
+		}
+
+		try {
+			for (Change change : changes) {
+				workingDocument.replace(change.offset, change.length, change.text);
+				workingCompilerSourceFile.documentChanged(change.offset, change.length, change.text.length());
+			}
+		} catch (BadLocationException ex) {
+			// Cannot happen as long as the changes are applied in order.
+			editor.getPlugin().logError("Cannot apply changes to the copy of the document", null, ex);
+			workingCompilerSourceFile = null;
+			PlatformUI.getWorkbench().getDisplay().asyncExec(new RunnableWithLogging() {
+
+				@Override
+				protected void runWithLogging() {
+					synchronized (LanguageEditorParseJob.this) {
+						if (LanguageEditorParseJob.this.document == document) {
+							setDocument(documentFile, document);
+						}
+					}
+				}
+			});
+			return Status.OK_STATUS;
+		}
+		if (fullParseRequired) {
+			workingCompilerSourceFile.invalidateParseResult();
+		}
+		if (monitor.isCanceled()) {
+			return Status.CANCEL_STATUS;
+		}
+
+		Profiler profiler = new Profiler(parser);
+		profiler.begin("parse", editor.getTitle());
+		try {
+			parser.parseIncremental(workingCompilerSourceFile, monitor);
+		} catch (OperationCanceledException ex) {
+			return Status.CANCEL_STATUS;
+		} finally {
+			profiler.end("parse");
+		}
+
+		final CompilerSourceFile snapshot = workingCompilerSourceFile.createSnapshot(document);
+		compilerSourceFile = snapshot;
+
+		Display display = PlatformUI.getWorkbench().getDisplay();
+		if (!display.isDisposed()) {
+			display.asyncExec(new RunnableWithLogging() {
+
+				@Override
+				protected void runWithLogging() {
+					// Skip results which are already outdated.
+					if (compilerSourceFile != snapshot) {
+						return;
+					}
+					for (Object listener : listeners.getListeners()) {
+						((LanguageEditorParseListener) listener).compilerSourceFileParsed(snapshot);
+					}
+				}
+			});
+		}
+		return Status.OK_STATUS;
+	}
+}
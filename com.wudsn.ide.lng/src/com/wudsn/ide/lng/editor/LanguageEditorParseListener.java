@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.lng.editor;
+
+import com.wudsn.ide.lng.compiler.parser.CompilerSourceFile;
+
+/**
+ * Listener interface for the results of the background parse process of a
+ * {@link LanguageEditor}.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+public interface LanguageEditorParseListener {
+
+	/**
+	 * Notify of a new parse result. Called in the UI thread.
+	 * 
+	 * @param compilerSourceFile The snapshot of the compiler source file, not
+	 *                           <code>null</code>. The snapshot is not modified
+	 *                           anymore.
+	 */
+	public void compilerSourceFileParsed(CompilerSourceFile compilerSourceFile);
+}
@@ -288,7 +288,8 @@ public final class LanguageHyperlinkDetector extends AbstractHyperlinkDetector {
 
 			String absoluteFilePath;
 			String fileName;
-			File documentFile = element.getCompilerSourceFile().getDocumentFile();
+			CompilerSourceFile elementCompilerSourceFile = compilerSourceFile.getCompilerSourceFile(element);
+			File documentFile = elementCompilerSourceFile.getDocumentFile();
 			if (documentFile != null) {
 				absoluteFilePath = documentFile.getPath();
 				fileName = documentFile.getName();
@@ -298,8 +299,8 @@ public final class LanguageHyperlinkDetector extends AbstractHyperlinkDetector {
 			}
 			int elementLineNumber;
 			try {
-				elementLineNumber = element.getCompilerSourceFile().getDocument()
-						.getLineOfOffset(element.getStartOffset()) + 1;
+				elementLineNumber = elementCompilerSourceFile.getDocument().getLineOfOffset(element.getStartOffset())
+						+ 1;
 			} catch (BadLocationException ex) {
 				continue;
 			}
@@ -27,8 +27,9 @@ import org.eclipse.jface.text.reconciler.IReconcilingStrategy;
 import org.eclipse.jface.text.reconciler.IReconcilingStrategyExtension;
 
 /**
- * The reconciling strategy for the LanguageEditor. Builds the folding
- * structure for folding and notifies the editor.
+ * The reconciling strategy for the LanguageEditor. Schedules the background
+ * parse process of the editor, which builds the outline and the folding
+ * structure.
  * 
  * @author Peter Dell
  * @author Andy Reek
@@ -78,6 +79,10 @@ final class LanguageReconcilingStategy implements IReconcilingStrategy, IReconci
 
 	/**
 	 * {@inheritDoc}
+	 * 
+	 * The dirty region is not evaluated here. The changes of the document are
+	 * recorded by the {@link LanguageEditorParseJob} and only the changed lines are
+	 * parsed again.
 	 */
 	@Override
 	public void reconcile(DirtyRegion dirtyRegion, IRegion subRegion) {
@@ -93,15 +98,15 @@ final class LanguageReconcilingStategy implements IReconcilingStrategy, IReconci
 	}
 
 	/**
-	 * Parses the current document for the content outline and the folding
-	 * structure.
+	 * Schedules the parsing of the current document for the content outline and
+	 * the folding structure.
 	 */
 	private void parse() {
 		if (document == null) {
 			return;
 		}
 
-		editor.updateContentOutlinePage();
+		editor.scheduleParse();
 
 	}
 }
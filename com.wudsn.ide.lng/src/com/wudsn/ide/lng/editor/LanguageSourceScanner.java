@@ -19,7 +19,9 @@
 
 package com.wudsn.ide.lng.editor;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -55,44 +57,197 @@ import com.wudsn.ide.lng.preferences.TextAttributeConverter;
  */
 final class LanguageSourceScanner extends RuleBasedScanner {
 
-	private final class LanguageWordRule implements IRule {
-		public final class State {
-			public CompilerSourceParser compilerSourceParser;
+	/**
+	 * Immutable trie for the case sensitive or case insensitive lookup of word
+	 * tokens. The nodes are stored in flat arrays, so the characters read from an
+	 * {@link ICharacterScanner} can be matched without creating intermediate
+	 * strings or other objects.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static final class WordTrie {
 
-			public CompilerSyntax compilerSyntax;
-			public InstructionSet instructionSet;
+		/**
+		 * The node index representing "no match".
+		 */
+		public static final int NONE = -1;
 
-			public boolean instructionsCaseSensitive;
-			public Map<String, IToken> instructionWordTokens;
+		/**
+		 * The node index of the root node representing the empty word.
+		 */
+		public static final int ROOT = 0;
 
-			public boolean identifiersCaseSensitive;
-			public Map<String, IToken> identifierWordTokens;
+		private final boolean caseSensitive;
 
-			public State() {
-				instructionWordTokens = new TreeMap<String, IToken>();
-				identifierWordTokens = new TreeMap<String, IToken>();
+		// For each node, the character leading to the node, the index and count of
+		// its children and the token of the word ending at the node.
+		private final char[] nodeCharacters;
+		private final int[] firstChildIndices;
+		private final int[] childCounts;
+		private final IToken[] tokens;
+
+		/**
+		 * Creates a new trie.
+		 * 
+		 * @param caseSensitive <code>true</code> if the words are case sensitive,
+		 *                      <code>false</code> otherwise.
+		 * @param wordTokens    The map of words and tokens, not <code>null</code>.
+		 *                      The keys must be created via
+		 *                      {@link #getKey(String, boolean)}.
+		 */
+		public WordTrie(boolean caseSensitive, TreeMap<String, IToken> wordTokens) {
+			if (wordTokens == null) {
+				throw new IllegalArgumentException("Parameter 'wordTokens' must not be null.");
 			}
+			this.caseSensitive = caseSensitive;
 
-			public State createDeepCopy() {
-				State result = new State();
-				result.compilerSourceParser = compilerSourceParser;
-				result.compilerSyntax = compilerSyntax;
-				result.instructionSet = instructionSet;
-				result.instructionsCaseSensitive = instructionsCaseSensitive;
-				result.instructionWordTokens = instructionWordTokens;
-				result.identifiersCaseSensitive = identifiersCaseSensitive;
-				result.identifierWordTokens = identifierWordTokens;
-				return result;
+			String[] words = wordTokens.keySet().toArray(new String[wordTokens.size()]);
+			int maxNodeCount = 1;
+			for (String word : words) {
+				maxNodeCount += word.length();
+			}
+			char[] nodeCharacters = new char[maxNodeCount];
+			int[] firstChildIndices = new int[maxNodeCount];
+			int[] childCounts = new int[maxNodeCount];
+			IToken[] tokens = new IToken[maxNodeCount];
+
+			// Build the nodes breadth first from the sorted words. Each entry
+			// contains the node index, the range of words with the common prefix
+			// of the node and the prefix length.
+			ArrayDeque<int[]> queue = new ArrayDeque<int[]>();
+			queue.add(new int[] { ROOT, 0, words.length, 0 });
+			int nodeCount = 1;
+			while (!queue.isEmpty()) {
+				int[] entry = queue.remove();
+				int node = entry[0];
+				int from = entry[1];
+				int to = entry[2];
+				int depth = entry[3];
+
+				// The word which equals the prefix is always the first one.
+				if (from < to && words[from].length() == depth) {
+					tokens[node] = wordTokens.get(words[from]);
+					from++;
+				}
+				firstChildIndices[node] = nodeCount;
+				while (from < to) {
+					char character = words[from].charAt(depth);
+					int groupEnd = from + 1;
+					while (groupEnd < to && words[groupEnd].charAt(depth) == character) {
+						groupEnd++;
+					}
+					nodeCharacters[nodeCount] = character;
+					queue.add(new int[] { nodeCount, from, groupEnd, depth + 1 });
+					nodeCount++;
+					childCounts[node]++;
+					from = groupEnd;
+				}
+			}
+
+			this.nodeCharacters = Arrays.copyOf(nodeCharacters, nodeCount);
+			this.firstChildIndices = Arrays.copyOf(firstChildIndices, nodeCount);
+			this.childCounts = Arrays.copyOf(childCounts, nodeCount);
+			this.tokens = Arrays.copyOf(tokens, nodeCount);
+		}
+
+		/**
+		 * Gets the key for a word as used in the trie.
+		 * 
+		 * @param word          The word, not <code>null</code>.
+		 * @param caseSensitive <code>true</code> if the words are case sensitive,
+		 *                      <code>false</code> otherwise.
+		 * @return The key, not <code>null</code>.
+		 */
+		public static String getKey(String word, boolean caseSensitive) {
+			if (word == null) {
+				throw new IllegalArgumentException("Parameter 'word' must not be null.");
+			}
+			if (caseSensitive) {
+				return word;
+			}
+			char[] characters = word.toCharArray();
+			for (int i = 0; i < characters.length; i++) {
+				characters[i] = Character.toUpperCase(characters[i]);
+			}
+			return new String(characters);
+		}
+
+		/**
+		 * Gets the node reached from a node via a character.
+		 * 
+		 * @param node      The node index or {@link #NONE}.
+		 * @param character The character.
+		 * @return The node index or {@link #NONE}.
+		 */
+		public int getNextNode(int node, char character) {
+			if (node == NONE) {
+				return NONE;
+			}
+			if (!caseSensitive) {
+				character = Character.toUpperCase(character);
+			}
+			int low = firstChildIndices[node];
+			int high = low + childCounts[node] - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				char middleCharacter = nodeCharacters[middle];
+				if (middleCharacter < character) {
+					low = middle + 1;
+				} else if (middleCharacter > character) {
+					high = middle - 1;
+				} else {
+					return middle;
+				}
+			}
+			return NONE;
+		}
+
+		/**
+		 * Gets the token of the word ending at a node.
+		 * 
+		 * @param node The node index or {@link #NONE}.
+		 * @return The token or <code>null</code>.
+		 */
+		public IToken getToken(int node) {
+			if (node == NONE) {
+				return null;
+			}
+			return tokens[node];
+		}
+	}
+
+	private final class LanguageWordRule implements IRule {
+
+		/**
+		 * Immutable state of the rule. A new instance is published whenever the
+		 * instructions or identifiers change, so {@link #evaluate(ICharacterScanner)}
+		 * can use the current instance without synchronization.
+		 */
+		private final class State {
+			public final CompilerSourceParser compilerSourceParser;
+
+			public final CompilerSyntax compilerSyntax;
+			public final InstructionSet instructionSet;
+
+			public final WordTrie instructionWordTokens;
+			public final WordTrie identifierWordTokens;
+
+			public State(CompilerSourceParser compilerSourceParser, InstructionSet instructionSet,
+					WordTrie instructionWordTokens, WordTrie identifierWordTokens) {
+				this.compilerSourceParser = compilerSourceParser;
+				this.compilerSyntax = compilerSourceParser.getCompilerSyntax();
+				this.instructionSet = instructionSet;
+				this.instructionWordTokens = instructionWordTokens;
+				this.identifierWordTokens = identifierWordTokens;
 			}
 		}
 
 		// State of the LanguageWordRule instance.
-		State state;
+		private volatile State state;
 
-		/** Buffer used for pattern detection in evaluate() only. */
-		private StringBuilder instructionBuffer = new StringBuilder();
-		private StringBuilder identifierBuffer = new StringBuilder();
-		private StringBuilder numberBuffer = new StringBuilder();
+		// Word tokens from which the tries are built, guarded by "this".
+		private TreeMap<String, IToken> instructionWordTokens;
+		private TreeMap<String, IToken> identifierWordTokens;
 
 		public LanguageWordRule() {
 
@@ -103,27 +258,24 @@ final class LanguageSourceScanner extends RuleBasedScanner {
 				throw new IllegalArgumentException("Parameter 'compilerSourceParser' must not be null.");
 			}
 
-			State state = new State();
-			state.compilerSourceParser = compilerSourceParser;
-			state.instructionSet = compilerSourceParser.getInstructionSet();
-			state.compilerSyntax = compilerSourceParser.getCompilerSyntax();
-
-			state.instructionsCaseSensitive = state.compilerSyntax.areInstructionsCaseSensitive();
-			state.identifiersCaseSensitive = state.compilerSyntax.areIdentifiersCaseSensitive();
-
+			CompilerSyntax compilerSyntax = compilerSourceParser.getCompilerSyntax();
 			synchronized (this) {
-				this.state = state;
+				instructionWordTokens = new TreeMap<String, IToken>();
+				identifierWordTokens = new TreeMap<String, IToken>();
+				state = new State(compilerSourceParser, compilerSourceParser.getInstructionSet(),
+						new WordTrie(compilerSyntax.areInstructionsCaseSensitive(), instructionWordTokens),
+						new WordTrie(compilerSyntax.areIdentifiersCaseSensitive(), identifierWordTokens));
 			}
 		}
 
 		public void setInstructions() {
 			synchronized (this) {
-				state.instructionWordTokens.clear();
+				instructionWordTokens.clear();
 
-				state.instructionsCaseSensitive = state.compilerSyntax.areInstructionsCaseSensitive();
-				state.instructionSet = state.compilerSourceParser.getInstructionSet();
+				boolean instructionsCaseSensitive = state.compilerSyntax.areInstructionsCaseSensitive();
+				InstructionSet instructionSet = state.compilerSourceParser.getInstructionSet();
 
-				List<Instruction> instructions = state.instructionSet.getInstructions();
+				List<Instruction> instructions = instructionSet.getInstructions();
 
 				// Map with lower case name and corresponding token.
 				for (Instruction instruction : instructions) {
@@ -155,12 +307,11 @@ final class LanguageSourceScanner extends RuleBasedScanner {
 
 					}
 					// Case insensitive word rules expect upper case words.
-					if (state.instructionsCaseSensitive) {
-						state.instructionWordTokens.put(instruction.getName(), token);
-					} else {
-						state.instructionWordTokens.put(instruction.getUpperCaseName(), token);
-					}
+					instructionWordTokens.put(WordTrie.getKey(instruction.getName(), instructionsCaseSensitive),
+							token);
 				}
+				state = new State(state.compilerSourceParser, instructionSet,
+						new WordTrie(instructionsCaseSensitive, instructionWordTokens), state.identifierWordTokens);
 			}
 
 		}
@@ -175,6 +326,7 @@ final class LanguageSourceScanner extends RuleBasedScanner {
 				throw new IllegalArgumentException("Parameter 'identifiers' must not be null.");
 			}
 			synchronized (this) {
+				boolean identifiersCaseSensitive = state.compilerSyntax.areIdentifiersCaseSensitive();
 
 				for (CompilerSourceParserTreeObject element : identifiers) {
 					IToken token;
@@ -214,16 +366,11 @@ final class LanguageSourceScanner extends RuleBasedScanner {
 							token = new Token(textAttribute);
 						}
 					}
-					if (state.identifiersCaseSensitive) {
-						state.identifierWordTokens.put(element.getName(), token);
-					} else {
-						state.identifierWordTokens.put(element.getName().toUpperCase(), token);
-
-					}
+					identifierWordTokens.put(WordTrie.getKey(element.getName(), identifiersCaseSensitive), token);
 				}
+				state = new State(state.compilerSourceParser, state.instructionSet, state.instructionWordTokens,
+						new WordTrie(identifiersCaseSensitive, identifierWordTokens));
 			}
-			System.out.println("" + this + ":" + state.identifierWordTokens.size() + " identifier word tokens set: "
-					+ state.identifierWordTokens); // TODO
 		}
 
 		/*
@@ -232,22 +379,26 @@ final class LanguageSourceScanner extends RuleBasedScanner {
 		@Override
 		public IToken evaluate(ICharacterScanner scanner) {
 
-			// Create a local copy to prevent synchronization issues.
-			State localState;
-			synchronized (this) {
-				localState = state.createDeepCopy();
-			}
+			// Use a local reference since a new state may be published any time.
+			State localState = state;
+			InstructionSet instructionSet = localState.instructionSet;
+			CompilerSyntax compilerSyntax = localState.compilerSyntax;
+			WordTrie instructionWordTokens = localState.instructionWordTokens;
+			WordTrie identifierWordTokens = localState.identifierWordTokens;
 
 			int c = scanner.read();
-			boolean instructionStartCharacter = localState.instructionSet.isInstructionStartCharacter((char) c);
-			boolean identifierStartCharacter = localState.compilerSyntax.isIdentifierStartCharacter((char) c);
-			boolean numberStartCharacter = localState.compilerSyntax.isNumberStartCharacter((char) c);
+			boolean instructionStartCharacter = instructionSet.isInstructionStartCharacter((char) c);
+			boolean identifierStartCharacter = compilerSyntax.isIdentifierStartCharacter((char) c);
+			boolean numberStartCharacter = compilerSyntax.isNumberStartCharacter((char) c);
 			if (c != ICharacterScanner.EOF
 					&& (instructionStartCharacter || identifierStartCharacter || numberStartCharacter)) {
 
-				instructionBuffer.setLength(0);
-				identifierBuffer.setLength(0);
-				numberBuffer.setLength(0);
+				// The words are matched against the tries while they are read.
+				int instructionNode = instructionStartCharacter ? WordTrie.ROOT : WordTrie.NONE;
+				int identifierNode = identifierStartCharacter ? WordTrie.ROOT : WordTrie.NONE;
+				int instructionLength = 0;
+				int identifierLength = 0;
+				int numberLength = 0;
 				int charactersRead = 0;
 				boolean instructionPartCharacter = instructionStartCharacter;
 				boolean identifierPartCharacter = identifierStartCharacter;
@@ -255,76 +406,62 @@ final class LanguageSourceScanner extends RuleBasedScanner {
 				do {
 					charactersRead++;
 					if (instructionPartCharacter) {
-						instructionBuffer.append((char) c);
+						instructionLength++;
+						instructionNode = instructionWordTokens.getNextNode(instructionNode, (char) c);
 					}
 					if (identifierPartCharacter) {
-						identifierBuffer.append((char) c);
+						identifierLength++;
+						identifierNode = identifierWordTokens.getNextNode(identifierNode, (char) c);
 					}
 					if (numberPartCharacter) {
-						numberBuffer.append((char) c);
+						numberLength++;
 					}
 					c = scanner.read();
 					instructionPartCharacter = instructionPartCharacter
-							&& localState.instructionSet.isInstructionPartCharacter((char) c);
+							&& instructionSet.isInstructionPartCharacter((char) c);
 					identifierPartCharacter = identifierPartCharacter
-							&& (localState.compilerSyntax.isIdentifierPartCharacter((char) c));
-					numberPartCharacter = numberPartCharacter
-							&& localState.compilerSyntax.isNumberPartCharacter((char) c);
+							&& (compilerSyntax.isIdentifierPartCharacter((char) c));
+					numberPartCharacter = numberPartCharacter && compilerSyntax.isNumberPartCharacter((char) c);
 
 				} while (c != ICharacterScanner.EOF
 						&& (instructionPartCharacter || identifierPartCharacter || numberPartCharacter));
 				scanner.unread();
 
-				String instructionString = instructionBuffer.toString();
-				String identifierString = identifierBuffer.toString();
-				String numberString = numberBuffer.toString();
-				// System.out.println(instructionString + "/" + identifierString
-				// + "/" + numberString);
-
-				// If case-insensitive, convert to upper case before
-				// accessing the map
-				if (!localState.instructionsCaseSensitive) {
-					instructionString = instructionString.toUpperCase();
-				}
-
-				IToken instructionToken = localState.instructionWordTokens.get(instructionString);
+				IToken instructionToken = instructionWordTokens.getToken(instructionNode);
 
 				// Anything found at all?
-				if (instructionToken == null && identifierString.length() == 0 && numberString.length() == 0) {
+				if (instructionToken == null && identifierLength == 0 && numberLength == 0) {
 					unreadBuffer(scanner, charactersRead);
 					return Token.UNDEFINED;
 				}
 
 				// If the identifier string is longer, use it.
 				IToken token;
-				if (instructionToken == null || identifierString.length() > instructionString.length()) {
-					if (identifierString.length() >= numberString.length()) {
-						if (identifierString.length() == 0) {
+				if (instructionToken == null || identifierLength > instructionLength) {
+					if (identifierLength >= numberLength) {
+						if (identifierLength == 0) {
 							return Token.UNDEFINED;
 						}
-						if (!localState.identifiersCaseSensitive) {
-							identifierString = identifierString.toUpperCase();
-						}
-						token = localState.identifierWordTokens.get(identifierString);
+						token = identifierWordTokens.getToken(identifierNode);
 
 						// Consume the next separator if there is one.
-						if (localState.compilerSyntax.isIdentifierSeparatorCharacter((char) c)) {
+						if (compilerSyntax.isIdentifierSeparatorCharacter((char) c)) {
 							charactersRead--;
 						}
-						unreadBuffer(scanner, charactersRead - identifierString.length());
+						unreadBuffer(scanner, charactersRead - identifierLength);
 						if (token == null) {
 							token = Token.UNDEFINED;
 						}
 						return token;
 					}
-					unreadBuffer(scanner, charactersRead - numberString.length());
+					unreadBuffer(scanner, charactersRead - numberLength);
 					return numberToken;
 
 				}
-				if (instructionString.length() >= numberString.length()) {
-					unreadBuffer(scanner, charactersRead - instructionString.length());
+				if (instructionLength >= numberLength) {
+					unreadBuffer(scanner, charactersRead - instructionLength);
 					return instructionToken;
-				} else if (numberString.length() > 0) {
+				} else if (numberLength > 0) {
 					return numberToken;
 				}
 
@@ -20,7 +20,6 @@
 package com.wudsn.ide.lng.outline;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.core.resources.IFile;
@@ -29,7 +28,6 @@ import org.eclipse.core.runtime.QualifiedName;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.jface.resource.ImageDescriptor;
-import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.TextSelection;
 import org.eclipse.jface.viewers.ContentViewer;
 import org.eclipse.jface.viewers.IBaseLabelProvider;
@@ -45,7 +43,6 @@ import org.eclipse.jface.viewers.ViewerComparator;
 import org.eclipse.swt.custom.BusyIndicator;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
-import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.eclipse.ui.views.contentoutline.ContentOutlinePage;
 
@@ -58,14 +55,16 @@ import com.wudsn.ide.lng.compiler.parser.CompilerSourceParserTreeObject;
 import com.wudsn.ide.lng.compiler.parser.CompilerSourceParserTreeObjectLabelProvider;
 import com.wudsn.ide.lng.compiler.parser.CompilerSourceParserTreeObjectType;
 import com.wudsn.ide.lng.editor.LanguageEditor;
+import com.wudsn.ide.lng.editor.LanguageEditorParseListener;
 
 /**
- * Outline page for the language editor.
+ * Outline page for the language editor. The content is updated with the result
+ * of each parse process of the editor.
  * 
  * @author Peter Dell.
  * @author Andy Reek
  */
-public final class LanguageOutlinePage extends ContentOutlinePage {
+public final class LanguageOutlinePage extends ContentOutlinePage implements LanguageEditorParseListener {
 
 	/*
 	 * Toggle action to toggle the sorting in the outline tree. The state of the
@@ -266,22 +265,17 @@ public final class LanguageOutlinePage extends ContentOutlinePage {
 	private final static class EditorUpdater extends RunnableWithLogging {
 		private final Profiler profiler;
 
-		private final LanguageEditor editor;
 		private final LanguageOutlinePage outlinePage;
 		private final TreeViewer viewer;
 		private final LanguageOutlineTreeContentProvider contentProvider;
 
-		EditorUpdater(LanguageEditor editor, LanguageOutlinePage outlinePage, TreeViewer viewer) {
-			if (editor == null) {
-				throw new IllegalArgumentException("Parameter 'editor' must not be null.");
-			}
+		EditorUpdater(LanguageOutlinePage outlinePage, TreeViewer viewer) {
 			if (outlinePage == null) {
 				throw new IllegalArgumentException("Parameter 'outlinePage' must not be null.");
 			}
 			if (viewer == null) {
 				throw new IllegalArgumentException("Parameter 'viewer' must not be null.");
 			}
-			this.editor = editor;
 			this.outlinePage = outlinePage;
 			this.viewer = viewer;
 			this.contentProvider = (LanguageOutlineTreeContentProvider) viewer.getContentProvider();
@@ -290,7 +284,7 @@ public final class LanguageOutlinePage extends ContentOutlinePage {
 		}
 
 		/**
-		 * Triggers a new {@link LanguageOutlineTreeContentProvider#parse} run and
+		 * Sets the compiler source file of the last parse process as new input and
 		 * updates the display.
 		 */
 		@Override
@@ -324,8 +318,8 @@ public final class LanguageOutlinePage extends ContentOutlinePage {
 			ISelection selection = viewer.getSelection();
 			Object[] expandedElements = viewer.getExpandedElements();
 
-			// Trigger the the new parse run.
-			viewer.setInput(outlinePage.input);
+			// Set the result of the last parse process.
+			viewer.setInput(outlinePage.compilerSourceFile);
 			// viewer.refresh(); Not required?
 
 			profiler.begin("expandElements");
@@ -344,32 +338,12 @@ public final class LanguageOutlinePage extends ContentOutlinePage {
 			// // Reselect the previous text selection in the editor.
 			// editor.getSelectionProvider().setSelection(textSelection);
 
-			CompilerSourceFile compilerSourceFile;
-			compilerSourceFile = contentProvider.getCompilerSourceFile();
-
-			// Update the identifiers to be highlighted
-			profiler.begin("updateIdentifiers");
-			editor.updateIdentifiers(compilerSourceFile);
-			profiler.end("updateIdentifiers");
-
-			// Update the folding structure.
-			profiler.begin("updateFoldingStructure");
-			List<Position> foldingPositions;
-			if (compilerSourceFile != null) {
-				foldingPositions = compilerSourceFile.getFoldingPositions();
-			} else {
-				foldingPositions = Collections.emptyList();
-			}
-			editor.updateFoldingStructure(foldingPositions);
-
-			profiler.end("updateFoldingStructure");
-
 			profiler.end("runSynchronized");
 
 		}
 
 		private void restoreSelection(ISelection selection) {
-			if (selection instanceof TreeSelection) {
+			if (selection instanceof TreeSelection && contentProvider.getCompilerSourceFile() != null) {
 				TreeSelection treeSelection = (TreeSelection) selection;
 				TreePath[] selectedTreePaths = treeSelection.getPaths();
 				List<TreePath> reselectedTreePaths = new ArrayList<TreePath>(selectedTreePaths.length);
@@ -426,7 +400,7 @@ public final class LanguageOutlinePage extends ContentOutlinePage {
 	/**
 	 * The current input.
 	 */
-	IEditorInput input;
+	CompilerSourceFile compilerSourceFile;
 	int inputUpdateCounter;
 
 	/**
@@ -442,15 +416,19 @@ public final class LanguageOutlinePage extends ContentOutlinePage {
 	}
 
 	/**
-	 * Sets the input for the outline page.
+	 * Sets the result of the last parse process as input for the outline page.
+	 * Called in the UI thread.
+	 * 
+	 * @param compilerSourceFile The compiler source file, not <code>null</code>.
 	 * 
-	 * @param input The new input, not <code>null</code>.
+	 * @since 1.7.2
 	 */
-	public final void setInput(IEditorInput input) {
-		if (input == null) {
-			throw new IllegalArgumentException("Parameter 'input' must not be null.");
+	@Override
+	public final void compilerSourceFileParsed(CompilerSourceFile compilerSourceFile) {
+		if (compilerSourceFile == null) {
+			throw new IllegalArgumentException("Parameter 'compilerSourceFile' must not be null.");
 		}
-		this.input = input;
+		this.compilerSourceFile = compilerSourceFile;
 
 		runEditorUpdater();
 	}
@@ -459,7 +437,7 @@ public final class LanguageOutlinePage extends ContentOutlinePage {
 		final TreeViewer viewer = getTreeViewer();
 
 		if ((viewer != null) && (viewer.getContentProvider() != null)) {
-			editor.getSite().getShell().getDisplay().asyncExec(new EditorUpdater(editor, this, viewer));
+			new EditorUpdater(this, viewer).run();
 		}
 	}
 
@@ -482,7 +460,7 @@ public final class LanguageOutlinePage extends ContentOutlinePage {
 		IToolBarManager toolBarManager = getSite().getActionBars().getToolBarManager();
 
 		// Configure the content.
-		treeViewer.setContentProvider(new LanguageOutlineTreeContentProvider(this));
+		treeViewer.setContentProvider(new LanguageOutlineTreeContentProvider());
 		treeViewer.setLabelProvider(new CompilerSourceParserTreeObjectLabelProvider());
 		treeViewer.setComparator(treeViewerComparator);
 		treeViewer.addSelectionChangedListener(this);
@@ -490,12 +468,25 @@ public final class LanguageOutlinePage extends ContentOutlinePage {
 		toolBarManager.add(treeViewerSortAction);
 		toolBarManager.update(true);
 
-		if (input != null) {
+		// Show the result of the last parse process and listen for new ones.
+		editor.addParseListener(this);
+		compilerSourceFile = editor.getCompilerSourceFile();
+		if (compilerSourceFile != null) {
 			runEditorUpdater();
 		}
 
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void dispose() {
+		editor.removeParseListener(this);
+		compilerSourceFile = null;
+		super.dispose();
+	}
+
 	@Override
 	public void selectionChanged(SelectionChangedEvent event) {
 		super.selectionChanged(event);
@@ -524,8 +515,9 @@ public final class LanguageOutlinePage extends ContentOutlinePage {
 					// If this is the tree object from another (source
 					// include) file, step off the tree to find the source
 					// include statement.
-					while (treeObject != null
-							&& treeObject.getCompilerSourceFile() != contentProvider.getCompilerSourceFile()) {
+					CompilerSourceFile compilerSourceFile = contentProvider.getCompilerSourceFile();
+					while (treeObject != null && (compilerSourceFile == null
+							|| compilerSourceFile.getCompilerSourceFile(treeObject) != compilerSourceFile)) {
 						treeObject = treeObject.getParent();
 					}
 					if (treeObject != null) {
@@ -21,35 +21,21 @@ package com.wudsn.ide.lng.outline;
 
 import java.util.List;
 
-import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.Viewer;
-import org.eclipse.ui.IEditorInput;
 
-import com.wudsn.ide.base.common.Profiler;
 import com.wudsn.ide.lng.compiler.parser.CompilerSourceFile;
-import com.wudsn.ide.lng.compiler.parser.CompilerSourceParser;
 import com.wudsn.ide.lng.compiler.parser.CompilerSourceParserTreeObject;
-import com.wudsn.ide.lng.editor.LanguageEditor;
 
 /**
- * Tree content provider to {@link LanguageOutlinePage}.
+ * Tree content provider to {@link LanguageOutlinePage}. The input is the
+ * snapshot of the compiler source file of the last parse process of the editor.
  * 
  * @author Peter Dell
  * @author Andy Reek
  */
 final class LanguageOutlineTreeContentProvider implements ITreeContentProvider {
 
-	/**
-	 * The surrounding content outline page.
-	 */
-	private final LanguageOutlinePage languageOutlinePage;
-
-	/**
-	 * The last editor input which was parsed.
-	 */
-	private IEditorInput input;
-
 	/**
 	 * The result of the last parse process.
 	 */
@@ -59,14 +45,8 @@ final class LanguageOutlineTreeContentProvider implements ITreeContentProvider {
 	 * Called by
 	 * {@link LanguageOutlinePage#createControl(org.eclipse.swt.widgets.Composite)}
 	 * .
-	 * 
-	 * @param languageOutlinePage The outline page, not <code>null</code>.
 	 */
-	LanguageOutlineTreeContentProvider(LanguageOutlinePage languageOutlinePage) {
-		if (languageOutlinePage == null) {
-			throw new IllegalArgumentException("Parameter 'languageOutlinePage' must not be null.");
-		}
-		this.languageOutlinePage = languageOutlinePage;
+	LanguageOutlineTreeContentProvider() {
 	}
 
 	/**
@@ -110,7 +90,7 @@ final class LanguageOutlineTreeContentProvider implements ITreeContentProvider {
 	@Override
 	public Object[] getElements(Object inputElement) {
 		Object[] result;
-		if (inputElement == input && compilerSourceFile != null) {
+		if (inputElement == compilerSourceFile && compilerSourceFile != null) {
 			List<CompilerSourceParserTreeObject> sections;
 			sections = compilerSourceFile.getSections();
 			result = sections.toArray(new Object[sections.size()]);
@@ -126,7 +106,7 @@ final class LanguageOutlineTreeContentProvider implements ITreeContentProvider {
 	 */
 	@Override
 	public void dispose() {
-		input = null;
+		compilerSourceFile = null;
 	}
 
 	/**
@@ -144,33 +124,11 @@ final class LanguageOutlineTreeContentProvider implements ITreeContentProvider {
 	 */
 	@Override
 	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
-		if (oldInput instanceof IEditorInput) {
-			input = null;
-		}
-
-		if (newInput instanceof IEditorInput) {
-			input = (IEditorInput) newInput;
-			parse();
-		}
-	}
-
-	/**
-	 * Parses the new input and builds up the parse tree.
-	 */
-	private void parse() {
-
-		LanguageEditor editor = this.languageOutlinePage.editor;
-		IDocument document = editor.getDocumentProvider().getDocument(editor.getEditorInput());
-
-		if (document != null) {
-			CompilerSourceParser parser = editor.createCompilerSourceParser();
-			compilerSourceFile = parser.createCompilerSourceFile(editor.getCurrentFile(), document);
-			Profiler profiler = new Profiler(parser);
-			profiler.begin("parse", editor.getTitle());
-			parser.parse(compilerSourceFile, null);
-			profiler.end("parse");
+		if (newInput instanceof CompilerSourceFile) {
+			compilerSourceFile = (CompilerSourceFile) newInput;
+		} else {
+			compilerSourceFile = null;
 		}
-
 	}
 
 }
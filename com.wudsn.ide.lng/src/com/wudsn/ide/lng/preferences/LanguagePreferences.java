@@ -93,6 +93,31 @@ public final class LanguagePreferences {
 		return getString(EditorConstants.getEditorCompileCommandPositioningModeKey(language));
 	}
 
+	/**
+	 * Determines if compiling is skipped when the output file is up to date and
+	 * the sources, includes and parameters are unchanged since the last
+	 * successful compilation.
+	 * 
+	 * @return <code>true</code> if compiling is skipped for unchanged inputs,
+	 *         <code>false</code> otherwise.
+	 * @since 1.7.2
+	 */
+	public boolean isEditorCompileCommandSkipUnchanged() {
+		return getBoolean(EditorConstants.getEditorCompileCommandSkipUnchangedKey(language));
+	}
+
+	/**
+	 * Gets the maximum duration of the compiler. If the compiler does not
+	 * terminate in time, it is terminated.
+	 * 
+	 * @return The maximum duration in seconds, a positive integer or
+	 *         <code>0</code> for no limit.
+	 * @since 1.7.2
+	 */
+	public int getEditorCompileCommandTimeout() {
+		return Math.max(0, getInt(EditorConstants.getEditorCompileCommandTimeoutKey(language)));
+	}
+
 	/**
 	 * Gets the executable path for the compiler.
 	 * 
@@ -187,6 +212,23 @@ public final class LanguagePreferences {
 		return languagesPreferences.getBoolean(preferencesKey);
 	}
 
+	/**
+	 * Gets the current value of the integer preference with the given name.
+	 * Returns the default value <code>0</code> if there is no preference with the
+	 * given name, or if the current value cannot be treated as an integer.
+	 * 
+	 * @param preferencesKey The key of the preference, not empty and not
+	 *                       <code>null</code>.
+	 * @return The preference value.
+	 * @since 1.7.2
+	 */
+	int getInt(String preferencesKey) {
+		if (preferencesKey == null) {
+			throw new IllegalArgumentException("Parameter 'preferencesKey' must not be null.");
+		}
+		return languagesPreferences.getInt(preferencesKey);
+	}
+
 	/**
 	 * Gets the current value of the string-valued preference with the given name.
 	 * Returns the default-default value (the empty string <code>""</code> ) if
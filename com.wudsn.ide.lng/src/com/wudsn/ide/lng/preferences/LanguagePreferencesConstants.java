@@ -117,6 +117,20 @@ public final class LanguagePreferencesConstants {
 		 */
 		static final String EDITOR_COMPILE_COMMAND_POSITIONING_MODE = "editor.compile.command.positioning.mode"; //$NON-NLS-1$
 
+		/**
+		 * Preference key for skipping the compiler if the inputs are unchanged.
+		 * 
+		 * @since 1.7.2
+		 */
+		static final String EDITOR_COMPILE_COMMAND_SKIP_UNCHANGED = "editor.compile.command.skip.unchanged"; //$NON-NLS-1$
+
+		/**
+		 * Preference key for the maximum duration of the compiler in seconds.
+		 * 
+		 * @since 1.7.2
+		 */
+		static final String EDITOR_COMPILE_COMMAND_TIMEOUT = "editor.compile.command.timeout"; //$NON-NLS-1$
+
 		/**
 		 * Gets preference key name for a editor attribute.
 		 * 
@@ -148,6 +162,22 @@ public final class LanguagePreferencesConstants {
 
 			return getEditorAttributeKey(language, EditorConstants.EDITOR_COMPILE_COMMAND_POSITIONING_MODE);
 		}
+
+		static String getEditorCompileCommandSkipUnchangedKey(Language language) {
+			if (language == null) {
+				throw new IllegalArgumentException("Parameter 'language' must not be null.");
+			}
+
+			return getEditorAttributeKey(language, EditorConstants.EDITOR_COMPILE_COMMAND_SKIP_UNCHANGED);
+		}
+
+		static String getEditorCompileCommandTimeoutKey(Language language) {
+			if (language == null) {
+				throw new IllegalArgumentException("Parameter 'language' must not be null.");
+			}
+
+			return getEditorAttributeKey(language, EditorConstants.EDITOR_COMPILE_COMMAND_TIMEOUT);
+		}
 		
 		/**
 		 * Gets the list of all preferences keys that depend on the global JFact text
@@ -107,6 +107,10 @@ public final class LanguagePreferencesInitializer extends AbstractPreferenceInit
 		// Compiling.
 		preferencesKey = EditorConstants.getEditorCompileCommandPositioningModeKey(language);
 		setDefault(preferencesKey, LanguageEditorCompileCommandPositioningMode.FIRST_ERROR_OR_WARNING);
+		preferencesKey = EditorConstants.getEditorCompileCommandSkipUnchangedKey(language);
+		setDefault(preferencesKey, Boolean.FALSE.toString());
+		preferencesKey = EditorConstants.getEditorCompileCommandTimeoutKey(language);
+		setDefault(preferencesKey, "0");
 	}
 
 	private void initializeHardwareCompilerDefinitionPreferences(Language language) {
@@ -25,10 +25,12 @@ import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
+import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.ColorSelector;
 import org.eclipse.jface.preference.FieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
 import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.RadioGroupFieldEditor;
 import org.eclipse.jface.text.TextAttribute;
 import org.eclipse.jface.util.PropertyChangeEvent;
@@ -414,6 +416,17 @@ public abstract class LanguagePreferencesPage extends FieldEditorPreferencePage
 				Texts.PREFERENCES_COMPILE_COMMAND_POSITIONING_MODE_LABEL, 2, labelsAndValues, space);
 		addField(choiceFieldEditor);
 
+		FieldEditor booleanFieldEditor = new BooleanFieldEditor(
+				EditorConstants.getEditorCompileCommandSkipUnchangedKey(language),
+				Texts.PREFERENCES_COMPILE_COMMAND_SKIP_UNCHANGED_LABEL, space);
+		addField(booleanFieldEditor);
+
+		IntegerFieldEditor integerFieldEditor = new IntegerFieldEditor(
+				EditorConstants.getEditorCompileCommandTimeoutKey(language),
+				Texts.PREFERENCES_COMPILE_COMMAND_TIMEOUT_LABEL, space);
+		integerFieldEditor.setValidRange(0, 3600);
+		addField(integerFieldEditor);
+
 	}
 
 	private void createCompilersGroup(Composite parent) {
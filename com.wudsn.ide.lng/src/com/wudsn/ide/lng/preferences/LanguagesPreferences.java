@@ -83,6 +83,25 @@ public final class LanguagesPreferences {
 		return result;
 	}
 
+	/**
+	 * Gets the current value of the integer preference with the given name.
+	 * Returns the default-default value <code>0</code> if there is no preference
+	 * with the given name, or if the current value cannot be treated as an
+	 * integer.
+	 * 
+	 * @param preferencesKey The key of the preference, not <code>null</code>.
+	 * @return The preference value.
+	 * @since 1.7.2
+	 */
+	int getInt(String preferencesKey) {
+		if (preferencesKey == null) {
+			throw new IllegalArgumentException("Parameter 'preferencesKey' must not be null.");
+		}
+		var result = preferenceStore.getInt(preferencesKey);
+		log(preferencesKey, Integer.toString(result));
+		return result;
+	}
+
 	/**
 	 * Gets the current value of the string-valued preference with the given name.
 	 * Returns the default-default value (the empty string <code>""</code> ) if
@@ -31,6 +31,7 @@ import com.wudsn.ide.base.common.AbstractIDEPlugin;
 import com.wudsn.ide.snd.player.SoundPlayer;
 import com.wudsn.ide.snd.player.atari8.ASAPPlayer;
 import com.wudsn.ide.snd.player.c64.SIDPlayer;
+import com.wudsn.ide.snd.player.c64.SongLengthDatabase;
 
 public final class SoundPlugin extends AbstractIDEPlugin {
 
@@ -65,6 +66,10 @@ public final class SoundPlugin extends AbstractIDEPlugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		plugin = this;
+
+		// Load the song lengths in the background, so they are available when
+		// the first C64 sound file is opened.
+		SongLengthDatabase.prefetch();
 	}
 
 	/**
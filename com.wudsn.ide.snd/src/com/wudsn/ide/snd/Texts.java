@@ -22,6 +22,7 @@ package com.wudsn.ide.snd;
 import org.eclipse.osgi.util.NLS;
 
 import com.wudsn.ide.snd.editor.SoundEditor;
+import com.wudsn.ide.snd.player.SoundPlayer;
 
 /**
  * Class which holds the localized text constants.
@@ -62,6 +63,8 @@ public final class Texts extends NLS {
 	public static String SOUND_EDITOR_PLAYING_TIME_LABEL;
 	public static String SOUND_EDITOR_PLAYYING_POSITION_LABEL;
 	public static String SOUND_EDITOR_EXPORT_BUTTON_TOOLTIP;
+	public static String SOUND_EDITOR_RENDER_BUTTON_TOOLTIP;
+	public static String SOUND_EDITOR_RENDER_JOB_NAME;
 	public static String SOUND_EDITOR_SONGS_LABEL;
 	public static String SOUND_EDITOR_SONG_ID_LABEL;
 	public static String SOUND_EDITOR_STOPPED;
@@ -84,6 +87,19 @@ public final class Texts extends NLS {
 	public static String MESSAGE_I508;
 	public static String MESSAGE_E509;
 
+	/**
+	 * Messages for {@link SoundPlayer}.
+	 */
+	public static String MESSAGE_E510;
+	public static String MESSAGE_E511;
+
+	/**
+	 * Messages for {@link SoundEditor} rendering.
+	 */
+	public static String MESSAGE_I512;
+	public static String MESSAGE_I513;
+	public static String MESSAGE_I514;
+
 	/**
 	 * Initializes the constants.
 	 */
@@ -214,6 +214,7 @@ final class SongTableView {
 		}
 
 		// Create data list.
+		dataList.clear();
 		int size = info.getSongs();
 		for (int i = 0; i < size; i++) {
 			int duration = info.getDuration(i);
@@ -226,5 +227,6 @@ final class SongTableView {
 
 		table.setItemCount(dataList.size());
 		table.setSelection(info.getDefaultSong());
+		table.redraw();
 	}
 }
\ No newline at end of file
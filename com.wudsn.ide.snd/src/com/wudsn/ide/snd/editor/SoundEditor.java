@@ -29,8 +29,11 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.jface.dialogs.IInputValidator;
 import org.eclipse.jface.dialogs.InputDialog;
+import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.window.Window;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.SelectionEvent;
@@ -72,6 +75,7 @@ import com.wudsn.ide.snd.player.FileType;
 import com.wudsn.ide.snd.player.SoundInfo;
 import com.wudsn.ide.snd.player.SoundPlayer;
 import com.wudsn.ide.snd.player.SoundPlayerListener;
+import com.wudsn.ide.snd.player.WAVFileWriter;
 
 /**
  * Sound file editor, i.e. editor part for the visualization of the
@@ -107,6 +111,7 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 		public static final int TOGGLE_PAUSE = 101;
 		public static final int STOP = 102;
 		public static final int EXPORT = 103;
+		public static final int RENDER = 104;
 
 	}
 
@@ -184,6 +189,8 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 	private ToolItem stopButton;
 	private ToolItem exportButton;
 	private FileDialog exportFileDialog;
+	private ToolItem renderButton;
+	private FileDialog renderFileDialog;
 
 	public SoundEditor() {
 		super();
@@ -221,6 +228,9 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 		case Actions.EXPORT:
 			exportFileContentAs();
 			break;
+		case Actions.RENDER:
+			renderFileContentAsWAV();
+			break;
 
 		}
 		dataToUI();
@@ -229,6 +239,7 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 
 	@Override
 	public void dispose() {
+		player.setInfoListener(null);
 		player.stop();
 		mainComposite.dispose();
 		partControlCreated = false;
@@ -273,6 +284,7 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 					player = new EmptyPlayer(fileName);
 				} else {
 					try {
+						player.setInfoListener(this);
 						player.load(fileName, file.getContents());
 					} catch (CoreException ex) {
 						// If loading fails, there should not be a real player.
@@ -378,6 +390,11 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 		exportButton.setToolTipText(Texts.SOUND_EDITOR_EXPORT_BUTTON_TOOLTIP);
 		exportButton.addSelectionListener(new Action(Actions.EXPORT, SoundEditor.this));
 
+		renderButton = new ToolItem(toolbar, SWT.PUSH);
+		renderButton.setImage(Icons.EXPORT);
+		renderButton.setToolTipText(Texts.SOUND_EDITOR_RENDER_BUTTON_TOOLTIP);
+		renderButton.addSelectionListener(new Action(Actions.RENDER, SoundEditor.this));
+
 		songTableView = new SongTableView(topComposite, this);
 		songTableView.setInfo(player.getInfo());
 
@@ -456,6 +473,7 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 		positionScale.setEnabled(player.isPlaying() && player.getMaximumPosition() > 0 && player.isSeekSupported());
 		List<FileType> fileTypes = info.getSupportedExportFileTypes();
 		exportButton.setEnabled(!fileTypes.isEmpty());
+		renderButton.setEnabled(player.isLoaded() && info.getSongs() > 0);
 
 		if (player.isPlaying()) {
 			songTableView.setSelectedSong(player.getPlayingSong());
@@ -468,6 +486,7 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 	public void playerUpdated(int mode) {
 
 		final boolean stateUpdated;
+		final boolean infoUpdated;
 		final boolean positionUpdated;
 		final String position;
 		final int maxPositionValue;
@@ -478,6 +497,7 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 
 		if (partControlCreated) {
 			stateUpdated = (mode & SoundPlayerListener.STATE) != 0;
+			infoUpdated = (mode & SoundPlayerListener.INFO) != 0;
 			positionUpdated = (mode & SoundPlayerListener.POSITION) != 0;
 			volumeUpdated = (mode & SoundPlayerListener.VOLUME) != 0;
 
@@ -515,8 +535,8 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 				// @Override
 				@Override
 				public void run() {
-					playerUpdatedWithValues(stateUpdated, maxPositionValue, positionUpdated, positionValue,
-							positionText, volumeUpdated, channelVolumnes);
+					playerUpdatedWithValues(stateUpdated, infoUpdated, maxPositionValue, positionUpdated,
+							positionValue, positionText, volumeUpdated, channelVolumnes);
 				}
 			};
 			// Updates to widgets must be performed in the display
@@ -526,10 +546,17 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 		}
 	}
 
-	void playerUpdatedWithValues(final boolean stateUpdated, final int maxPositionValue, final boolean positionUpdated,
-			final int positionValue, final String positionText, final boolean volumeUpdated,
-			final int[] channelVolumnes) {
+	void playerUpdatedWithValues(final boolean stateUpdated, final boolean infoUpdated, final int maxPositionValue,
+			final boolean positionUpdated, final int positionValue, final String positionText,
+			final boolean volumeUpdated, final int[] channelVolumnes) {
 		if (partControlCreated) {
+			if (infoUpdated) {
+				songTableView.setInfo(player.getInfo());
+				if (player.isPlaying()) {
+					songTableView.setSelectedSong(player.getPlayingSong());
+				}
+			}
+
 			if (stateUpdated) {
 				pauseButton.setEnabled(player.isPlaying());
 				stopButton.setEnabled(player.isPlaying());
@@ -553,11 +580,16 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 		}
 	}
 
-	private void exportFileContentAs() {
+	/**
+	 * Gets the default file name for exported files.
+	 * 
+	 * @return The title of the sound file reduced to the characters valid in
+	 *         file names, may be empty, not <code>null</code>.
+	 */
+	private String getExportFileName() {
 
 		// ASCIIfy title to obtain a valid file name
-		SoundInfo info = player.getInfo();
-		String title = info.getTitle();
+		String title = player.getInfo().getTitle();
 		StringBuilder builder = new StringBuilder();
 		for (int i = 0; i < title.length(); i++) {
 			char c = title.charAt(i);
@@ -565,11 +597,17 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 				builder.append(c);
 			}
 		}
+		return builder.toString();
+	}
+
+	private void exportFileContentAs() {
+
+		SoundInfo info = player.getInfo();
 
 		// Appending the module file type does unfortunately not have any effect
 		// on the default selected in the dialog. So we stick to the first
 		// selected type.
-		String fileName = builder.toString();
+		String fileName = getExportFileName();
 
 		// Create the file dialog only once, so it keeps the selected folder
 		// when exporting multiple times.
@@ -672,4 +710,65 @@ public final class SoundEditor extends EditorPart implements Application, SoundP
 				selectedFileType.getDescription());
 
 	}
+
+	/**
+	 * Renders the selected song or all songs into ".wav" files. The rendering
+	 * is performed by a {@link SoundRenderJob}, so the editor remains
+	 * responsive. The result is displayed when the job is done.
+	 */
+	private void renderFileContentAsWAV() {
+		SoundInfo info = player.getInfo();
+
+		// Create the file dialog only once, so it keeps the selected folder
+		// when rendering multiple times.
+		if (renderFileDialog == null) {
+			renderFileDialog = new FileDialog(getSite().getShell(), SWT.SAVE);
+			renderFileDialog.setFilterExtensions(new String[] { "*" + WAVFileWriter.EXTENSION });
+			renderFileDialog.setOverwrite(true);
+		}
+		renderFileDialog.setFileName(getExportFileName() + WAVFileWriter.EXTENSION);
+		String fileName = renderFileDialog.open();
+		if (fileName == null) {
+			return; // Canceled
+		}
+		if (!FileUtility.getFileExtension(fileName).equalsIgnoreCase(WAVFileWriter.EXTENSION)) {
+			fileName = fileName + WAVFileWriter.EXTENSION;
+		}
+		File file = new File(fileName).getAbsoluteFile();
+
+		// INFO: Render all {0} songs? Otherwise only the selected song is
+		// rendered.
+		int song = songTableView.getSelectedSong();
+		if (song < 0) {
+			song = info.getDefaultSong();
+		}
+		if (info.getSongs() > 1 && MessageDialog.openQuestion(getSite().getShell(),
+				Texts.SOUND_EDITOR_RENDER_BUTTON_TOOLTIP,
+				TextUtility.format(Texts.MESSAGE_I512, NumberUtility.getLongValueDecimalString(info.getSongs())))) {
+			song = -1;
+		}
+
+		SoundRenderJob job = new SoundRenderJob(player, song, file);
+		job.addJobChangeListener(new JobChangeAdapter() {
+
+			@Override
+			public void done(final IJobChangeEvent event) {
+				// Updates to widgets must be performed in the display
+				// thread.
+				Display.getDefault().asyncExec(new Runnable() {
+
+					@Override
+					public void run() {
+						if (partControlCreated) {
+							IStatus status = event.getResult();
+							messageManager.clearMessages();
+							messageManager.sendMessage(MessageIds.FORMAT, status.getSeverity(), status.getMessage());
+							messageManager.displayMessages();
+						}
+					}
+				});
+			}
+		});
+		job.schedule();
+	}
 }
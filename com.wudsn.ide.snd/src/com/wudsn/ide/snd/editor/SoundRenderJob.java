@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ *
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.snd.editor;
+
+import java.io.File;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.wudsn.ide.base.common.FileUtility;
+import com.wudsn.ide.base.common.NumberUtility;
+import com.wudsn.ide.base.common.TextUtility;
+import com.wudsn.ide.snd.SoundPlugin;
+import com.wudsn.ide.snd.Texts;
+import com.wudsn.ide.snd.player.SoundPlayer;
+
+/**
+ * Background job which renders one or all songs of a {@link SoundPlayer} into
+ * ".wav" files via {@link SoundPlayer#render(int, File)} or
+ * {@link SoundPlayer#renderAll(File, String)}. The result of the job is an
+ * info status with the rendered files or the error status of the rendering.
+ *
+ * @author Peter Dell
+ *
+ * @since 1.7.2
+ */
+final class SoundRenderJob extends Job {
+
+	private final SoundPlayer player;
+	private final int song;
+	private final File file;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param player The sound player with a loaded sound file, not
+	 *               <code>null</code>.
+	 * @param song   The song number, a non-negative integer starting at zero for
+	 *               the first song in the tune, or <code>-1</code> to render all
+	 *               songs.
+	 * @param file   The ".wav" file, not <code>null</code>. If all songs are
+	 *               rendered, the folder and the name without extension of the
+	 *               file are used as base for the file names.
+	 */
+	SoundRenderJob(SoundPlayer player, int song, File file) {
+		super(Texts.SOUND_EDITOR_RENDER_JOB_NAME);
+		if (player == null) {
+			throw new IllegalArgumentException("Parameter 'player' must not be null.");
+		}
+		if (file == null) {
+			throw new IllegalArgumentException("Parameter 'file' must not be null.");
+		}
+		this.player = player;
+		this.song = song;
+		this.file = file;
+		setName(TextUtility.format(Texts.SOUND_EDITOR_RENDER_JOB_NAME, file.getName()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		monitor.beginTask(getName(), IProgressMonitor.UNKNOWN);
+		try {
+			if (song >= 0) {
+				player.render(song, file);
+				// INFO: Song rendered as file '{0}'.
+				return new Status(IStatus.INFO, SoundPlugin.ID,
+						TextUtility.format(Texts.MESSAGE_I513, file.getPath()));
+			}
+			String fileName = file.getName();
+			fileName = fileName.substring(0, fileName.length() - FileUtility.getFileExtension(fileName).length());
+			File folder = file.getParentFile();
+			List<File> files = player.renderAll(folder, fileName);
+			// INFO: {0} songs rendered as files in folder '{1}'.
+			return new Status(IStatus.INFO, SoundPlugin.ID, TextUtility.format(Texts.MESSAGE_I514,
+					NumberUtility.getLongValueDecimalString(files.size()), folder.getPath()));
+		} catch (CoreException ex) {
+			return ex.getStatus();
+		} finally {
+			monitor.done();
+		}
+	}
+}
@@ -19,8 +19,14 @@
 
 package com.wudsn.ide.snd.player;
 
+import javax.sound.sampled.AudioFormat;
+
 /**
- * Callback to generate the actual sound in a parallel thread.
+ * Callback to generate the actual sound in a parallel thread. The generator
+ * only produces the samples via {@link #renderBuffer(byte[])}. When playing in
+ * real time, the {@link SoundPlayer} writes them to the audio line in a
+ * separate thread. When rendering offline, the samples are requested as fast as
+ * they can be generated.
  * 
  * @author Peter Dell
  * 
@@ -28,12 +34,32 @@ package com.wudsn.ide.snd.player;
  */
 public abstract class SoundGenerator {
 
-	public abstract void generateBuffer();
-
-	public abstract void playBuffer();
+	/**
+	 * Releases the resources of the generator.
+	 */
+	public abstract void close();
 
-	public abstract boolean isGenerating();
+	/**
+	 * Gets the format of the samples returned by {@link #renderBuffer(byte[])}.
+	 * 
+	 * @return The format with 16-bit signed little endian PCM samples, not
+	 *         <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public abstract AudioFormat getRenderFormat();
 
-	public abstract void close();
+	/**
+	 * Generates the next samples.
+	 * 
+	 * @param buffer The buffer to be filled, not <code>null</code>. The length
+	 *               must be a multiple of the frame size.
+	 * @return The number of bytes filled, a multiple of the frame size. Less
+	 *         than the buffer length only at the end of the song and 0 after
+	 *         the end of the song.
+	 * 
+	 * @since 1.7.2
+	 */
+	public abstract int renderBuffer(byte[] buffer);
 
 }
@@ -18,13 +18,36 @@
  */
 package com.wudsn.ide.snd.player;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import com.wudsn.ide.base.common.NumberUtility;
+import com.wudsn.ide.base.common.TextUtility;
+import com.wudsn.ide.snd.SoundPlugin;
+import com.wudsn.ide.snd.Texts;
 
 /**
  * Base class for sound player wrappers.
@@ -193,11 +216,33 @@ public abstract class SoundPlayer {
 		}
 	}
 
+	/**
+	 * Buffer of the audio pipeline.
+	 */
+	private final static class Chunk {
+		final byte[] buffer;
+		int length;
+		int generation;
+
+		Chunk(int size) {
+			buffer = new byte[size];
+		}
+	}
+
+	/**
+	 * Producer of the audio pipeline. Generates the samples into a small ring of
+	 * buffers without holding the lock of the player. The buffers are written
+	 * to the audio line by a {@link LineWriterRunnable} and then returned to the
+	 * ring.
+	 */
 	private final static class SoundGeneratorRunnable implements Runnable {
 
-		private SoundPlayer player;
-		private SoundGenerator generator;
+		private final SoundPlayer player;
+		private final SoundGenerator generator;
+		private final SourceDataLine line;
 		private SoundPlayerListener listener;
+		private final BlockingQueue<Chunk> freeChunks;
+		private final BlockingQueue<Chunk> filledChunks;
 
 		/**
 		 * Create a new runnable for the thread in which the sound player generator is
@@ -205,64 +250,91 @@ public abstract class SoundPlayer {
 		 * 
 		 * @param player    The sound player,not <code>null</code>.
 		 * @param generator The sound generator, not <code>null</code>.
+		 * @param line      The opened audio line, not <code>null</code>.
+		 * @param chunkSize The size of the buffers in bytes, a positive multiple of
+		 *                  the frame size.
 		 * @param listener  The sound player listener or <code>null</code>.
 		 */
-		SoundGeneratorRunnable(SoundPlayer player, SoundGenerator generator, SoundPlayerListener listener) {
+		SoundGeneratorRunnable(SoundPlayer player, SoundGenerator generator, SourceDataLine line, int chunkSize,
+				SoundPlayerListener listener) {
 			if (player == null) {
 				throw new IllegalArgumentException("Parameter 'player' must not be null.");
 			}
 			if (generator == null) {
 				throw new IllegalArgumentException("Parameter 'generator' must not be null.");
 			}
+			if (line == null) {
+				throw new IllegalArgumentException("Parameter 'line' must not be null.");
+			}
 
 			this.player = player;
 			this.generator = generator;
+			this.line = line;
 			this.listener = listener;
+			freeChunks = new ArrayBlockingQueue<Chunk>(CHUNK_COUNT);
+			filledChunks = new ArrayBlockingQueue<Chunk>(CHUNK_COUNT);
+			for (int i = 0; i < CHUNK_COUNT; i++) {
+				freeChunks.add(new Chunk(chunkSize));
+			}
 		}
 
 		/**
-		 * Implementation of {@link Runnable} which generated the actual sound, passes
-		 * it to the source data line and notifies the listener about the updates.
+		 * Implementation of {@link Runnable} which generates the actual sound, passes
+		 * it to the line writer thread and notifies the listener about the updates.
 		 */
 		@Override
 		public void run() {
 			synchronized (player) {
-				player.threadActive = true;
 				player.listenerUpdatedPosition = 0;
 			}
 
+			Thread lineWriterThread = new Thread(new LineWriterRunnable(player, line, freeChunks, filledChunks));
+			lineWriterThread.setName(Thread.currentThread().getName() + " Line");
+			lineWriterThread.start();
 			try {
-
-				do {
-					synchronized (player) {
-						generator.generateBuffer();
-						while (player.playing && player.paused) {
-							try {
-								player.wait(200);
-							} catch (InterruptedException ex) {
-								throw new RuntimeException(ex);
-							}
-						}
-						if (listener != null) {
-							int flags = SoundPlayerListener.VOLUME;
-
-							if (player.getPosition()
+				long listenerUpdatedNanos = 0;
+				boolean ended = false;
+				while (!ended && player.waitWhilePaused()) {
+					Chunk chunk = freeChunks.take();
+					synchronized (player.generatorLock) {
+						chunk.generation = player.pipelineGeneration;
+						chunk.length = generator.renderBuffer(chunk.buffer);
+					}
+					ended = chunk.length == 0;
+					filledChunks.put(chunk);
+
+					long nanos = System.nanoTime();
+					if (listener != null && nanos - listenerUpdatedNanos >= LISTENER_UPDATE_NANOS) {
+						listenerUpdatedNanos = nanos;
+						int flags = SoundPlayerListener.VOLUME;
+						int position = player.getPosition();
+						synchronized (player) {
+							if (position
 									- player.listenerUpdatedPosition >= SoundPlayerListener.POSITION_UPDATE_INCREMENT) {
-								player.listenerUpdatedPosition = player.getPosition();
+								player.listenerUpdatedPosition = position;
 								flags |= SoundPlayerListener.POSITION;
 							}
-							listener.playerUpdated(flags);
-
 						}
+						listener.playerUpdated(flags);
 					}
+				}
 
-					generator.playBuffer();
-				} while (generator.isGenerating() && player.isPlaying());
-
+				// At the end of the song, the line writer plays the remaining
+				// samples. Otherwise it is stopped immediately.
+				if (!ended) {
+					lineWriterThread.interrupt();
+				}
+				join(lineWriterThread);
+			} catch (InterruptedException ex) {
+				lineWriterThread.interrupt();
+				join(lineWriterThread);
 			} finally {
 				synchronized (player) {
 					player.playing = false;
+					player.line = null;
+					player.generatorThread = null;
 
+					line.close();
 					generator.close();
 
 					if (listener != null) {
@@ -273,10 +345,104 @@ public abstract class SoundPlayer {
 					player.notifyAll();
 				}
 			}
+		}
+
+		private void join(Thread thread) {
+			boolean interrupted = false;
+			while (thread.isAlive()) {
+				try {
+					thread.join();
+				} catch (InterruptedException ex) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Consumer of the audio pipeline. Writes the generated buffers to the audio
+	 * line. Buffers generated before the last seek are discarded.
+	 */
+	private final static class LineWriterRunnable implements Runnable {
+
+		private final SoundPlayer player;
+		private final SourceDataLine line;
+		private final BlockingQueue<Chunk> freeChunks;
+		private final BlockingQueue<Chunk> filledChunks;
 
+		LineWriterRunnable(SoundPlayer player, SourceDataLine line, BlockingQueue<Chunk> freeChunks,
+				BlockingQueue<Chunk> filledChunks) {
+			this.player = player;
+			this.line = line;
+			this.freeChunks = freeChunks;
+			this.filledChunks = filledChunks;
+		}
+
+		@Override
+		public void run() {
+			try {
+				line.start();
+				while (true) {
+					Chunk chunk = filledChunks.take();
+					if (chunk.length == 0) {
+						line.drain();
+						return;
+					}
+
+					// The write returns early if the line is stopped by a
+					// pause or flushed by a seek or stop.
+					int offset = 0;
+					while (offset < chunk.length && chunk.generation == player.pipelineGeneration) {
+						offset += line.write(chunk.buffer, offset, chunk.length - offset);
+						if (offset < chunk.length && (!player.waitWhilePaused() || Thread.interrupted())) {
+							return;
+						}
+					}
+					freeChunks.put(chunk);
+				}
+			} catch (InterruptedException ex) {
+				// Stopped.
+			}
 		}
 	}
 
+	/**
+	 * Duration in milliseconds which is rendered for songs with unknown duration.
+	 * 
+	 * @since 1.7.2
+	 */
+	public static final int DEFAULT_RENDER_DURATION = 3 * 60 * 1000;
+
+	/**
+	 * Size of the buffer for offline rendering.
+	 */
+	private static final int RENDER_BUFFER_SIZE = 65536;
+
+	/**
+	 * Default latency in milliseconds between generating and playing samples.
+	 * 
+	 * @since 1.7.2
+	 */
+	public static final int DEFAULT_TARGET_LATENCY = 60;
+
+	/**
+	 * The target latency is divided into buffers of equal size. The ring of the
+	 * audio pipeline contains {@link #CHUNK_COUNT} buffers, the audio line
+	 * {@link #LINE_CHUNK_COUNT} buffers.
+	 */
+	private static final int CHUNK_COUNT = 4;
+	private static final int LINE_CHUNK_COUNT = 2;
+	private static final int MIN_CHUNK_FRAMES = 64;
+
+	/**
+	 * Minimum interval in nanoseconds between two volume updates of the
+	 * listener.
+	 */
+	private static final long LISTENER_UPDATE_NANOS = 40 * 1000 * 1000;
+
 	private boolean loaded;
 	protected SoundInfoImpl info;
 
@@ -286,12 +452,30 @@ public abstract class SoundPlayer {
 	protected SoundPlayerListener listener;
 	protected int listenerUpdatedPosition;
 	boolean threadActive;
+	private volatile SoundPlayerListener infoListener;
+
+	/**
+	 * Lock for the state of the emulator, which is used by the generator thread
+	 * while generating the samples. Sub-classes must hold it while changing
+	 * this state from other threads, for example while seeking.
+	 * 
+	 * @since 1.7.2
+	 */
+	protected final Object generatorLock;
+
+	// Samples generated in an older generation are discarded by the line
+	// writer. Incremented under the generator lock.
+	volatile int pipelineGeneration;
+	private int targetLatency;
+	SourceDataLine line;
+	Thread generatorThread;
 
 	/**
 	 * Creation is protected.
 	 */
 	protected SoundPlayer() {
-
+		generatorLock = new Object();
+		targetLatency = DEFAULT_TARGET_LATENCY;
 		clear();
 	}
 
@@ -393,6 +577,31 @@ public abstract class SoundPlayer {
 		return info;
 	}
 
+	/**
+	 * Sets the listener which is notified with {@link SoundPlayerListener#INFO}
+	 * when the info of the loaded module is completed after loading.
+	 * 
+	 * @param infoListener The listener or <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	public final void setInfoListener(SoundPlayerListener infoListener) {
+		this.infoListener = infoListener;
+	}
+
+	/**
+	 * Notifies the info listener that the info of the loaded module has been
+	 * completed. Called by sub-classes from any thread.
+	 * 
+	 * @since 1.7.2
+	 */
+	protected final void infoCompleted() {
+		SoundPlayerListener infoListener = this.infoListener;
+		if (infoListener != null) {
+			infoListener.playerUpdated(SoundPlayerListener.INFO | SoundPlayerListener.STATE);
+		}
+	}
+
 	/**
 	 * Stops current song and starts playing the specified song again from the
 	 * start. Calls
@@ -408,32 +617,289 @@ public abstract class SoundPlayer {
 	public abstract void play(int song, SoundPlayerListener listener) throws CoreException;
 
 	/**
-	 * Starts a new thread in which the sound player generator is executed.
+	 * Starts a new thread in which the sound player generator is executed. The
+	 * samples are played via an audio line whose buffers are sized according to
+	 * the target latency.
 	 * 
 	 * @param song      The song number, a non-
-	 * @param generator The sound player generator, not <code>null</code>.
+	 * @param generator The sound player generator, not <code>null</code>. It is
+	 *                  closed when playing ends or if the audio line cannot be
+	 *                  opened.
 	 * @param listener  The sound player listener or <code>null</code>.
+	 * @throws CoreException If no audio line is available.
 	 */
-	protected final void playInNewThread(int song, SoundGenerator generator, SoundPlayerListener listener) {
+	protected final void playInNewThread(int song, SoundGenerator generator, SoundPlayerListener listener)
+			throws CoreException {
 		if (generator == null) {
 			throw new IllegalArgumentException("Parameter 'generator' must not be null.");
 		}
 		if (!isLoaded()) {
 			throw new IllegalStateException("No song loaded");
 		}
+
+		AudioFormat format = generator.getRenderFormat();
+		int frameSize = format.getFrameSize();
+		int latencyFrames = Math.round(format.getFrameRate() * getTargetLatency() / 1000);
+		int chunkSize = Math.max(MIN_CHUNK_FRAMES, latencyFrames / (CHUNK_COUNT + LINE_CHUNK_COUNT)) * frameSize;
+		SourceDataLine line;
+		try {
+			line = AudioSystem.getSourceDataLine(format);
+			line.open(format, chunkSize * LINE_CHUNK_COUNT);
+		} catch (LineUnavailableException | IllegalArgumentException ex) {
+			generator.close();
+			// ERROR: No free audio line available to play song {0}. {1}
+			IStatus status = new Status(IStatus.ERROR, SoundPlugin.ID, TextUtility.format(Texts.MESSAGE_E504,
+					NumberUtility.getLongValueDecimalString(song), ex.getMessage()));
+			throw new CoreException(status);
+		}
+
 		playingSong = song;
 		playing = true;
+		threadActive = true;
+		this.line = line;
 		this.listener = listener;
 		if (listener != null) {
 			listener.playerUpdated(SoundPlayerListener.ALL);
 		}
 
-		Thread thread = new Thread(new SoundGeneratorRunnable(this, generator, listener));
-		thread.setName(getClass() + ":" + getInfo().getTitle());
-		thread.start();
+		generatorThread = new Thread(new SoundGeneratorRunnable(this, generator, line, chunkSize, listener));
+		generatorThread.setName(getClass() + ":" + getInfo().getTitle());
+		generatorThread.start();
 
 	}
 
+	/**
+	 * Sets the target latency for playing songs started afterwards.
+	 * 
+	 * @param targetLatency The latency in milliseconds between generating and
+	 *                      playing samples, a positive integer. Smaller values
+	 *                      make play, stop, seek and volume updates more
+	 *                      responsive but require a faster machine to avoid
+	 *                      drop outs.
+	 * 
+	 * @since 1.7.2
+	 */
+	public final synchronized void setTargetLatency(int targetLatency) {
+		if (targetLatency <= 0) {
+			throw new IllegalArgumentException(
+					"Parameter 'targetLatency' must be positive. Specified value is " + targetLatency + ".");
+		}
+		this.targetLatency = targetLatency;
+	}
+
+	/**
+	 * Gets the target latency.
+	 * 
+	 * @return The latency in milliseconds between generating and playing
+	 *         samples, a positive integer.
+	 * 
+	 * @since 1.7.2
+	 */
+	public final synchronized int getTargetLatency() {
+		return targetLatency;
+	}
+
+	/**
+	 * Discards the samples which have been generated but not played yet. Must be
+	 * called by sub-classes while holding the {@link #generatorLock} after the
+	 * position of the emulator has been changed.
+	 * 
+	 * @since 1.7.2
+	 */
+	protected final void flushPipeline() {
+		pipelineGeneration++;
+		SourceDataLine currentLine;
+		synchronized (this) {
+			currentLine = line;
+		}
+		if (currentLine != null) {
+			currentLine.flush();
+		}
+	}
+
+	/**
+	 * Waits until the current song is not paused anymore.
+	 * 
+	 * @return <code>true</code> if the current song is still playing.
+	 * @throws InterruptedException If the current thread is interrupted.
+	 */
+	final synchronized boolean waitWhilePaused() throws InterruptedException {
+		while (playing && paused) {
+			wait();
+		}
+		return playing;
+	}
+
+	/**
+	 * Creates a sound generator for the offline rendering mode. The generator
+	 * must use its own instance of the emulator, so several songs can be
+	 * rendered in parallel while the player is playing. Called without holding
+	 * the lock of the player.
+	 * 
+	 * @param song     The song number, a non-negative integer starting at zero for
+	 *                 the first song in the tune.
+	 * @param duration The duration to be rendered in milliseconds, a positive
+	 *                 integer.
+	 * @return The sound generator or <code>null</code> if offline rendering is
+	 *         not supported.
+	 * @throws CoreException If the song cannot be played.
+	 * 
+	 * @since 1.7.2
+	 */
+	protected SoundGenerator createRenderGenerator(int song, int duration) throws CoreException {
+		return null;
+	}
+
+	/**
+	 * Renders a song faster than real time into a ".wav" file. The duration is
+	 * taken from {@link SoundInfo#getDuration(int)}. If it is unknown,
+	 * {@link #DEFAULT_RENDER_DURATION} is used.
+	 * 
+	 * @param song The song number, a non-negative integer starting at zero for
+	 *             the first song in the tune.
+	 * @param file The ".wav" file, not <code>null</code>. An existing file is
+	 *             overwritten.
+	 * @throws CoreException If the song cannot be rendered or the file cannot be
+	 *                       written.
+	 * 
+	 * @since 1.7.2
+	 */
+	public final void render(int song, File file) throws CoreException {
+		if (file == null) {
+			throw new IllegalArgumentException("Parameter 'file' must not be null.");
+		}
+		if (!isLoaded()) {
+			throw new IllegalStateException("No song loaded");
+		}
+
+		int duration = getInfo().getDuration(song);
+		if (duration <= 0) {
+			duration = DEFAULT_RENDER_DURATION;
+		}
+		SoundGenerator generator = createRenderGenerator(song, duration);
+		if (generator == null) {
+			// ERROR: Offline rendering is not supported for sound files of type
+			// '{0}'.
+			IStatus status = new Status(IStatus.ERROR, SoundPlugin.ID,
+					TextUtility.format(Texts.MESSAGE_E511, getInfo().getModuleFileType()));
+			throw new CoreException(status);
+		}
+		try {
+			WAVFileWriter writer = new WAVFileWriter(file, generator.getRenderFormat());
+			try {
+				byte[] buffer = new byte[RENDER_BUFFER_SIZE];
+				int length;
+				while ((length = generator.renderBuffer(buffer)) > 0) {
+					writer.write(buffer, 0, length);
+				}
+			} finally {
+				writer.close();
+			}
+		} catch (IOException ex) {
+			// ERROR: Cannot render song number {0} to file '{1}'. {2}
+			throw createRenderException(song, file, ex.getMessage());
+		} finally {
+			generator.close();
+		}
+	}
+
+	/**
+	 * Renders all songs faster than real time into ".wav" files, see
+	 * {@link #render(int, File)}. The songs are rendered in parallel.
+	 * 
+	 * @param folder   The folder for the ".wav" files, not <code>null</code>.
+	 * @param fileName The file name without extension, not empty and not
+	 *                 <code>null</code>. If there is more than one song, the
+	 *                 song number starting at 1 is appended.
+	 * @return The ".wav" files in the order of the songs, may be empty, not
+	 *         <code>null</code>.
+	 * @throws CoreException If one of the songs cannot be rendered. The other
+	 *                       songs are rendered nevertheless.
+	 * 
+	 * @since 1.7.2
+	 */
+	public final List<File> renderAll(File folder, String fileName) throws CoreException {
+		if (folder == null) {
+			throw new IllegalArgumentException("Parameter 'folder' must not be null.");
+		}
+		if (fileName == null) {
+			throw new IllegalArgumentException("Parameter 'fileName' must not be null.");
+		}
+		if (fileName.length() == 0) {
+			throw new IllegalArgumentException("Parameter 'fileName' must not be empty.");
+		}
+
+		int songs = getInfo().getSongs();
+		List<File> files = new ArrayList<File>(songs);
+		for (int song = 0; song < songs; song++) {
+			String songFileName = fileName;
+			if (songs > 1) {
+				songFileName += "-" + NumberUtility.getLongValueDecimalString(song + 1);
+			}
+			files.add(new File(folder, songFileName + WAVFileWriter.EXTENSION));
+		}
+		if (songs == 0) {
+			return files;
+		}
+
+		final String threadName = getClass().getSimpleName() + ":" + getInfo().getTitle();
+		int threadCount = Math.min(songs, Runtime.getRuntime().availableProcessors());
+		ExecutorService executorService = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+			private final AtomicInteger threadNumber = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, threadName + " " + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>(songs);
+			for (int i = 0; i < songs; i++) {
+				final int song = i;
+				final File file = files.get(i);
+				futures.add(executorService.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() throws CoreException {
+						render(song, file);
+						return null;
+					}
+				}));
+			}
+
+			CoreException coreException = null;
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException ex) {
+					if (!(ex.getCause() instanceof CoreException)) {
+						throw new RuntimeException(ex.getCause());
+					}
+					if (coreException == null) {
+						coreException = (CoreException) ex.getCause();
+					}
+				}
+			}
+			if (coreException != null) {
+				throw coreException;
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Rendering interrupted", ex);
+		} finally {
+			executorService.shutdownNow();
+		}
+		return files;
+	}
+
+	private static CoreException createRenderException(int song, File file, String message) {
+		IStatus status = new Status(IStatus.ERROR, SoundPlugin.ID, TextUtility.format(Texts.MESSAGE_E510,
+				NumberUtility.getLongValueDecimalString(song), file.getPath(), message));
+		return new CoreException(status);
+	}
+
 	/**
 	 * Determines, if the current song is playing.
 	 * 
@@ -491,18 +957,22 @@ public abstract class SoundPlayer {
 	 * Stops the playing for the current song and notifies the listener.
 	 */
 	public synchronized void stop() {
-		synchronized (this) {
-			playing = false;
-			paused = false;
-			notifyAll();
-		}
+		playing = false;
+		paused = false;
+		notifyAll();
 
-		synchronized (this) {
-			while (threadActive) {
-				try {
-					wait(10);
-				} catch (InterruptedException ignore) {
-				}
+		// Interrupt the generator and discard the samples in the line, so
+		// the threads end immediately.
+		if (generatorThread != null) {
+			generatorThread.interrupt();
+		}
+		if (line != null) {
+			line.flush();
+		}
+		while (threadActive) {
+			try {
+				wait();
+			} catch (InterruptedException ignore) {
 			}
 		}
 		if (listener != null) {
@@ -516,6 +986,13 @@ public abstract class SoundPlayer {
 	 */
 	public final synchronized void togglePause() {
 		paused = !paused;
+		if (line != null) {
+			if (paused) {
+				line.stop();
+			} else {
+				line.start();
+			}
+		}
 		if (listener != null) {
 			listener.playerUpdated(SoundPlayerListener.STATE | SoundPlayerListener.VOLUME);
 		}
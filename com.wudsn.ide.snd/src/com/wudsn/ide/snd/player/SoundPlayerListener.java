@@ -29,6 +29,14 @@ public interface SoundPlayerListener {
 	public static final int STATE = 0x1;
 	public static final int POSITION = 0x2;
 	public static final int VOLUME = 0x4;
+
+	/**
+	 * The info of the loaded file has been completed, for example by the
+	 * durations of the songs. Not contained in {@link #ALL}.
+	 * 
+	 * @since 1.7.2
+	 */
+	public static final int INFO = 0x8;
 	public static final int ALL = STATE | POSITION | VOLUME;
 
 	// Number of milliseconds between position update.
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.snd.player;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Streaming writer for ".wav" files with 16-bit signed little endian PCM
+ * samples. The samples are written to the file as they are passed in. The
+ * sizes in the header are updated when the writer is closed.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+public final class WAVFileWriter implements Closeable {
+
+	/**
+	 * The file extension of ".wav" files.
+	 */
+	public static final String EXTENSION = ".wav";
+
+	private static final int HEADER_SIZE = 44;
+	private static final int RIFF_SIZE_OFFSET = 4;
+	private static final int DATA_SIZE_OFFSET = 40;
+	private static final long MAX_DATA_SIZE = 0xffffffffL - (HEADER_SIZE - 8);
+
+	private final FileOutputStream fileOutputStream;
+	private final OutputStream outputStream;
+	private long dataSize;
+
+	/**
+	 * Creates a new writer and writes the header.
+	 * 
+	 * @param file   The file, not <code>null</code>. An existing file is
+	 *               overwritten.
+	 * @param format The audio format, not <code>null</code>. Must be 16-bit
+	 *               signed little endian PCM.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public WAVFileWriter(File file, AudioFormat format) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("Parameter 'file' must not be null.");
+		}
+		if (format == null) {
+			throw new IllegalArgumentException("Parameter 'format' must not be null.");
+		}
+		if (!AudioFormat.Encoding.PCM_SIGNED.equals(format.getEncoding()) || format.getSampleSizeInBits() != 16
+				|| format.isBigEndian()) {
+			throw new IllegalArgumentException(
+					"Parameter 'format' must be 16-bit signed little endian PCM, but is '" + format + "'.");
+		}
+
+		int channels = format.getChannels();
+		int sampleRate = Math.round(format.getSampleRate());
+		int blockAlign = channels * 2;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.put(new byte[] { 'R', 'I', 'F', 'F' });
+		header.putInt(HEADER_SIZE - 8);
+		header.put(new byte[] { 'W', 'A', 'V', 'E', 'f', 'm', 't', ' ' });
+		header.putInt(16);
+		header.putShort((short) 1); // PCM
+		header.putShort((short) channels);
+		header.putInt(sampleRate);
+		header.putInt(sampleRate * blockAlign);
+		header.putShort((short) blockAlign);
+		header.putShort((short) 16);
+		header.put(new byte[] { 'd', 'a', 't', 'a' });
+		header.putInt(0);
+
+		fileOutputStream = new FileOutputStream(file);
+		outputStream = new BufferedOutputStream(fileOutputStream, 65536);
+		try {
+			outputStream.write(header.array());
+		} catch (IOException ex) {
+			fileOutputStream.close();
+			throw ex;
+		}
+		dataSize = 0;
+	}
+
+	/**
+	 * Writes samples.
+	 * 
+	 * @param buffer The buffer with the samples, not <code>null</code>.
+	 * @param offset The offset of the first byte in the buffer, a non-negative
+	 *               integer.
+	 * @param length The number of bytes, a non-negative integer.
+	 * @throws IOException If the file cannot be written or would exceed the
+	 *                     maximum size of a ".wav" file.
+	 */
+	public void write(byte[] buffer, int offset, int length) throws IOException {
+		if (buffer == null) {
+			throw new IllegalArgumentException("Parameter 'buffer' must not be null.");
+		}
+		if (dataSize + length > MAX_DATA_SIZE) {
+			throw new IOException("Maximum size of a .wav file exceeded.");
+		}
+		outputStream.write(buffer, offset, length);
+		dataSize += length;
+	}
+
+	/**
+	 * Updates the sizes in the header and closes the file.
+	 * 
+	 * @throws IOException If the file cannot be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			outputStream.flush();
+			FileChannel channel = fileOutputStream.getChannel();
+			ByteBuffer size = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+			size.putInt(0, (int) (dataSize + HEADER_SIZE - 8));
+			channel.write(size, RIFF_SIZE_OFFSET);
+			size.clear();
+			size.putInt(0, (int) dataSize);
+			channel.write(size, DATA_SIZE_OFFSET);
+		} finally {
+			fileOutputStream.close();
+		}
+	}
+}
@@ -23,12 +23,6 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.DataLine;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.SourceDataLine;
-
 import net.sf.asap.ASAP;
 import net.sf.asap.ASAPInfo;
 import net.sf.asap.ASAPMusicRoutine;
@@ -45,6 +39,7 @@ import com.wudsn.ide.snd.Texts;
 import com.wudsn.ide.snd.player.Clock;
 import com.wudsn.ide.snd.player.FileType;
 import com.wudsn.ide.snd.player.LoopMode;
+import com.wudsn.ide.snd.player.SoundGenerator;
 import com.wudsn.ide.snd.player.SoundPlayer;
 import com.wudsn.ide.snd.player.SoundPlayerListener;
 
@@ -68,6 +63,7 @@ public final class ASAPPlayer extends SoundPlayer {
 	// to load() because it is also used during export.
 	private byte[] module;
 	private int moduleLen;
+	private String moduleFileName;
 
 	/**
 	 * Creation is public.
@@ -76,6 +72,7 @@ public final class ASAPPlayer extends SoundPlayer {
 		asap = new ASAP();
 		module = null;
 		moduleLen = 0;
+		moduleFileName = null;
 	}
 
 	/**
@@ -118,6 +115,8 @@ public final class ASAPPlayer extends SoundPlayer {
 			}
 		}
 
+		moduleFileName = fileName;
+
 		// Parse binary.
 		ASAPMusicRoutine asapMusicRoutine;
 		try {
@@ -248,20 +247,33 @@ public final class ASAPPlayer extends SoundPlayer {
 			throw new CoreException(status);
 		}
 
-		AudioFormat format = new AudioFormat(ASAP.SAMPLE_RATE, 16, info.getChannels(), true, false);
-		SourceDataLine line;
-		int bufferSize = 8192;
+		playInNewThread(song, new ASAPSoundGenerator(asap), listener);
+
+	}
+
+	@Override
+	protected SoundGenerator createRenderGenerator(int song, int duration) throws CoreException {
+		byte[] renderModule;
+		int renderModuleLen;
+		String renderModuleFileName;
+		synchronized (this) {
+			renderModule = module;
+			renderModuleLen = moduleLen;
+			renderModuleFileName = moduleFileName;
+		}
+
+		// Every generator has its own emulator.
+		ASAP renderASAP = new ASAP();
 		try {
-			line = (SourceDataLine) AudioSystem.getLine(new DataLine.Info(SourceDataLine.class, format));
-			line.open(format, bufferSize);
-		} catch (LineUnavailableException ex) {
-			// ERROR: No free audio line available to play song {0}. {1}
-			IStatus status = new Status(IStatus.ERROR, SoundPlugin.ID, TextUtility.format(Texts.MESSAGE_E504,
+			renderASAP.load(renderModuleFileName, renderModule, renderModuleLen);
+			renderASAP.playSong(song, duration);
+		} catch (Exception ex) {
+			// ERROR: Cannot play song number {0}. {1}
+			IStatus status = new Status(IStatus.ERROR, SoundPlugin.ID, TextUtility.format(Texts.MESSAGE_E503,
 					NumberUtility.getLongValueDecimalString(song), ex.getMessage()));
 			throw new CoreException(status);
 		}
-		playInNewThread(song, new ASAPSoundGenerator(asap, line), listener);
-
+		return new ASAPSoundGenerator(renderASAP);
 	}
 
 	@Override
@@ -277,8 +289,10 @@ public final class ASAPPlayer extends SoundPlayer {
 	@Override
 	public synchronized void seekPosition(int position) {
 		try {
-
-			asap.seek(position);
+			synchronized (generatorLock) {
+				asap.seek(position);
+				flushPipeline();
+			}
 			if (listener != null) {
 				listenerUpdatedPosition = position;
 				listener.playerUpdated(SoundPlayerListener.POSITION);
@@ -18,7 +18,7 @@
  */
 package com.wudsn.ide.snd.player.atari8;
 
-import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.AudioFormat;
 
 import net.sf.asap.ASAP;
 import net.sf.asap.ASAPSampleFormat;
@@ -33,43 +33,34 @@ import com.wudsn.ide.snd.player.SoundGenerator;
  */
 final class ASAPSoundGenerator extends SoundGenerator {
 	private final ASAP asap;
-	private final SourceDataLine line;
-	private final byte[] buffer;
-	private int len;
 
-	public ASAPSoundGenerator(ASAP asap, SourceDataLine line) {
+	/**
+	 * Creates a new generator.
+	 * 
+	 * @param asap The ASAP instance with the song to be played, not
+	 *             <code>null</code>.
+	 */
+	public ASAPSoundGenerator(ASAP asap) {
 		if (asap == null) {
 			throw new IllegalArgumentException("Parameter 'asap' must not be null.");
 		}
-		if (line == null) {
-			throw new IllegalArgumentException("Parameter 'line' must not be null.");
-		}
 		this.asap = asap;
-		this.line = line;
-		buffer = new byte[line.getBufferSize()];
-
-		line.start();
-
 	}
 
 	@Override
-	public void generateBuffer() {
-		len = asap.generate(buffer, buffer.length, ASAPSampleFormat.S16_L_E);
-	}
-
-	@Override
-	public void playBuffer() {
-		line.write(buffer, 0, len);
+	public void close() {
 	}
 
 	@Override
-	public boolean isGenerating() {
-		return len == buffer.length;
+	public AudioFormat getRenderFormat() {
+		return new AudioFormat(ASAP.SAMPLE_RATE, 16, asap.getInfo().getChannels(), true, false);
 	}
 
 	@Override
-	public void close() {
-		line.drain();
-		line.close();
+	public int renderBuffer(byte[] buffer) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("Parameter 'buffer' must not be null.");
+		}
+		return asap.generate(buffer, buffer.length, ASAPSampleFormat.S16_L_E);
 	}
 }
\ No newline at end of file
@@ -19,12 +19,13 @@
 
 package com.wudsn.ide.snd.player.c64;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.AudioFormat;
 
 import libsidplay.Player;
 import libsidplay.common.ISID2Types.Clock;
@@ -33,7 +34,6 @@ import libsidplay.components.mos656x.Palette;
 import libsidplay.sidtune.SidTune;
 import libsidplay.sidtune.SidTuneError;
 import libsidplay.sidtune.SidTuneInfo;
-import libsidutils.SidDatabase;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
@@ -46,7 +46,6 @@ import resid_builder.resid.SID;
 import resid_builder.resid.Voice;
 import sidplay.audio.AudioConfig;
 import sidplay.audio.AudioDriver;
-import sidplay.audio.JavaSound;
 import sidplay.ini.IniConfig;
 import sidplay.ini.IniFilterSection;
 
@@ -91,9 +90,10 @@ import com.wudsn.ide.snd.player.SoundPlayerListener;
  * SID tunes themselves do not contain any information on duration or looping of
  * a song. The duration is available separately via the This is the
  * "C64Music/DOCUMENTS/SongLength.txt" file contained in the complete download
- * of the "http://www.hvsc.c64.org/index.html". The ability to load the file
- * content directly from a resource input stream has been fixed in the local
- * copy of {@link SidDatabase}.
+ * of the "http://www.hvsc.c64.org/index.html". The file is queried via the
+ * {@link SongLengthDatabase}, which is loaded in the background when the plugin
+ * is started. If it is not loaded yet, the durations are added to the info
+ * when it is loaded.
  * </p>
  * <p>
  * Seeking:<br/>
@@ -113,20 +113,11 @@ public final class SIDPlayer extends SoundPlayer {
 	 * Magic value 10000 is the number of events to execute in a sequence. The
 	 * emulated C64 emulates each clock tick of the ~1MHz Quartz. Each event can be
 	 * SID or VIC based or any other chip on the hardware which must be clocked to
-	 * change its state.
-	 * <ul>
-	 * <li>You can make it higher to find out that the UI reacts slower on changes
-	 * (even stop/close calls need longer to work for higher values).</li>
-	 * 
-	 * <li>It must be high enough to filled the sound buffer according to the audio
-	 * frequency (41000 Hz). Otherwise stuttering is audible.</li>
-	 * </ul>
+	 * change its state. The sequence is repeated until the requested buffer is
+	 * filled. Higher values generate more samples ahead of time, which delays the
+	 * volume updates.
 	 */
-	private static final int MAGIC_NUMBER_OF_EVENTS = 10000 * 10;
-
-	private static final String HVSC_SONG_LENGTHS = "hvsc/SongLengths.txt";
-
-	private static final SidDatabase sidDatabase;
+	private static final int MAGIC_NUMBER_OF_EVENTS = 10000;
 
 	/**
 	 * Internal player.
@@ -134,14 +125,7 @@ public final class SIDPlayer extends SoundPlayer {
 	private Player player;
 	private String moduleFileType;
 	private SidTune tune;
-
-	static {
-		InputStream result = SIDPlayer.class.getResourceAsStream(HVSC_SONG_LENGTHS);
-		if (result == null) {
-			throw new RuntimeException("Canot find resource '" + HVSC_SONG_LENGTHS + "'.");
-		}
-		sidDatabase = new SidDatabase(result);
-	}
+	private byte[] tuneContent;
 
 	/**
 	 * Creation is public.
@@ -152,7 +136,7 @@ public final class SIDPlayer extends SoundPlayer {
 	}
 
 	@Override
-	public void load(String fileName, InputStream inputStream) throws CoreException {
+	public synchronized void load(String fileName, InputStream inputStream) throws CoreException {
 
 		if (fileName == null) {
 			throw new IllegalArgumentException("Parameter 'fileName' must not be null.");
@@ -163,8 +147,9 @@ public final class SIDPlayer extends SoundPlayer {
 
 		clear();
 		try {
-			// Load tune.
-			tune = SidTune.load(inputStream);
+			// Load tune. The content is kept for offline rendering.
+			tuneContent = inputStream.readAllBytes();
+			tune = SidTune.load(new ByteArrayInputStream(tuneContent));
 			int index = fileName.lastIndexOf('.') + 1;
 			if (index >= 0) {
 				moduleFileType = fileName.substring(index).toUpperCase();
@@ -219,15 +204,37 @@ public final class SIDPlayer extends SoundPlayer {
 		// starts with 1.
 		info.durations = new int[info.songs];
 		info.loops = new LoopMode[info.songs];
-		String md5 = tune.getMD5Digest();
 		for (int i = 0; i < info.songs; i++) {
-			// Try to lookup song duration in database.
-			if (md5 != null) {
-				info.durations[i] = sidDatabase.length(md5, i + 1) * 1000;
-			}
 			info.loops[i] = LoopMode.UNKNOWN;
 		}
 
+		// Try to lookup song durations in database. If it is still being
+		// loaded, the durations are added when it is loaded.
+		final String md5 = tune.getMD5Digest();
+		if (md5 != null) {
+			SongLengthDatabase songLengthDatabase = SongLengthDatabase.getLoadedInstance();
+			if (songLengthDatabase != null) {
+				info.durations = getDurations(songLengthDatabase, md5, info.songs);
+			} else {
+				final SoundInfoImpl loadedInfo = info;
+				SongLengthDatabase.runWhenLoaded(new Runnable() {
+
+					@Override
+					public void run() {
+						int[] durations = getDurations(SongLengthDatabase.getInstance(), md5, loadedInfo.songs);
+						synchronized (SIDPlayer.this) {
+							// Skip if another file has been loaded meanwhile.
+							if (info != loadedInfo) {
+								return;
+							}
+							loadedInfo.durations = durations;
+						}
+						infoCompleted();
+					}
+				});
+			}
+		}
+
 		Clock clock = player.getC64().getClock();
 		if (clock == null) {
 			clock = DEFAULT_CLOCK;
@@ -255,12 +262,29 @@ public final class SIDPlayer extends SoundPlayer {
 		setLoaded(true);
 	}
 
+	/**
+	 * Gets the durations of all songs of a tune.
+	 * 
+	 * @param songLengthDatabase The song length database, not <code>null</code>.
+	 * @param md5                The MD5 digest of the tune, not
+	 *                           <code>null</code>.
+	 * @param songs              The number of songs, a non-negative integer.
+	 * @return The durations in milliseconds, 0 for unknown durations, not
+	 *         <code>null</code>.
+	 */
+	private static int[] getDurations(SongLengthDatabase songLengthDatabase, String md5, int songs) {
+		int[] durations = new int[songs];
+		for (int i = 0; i < songs; i++) {
+			durations[i] = songLengthDatabase.getLength(md5, i + 1) * 1000;
+		}
+		return durations;
+	}
+
 	private final static class SIDSoundGenerator extends SoundGenerator {
-		private final AudioDriver driver;
+		private final SIDRenderDriver driver;
 		private final Player player;
-		private boolean generating;
 
-		public SIDSoundGenerator(AudioDriver driver, Player player) {
+		public SIDSoundGenerator(SIDRenderDriver driver, Player player) {
 			if (driver == null) {
 				throw new IllegalArgumentException("Parameter 'driver' must not be null.");
 			}
@@ -270,37 +294,37 @@ public final class SIDPlayer extends SoundPlayer {
 			}
 			this.driver = driver;
 			this.player = player;
-			generating = false;
 		}
 
 		@Override
-		public void generateBuffer() {
-			generating = true;
-		}
-
-		@Override
-		public void playBuffer() {
+		public void close() {
+			player.setTune(null);
 			try {
-				player.play(MAGIC_NUMBER_OF_EVENTS);
-			} catch (InterruptedException ex) {
-				generating = false;
+				player.reset();
+			} catch (InterruptedException ignore) {
 			}
-
+			driver.close();
 		}
 
 		@Override
-		public boolean isGenerating() {
-			return generating;
+		public AudioFormat getRenderFormat() {
+			return driver.getFormat();
 		}
 
 		@Override
-		public void close() {
-			player.setTune(null);
+		public int renderBuffer(byte[] buffer) {
+			if (buffer == null) {
+				throw new IllegalArgumentException("Parameter 'buffer' must not be null.");
+			}
 			try {
-				player.reset();
-			} catch (InterruptedException ignore) {
+				while (driver.getPendingLength() < buffer.length && !driver.isComplete()) {
+					player.play(MAGIC_NUMBER_OF_EVENTS);
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return 0;
 			}
-			driver.close();
+			return driver.read(buffer);
 		}
 	}
 
@@ -350,114 +374,157 @@ public final class SIDPlayer extends SoundPlayer {
 		// Customize player configuration
 		player.setClock(DEFAULT_CLOCK);
 
-		// Get sound driver and apply to the player
-		final AudioDriver driver = new JavaSound();
+		// Get sound driver and apply to the player. The samples are played
+		// by the audio pipeline of the base class until the song is stopped.
+		final SIDRenderDriver driver = new SIDRenderDriver(getInfo().getChannels(), 0);
 		final AudioConfig config = iniCfg.audio().toAudioConfig(getInfo().getChannels());
 		try {
 			driver.open(config);
 
-			// Setup the SID emulation (not part of the player)
-			final ReSIDBuilder rs = new ReSIDBuilder(config, player.getC64().getClock().getCpuFrequency());
-			rs.setOutput(driver);
-
-			// Create SID chip of desired model (mono tunes need exactly one)
-			final ReSID sid = createSID(rs, iniCfg);
+			setUpSIDs(player, tune, driver, config, iniCfg);
+			player.reset();
+		} catch (Exception ex) {
+			// ERROR: Cannot play song number {0}. {1}
+			IStatus status = new Status(IStatus.ERROR, SoundPlugin.ID, TextUtility.format(Texts.MESSAGE_E503,
+					NumberUtility.getLongValueDecimalString(song), ex.getMessage()));
+			throw new CoreException(status);
+		}
 
-			// Apply mono SID chip to the C64, then reset
-			player.getC64().setSID(0, sid);
+		playInNewThread(song, new SIDSoundGenerator(driver, player), listener);
 
-			// The following is taken from sidplay.ConsolePlayer#open() to
-			// handle stereo..
-			SidTuneInfo tuneInfo = tune.getInfo();
-			int secondAddress = 0;
+	}
 
-			if (tuneInfo != null) {
-				if (tuneInfo.sidChipBase2 != 0) {
-					secondAddress = tuneInfo.sidChipBase2;
-				}
+	/**
+	 * Creates the SID chips for a tune and connects them to the audio driver.
+	 * 
+	 * @param player The player, not <code>null</code>.
+	 * @param tune   The tune, not <code>null</code>.
+	 * @param driver The opened audio driver, not <code>null</code>.
+	 * @param config The audio configuration, not <code>null</code>.
+	 * @param iniCfg The configuration, not <code>null</code>.
+	 * 
+	 * @since 1.7.2
+	 */
+	private static void setUpSIDs(Player player, SidTune tune, AudioDriver driver, AudioConfig config,
+			IniConfig iniCfg) {
+		// Setup the SID emulation (not part of the player)
+		final ReSIDBuilder rs = new ReSIDBuilder(config, player.getC64().getClock().getCpuFrequency());
+		rs.setOutput(driver);
+
+		// Create SID chip of desired model (mono tunes need exactly one)
+		final ReSID sid = createSID(player, rs, iniCfg);
+
+		// Apply mono SID chip to the C64, then reset
+		player.getC64().setSID(0, sid);
+
+		// The following is taken from sidplay.ConsolePlayer#open() to
+		// handle stereo..
+		SidTuneInfo tuneInfo = tune.getInfo();
+		int secondAddress = 0;
+
+		if (tuneInfo != null) {
+			if (tuneInfo.sidChipBase2 != 0) {
+				secondAddress = tuneInfo.sidChipBase2;
 			}
+		}
 
-			if (secondAddress != 0) {
-				// Create 2nd SID.
-				player.getC64().setSID(1, createSID(rs, iniCfg));
+		if (secondAddress != 0) {
+			// Create 2nd SID.
+			player.getC64().setSID(1, createSID(player, rs, iniCfg));
 
-				// Set correct SID address.
-				if (secondAddress != 0xd400) {
-					player.getC64().setSecondSIDAddress(secondAddress);
-				} else {
+			// Set correct SID address.
+			if (secondAddress != 0xd400) {
+				player.getC64().setSecondSIDAddress(secondAddress);
+			} else {
 
-					/* Stereo SID at 0xd400 hack */
+				/* Stereo SID at 0xd400 hack */
 
-					final SIDEmu s1 = player.getC64().getSID(0);
-					final SIDEmu s2 = player.getC64().getSID(1);
+				final SIDEmu s1 = player.getC64().getSID(0);
+				final SIDEmu s2 = player.getC64().getSID(1);
 
-					// Register a merged SIDEmu that writes both results into
-					// one stream.
-					player.getC64().setSID(0, new SIDEmu(player.getC64().getEventScheduler()) {
-						@Override
-						public void reset(byte volume) {
-							s1.reset(volume);
-						}
+				// Register a merged SIDEmu that writes both results into
+				// one stream.
+				player.getC64().setSID(0, new SIDEmu(player.getC64().getEventScheduler()) {
+					@Override
+					public void reset(byte volume) {
+						s1.reset(volume);
+					}
 
-						@Override
-						public byte read(int addr) {
-							return s1.read(addr);
-						}
+					@Override
+					public byte read(int addr) {
+						return s1.read(addr);
+					}
 
-						@Override
-						public void write(int addr, byte data) {
-							s1.write(addr, data);
-							s2.write(addr, data);
-						}
+					@Override
+					public void write(int addr, byte data) {
+						s1.write(addr, data);
+						s2.write(addr, data);
+					}
 
-						@Override
-						public byte readInternalRegister(int addr) {
-							return s1.readInternalRegister(addr);
-						}
+					@Override
+					public byte readInternalRegister(int addr) {
+						return s1.readInternalRegister(addr);
+					}
 
-						@Override
-						public void clock() {
-							s1.clock();
-						}
+					@Override
+					public void clock() {
+						s1.clock();
+					}
 
-						@Override
-						public void setEnabled(int num, boolean mute) {
-							s1.setEnabled(num, mute);
-						}
+					@Override
+					public void setEnabled(int num, boolean mute) {
+						s1.setEnabled(num, mute);
+					}
 
-						@Override
-						public void setFilter(boolean enable) {
-							s1.setFilter(enable);
-						}
+					@Override
+					public void setFilter(boolean enable) {
+						s1.setFilter(enable);
+					}
 
-						@Override
-						public ChipModel getChipModel() {
-							return s1.getChipModel();
-						}
-					});
-				}
+					@Override
+					public ChipModel getChipModel() {
+						return s1.getChipModel();
+					}
+				});
 			}
+		}
 
-			player.reset();
-		} catch (LineUnavailableException ex) {
-			driver.close();
-			// ERROR: No free audio line available to play song {0}. {1}
-			IStatus status = new Status(IStatus.ERROR, SoundPlugin.ID, TextUtility.format(Texts.MESSAGE_E501,
-					NumberUtility.getLongValueDecimalString(song), ex.getMessage()));
-			throw new CoreException(status);
+	}
 
+	@Override
+	protected SoundGenerator createRenderGenerator(int song, int duration) throws CoreException {
+		byte[] content;
+		synchronized (this) {
+			content = tuneContent;
+		}
+
+		// Every generator has its own emulator.
+		Player renderPlayer = new Player();
+		IniConfig iniCfg = new IniConfig();
+		SIDRenderDriver driver = new SIDRenderDriver(getInfo().getChannels(), duration);
+		AudioConfig config = iniCfg.audio().toAudioConfig(getInfo().getChannels());
+		try {
+			SidTune renderTune = SidTune.load(new ByteArrayInputStream(content));
+			renderTune.selectSong(song + 1);
+			renderPlayer.setTune(renderTune);
+			renderPlayer.setClock(DEFAULT_CLOCK);
+			driver.open(config);
+			setUpSIDs(renderPlayer, renderTune, driver, config, iniCfg);
+			renderPlayer.reset();
 		} catch (Exception ex) {
+			driver.close();
 			// ERROR: Cannot play song number {0}. {1}
 			IStatus status = new Status(IStatus.ERROR, SoundPlugin.ID, TextUtility.format(Texts.MESSAGE_E503,
 					NumberUtility.getLongValueDecimalString(song), ex.getMessage()));
 			throw new CoreException(status);
 		}
-
-		playInNewThread(song, new SIDSoundGenerator(driver, player), listener);
-
+		return new SIDSoundGenerator(driver, renderPlayer);
 	}
 
-	private ReSID createSID(ReSIDBuilder rs, IniConfig iniCfg) {
+	private static ReSID createSID(Player player, ReSIDBuilder rs, IniConfig iniCfg) {
+		if (player == null) {
+			throw new IllegalArgumentException("Parameter 'player' must not be null.");
+		}
 		if (rs == null) {
 			throw new IllegalArgumentException("Parameter 'rs' must not be null.");
 		}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.snd.player.c64;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import javax.sound.sampled.AudioFormat;
+
+import sidplay.audio.AudioConfig;
+import sidplay.audio.AudioDriver;
+
+/**
+ * Audio driver for the {@link SIDPlayer}. The samples written by the emulator
+ * are collected in memory until they are read by the {@link SIDPlayer} sound
+ * generator. Samples after the end of the duration are discarded.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+final class SIDRenderDriver extends AudioDriver {
+
+	private final int channels;
+	private final int duration;
+
+	private AudioFormat format;
+	private ByteBuffer sampleBuffer;
+	private long remainingBytes;
+
+	// The samples which are written but not read yet.
+	private byte[] pending;
+	private int pendingLength;
+
+	/**
+	 * Creates a new driver.
+	 * 
+	 * @param channels The number of channels, 1 or 2.
+	 * @param duration The duration in milliseconds, a positive integer, or 0 for
+	 *                 an unlimited duration.
+	 */
+	SIDRenderDriver(int channels, int duration) {
+		this.channels = channels;
+		this.duration = duration;
+		pending = new byte[0];
+		pendingLength = 0;
+	}
+
+	@Override
+	public void open(AudioConfig cfg) {
+		format = new AudioFormat(cfg.getFrameRate(), 16, channels, true, false);
+		sampleBuffer = ByteBuffer.allocate(cfg.getChunkFrames() * 2 * channels);
+		sampleBuffer.order(ByteOrder.LITTLE_ENDIAN);
+		if (duration > 0) {
+			remainingBytes = (long) cfg.getFrameRate() * duration / 1000 * 2 * channels;
+		} else {
+			remainingBytes = Long.MAX_VALUE;
+		}
+	}
+
+	@Override
+	public void write() {
+		int length = (int) Math.min(sampleBuffer.position(), remainingBytes);
+		if (length == 0) {
+			return;
+		}
+		if (pendingLength + length > pending.length) {
+			pending = Arrays.copyOf(pending, Math.max(pendingLength + length, pending.length * 2));
+		}
+		System.arraycopy(sampleBuffer.array(), 0, pending, pendingLength, length);
+		pendingLength += length;
+		remainingBytes -= length;
+	}
+
+	@Override
+	public void pause() {
+	}
+
+	@Override
+	public void close() {
+		pending = new byte[0];
+		pendingLength = 0;
+	}
+
+	@Override
+	public ByteBuffer buffer() {
+		return sampleBuffer;
+	}
+
+	/**
+	 * Gets the format of the samples.
+	 * 
+	 * @return The format, not <code>null</code> after {@link #open(AudioConfig)}.
+	 */
+	AudioFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Determines if all samples up to the end of the duration have been
+	 * written.
+	 * 
+	 * @return <code>true</code> if all samples have been written.
+	 */
+	boolean isComplete() {
+		return remainingBytes == 0;
+	}
+
+	/**
+	 * Gets the number of bytes which are written but not read yet.
+	 * 
+	 * @return The number of bytes, a non-negative integer.
+	 */
+	int getPendingLength() {
+		return pendingLength;
+	}
+
+	/**
+	 * Reads samples which have been written before.
+	 * 
+	 * @param buffer The buffer to be filled, not <code>null</code>.
+	 * @return The number of bytes filled.
+	 */
+	int read(byte[] buffer) {
+		int length = Math.min(buffer.length, pendingLength);
+		System.arraycopy(pending, 0, buffer, 0, length);
+		System.arraycopy(pending, length, pending, 0, pendingLength - length);
+		pendingLength -= length;
+		return length;
+	}
+}
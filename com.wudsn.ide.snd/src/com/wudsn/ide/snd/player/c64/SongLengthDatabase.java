@@ -0,0 +1,468 @@
+/**
+ * Copyright (C) 2009 - 2021 <a href="https://www.wudsn.com" target="_top">Peter Dell</a>
+ *
+ * This file is part of WUDSN IDE.
+ * 
+ * WUDSN IDE is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 2 of the License, or
+ * (at your option) any later version.
+ * 
+ * WUDSN IDE is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with WUDSN IDE.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.wudsn.ide.snd.player.c64;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import com.wudsn.ide.snd.SoundPlugin;
+
+/**
+ * Song length database of the High Voltage SID Collection. The bundled text
+ * file "hvsc/SongLengths.txt" is converted once into a compact binary index in
+ * the state location of the plugin. The index contains the MD5 digests of all
+ * tunes in ascending order followed by the packed durations of their songs. It
+ * is memory-mapped and queried with a binary search, so neither the text file
+ * nor a map of it is kept in the heap.
+ * 
+ * The index is loaded in a background thread when the plugin is started, see
+ * {@link #prefetch()}. Until it is loaded, the durations are unknown. Players
+ * use {@link #runWhenLoaded(Runnable)} to add them afterwards.
+ * 
+ * @author Peter Dell
+ * 
+ * @since 1.7.2
+ */
+public final class SongLengthDatabase {
+
+	private static final String HVSC_SONG_LENGTHS = "hvsc/SongLengths.txt";
+
+	/**
+	 * Prefix of the index file name. The file name also contains the bundle
+	 * version, because the text file can only change with the bundle.
+	 */
+	private static final String INDEX_FILE_PREFIX = "SongLengths-";
+	private static final String INDEX_FILE_SUFFIX = ".idx";
+
+	/**
+	 * Header: magic, format version, number of entries, number of durations.
+	 */
+	private static final int MAGIC = 0x534c4442; // "SLDB"
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+
+	/**
+	 * Entry: MD5 digest as two longs, offset of the first duration, number of
+	 * durations.
+	 */
+	private static final int MD5_LENGTH = 16;
+	private static final int ENTRY_SIZE = MD5_LENGTH + 8;
+
+	/**
+	 * Duration in seconds as unsigned short.
+	 */
+	private static final int DURATION_SIZE = 2;
+	private static final int MAX_DURATION = 0xffff;
+
+	private static final SongLengthDatabase EMPTY = new SongLengthDatabase(createIndex(0, 0));
+
+	private static FutureTask<SongLengthDatabase> instance;
+	private static final List<Runnable> loadedRunnables = new ArrayList<Runnable>();
+
+	private final ByteBuffer index;
+	private final int entryCount;
+	private final int durationsOffset;
+
+	/**
+	 * Creation is private.
+	 * 
+	 * @param index The index, not <code>null</code>.
+	 */
+	private SongLengthDatabase(ByteBuffer index) {
+		this.index = index;
+		entryCount = index.getInt(8);
+		durationsOffset = HEADER_SIZE + entryCount * ENTRY_SIZE;
+	}
+
+	/**
+	 * Starts loading the database in a background thread, unless this has been
+	 * done before. Called when the plugin is started.
+	 */
+	public static synchronized void prefetch() {
+		if (instance != null) {
+			return;
+		}
+		instance = new FutureTask<SongLengthDatabase>(new Callable<SongLengthDatabase>() {
+
+			@Override
+			public SongLengthDatabase call() throws Exception {
+				try {
+					return load();
+				} catch (IOException | RuntimeException ex) {
+					SoundPlugin.getInstance().logError("Cannot load song length database", null, ex);
+					return EMPTY;
+				}
+			}
+		}) {
+
+			@Override
+			protected void done() {
+				List<Runnable> runnables;
+				synchronized (SongLengthDatabase.class) {
+					runnables = new ArrayList<Runnable>(loadedRunnables);
+					loadedRunnables.clear();
+				}
+				for (Runnable runnable : runnables) {
+					runnable.run();
+				}
+			}
+		};
+		Thread thread = new Thread(instance, "SongLengthDatabase");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Gets the database if it is loaded already. Does not wait.
+	 * 
+	 * @return The database or <code>null</code> if it is still being loaded.
+	 */
+	static SongLengthDatabase getLoadedInstance() {
+		FutureTask<SongLengthDatabase> future;
+		synchronized (SongLengthDatabase.class) {
+			prefetch();
+			future = instance;
+		}
+		if (!future.isDone()) {
+			return null;
+		}
+		return getInstance();
+	}
+
+	/**
+	 * Runs a runnable when the database is loaded. If the database is loaded
+	 * already, the runnable is run immediately in the calling thread, otherwise
+	 * in the loading thread.
+	 * 
+	 * @param runnable The runnable, not <code>null</code>.
+	 */
+	static void runWhenLoaded(Runnable runnable) {
+		if (runnable == null) {
+			throw new IllegalArgumentException("Parameter 'runnable' must not be null.");
+		}
+		synchronized (SongLengthDatabase.class) {
+			prefetch();
+			if (!instance.isDone()) {
+				loadedRunnables.add(runnable);
+				return;
+			}
+		}
+		runnable.run();
+	}
+
+	/**
+	 * Gets the database and waits until it is loaded.
+	 * 
+	 * @return The database, not <code>null</code>. If the database cannot be
+	 *         loaded, the result is empty.
+	 */
+	static SongLengthDatabase getInstance() {
+		FutureTask<SongLengthDatabase> future;
+		synchronized (SongLengthDatabase.class) {
+			prefetch();
+			future = instance;
+		}
+		try {
+			return future.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return EMPTY;
+		} catch (ExecutionException ex) {
+			throw new RuntimeException(ex.getCause());
+		}
+	}
+
+	/**
+	 * Gets the duration of a song.
+	 * 
+	 * @param md5  The MD5 digest of the tune as hex string, not
+	 *             <code>null</code>.
+	 * @param song The song number, starting with 1.
+	 * @return The duration in seconds or 0 if the duration is unknown.
+	 */
+	int getLength(String md5, int song) {
+		if (md5 == null) {
+			throw new IllegalArgumentException("Parameter 'md5' must not be null.");
+		}
+		if (md5.length() != MD5_LENGTH * 2) {
+			return 0;
+		}
+		long high;
+		long low;
+		try {
+			high = Long.parseUnsignedLong(md5.substring(0, MD5_LENGTH), 16);
+			low = Long.parseUnsignedLong(md5.substring(MD5_LENGTH), 16);
+		} catch (NumberFormatException ex) {
+			return 0;
+		}
+
+		int first = 0;
+		int last = entryCount - 1;
+		while (first <= last) {
+			int middle = (first + last) >>> 1;
+			int offset = HEADER_SIZE + middle * ENTRY_SIZE;
+			int compare = Long.compareUnsigned(index.getLong(offset), high);
+			if (compare == 0) {
+				compare = Long.compareUnsigned(index.getLong(offset + 8), low);
+			}
+			if (compare < 0) {
+				first = middle + 1;
+			} else if (compare > 0) {
+				last = middle - 1;
+			} else {
+				int count = index.getInt(offset + MD5_LENGTH + 4);
+				if (song < 1 || song > count) {
+					return 0;
+				}
+				int durationIndex = index.getInt(offset + MD5_LENGTH) + song - 1;
+				return index.getShort(durationsOffset + durationIndex * DURATION_SIZE) & MAX_DURATION;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Loads the index file from the state location or creates it from the text
+	 * file, if it does not exist yet.
+	 * 
+	 * @return The database, not <code>null</code>.
+	 * @throws IOException If the text file cannot be read.
+	 */
+	private static SongLengthDatabase load() throws IOException {
+		SoundPlugin plugin = SoundPlugin.getInstance();
+		File folder = plugin.getStateLocation().toFile();
+		String bundleVersion = plugin.getBundle().getVersion().toString();
+		File indexFile = new File(folder, INDEX_FILE_PREFIX + bundleVersion + INDEX_FILE_SUFFIX);
+
+		if (indexFile.isFile()) {
+			try {
+				ByteBuffer index = map(indexFile);
+				if (isValid(index)) {
+					return new SongLengthDatabase(index);
+				}
+			} catch (IOException ex) {
+				plugin.logError("Cannot read song length index {0}", new Object[] { indexFile.getPath() }, ex);
+			}
+		}
+
+		ByteBuffer index = parse();
+		try {
+			write(folder, indexFile, index);
+			return new SongLengthDatabase(map(indexFile));
+		} catch (IOException ex) {
+			// The index is still usable, but only in the heap.
+			plugin.logError("Cannot write song length index {0}", new Object[] { indexFile.getPath() }, ex);
+			return new SongLengthDatabase(index);
+		}
+	}
+
+	private static ByteBuffer map(File file) throws IOException {
+		// The mapping stays valid after the channel is closed.
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	private static boolean isValid(ByteBuffer index) {
+		if (index.capacity() < HEADER_SIZE || index.getInt(0) != MAGIC || index.getInt(4) != FORMAT_VERSION) {
+			return false;
+		}
+		long entryCount = index.getInt(8);
+		long durationCount = index.getInt(12);
+		return entryCount >= 0 && durationCount >= 0
+				&& index.capacity() == HEADER_SIZE + entryCount * ENTRY_SIZE + durationCount * DURATION_SIZE;
+	}
+
+	/**
+	 * Writes the index to a temporary file and renames it afterwards, so a
+	 * partially written index file is never used. Index files of other bundle
+	 * versions are deleted.
+	 */
+	private static void write(File folder, File indexFile, ByteBuffer index) throws IOException {
+		File[] files = folder.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String name = file.getName();
+				if (name.startsWith(INDEX_FILE_PREFIX) && name.endsWith(INDEX_FILE_SUFFIX)
+						&& !file.equals(indexFile)) {
+					file.delete();
+				}
+			}
+		}
+
+		File tempFile = File.createTempFile(INDEX_FILE_PREFIX, ".tmp", folder);
+		try {
+			try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE)) {
+				ByteBuffer buffer = index.duplicate();
+				buffer.clear();
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			tempFile.delete();
+		}
+	}
+
+	/**
+	 * Parses the text file into a new index.
+	 * 
+	 * @return The index, not <code>null</code>.
+	 * @throws IOException If the text file cannot be read.
+	 */
+	private static ByteBuffer parse() throws IOException {
+		InputStream inputStream = SongLengthDatabase.class.getResourceAsStream(HVSC_SONG_LENGTHS);
+		if (inputStream == null) {
+			throw new IOException("Cannot find resource '" + HVSC_SONG_LENGTHS + "'.");
+		}
+
+		int entryCount = 0;
+		long[] md5s = new long[65536 * 2];
+		int[] offsets = new int[65536];
+		int durationCount = 0;
+		int[] durations = new int[65536 * 2];
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(inputStream, StandardCharsets.ISO_8859_1))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				// Comment and section lines have no "=" at this position.
+				int index = line.indexOf('=');
+				if (index != MD5_LENGTH * 2 || line.startsWith(";")) {
+					continue;
+				}
+				long high;
+				long low;
+				try {
+					high = Long.parseUnsignedLong(line.substring(0, MD5_LENGTH), 16);
+					low = Long.parseUnsignedLong(line.substring(MD5_LENGTH, MD5_LENGTH * 2), 16);
+				} catch (NumberFormatException ex) {
+					continue;
+				}
+				if (entryCount == offsets.length) {
+					offsets = Arrays.copyOf(offsets, entryCount * 2);
+					md5s = Arrays.copyOf(md5s, entryCount * 4);
+				}
+				md5s[entryCount * 2] = high;
+				md5s[entryCount * 2 + 1] = low;
+				offsets[entryCount] = durationCount;
+				entryCount++;
+
+				for (String value : line.substring(index + 1).trim().split(" +")) {
+					if (durationCount == durations.length) {
+						durations = Arrays.copyOf(durations, durationCount * 2);
+					}
+					durations[durationCount++] = parseDuration(value);
+				}
+			}
+		}
+
+		// Sort the entries by their MD5 digest.
+		Integer[] order = new Integer[entryCount];
+		for (int i = 0; i < entryCount; i++) {
+			order[i] = Integer.valueOf(i);
+		}
+		final long[] sortMD5s = md5s;
+		Arrays.sort(order, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				int i1 = o1.intValue() * 2;
+				int i2 = o2.intValue() * 2;
+				int result = Long.compareUnsigned(sortMD5s[i1], sortMD5s[i2]);
+				if (result == 0) {
+					result = Long.compareUnsigned(sortMD5s[i1 + 1], sortMD5s[i2 + 1]);
+				}
+				return result;
+			}
+		});
+
+		ByteBuffer result = createIndex(entryCount, durationCount);
+		int offset = HEADER_SIZE;
+		for (int i = 0; i < entryCount; i++) {
+			int entry = order[i].intValue();
+			int nextOffset = entry + 1 < entryCount ? offsets[entry + 1] : durationCount;
+			result.putLong(offset, md5s[entry * 2]);
+			result.putLong(offset + 8, md5s[entry * 2 + 1]);
+			result.putInt(offset + MD5_LENGTH, offsets[entry]);
+			result.putInt(offset + MD5_LENGTH + 4, nextOffset - offsets[entry]);
+			offset += ENTRY_SIZE;
+		}
+		for (int i = 0; i < durationCount; i++) {
+			result.putShort(offset, (short) durations[i]);
+			offset += DURATION_SIZE;
+		}
+		return result;
+	}
+
+	private static ByteBuffer createIndex(int entryCount, int durationCount) {
+		ByteBuffer result = ByteBuffer
+				.allocate(HEADER_SIZE + entryCount * ENTRY_SIZE + durationCount * DURATION_SIZE);
+		result.putInt(0, MAGIC);
+		result.putInt(4, FORMAT_VERSION);
+		result.putInt(8, entryCount);
+		result.putInt(12, durationCount);
+		return result;
+	}
+
+	/**
+	 * Parses a duration in the format "m:ss", optionally followed by fractions
+	 * of a second or an attribute like "(G)".
+	 * 
+	 * @param value The value, not <code>null</code>.
+	 * @return The duration in seconds or 0 if the value cannot be parsed.
+	 */
+	private static int parseDuration(String value) {
+		int index = value.indexOf(':');
+		if (index < 1) {
+			return 0;
+		}
+		int end = index + 1;
+		while (end < value.length() && Character.isDigit(value.charAt(end))) {
+			end++;
+		}
+		if (end == index + 1) {
+			return 0;
+		}
+		try {
+			int result = Integer.parseInt(value.substring(0, index)) * 60
+					+ Integer.parseInt(value.substring(index + 1, end));
+			return Math.min(result, MAX_DURATION);
+		} catch (NumberFormatException ex) {
+			return 0;
+		}
+	}
+}